@@ -0,0 +1,153 @@
+package uk.ac.imperial.pipe.trace.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSink;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+
+/**
+ * Emits each traced model operation as a Java Flight Recorder event, with a distinct event type for
+ * each operation under the PIPE category. Events carry the JFR start time, duration and thread, and
+ * the name and size of the Petri net.
+ * <p>
+ * Only built with the {@code jfr} Maven profile as it needs Java 11. When no recording is running,
+ * or the event type is disabled in the recording settings, beginning a span allocates one event and
+ * returns {@link TraceSpan#NONE}.
+ * </p>
+ */
+public final class JfrTraceSink implements TraceSink {
+
+    @Override
+    public TraceSpan begin(Operation operation) {
+        ModelOperationEvent event = create(operation);
+        if (!event.isEnabled()) {
+            return TraceSpan.NONE;
+        }
+        event.begin();
+        return new EventSpan(event);
+    }
+
+    /**
+     * @param operation operation starting
+     * @return new event for the operation
+     */
+    private static ModelOperationEvent create(Operation operation) {
+        switch (operation) {
+            case FIRE_TRANSITION:
+                return new FireTransitionEvent();
+            case ENABLED_TRANSITIONS:
+                return new EnabledTransitionsEvent();
+            case EVALUATE_EXPRESSION:
+                return new EvaluateExpressionEvent();
+            case READ_PNML:
+                return new ReadPnmlEvent();
+            case WRITE_PNML:
+                return new WritePnmlEvent();
+            case UNFOLD:
+                return new UnfoldEvent();
+            case LAYOUT:
+                return new LayoutEvent();
+            case STATE_SPACE:
+                return new StateSpaceEvent();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    /**
+     * Span committing its event when it ends
+     */
+    private static final class EventSpan implements TraceSpan {
+        /**
+         * Event of the span, begun
+         */
+        private final ModelOperationEvent event;
+
+        /**
+         * @param event begun event
+         */
+        private EventSpan(ModelOperationEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public boolean isRecording() {
+            return true;
+        }
+
+        @Override
+        public void end(String net, int places, int transitions, String subject) {
+            event.net = net;
+            event.places = places;
+            event.transitions = transitions;
+            event.subject = subject;
+            event.commit();
+        }
+    }
+
+    /**
+     * Fields common to every model operation
+     */
+    @Category({"PIPE", "Model"})
+    abstract static class ModelOperationEvent extends Event {
+        @Label("Petri Net")
+        @Description("Name of the Petri net operated on")
+        String net;
+
+        @Label("Places")
+        int places;
+
+        @Label("Transitions")
+        int transitions;
+
+        @Label("Subject")
+        @Description("Component id, expression, path or phase the operation was on")
+        String subject;
+    }
+
+    @Name("uk.ac.imperial.pipe.FireTransition")
+    @Label("Fire Transition")
+    static final class FireTransitionEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.EnabledTransitions")
+    @Label("Enabled Transitions")
+    @Description("Evaluation of the enabled transitions of a state that was not cached, the subject is the number enabled")
+    static final class EnabledTransitionsEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.EvaluateExpression")
+    @Label("Evaluate Expression")
+    static final class EvaluateExpressionEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.ReadPnml")
+    @Label("Read PNML")
+    static final class ReadPnmlEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.WritePnml")
+    @Label("Write PNML")
+    static final class WritePnmlEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.Unfold")
+    @Label("Unfold")
+    @Description("Unfolding of a coloured Petri net, the net is the unfolded one and the subject the original")
+    static final class UnfoldEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.Layout")
+    @Label("Layout")
+    static final class LayoutEvent extends ModelOperationEvent {
+    }
+
+    @Name("uk.ac.imperial.pipe.StateSpace")
+    @Label("State Space Phase")
+    static final class StateSpaceEvent extends ModelOperationEvent {
+    }
+}
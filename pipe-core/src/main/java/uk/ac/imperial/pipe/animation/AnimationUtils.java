@@ -6,6 +6,8 @@ import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.state.HashedStateBuilder;
 import uk.ac.imperial.state.State;
 
+import java.util.Collection;
+
 /**
  * Utility class for useful static methods for animation
  */
@@ -22,9 +24,11 @@ public final class AnimationUtils {
      */
     public static State getState(PetriNet petriNet) {
         HashedStateBuilder builder = new HashedStateBuilder();
+        Collection<Token> tokens = petriNet.getTokens();
         for (Place place : petriNet.getPlaces()) {
-            for (Token token : petriNet.getTokens()) {
-                builder.placeWithToken(place.getId(), token.getId(), place.getTokenCount(token.getId()));
+            String placeId = place.getId();
+            for (Token token : tokens) {
+                builder.placeWithToken(placeId, token.getId(), place.getTokenCount(token.getId()));
             }
         }
         return builder.build();
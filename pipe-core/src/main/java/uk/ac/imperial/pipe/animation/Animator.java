@@ -1,6 +1,7 @@
 package uk.ac.imperial.pipe.animation;
 
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
 
 import java.util.Set;
 
@@ -62,4 +63,23 @@ public interface Animator {
     // TODO: NOT SURE IF BETTER TO JUST HAVE UNDO/REDO IN ANIMATION HISTORY? HAVE TO STORE ENTIRE PETRI
     //       NET STATES SO MAYBE NOT?
     void fireTransitionBackwards(Transition transition);
+
+    /**
+     *
+     * @return the current marking of the Petri net
+     */
+    State getCurrentState();
+
+    /**
+     * Sets the token counts of every place to those in the state, moving the animation
+     * exactly to a previously recorded marking
+     *
+     * @param state marking to apply to the Petri net
+     */
+    void setCurrentState(State state);
+
+    /**
+     * Stops listening to the Petri net and its places, the animator must not be used afterwards
+     */
+    void dispose();
 }
@@ -0,0 +1,196 @@
+package uk.ac.imperial.pipe.animation;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fires randomly chosen enabled transitions against a private marking, without touching the places
+ * of the Petri net, so that a long random animation can run on a background thread.
+ * <p>
+ * The latest marking and the number of firings so far can be read from any thread while the run is
+ * going, which lets a user interface show progress at its own frame rate. The whole trajectory is
+ * kept as a {@link MarkingHistory} to be appended to the animation history in one go at the end.
+ * The Petri net must not be edited while the run is going.
+ * </p>
+ */
+public final class FastForward implements Runnable {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(FastForward.class.getName());
+
+    /**
+     * Number of firings after which cached enabled transitions are dropped, since a long random run
+     * rarely revisits a marking and the cache would otherwise grow with every step
+     */
+    private static final int CACHE_CLEAR_INTERVAL = 4096;
+
+    /**
+     * Logic used to fire transitions, private to this run so that its cache can be cleared
+     */
+    private final AnimationLogic animationLogic;
+
+    /**
+     * Number of firings to perform
+     */
+    private final int firings;
+
+    /**
+     * Source of the random choices
+     */
+    private final Random random;
+
+    /**
+     * Trajectory of the run
+     */
+    private final MarkingHistory history;
+
+    /**
+     * Latest marking of the run
+     */
+    private volatile State state;
+
+    /**
+     * Number of firings performed so far
+     */
+    private volatile int fired;
+
+    /**
+     * Set to stop the run early
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * True if the run stopped because no transition was enabled
+     */
+    private volatile boolean deadlocked;
+
+    /**
+     * Time the run started at, in nanoseconds
+     */
+    private volatile long startTime;
+
+    /**
+     * @param petriNet Petri net to fire the transitions of
+     * @param initial  marking to start from
+     * @param firings  number of firings to perform
+     */
+    public FastForward(PetriNet petriNet, State initial, int firings) {
+        this(petriNet, initial, firings, new Random());
+    }
+
+    /**
+     * @param petriNet Petri net to fire the transitions of
+     * @param initial  marking to start from
+     * @param firings  number of firings to perform
+     * @param random   source of the random choices
+     */
+    public FastForward(PetriNet petriNet, State initial, int firings, Random random) {
+        this.animationLogic = new PetriNetAnimationLogic(petriNet);
+        this.firings = firings;
+        this.random = random;
+        this.state = initial;
+        history = new MarkingHistory(new MarkingLayout(petriNet), initial);
+    }
+
+    /**
+     * Fires transitions until the requested number have fired, the run is cancelled or
+     * no transition is enabled
+     */
+    @Override
+    public void run() {
+        startTime = System.nanoTime();
+        State current = state;
+        for (int i = 0; i < firings && !cancelled; i++) {
+            Set<Transition> enabled = animationLogic.getEnabledTransitions(current);
+            if (enabled.isEmpty()) {
+                deadlocked = true;
+                break;
+            }
+            Transition transition = choose(enabled);
+            current = animationLogic.getFiredState(current, transition);
+            history.record(transition, current);
+            state = current;
+            fired = i + 1;
+            if (fired % CACHE_CLEAR_INTERVAL == 0) {
+                animationLogic.clear();
+            }
+        }
+        animationLogic.clear();
+        LOGGER.log(Level.INFO, "Fast forwarded {0} firings at {1} firings per second",
+                new Object[]{fired, (long) getFiringsPerSecond()});
+    }
+
+    /**
+     * @param enabled enabled transitions
+     * @return one of them chosen uniformly at random
+     */
+    private Transition choose(Set<Transition> enabled) {
+        int index = random.nextInt(enabled.size());
+        for (Transition transition : enabled) {
+            if (index-- == 0) {
+                return transition;
+            }
+        }
+        throw new IllegalStateException("Enabled transitions changed whilst choosing");
+    }
+
+    /**
+     * Stops the run after the firing in progress
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return latest marking of the run, safe to call from any thread
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * @return number of firings performed so far, safe to call from any thread
+     */
+    public int getFired() {
+        return fired;
+    }
+
+    /**
+     * @return number of firings requested
+     */
+    public int getFirings() {
+        return firings;
+    }
+
+    /**
+     * @return average number of firings per second since the run started
+     */
+    public double getFiringsPerSecond() {
+        long elapsed = System.nanoTime() - startTime;
+        return startTime == 0 || elapsed <= 0 ? 0 : fired * 1e9 / elapsed;
+    }
+
+    /**
+     * @return true if the run stopped because no transition was enabled
+     */
+    public boolean isDeadlocked() {
+        return deadlocked;
+    }
+
+    /**
+     * Must only be read once the run has finished
+     * @return firings performed and the marking after each of them
+     */
+    public MarkingHistory getHistory() {
+        return history;
+    }
+}
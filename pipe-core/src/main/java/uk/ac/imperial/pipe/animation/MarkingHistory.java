@@ -0,0 +1,270 @@
+package uk.ac.imperial.pipe.animation;
+
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sequence of transition firings together with the marking reached by each of them, so that an
+ * animation can be moved to any step exactly without firing transitions backwards.
+ * <p>
+ * Step zero is the initial marking and step i the marking after the i-th firing. Each step stores
+ * only the token counts that changed, as (position, difference) pairs in flat primitive arrays, and
+ * every checkpoint interval steps the whole marking is stored as well. The marking at any step is
+ * rebuilt from the checkpoint at or before it plus fewer than checkpoint interval differences, so the
+ * cost of a jump does not depend on how long the history is or how far the jump goes.
+ * </p>
+ */
+public final class MarkingHistory {
+
+    /**
+     * Default number of steps between stored full markings
+     */
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 64;
+
+    /**
+     * Encoding of the markings
+     */
+    private final MarkingLayout layout;
+
+    /**
+     * Number of steps between stored full markings
+     */
+    private final int checkpointInterval;
+
+    /**
+     * Transition fired to reach each step, index i holds the firing leading to step i + 1
+     */
+    private Transition[] transitions = new Transition[16];
+
+    /**
+     * Start of each steps differences in the positions and differences arrays, index i holds the start
+     * of the differences leading to step i + 1 and there is one more entry than there are firings
+     */
+    private int[] offsets = new int[17];
+
+    /**
+     * Marking position of each difference
+     */
+    private int[] positions = new int[64];
+
+    /**
+     * Change of the token count at the position of each difference
+     */
+    private int[] differences = new int[64];
+
+    /**
+     * Full markings of steps 0, interval, 2 interval, ... one after another
+     */
+    private int[] checkpoints;
+
+    /**
+     * Number of firings recorded
+     */
+    private int size;
+
+    /**
+     * Step the animation is currently at
+     */
+    private int currentStep;
+
+    /**
+     * Marking of the last recorded step
+     */
+    private int[] last;
+
+    /**
+     * Keeps a full marking every {@link #DEFAULT_CHECKPOINT_INTERVAL} steps
+     * @param layout  encoding of the markings
+     * @param initial marking before any firing
+     */
+    public MarkingHistory(MarkingLayout layout, State initial) {
+        this(layout, initial, DEFAULT_CHECKPOINT_INTERVAL);
+    }
+
+    /**
+     * @param layout             encoding of the markings
+     * @param initial            marking before any firing
+     * @param checkpointInterval number of steps between stored full markings
+     */
+    public MarkingHistory(MarkingLayout layout, State initial, int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive, was " + checkpointInterval);
+        }
+        this.layout = layout;
+        this.checkpointInterval = checkpointInterval;
+        last = layout.encode(initial);
+        checkpoints = Arrays.copyOf(last, Math.max(layout.getWidth() * 4, 1));
+    }
+
+    /**
+     * Records a firing from the current step, discarding any steps after it
+     * @param transition transition that was fired
+     * @param state      marking after the firing
+     */
+    public void record(Transition transition, State state) {
+        truncate(currentStep);
+        record(transition, layout.encode(state));
+    }
+
+    /**
+     * Records every firing of another history from the current step, discarding any steps after it,
+     * and moves to the last of them. The other history must start from the marking at the current step
+     * and use the same layout.
+     * @param firings firings to append
+     */
+    public void recordAll(MarkingHistory firings) {
+        truncate(currentStep);
+        int[] marking = firings.getMarking(0);
+        for (int step = 0; step < firings.size; step++) {
+            for (int i = firings.offsets[step]; i < firings.offsets[step + 1]; i++) {
+                marking[firings.positions[i]] += firings.differences[i];
+            }
+            record(firings.transitions[step], Arrays.copyOf(marking, marking.length));
+        }
+    }
+
+    /**
+     * Appends a firing after the last step and moves to it
+     * @param transition transition that was fired
+     * @param marking    encoded marking after the firing, kept by the history
+     */
+    private void record(Transition transition, int[] marking) {
+        int start = offsets[size];
+        int end = start;
+        for (int position = 0; position < marking.length; position++) {
+            int difference = marking[position] - last[position];
+            if (difference != 0) {
+                if (end == positions.length) {
+                    positions = Arrays.copyOf(positions, end * 2);
+                    differences = Arrays.copyOf(differences, end * 2);
+                }
+                positions[end] = position;
+                differences[end++] = difference;
+            }
+        }
+        if (size == transitions.length) {
+            transitions = Arrays.copyOf(transitions, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        transitions[size++] = transition;
+        offsets[size] = end;
+        last = marking;
+        if (size % checkpointInterval == 0) {
+            int checkpoint = size / checkpointInterval * marking.length;
+            if (checkpoint + marking.length > checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, Math.max(checkpoints.length * 2, checkpoint + marking.length));
+            }
+            System.arraycopy(marking, 0, checkpoints, checkpoint, marking.length);
+        }
+        currentStep = size;
+    }
+
+    /**
+     * Discards every step after the given one, the current step is moved back to it if it was later
+     * @param step last step to keep
+     */
+    public void truncate(int step) {
+        checkStep(step);
+        if (step == size) {
+            return;
+        }
+        last = getMarking(step);
+        Arrays.fill(transitions, step, size, null);
+        size = step;
+        currentStep = Math.min(currentStep, step);
+    }
+
+    /**
+     * @param step step to move to
+     * @return marking at the step
+     */
+    public State moveTo(int step) {
+        State state = getState(step);
+        currentStep = step;
+        return state;
+    }
+
+    /**
+     * @param step step number, zero being the initial marking
+     * @return marking at the step
+     */
+    public State getState(int step) {
+        return layout.decode(getMarking(step));
+    }
+
+    /**
+     * Rebuilds the marking from the nearest checkpoint at or before the step
+     * @param step step number, zero being the initial marking
+     * @return encoded marking at the step
+     */
+    public int[] getMarking(int step) {
+        checkStep(step);
+        if (step == size) {
+            return Arrays.copyOf(last, last.length);
+        }
+        int width = last.length;
+        int checkpointStep = step / checkpointInterval * checkpointInterval;
+        int[] marking = new int[width];
+        System.arraycopy(checkpoints, checkpointStep / checkpointInterval * width, marking, 0, width);
+        for (int i = offsets[checkpointStep]; i < offsets[step]; i++) {
+            marking[positions[i]] += differences[i];
+        }
+        return marking;
+    }
+
+    /**
+     * @param index index of the firing, from zero
+     * @return transition fired to go from step index to step index + 1
+     */
+    public Transition getTransition(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No firing " + index + " in a history of " + size);
+        }
+        return transitions[index];
+    }
+
+    /**
+     * @return read only view of the transitions fired, in order
+     */
+    public List<Transition> getTransitions() {
+        return new AbstractList<Transition>() {
+            @Override
+            public Transition get(int index) {
+                return getTransition(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return number of firings recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return step the animation is currently at, zero being the initial marking
+     */
+    public int getCurrentStep() {
+        return currentStep;
+    }
+
+    /**
+     * @param step step number
+     */
+    private void checkStep(int step) {
+        if (step < 0 || step > size) {
+            throw new IndexOutOfBoundsException("No step " + step + " in a history of " + size + " firings");
+        }
+    }
+}
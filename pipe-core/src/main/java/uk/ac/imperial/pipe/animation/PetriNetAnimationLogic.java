@@ -1,12 +1,20 @@
 package uk.ac.imperial.pipe.animation;
 
+import uk.ac.imperial.pipe.metrics.Counter;
+import uk.ac.imperial.pipe.metrics.LatencyHistogram;
+import uk.ac.imperial.pipe.metrics.Metrics;
 import uk.ac.imperial.pipe.models.petrinet.Arc;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
 import uk.ac.imperial.pipe.parsers.FunctionalResults;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
 import uk.ac.imperial.pipe.parsers.PetriNetWeightParser;
 import uk.ac.imperial.pipe.parsers.StateEvalVisitor;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 import uk.ac.imperial.state.HashedStateBuilder;
 import uk.ac.imperial.state.State;
 
@@ -18,6 +26,22 @@ import java.util.concurrent.ConcurrentHashMap;
  * of a Petri net. It does not alter the state of the Petri net.
  */
 public final class PetriNetAnimationLogic implements AnimationLogic {
+    /**
+     * Number of states whose enabled transitions were evaluated rather than found in the cache
+     */
+    private static final Counter EVALUATIONS = Metrics.counter("animation.enabledTransitions.evaluations");
+
+    /**
+     * Number of states whose enabled transitions were found in the cache
+     */
+    private static final Counter CACHE_HITS = Metrics.counter("animation.enabledTransitions.cacheHits");
+
+    /**
+     * Time taken to evaluate the enabled transitions of a state
+     */
+    private static final LatencyHistogram EVALUATION_LATENCY =
+            Metrics.histogram("animation.enabledTransitions.latency");
+
     /**
      * Petri net this class represents the logic for
      */
@@ -44,10 +68,14 @@ public final class PetriNetAnimationLogic implements AnimationLogic {
      */
     @Override
     public Set<Transition> getEnabledTransitions(State state) {
-        if (cachedEnabledTransitions.containsKey(state)) {
-            return cachedEnabledTransitions.get(state);
+        Set<Transition> cached = cachedEnabledTransitions.get(state);
+        if (cached != null) {
+            CACHE_HITS.increment();
+            return cached;
         }
 
+        long start = EVALUATION_LATENCY.start();
+        TraceSpan span = Tracer.begin(Operation.ENABLED_TRANSITIONS);
         Set<Transition> enabledTransitions = findEnabledTransitions(state);
         boolean hasImmediate = areAnyTransitionsImmediate(enabledTransitions);
         int maxPriority = hasImmediate ? getMaxPriority(enabledTransitions) : 0;
@@ -58,6 +86,11 @@ public final class PetriNetAnimationLogic implements AnimationLogic {
 
         removePrioritiesLessThan(maxPriority, enabledTransitions);
         cachedEnabledTransitions.put(state, enabledTransitions);
+        EVALUATIONS.increment();
+        EVALUATION_LATENCY.stop(start);
+        if (span.isRecording()) {
+            Tracer.end(span, petriNet, Integer.toString(enabledTransitions.size()));
+        }
         return enabledTransitions;
     }
 
@@ -147,6 +180,10 @@ public final class PetriNetAnimationLogic implements AnimationLogic {
      */
     @Override
     public double getArcWeight(State state, String weight) {
+        ParsedExpression parsedWeight = GrammarUtils.compile(weight);
+        if (parsedWeight.isConstant()) {
+            return parsedWeight.getConstant();
+        }
         StateEvalVisitor evalVisitor = new StateEvalVisitor(petriNet, state);
         PetriNetWeightParser parser = new PetriNetWeightParser(evalVisitor, petriNet);
         FunctionalResults<Double> result = parser.evaluateExpression(weight);
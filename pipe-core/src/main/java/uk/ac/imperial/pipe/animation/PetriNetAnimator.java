@@ -1,16 +1,30 @@
 package uk.ac.imperial.pipe.animation;
 
 import uk.ac.imperial.pipe.models.petrinet.Arc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetChange;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
 import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 import uk.ac.imperial.state.State;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.*;
 
 /**
  * Contains methods to help with animating the Petri net and performs
  * in place modifications to the Petri net.
+ * <p>
+ * The current marking is kept as a {@link State} which the animator replaces whenever it applies a
+ * marking it already knows, such as the result of firing a transition, so reading it costs nothing.
+ * Token changes made to the places by anything else, and changes to the places or tokens of the
+ * Petri net, are heard as change events and make the marking be read from the places again the next
+ * time it is needed.
+ * </p>
  */
 public final class PetriNetAnimator implements Animator {
     private static final String ERROR_NO_TRANSITIONS_TO_FIRE = "Error - no transitions to fire!";
@@ -31,6 +45,57 @@ public final class PetriNetAnimator implements Animator {
      */
     private Map<String, Map<String, Integer>> savedStateTokens = new HashMap<>();
 
+    /**
+     * Current marking of the Petri net, null when it must be read from the places again
+     */
+    private State currentState;
+
+    /**
+     * True whilst the animator is applying a marking it already knows to the places
+     */
+    private boolean applying = false;
+
+    /**
+     * Forgets the current marking when a place's tokens or id are changed by anything but this animator
+     */
+    private final PropertyChangeListener placeListener = new PropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            String name = evt.getPropertyName();
+            if (!applying && (Place.TOKEN_CHANGE_MESSAGE.equals(name)
+                    || PetriNetComponent.ID_CHANGE_MESSAGE.equals(name))) {
+                currentState = null;
+            }
+        }
+    };
+
+    /**
+     * Forgets the current marking when the Petri net changes, and listens to any places added to it
+     */
+    private final PropertyChangeListener petriNetListener = new PropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            currentState = null;
+            if (evt.getNewValue() instanceof Place) {
+                ((Place) evt.getNewValue()).addPropertyChangeListener(placeListener);
+            } else if (evt.getOldValue() instanceof Place) {
+                ((Place) evt.getOldValue()).removePropertyChangeListener(placeListener);
+            } else if (evt.getNewValue() instanceof PetriNetChange) {
+                PetriNetChange change = (PetriNetChange) evt.getNewValue();
+                for (PetriNetComponent component : change.getAdded()) {
+                    if (component instanceof Place) {
+                        ((Place) component).addPropertyChangeListener(placeListener);
+                    }
+                }
+                for (PetriNetComponent component : change.getRemoved()) {
+                    if (component instanceof Place) {
+                        ((Place) component).removePropertyChangeListener(placeListener);
+                    }
+                }
+            }
+        }
+    };
+
     /**
      * Constructor
      * @param petriNet petri net to modify the structure for for animaiton
@@ -38,6 +103,10 @@ public final class PetriNetAnimator implements Animator {
     public PetriNetAnimator(PetriNet petriNet) {
         this.petriNet = petriNet;
         animationLogic = new PetriNetAnimationLogic(petriNet);
+        petriNet.addPropertyChangeListener(petriNetListener);
+        for (Place place : petriNet.getPlaces()) {
+            place.addPropertyChangeListener(placeListener);
+        }
         saveState();
     }
 
@@ -84,7 +153,7 @@ public final class PetriNetAnimator implements Animator {
      */
     @Override
     public Set<Transition> getEnabledTransitions() {
-        return animationLogic.getEnabledTransitions(AnimationUtils.getState(petriNet));
+        return animationLogic.getEnabledTransitions(getCurrentState());
     }
 
     /**
@@ -95,12 +164,10 @@ public final class PetriNetAnimator implements Animator {
      */
     @Override
     public void fireTransition(Transition transition) {
-        State newState = animationLogic.getFiredState(AnimationUtils.getState(petriNet), transition);
-
-        //Set all counts
-        for (Place place : petriNet.getPlaces()) {
-            place.setTokenCounts(newState.getTokens(place.getId()));
-        }
+        TraceSpan span = Tracer.begin(Operation.FIRE_TRANSITION);
+        State newState = animationLogic.getFiredState(getCurrentState(), transition);
+        apply(newState);
+        Tracer.end(span, petriNet, transition.getId());
     }
 
     /**
@@ -109,7 +176,7 @@ public final class PetriNetAnimator implements Animator {
      */
     @Override
     public void fireTransitionBackwards(Transition transition) {
-        State state = AnimationUtils.getState(petriNet);
+        State state = getCurrentState();
         //Increment previous places
         for (Arc<Place, Transition> arc : petriNet.inboundArcs(transition)) {
             Place place = arc.getSource();
@@ -135,4 +202,77 @@ public final class PetriNetAnimator implements Animator {
             }
         }
     }
+
+    /**
+     *
+     * @return the Petri nets current underlying state, only read from the places if they were
+     *         changed by something other than this animator since it was last known
+     */
+    @Override
+    public State getCurrentState() {
+        if (currentState == null) {
+            currentState = AnimationUtils.getState(petriNet);
+        }
+        return currentState;
+    }
+
+    /**
+     * Applies the token counts of the state to the places of the Petri net
+     * @param state marking to apply to the Petri net
+     */
+    @Override
+    public void setCurrentState(State state) {
+        if (isFullMarking(state)) {
+            apply(state);
+            return;
+        }
+        for (Place place : petriNet.getPlaces()) {
+            if (state.containsTokens(place.getId())) {
+                place.setTokenCounts(state.getTokens(place.getId()));
+            }
+        }
+    }
+
+    /**
+     * Removes the listeners this animator added to the Petri net and its places, so that a
+     * closed Petri net does not keep the animator reachable or notify it of changes
+     */
+    @Override
+    public void dispose() {
+        petriNet.removePropertyChangeListener(petriNetListener);
+        for (Place place : petriNet.getPlaces()) {
+            place.removePropertyChangeListener(placeListener);
+        }
+    }
+
+    /**
+     * @param state marking to check
+     * @return true if the marking has a count of every token for every place, as read from the places
+     */
+    private boolean isFullMarking(State state) {
+        int tokens = petriNet.getTokens().size();
+        for (Place place : petriNet.getPlaces()) {
+            if (!state.containsTokens(place.getId()) || state.getTokens(place.getId()).size() != tokens) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies a marking of every place to the Petri net and makes it the current state
+     * @param state marking containing the tokens of every place
+     */
+    private void apply(State state) {
+        currentState = null;
+        applying = true;
+        try {
+            for (Place place : petriNet.getPlaces()) {
+                place.setTokenCounts(state.getTokens(place.getId()));
+            }
+            currentState = state;
+        } finally {
+            applying = false;
+        }
+    }
 }
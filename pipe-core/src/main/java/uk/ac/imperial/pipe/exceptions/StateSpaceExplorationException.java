@@ -0,0 +1,24 @@
+package uk.ac.imperial.pipe.exceptions;
+
+/**
+ * This exception represents that the state space of a {@link uk.ac.imperial.pipe.models.petrinet.PetriNet}
+ * could not be fully explored, for instance because it has more states than the exploration allows
+ */
+public class StateSpaceExplorationException extends Exception {
+    /**
+     *
+     * @param message message of the exception
+     */
+    public StateSpaceExplorationException(String message) {
+        super(message);
+    }
+
+    /**
+     *
+     * @param message message of the exception
+     * @param cause   failure that stopped the exploration
+     */
+    public StateSpaceExplorationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
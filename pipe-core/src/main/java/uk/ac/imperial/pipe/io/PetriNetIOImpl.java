@@ -2,10 +2,11 @@ package uk.ac.imperial.pipe.io;
 
 import java.awt.Color;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,12 +18,17 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 
+import com.google.common.io.CountingInputStream;
+
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.ArcAdapter;
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.PlaceAdapter;
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.RateParameterAdapter;
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.TokenAdapter;
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.TokenSetIntegerAdapter;
 import uk.ac.imperial.pipe.io.adapters.modelAdapter.TransitionAdapter;
+import uk.ac.imperial.pipe.metrics.Counter;
+import uk.ac.imperial.pipe.metrics.LatencyHistogram;
+import uk.ac.imperial.pipe.metrics.Metrics;
 import uk.ac.imperial.pipe.models.PetriNetHolder;
 import uk.ac.imperial.pipe.models.petrinet.ColoredToken;
 import uk.ac.imperial.pipe.models.petrinet.FunctionalRateParameter;
@@ -30,12 +36,30 @@ import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.Token;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 
 /**
  * Petri net IO implementation that writes and reads a Petri net using JAXB
  */
 public class PetriNetIOImpl implements PetriNetIO {
 
+    /**
+     * Number of bytes read from Petri net files
+     */
+    private static final Counter BYTES_READ = Metrics.counter("io.bytesRead");
+
+    /**
+     * Number of Petri net files read
+     */
+    private static final Counter FILES_READ = Metrics.counter("io.filesRead");
+
+    /**
+     * Time taken to read a Petri net file
+     */
+    private static final LatencyHistogram READ_LATENCY = Metrics.histogram("io.readLatency");
+
     /**
      * JAXB context initialised in constructor
      */
@@ -114,6 +138,7 @@ public class PetriNetIOImpl implements PetriNetIO {
      */
     @Override
     public void writeTo(Writer stream, PetriNet petriNet) throws JAXBException {
+        TraceSpan span = Tracer.begin(Operation.WRITE_PNML);
         Marshaller m = context.createMarshaller();
         m.setEventHandler(getEventHandler()); 
         m.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
@@ -125,6 +150,8 @@ public class PetriNetIOImpl implements PetriNetIO {
 		} catch (JAXBException e) {
 			getEventHandler().printMessages(); 
 			throw e; 
+		} finally {
+			Tracer.end(span, petriNet, null);
 		}
     }
 
@@ -143,18 +170,26 @@ public class PetriNetIOImpl implements PetriNetIO {
         initialiseUnmarshaller();
         getUnmarshaller().setEventHandler(getEventHandler()); 
         PetriNetHolder holder = null; 
+        long start = READ_LATENCY.start();
+        TraceSpan span = Tracer.begin(Operation.READ_PNML);
+        CountingInputStream stream = new CountingInputStream(new FileInputStream(path));
         try {
-        	holder = (PetriNetHolder) getUnmarshaller().unmarshal(new FileReader(path));
+        	holder = (PetriNetHolder) getUnmarshaller().unmarshal(new InputStreamReader(stream));
         	getEventHandler().printMessages(); 
 		} catch (JAXBException e) {
 			getEventHandler().printMessages(); 
 			throw e;  
-		} 
+		} finally {
+			BYTES_READ.add(stream.getCount());
+		}
+        FILES_READ.increment();
+        READ_LATENCY.stop(start);
         PetriNet petriNet = holder.getNet(0);
         if (petriNet.getTokens().isEmpty()) {
             Token token = createDefaultToken();
             petriNet.addToken(token);
         }
+        Tracer.end(span, petriNet, path);
         return petriNet;
     }
 
@@ -79,8 +79,9 @@ public class ArcAdapter extends XmlAdapter<AdaptedArc, Arc<? extends Connectable
     }
 
     /**
+     * Token names and weights are interned since the same few repeat on every arc of a large net
      *
-     * @param weights as strings 
+     * @param weights as strings
      * @return marshaled arc
      */
     private Map<String, String> stringToWeights(String weights) {
@@ -91,12 +92,12 @@ public class ArcAdapter extends XmlAdapter<AdaptedArc, Arc<? extends Connectable
         String[] commaSeparatedMarkings = weights.split(",");
         if (commaSeparatedMarkings.length == 1) {
             String weight = commaSeparatedMarkings[0];
-            tokenWeights.put("Default", weight);
+            tokenWeights.put("Default", weight.intern());
         } else {
             for (int i = 0; i < commaSeparatedMarkings.length; i += 2) {
                 String weight = commaSeparatedMarkings[i + 1].replace("@", ",");
                 String tokenName = commaSeparatedMarkings[i];
-                tokenWeights.put(tokenName, weight);
+                tokenWeights.put(tokenName.intern(), weight.intern());
             }
         }
         return tokenWeights;
@@ -6,6 +6,9 @@ import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
 import javax.xml.bind.annotation.adapters.XmlAdapter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Marshals a Petri net into the verbose format needed for PNML
@@ -20,12 +23,14 @@ public class PetriNetAdapter extends XmlAdapter<AdaptedPetriNet, PetriNet> {
     @Override
     public PetriNet unmarshal(AdaptedPetriNet v) throws PetriNetComponentException {
         PetriNet petriNet = new PetriNet();
-        addToPetriNet(v.tokens, petriNet);
-        addToPetriNet(v.annotations, petriNet);
-        addToPetriNet(v.places, petriNet);
-        addToPetriNet(v.rateParameters, petriNet);
-        addToPetriNet(v.transitions, petriNet);
-        addToPetriNet(v.arcs, petriNet);
+        List<PetriNetComponent> components = new ArrayList<>();
+        addComponents(v.tokens, components);
+        addComponents(v.annotations, components);
+        addComponents(v.places, components);
+        addComponents(v.rateParameters, components);
+        addComponents(v.transitions, components);
+        addComponents(v.arcs, components);
+        petriNet.addAll(components);
         return petriNet;
     }
 
@@ -47,17 +52,14 @@ public class PetriNetAdapter extends XmlAdapter<AdaptedPetriNet, PetriNet> {
     }
 
     /**
-     * Adds components to the Petri net
-     * @param components to add 
-     * @param petriNet to build 
-     * @throws PetriNetComponentException if the Petri net structure is not valid
+     * Collects the unmarshalled components so that they can be added to the Petri net in one bulk update
+     * @param components unmarshalled components, may be null if none were present
+     * @param allComponents collection to add them to
      */
-    private void addToPetriNet(Iterable<? extends PetriNetComponent> components, PetriNet petriNet)
-            throws PetriNetComponentException {
+    private void addComponents(Collection<? extends PetriNetComponent> components,
+                               Collection<PetriNetComponent> allComponents) {
         if (components != null) {
-            for (PetriNetComponent component : components) {
-                petriNet.add(component);
-            }
+            allComponents.addAll(components);
         }
     }
 }
@@ -6,6 +6,9 @@ import com.mxgraph.model.mxCell;
 import com.mxgraph.model.mxGeometry;
 import com.mxgraph.view.mxGraph;
 import uk.ac.imperial.pipe.models.petrinet.*;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 
 import java.awt.Point;
 import java.util.HashMap;
@@ -30,6 +33,7 @@ public class Layout {
      */
     public static void layoutHierarchical(PetriNet petriNet, int interRankCell, int interHierarchy, int parallelEdge,
                                           int intraCell, int orientation) {
+        TraceSpan span = Tracer.begin(Operation.LAYOUT);
         mxGraph graph = initialiseGraph(petriNet);
         mxHierarchicalLayout layout = new mxHierarchicalLayout(graph, orientation);
         layout.setInterRankCellSpacing(interRankCell);
@@ -38,6 +42,7 @@ public class Layout {
         layout.setIntraCellSpacing(intraCell);
         layout.execute(graph.getDefaultParent());
         layoutPetriNet(graph, petriNet);
+        Tracer.end(span, petriNet, "hierarchical");
     }
 
     /**
@@ -120,11 +125,13 @@ public class Layout {
      * @param minDistanceLimit minimum distance limit. A good default is 20.
      */
     public static void layoutOrganic(PetriNet petriNet, int forceConstant, int minDistanceLimit) {
+        TraceSpan span = Tracer.begin(Operation.LAYOUT);
         mxGraph graph = initialiseGraph(petriNet);
         mxFastOrganicLayout layout = new mxFastOrganicLayout(graph);
         layout.setForceConstant(forceConstant);
         layout.setMinDistanceLimit(minDistanceLimit);
         layout.execute(graph.getDefaultParent());
         layoutPetriNet(graph, petriNet);
+        Tracer.end(span, petriNet, "organic");
     }
 }
@@ -0,0 +1,112 @@
+package uk.ac.imperial.pipe.markov;
+
+import java.util.Arrays;
+
+/**
+ * Poisson probabilities truncated to the range of counts holding all but a given error of the
+ * probability mass, computed in the manner of Fox and Glynn so that they neither underflow nor
+ * overflow for large rates.
+ * <p>
+ * Weights are computed relative to the mode of the distribution, which is given weight one, working
+ * outwards with the ratio between successive Poisson probabilities. On each side the remaining terms
+ * decrease faster than a geometric series, so each side is truncated once that series bounds its tail
+ * below half the allowed error. The weights are then normalised by their sum.
+ * </p>
+ */
+public final class FoxGlynn {
+
+    /**
+     * Smallest count with a weight
+     */
+    private final int left;
+
+    /**
+     * Normalised weights of the counts from left onwards
+     */
+    private final double[] weights;
+
+    private FoxGlynn(int left, double[] weights) {
+        this.left = left;
+        this.weights = weights;
+    }
+
+    /**
+     * @param lambda  Poisson rate, the uniformization rate times the time
+     * @param epsilon largest total probability of the counts that are left out
+     * @return truncated Poisson weights
+     */
+    public static FoxGlynn compute(double lambda, double epsilon) {
+        if (lambda < 0 || Double.isNaN(lambda) || Double.isInfinite(lambda)) {
+            throw new IllegalArgumentException("Poisson rate must be finite and non negative, was " + lambda);
+        }
+        if (lambda == 0) {
+            return new FoxGlynn(0, new double[]{1});
+        }
+        int mode = (int) Math.floor(lambda);
+        double[] leftWeights = new double[16];
+        double[] rightWeights = new double[16];
+        leftWeights[0] = 1;
+        double total = 1;
+        int leftCount = 1;
+        double weight = 1;
+        for (int k = mode; k > 0; k--) {
+            weight *= k / lambda;
+            if (leftCount == leftWeights.length) {
+                leftWeights = Arrays.copyOf(leftWeights, leftCount * 2);
+            }
+            leftWeights[leftCount++] = weight;
+            total += weight;
+            double ratio = (k - 1) / lambda;
+            if (weight * ratio / (1 - ratio) <= epsilon / 2 * total) {
+                break;
+            }
+        }
+        int rightCount = 0;
+        weight = 1;
+        for (int k = mode; ; k++) {
+            weight *= lambda / (k + 1);
+            if (rightCount == rightWeights.length) {
+                rightWeights = Arrays.copyOf(rightWeights, rightCount * 2);
+            }
+            rightWeights[rightCount++] = weight;
+            total += weight;
+            double ratio = lambda / (k + 2);
+            if (weight * ratio / (1 - ratio) <= epsilon / 2 * total) {
+                break;
+            }
+        }
+        double[] weights = new double[leftCount + rightCount];
+        for (int i = 0; i < leftCount; i++) {
+            weights[leftCount - 1 - i] = leftWeights[i] / total;
+        }
+        for (int i = 0; i < rightCount; i++) {
+            weights[leftCount + i] = rightWeights[i] / total;
+        }
+        return new FoxGlynn(mode - leftCount + 1, weights);
+    }
+
+    /**
+     * @return smallest count with a non zero weight
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * @return largest count with a non zero weight
+     */
+    public int getRight() {
+        return left + weights.length - 1;
+    }
+
+    /**
+     * @param count number of Poisson events
+     * @return normalised probability of the count, zero outside the truncation points
+     */
+    public double getWeight(int count) {
+        if (count < left || count > getRight()) {
+            return 0;
+        }
+        return weights[count - left];
+    }
+}
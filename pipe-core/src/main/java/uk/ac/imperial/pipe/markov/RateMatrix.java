@@ -0,0 +1,247 @@
+package uk.ac.imperial.pipe.markov;
+
+import uk.ac.imperial.state.ClassifiedState;
+import uk.ac.imperial.state.Record;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Transition rates between the tangible states of a continuous time Markov chain, with states
+ * identified by ids from 0 up to the number of states.
+ * <p>
+ * Rates are held in compressed sparse column form so that the distribution after a step can be
+ * computed one state at a time from the states leading into it: the rates into state s are the
+ * indexes from offsets[s] up to offsets[s + 1] into the source and rate arrays.
+ * </p>
+ */
+public final class RateMatrix {
+
+    /**
+     * Start of each states incoming rates, has one more entry than there are states
+     */
+    private final int[] offsets;
+
+    /**
+     * Source state of each rate
+     */
+    private final int[] sources;
+
+    /**
+     * Value of each rate
+     */
+    private final double[] rates;
+
+    /**
+     * Total rate out of each state
+     */
+    private final double[] exitRates;
+
+    private RateMatrix(int[] offsets, int[] sources, double[] rates, double[] exitRates) {
+        this.offsets = offsets;
+        this.sources = sources;
+        this.rates = rates;
+        this.exitRates = exitRates;
+    }
+
+    /**
+     * @param successors rates to each successor of every state, keyed by state id
+     * @param states     number of states, every id must be less than this
+     * @return matrix of the rates
+     */
+    public static RateMatrix fromSuccessors(Map<Integer, Map<Integer, Double>> successors, int states) {
+        Builder builder = new Builder(states);
+        for (Map.Entry<Integer, Map<Integer, Double>> entry : successors.entrySet()) {
+            for (Map.Entry<Integer, Double> rate : entry.getValue().entrySet()) {
+                builder.add(entry.getKey(), rate.getKey(), rate.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Builds the matrix of an explored state space, as loaded for the steady state solvers
+     * @param records       rates to the successors of each state
+     * @param stateMappings state of each id, ids run from 0 up to the number of states
+     * @return matrix of the rates
+     */
+    public static RateMatrix fromRecords(Collection<Record> records, Map<Integer, ClassifiedState> stateMappings) {
+        Builder builder = new Builder(stateMappings.size());
+        for (Record record : records) {
+            for (Map.Entry<Integer, Double> rate : record.successors.entrySet()) {
+                builder.add(record.state, rate.getKey(), rate.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Making the target states absorbing turns the probability of being in one of them at time t
+     * into the probability of having reached one of them by time t
+     * @param absorbing states to remove the outgoing rates of
+     * @return copy of this matrix in which the given states have no outgoing rates
+     */
+    public RateMatrix withAbsorbing(Collection<Integer> absorbing) {
+        boolean[] removed = new boolean[getStateCount()];
+        for (int state : absorbing) {
+            removed[state] = true;
+        }
+        Builder builder = new Builder(getStateCount());
+        for (int target = 0; target < getStateCount(); target++) {
+            for (int i = offsets[target]; i < offsets[target + 1]; i++) {
+                if (!removed[sources[i]]) {
+                    builder.add(sources[i], target, rates[i]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of states
+     */
+    public int getStateCount() {
+        return exitRates.length;
+    }
+
+    /**
+     * @return number of non zero rates between different states
+     */
+    public int getRateCount() {
+        return sources.length;
+    }
+
+    /**
+     * @param state state id
+     * @return total rate out of the state
+     */
+    public double getExitRate(int state) {
+        return exitRates[state];
+    }
+
+    /**
+     * @return largest total rate out of any state
+     */
+    public double getMaxExitRate() {
+        double max = 0;
+        for (double rate : exitRates) {
+            max = Math.max(max, rate);
+        }
+        return max;
+    }
+
+    /**
+     * @param state state id
+     * @return index of the first rate into the state
+     */
+    int getOffset(int state) {
+        return offsets[state];
+    }
+
+    /**
+     * @param index index of a rate
+     * @return source state of the rate
+     */
+    int getSource(int index) {
+        return sources[index];
+    }
+
+    /**
+     * @param index index of a rate
+     * @return value of the rate
+     */
+    double getRate(int index) {
+        return rates[index];
+    }
+
+    /**
+     * Builds a rate matrix from rates added in any order
+     */
+    public static final class Builder {
+        /**
+         * Source state of each rate added
+         */
+        private int[] sources = new int[16];
+
+        /**
+         * Target state of each rate added
+         */
+        private int[] targets = new int[16];
+
+        /**
+         * Value of each rate added
+         */
+        private double[] rates = new double[16];
+
+        /**
+         * Number of rates added
+         */
+        private int size;
+
+        /**
+         * Number of states
+         */
+        private final int states;
+
+        /**
+         * @param states number of states
+         */
+        public Builder(int states) {
+            this.states = states;
+        }
+
+        /**
+         * Adds a rate, rates of self loops and zero rates are ignored since they do not change the chain
+         * @param source source state id
+         * @param target target state id
+         * @param rate   rate from source to target, added to any rate already between them
+         * @return this builder
+         */
+        public Builder add(int source, int target, double rate) {
+            if (source < 0 || source >= states || target < 0 || target >= states) {
+                throw new IllegalArgumentException("State ids must be between 0 and " + (states - 1));
+            }
+            if (rate < 0) {
+                throw new IllegalArgumentException("Rate from " + source + " to " + target + " is negative");
+            }
+            if (source == target || rate == 0) {
+                return this;
+            }
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+                rates = Arrays.copyOf(rates, size * 2);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            rates[size] = rate;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the built matrix
+         */
+        public RateMatrix build() {
+            int[] offsets = new int[states + 1];
+            double[] exitRates = new double[states];
+            for (int i = 0; i < size; i++) {
+                offsets[targets[i] + 1]++;
+                exitRates[sources[i]] += rates[i];
+            }
+            for (int state = 0; state < states; state++) {
+                offsets[state + 1] += offsets[state];
+            }
+            int[] next = Arrays.copyOf(offsets, states);
+            int[] sortedSources = new int[size];
+            double[] sortedRates = new double[size];
+            for (int i = 0; i < size; i++) {
+                int index = next[targets[i]]++;
+                sortedSources[index] = sources[i];
+                sortedRates[index] = rates[i];
+            }
+            return new RateMatrix(offsets, sortedSources, sortedRates, exitRates);
+        }
+    }
+}
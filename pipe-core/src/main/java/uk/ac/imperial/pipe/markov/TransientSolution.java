@@ -0,0 +1,184 @@
+package uk.ac.imperial.pipe.markov;
+
+import uk.ac.imperial.pipe.animation.AnimationLogic;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.ClassifiedState;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Probability distributions over the states of a Markov chain at several points in time, computed
+ * by a {@link TransientSolver}
+ */
+public final class TransientSolution {
+
+    /**
+     * Times the distributions are for, in ascending order
+     */
+    private final double[] times;
+
+    /**
+     * Distribution at each time, indexed by state id
+     */
+    private final double[][] distributions;
+
+    /**
+     * Number of steps of the uniformized chain that were computed
+     */
+    private final int iterations;
+
+    /**
+     * Uniformization rate used
+     */
+    private final double uniformizationRate;
+
+    /**
+     * Constructor
+     * @param times              times the distributions are for
+     * @param distributions      distribution at each time
+     * @param iterations         number of steps of the uniformized chain that were computed
+     * @param uniformizationRate uniformization rate used
+     */
+    TransientSolution(double[] times, double[][] distributions, int iterations, double uniformizationRate) {
+        this.times = times;
+        this.distributions = distributions;
+        this.iterations = iterations;
+        this.uniformizationRate = uniformizationRate;
+    }
+
+    /**
+     * @return number of time points solved for
+     */
+    public int getTimeCount() {
+        return times.length;
+    }
+
+    /**
+     * @param index index of the time point
+     * @return the time
+     */
+    public double getTime(int index) {
+        return times[index];
+    }
+
+    /**
+     * Returns the distribution in the same form as steady state solvers so that the same token and
+     * transition metrics can be computed from it
+     * @param index index of the time point
+     * @return probability of being in each state at the time, keyed by state id
+     */
+    public Map<Integer, Double> getDistribution(int index) {
+        double[] distribution = distributions[index];
+        Map<Integer, Double> result = new HashMap<>(distribution.length * 2);
+        for (int state = 0; state < distribution.length; state++) {
+            result.put(state, distribution[state]);
+        }
+        return result;
+    }
+
+    /**
+     * @param index index of the time point
+     * @return probability of being in each state at the time, indexed by state id
+     */
+    public double[] getProbabilities(int index) {
+        return Arrays.copyOf(distributions[index], distributions[index].length);
+    }
+
+    /**
+     * @param index  index of the time point
+     * @param states state ids
+     * @return probability of being in any of the states at the time
+     */
+    public double getProbability(int index, Collection<Integer> states) {
+        double probability = 0;
+        for (int state : states) {
+            probability += distributions[index][state];
+        }
+        return probability;
+    }
+
+    /**
+     * Average token counts at the time, the transient counterpart of the steady state token metrics
+     * @param index         index of the time point
+     * @param stateMappings state of each id
+     * @return expected number of each token on each place at the time, keyed by place id then token id
+     */
+    public Map<String, Map<String, Double>> getAverageTokens(int index, Map<Integer, ClassifiedState> stateMappings) {
+        Map<String, Map<String, Double>> averages = new HashMap<>();
+        for (Map.Entry<Integer, ClassifiedState> entry : stateMappings.entrySet()) {
+            double probability = distributions[index][entry.getKey()];
+            ClassifiedState state = entry.getValue();
+            for (String place : state.getPlaces()) {
+                Map<String, Double> tokens = averages.get(place);
+                if (tokens == null) {
+                    tokens = new HashMap<>();
+                    averages.put(place, tokens);
+                }
+                for (Map.Entry<String, Integer> count : state.getTokens(place).entrySet()) {
+                    add(tokens, count.getKey(), probability * count.getValue());
+                }
+            }
+        }
+        return averages;
+    }
+
+    /**
+     * Throughputs at the time, the transient counterpart of the steady state transition metrics
+     * @param index         index of the time point
+     * @param stateMappings state of each id
+     * @param petriNet      Petri net the states were explored from
+     * @return rate at which each timed transition fires at the time, keyed by transition id
+     */
+    public Map<String, Double> getThroughputs(int index, Map<Integer, ClassifiedState> stateMappings,
+                                              PetriNet petriNet) {
+        Map<String, Double> throughputs = new HashMap<>();
+        for (Transition transition : petriNet.getTransitions()) {
+            if (transition.isTimed()) {
+                throughputs.put(transition.getId(), 0.0);
+            }
+        }
+        AnimationLogic animationLogic = new PetriNetAnimationLogic(petriNet);
+        for (Map.Entry<Integer, ClassifiedState> entry : stateMappings.entrySet()) {
+            double probability = distributions[index][entry.getKey()];
+            if (probability == 0) {
+                continue;
+            }
+            ClassifiedState state = entry.getValue();
+            for (Transition transition : animationLogic.getEnabledTransitions(state)) {
+                if (transition.isTimed()) {
+                    add(throughputs, transition.getId(), probability * transition.getActualRate(petriNet, state));
+                }
+            }
+        }
+        return throughputs;
+    }
+
+    /**
+     * @return number of steps of the uniformized chain that were computed
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return uniformization rate used
+     */
+    public double getUniformizationRate() {
+        return uniformizationRate;
+    }
+
+    /**
+     * @param values map to add to
+     * @param key    key to add the value to
+     * @param value  value to add
+     */
+    private static void add(Map<String, Double> values, String key, double value) {
+        Double current = values.get(key);
+        values.put(key, current == null ? value : current + value);
+    }
+}
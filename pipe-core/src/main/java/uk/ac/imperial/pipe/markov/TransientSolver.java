@@ -0,0 +1,302 @@
+package uk.ac.imperial.pipe.markov;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Computes the probability distribution of a continuous time Markov chain at given times by
+ * uniformization.
+ * <p>
+ * The chain is turned into a discrete time chain P = I + Q / q, where q is slightly larger than the
+ * largest exit rate, and the distribution at time t is the sum over k of the Poisson(q t) probability
+ * of k times the distribution after k steps of P. Poisson probabilities are truncated with
+ * {@link FoxGlynn} so the result is within epsilon of the exact distribution. Every time point is
+ * solved in the same pass over the steps, each one adding its weighted share of the step it has
+ * reached, and each step is a sparse matrix vector product split across a fork join pool.
+ * </p>
+ * <p>
+ * Optionally, if no probability changes by more than a tolerance in a step the chain is taken to have
+ * reached its steady state and the remaining weight of every time point is given to it. This saves
+ * most of the steps for times long after the chain has settled, but a state that is left very slowly
+ * can be mistaken for a steady state so it is off unless a tolerance is given.
+ * </p>
+ */
+public final class TransientSolver {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(TransientSolver.class.getName());
+
+    /**
+     * Factor the largest exit rate is multiplied by to get the uniformization rate, keeping the
+     * uniformized chain aperiodic so that steady state can be detected
+     */
+    private static final double UNIFORMIZATION_FACTOR = 1.02;
+
+    /**
+     * Number of states below which a step is not split further
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    /**
+     * Number of threads to compute with
+     */
+    private final int parallelism;
+
+    /**
+     * Largest error of the probabilities
+     */
+    private final double epsilon;
+
+    /**
+     * Largest change of any probability in a step for the chain to be taken to be in steady state,
+     * zero to compute every step
+     */
+    private final double steadyStateTolerance;
+
+    /**
+     * Computes with one thread per available processor
+     * @param epsilon largest error of the probabilities
+     */
+    public TransientSolver(double epsilon) {
+        this(Runtime.getRuntime().availableProcessors(), epsilon);
+    }
+
+    /**
+     * @param parallelism number of threads to compute with
+     * @param epsilon     largest error of the probabilities
+     */
+    public TransientSolver(int parallelism, double epsilon) {
+        this(parallelism, epsilon, 0);
+    }
+
+    /**
+     * @param parallelism          number of threads to compute with
+     * @param epsilon              largest error of the probabilities
+     * @param steadyStateTolerance largest change of any probability in a step for the chain to be taken
+     *                             to be in steady state, zero to compute every step
+     */
+    public TransientSolver(int parallelism, double epsilon, double steadyStateTolerance) {
+        this.parallelism = parallelism;
+        this.epsilon = epsilon;
+        this.steadyStateTolerance = steadyStateTolerance;
+    }
+
+    /**
+     * @param matrix       rates of the Markov chain
+     * @param initialState state the chain is in at time zero
+     * @param times        times to compute the distribution at
+     * @return distribution at each time, in ascending order of time
+     */
+    public TransientSolution solve(RateMatrix matrix, int initialState, double... times) {
+        double[] initial = new double[matrix.getStateCount()];
+        initial[initialState] = 1;
+        return solve(matrix, initial, times);
+    }
+
+    /**
+     * @param matrix  rates of the Markov chain
+     * @param initial probability of each state at time zero, keyed by state id
+     * @param times   times to compute the distribution at
+     * @return distribution at each time, in ascending order of time
+     */
+    public TransientSolution solve(RateMatrix matrix, Map<Integer, Double> initial, double... times) {
+        double[] distribution = new double[matrix.getStateCount()];
+        for (Map.Entry<Integer, Double> entry : initial.entrySet()) {
+            distribution[entry.getKey()] = entry.getValue();
+        }
+        return solve(matrix, distribution, times);
+    }
+
+    /**
+     * @param matrix  rates of the Markov chain
+     * @param initial probability of each state at time zero, indexed by state id
+     * @param times   times to compute the distribution at
+     * @return distribution at each time, in ascending order of time
+     */
+    private TransientSolution solve(RateMatrix matrix, double[] initial, double[] times) {
+        long start = System.nanoTime();
+        double[] sortedTimes = Arrays.copyOf(times, times.length);
+        Arrays.sort(sortedTimes);
+        int states = matrix.getStateCount();
+        double[][] results = new double[sortedTimes.length][states];
+        double rate = matrix.getMaxExitRate() * UNIFORMIZATION_FACTOR;
+        if (rate == 0) {
+            for (double[] result : results) {
+                System.arraycopy(initial, 0, result, 0, states);
+            }
+            return new TransientSolution(sortedTimes, results, 0, 0);
+        }
+
+        FoxGlynn[] weights = new FoxGlynn[sortedTimes.length];
+        int lastStep = 0;
+        for (int i = 0; i < sortedTimes.length; i++) {
+            if (sortedTimes[i] < 0) {
+                throw new IllegalArgumentException("Times must not be negative, was " + sortedTimes[i]);
+            }
+            weights[i] = FoxGlynn.compute(rate * sortedTimes[i], epsilon);
+            lastStep = Math.max(lastStep, weights[i].getRight());
+        }
+
+        double[] diagonal = new double[states];
+        for (int state = 0; state < states; state++) {
+            diagonal[state] = 1 - matrix.getExitRate(state) / rate;
+        }
+        double[] probabilities = new double[matrix.getRateCount()];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = matrix.getRate(i) / rate;
+        }
+
+        double[] current = Arrays.copyOf(initial, states);
+        double[] next = new double[states];
+        double[] accumulated = new double[sortedTimes.length];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int step = 0;
+        try {
+            for (; ; step++) {
+                int active = 0;
+                double[][] activeResults = new double[sortedTimes.length][];
+                double[] activeWeights = new double[sortedTimes.length];
+                for (int i = 0; i < sortedTimes.length; i++) {
+                    double weight = weights[i].getWeight(step);
+                    if (weight > 0) {
+                        activeResults[active] = results[i];
+                        activeWeights[active++] = weight;
+                        accumulated[i] += weight;
+                    }
+                }
+                Step task = new Step(matrix, diagonal, probabilities, current, next,
+                        Arrays.copyOf(activeResults, active), Arrays.copyOf(activeWeights, active), 0, states);
+                double change = pool.invoke(task);
+                if (step == lastStep) {
+                    break;
+                }
+                if (change < steadyStateTolerance) {
+                    for (int i = 0; i < sortedTimes.length; i++) {
+                        double remaining = 1 - accumulated[i];
+                        if (weights[i].getRight() > step && remaining > 0) {
+                            for (int state = 0; state < states; state++) {
+                                results[i][state] += remaining * next[state];
+                            }
+                        }
+                    }
+                    LOGGER.log(Level.FINE, "Steady state reached after {0} steps", step + 1);
+                    break;
+                }
+                double[] swap = current;
+                current = next;
+                next = swap;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        LOGGER.log(Level.INFO, "Solved {0} time points of {1} states in {2} steps, {3} ms",
+                new Object[]{sortedTimes.length, states, step + 1, (System.nanoTime() - start) / 1000000});
+        return new TransientSolution(sortedTimes, results, step + 1, rate);
+    }
+
+    /**
+     * Computes one step of the uniformized chain for a range of states, adding the weighted
+     * distribution before the step to the results of the time points it contributes to
+     */
+    private static final class Step extends RecursiveTask<Double> {
+        /**
+         * Rates of the chain
+         */
+        private final RateMatrix matrix;
+
+        /**
+         * Probability of each state staying where it is in one step
+         */
+        private final double[] diagonal;
+
+        /**
+         * Probability of each rate being taken in one step
+         */
+        private final double[] probabilities;
+
+        /**
+         * Distribution before the step
+         */
+        private final double[] current;
+
+        /**
+         * Distribution after the step
+         */
+        private final double[] next;
+
+        /**
+         * Results of the time points the distribution before the step contributes to
+         */
+        private final double[][] results;
+
+        /**
+         * Poisson weight of the step for each of the results
+         */
+        private final double[] weights;
+
+        /**
+         * First state of the range
+         */
+        private final int from;
+
+        /**
+         * One past the last state of the range
+         */
+        private final int to;
+
+        private Step(RateMatrix matrix, double[] diagonal, double[] probabilities, double[] current, double[] next,
+                     double[][] results, double[] weights, int from, int to) {
+            this.matrix = matrix;
+            this.diagonal = diagonal;
+            this.probabilities = probabilities;
+            this.current = current;
+            this.next = next;
+            this.results = results;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return largest change in the probability of any state in the range
+         */
+        @Override
+        protected Double compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return computeDirectly();
+            }
+            int middle = (from + to) >>> 1;
+            Step left = new Step(matrix, diagonal, probabilities, current, next, results, weights, from, middle);
+            Step right = new Step(matrix, diagonal, probabilities, current, next, results, weights, middle, to);
+            left.fork();
+            double rightChange = right.compute();
+            return Math.max(left.join(), rightChange);
+        }
+
+        /**
+         * @return largest change in the probability of any state in the range
+         */
+        private double computeDirectly() {
+            double change = 0;
+            for (int state = from; state < to; state++) {
+                double probability = current[state];
+                for (int i = 0; i < results.length; i++) {
+                    results[i][state] += weights[i] * probability;
+                }
+                double sum = probability * diagonal[state];
+                for (int i = matrix.getOffset(state); i < matrix.getOffset(state + 1); i++) {
+                    sum += current[matrix.getSource(i)] * probabilities[i];
+                }
+                next[state] = sum;
+                change = Math.max(change, Math.abs(sum - probability));
+            }
+            return change;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package uk.ac.imperial.pipe.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of times something has happened. Counting does nothing but read a volatile flag
+ * whilst {@link Metrics} are disabled.
+ */
+public final class Counter implements CounterMXBean {
+
+    /**
+     * Name of the counter
+     */
+    private final String name;
+
+    /**
+     * Number of events counted
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param name name of the counter
+     */
+    Counter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return name of the counter
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Counts one event if metrics are enabled
+     */
+    public void increment() {
+        if (Metrics.isEnabled()) {
+            count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a number of events if metrics are enabled
+     * @param events number of events
+     */
+    public void add(long events) {
+        if (Metrics.isEnabled()) {
+            count.addAndGet(events);
+        }
+    }
+
+    /**
+     * @return number of events counted
+     */
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Sets the count back to zero
+     */
+    void reset() {
+        count.set(0);
+    }
+}
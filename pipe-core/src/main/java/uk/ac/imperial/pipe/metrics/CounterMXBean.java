@@ -0,0 +1,12 @@
+package uk.ac.imperial.pipe.metrics;
+
+/**
+ * Management interface of a {@link Counter}
+ */
+public interface CounterMXBean {
+
+    /**
+     * @return number of events counted
+     */
+    long getCount();
+}
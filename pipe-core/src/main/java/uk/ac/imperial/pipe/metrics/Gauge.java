@@ -0,0 +1,14 @@
+package uk.ac.imperial.pipe.metrics;
+
+/**
+ * A value that is read when a snapshot of the metrics is taken rather than recorded as it changes,
+ * for example a rate or the size of a cache
+ */
+public interface Gauge {
+
+    /**
+     * Must be safe to call from any thread
+     * @return current value
+     */
+    double getValue();
+}
@@ -0,0 +1,12 @@
+package uk.ac.imperial.pipe.metrics;
+
+/**
+ * Management interface of a {@link Gauge}
+ */
+public interface GaugeMXBean {
+
+    /**
+     * @return current value of the gauge
+     */
+    double getValue();
+}
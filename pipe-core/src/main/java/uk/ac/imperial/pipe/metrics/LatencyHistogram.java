@@ -0,0 +1,185 @@
+package uk.ac.imperial.pipe.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of durations, kept as counts in buckets whose bounds are powers of two nanoseconds.
+ * Recording is lock free and takes constant space, at the cost of percentiles only being known to
+ * within a factor of two.
+ * <p>
+ * Timing is done with {@link #start()} and {@link #stop(long)}, which do not read the clock at all
+ * whilst {@link Metrics} are disabled.
+ * </p>
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+
+    /**
+     * Start time returned when metrics are disabled, durations started from it are not recorded
+     */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * Number of buckets, bucket i counts durations in [2^(i-1), 2^i) nanoseconds
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Name of the histogram
+     */
+    private final String name;
+
+    /**
+     * Number of durations in each bucket
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Number of durations recorded
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Sum of the durations recorded
+     */
+    private final AtomicLong total = new AtomicLong();
+
+    /**
+     * Longest duration recorded
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param name name of the histogram
+     */
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return name of the histogram
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return current time to pass to {@link #stop(long)}, or {@link #NOT_TIMED} if metrics are disabled
+     */
+    public long start() {
+        return Metrics.isEnabled() ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Records the time since start, unless it was not timed
+     * @param start value returned by {@link #start()}
+     */
+    public void stop(long start) {
+        if (start != NOT_TIMED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a duration if metrics are enabled
+     * @param nanos duration in nanoseconds, negative durations are recorded as zero
+     */
+    public void record(long nanos) {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        long duration = Math.max(nanos, 0);
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(duration));
+        count.incrementAndGet();
+        total.addAndGet(duration);
+        long longest = max.get();
+        while (duration > longest && !max.compareAndSet(longest, duration)) {
+            longest = max.get();
+        }
+    }
+
+    /**
+     * @return number of durations recorded
+     */
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return mean duration, or zero if none were recorded
+     */
+    @Override
+    public double getMeanNanos() {
+        long recorded = count.get();
+        return recorded == 0 ? 0 : total.get() / (double) recorded;
+    }
+
+    /**
+     * @return longest duration
+     */
+    @Override
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * @return upper bound of the median duration
+     */
+    @Override
+    public long getMedianNanos() {
+        return getPercentileNanos(50);
+    }
+
+    /**
+     * @return upper bound of the 99th percentile duration
+     */
+    @Override
+    public long get99thPercentileNanos() {
+        return getPercentileNanos(99);
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100
+     * @return upper bound of the bucket holding the percentile, at most the longest duration recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, was " + percentile);
+        }
+        long recorded = count.get();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @param bucket bucket index
+     * @return longest duration counted in the bucket
+     */
+    private static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Forgets every recorded duration
+     */
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,32 @@
+package uk.ac.imperial.pipe.metrics;
+
+/**
+ * Management interface of a {@link LatencyHistogram}, all durations are in nanoseconds
+ */
+public interface LatencyHistogramMXBean {
+
+    /**
+     * @return number of durations recorded
+     */
+    long getCount();
+
+    /**
+     * @return mean duration
+     */
+    double getMeanNanos();
+
+    /**
+     * @return longest duration
+     */
+    long getMaxNanos();
+
+    /**
+     * @return upper bound of the median duration
+     */
+    long getMedianNanos();
+
+    /**
+     * @return upper bound of the 99th percentile duration
+     */
+    long get99thPercentileNanos();
+}
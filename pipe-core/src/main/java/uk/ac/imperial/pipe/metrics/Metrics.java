@@ -0,0 +1,307 @@
+package uk.ac.imperial.pipe.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the runtime metrics of PIPE: counters, gauges and latency histograms, each known by a
+ * dotted name such as {@code animation.enabledTransitions.evaluations}.
+ * <p>
+ * Instrumented classes create their metrics once, into static fields, and update them on their hot
+ * paths. Metrics are disabled unless the {@value #ENABLED_PROPERTY} system property is true or
+ * {@link #setEnabled(boolean)} is called, and whilst disabled an update costs a single read of a
+ * volatile flag.
+ * </p>
+ * <p>
+ * Every metric can be exposed as a platform MBean in the {@value #MBEAN_DOMAIN} domain with
+ * {@link #registerMBeans()}, which happens on start up when metrics are enabled by the system property,
+ * and a snapshot of them all can be written as JSON with {@link #writeJson(Writer)}.
+ * </p>
+ */
+public final class Metrics {
+
+    /**
+     * System property that enables metrics, and registers their MBeans, on start up
+     */
+    public static final String ENABLED_PROPERTY = "pipe.metrics";
+
+    /**
+     * Domain of the MBeans of the metrics
+     */
+    public static final String MBEAN_DOMAIN = "uk.ac.imperial.pipe";
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(Metrics.class.getName());
+
+    /**
+     * Counters by name
+     */
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+
+    /**
+     * Gauges by name
+     */
+    private static final ConcurrentMap<String, Gauge> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * Latency histograms by name
+     */
+    private static final ConcurrentMap<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    /**
+     * True if metrics are being recorded
+     */
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Server the MBeans are registered with, null until {@link #registerMBeans(MBeanServer)} is called
+     */
+    private static MBeanServer mBeanServer;
+
+    static {
+        if (enabled) {
+            registerMBeans();
+        }
+    }
+
+    /**
+     * Private constructor for the static class
+     */
+    private Metrics() {
+    }
+
+    /**
+     * @return true if metrics are being recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording metrics, the values recorded so far are kept
+     * @param enabled true to record metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @param name name of the counter
+     * @return the counter with the name, created if there is none yet
+     */
+    public static Counter counter(String name) {
+        Counter counter = COUNTERS.get(name);
+        if (counter == null) {
+            Counter created = new Counter(name);
+            counter = COUNTERS.putIfAbsent(name, created);
+            if (counter == null) {
+                counter = created;
+                register("Counter", name, created);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * @param name name of the histogram
+     * @return the latency histogram with the name, created if there is none yet
+     */
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram(name);
+            histogram = HISTOGRAMS.putIfAbsent(name, created);
+            if (histogram == null) {
+                histogram = created;
+                register("Histogram", name, created);
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge already registered with the name
+     * @param name  name of the gauge
+     * @param gauge gauge to register
+     * @return the gauge
+     */
+    public static Gauge gauge(final String name, Gauge gauge) {
+        if (GAUGES.put(name, gauge) == null) {
+            register("Gauge", name, new GaugeMXBean() {
+                @Override
+                public double getValue() {
+                    return GAUGES.get(name).getValue();
+                }
+            });
+        }
+        return gauge;
+    }
+
+    /**
+     * @return current value of every metric by name, histograms contributing their count, mean,
+     *         median, 99th percentile and maximum in nanoseconds under their name with a suffix
+     */
+    public static SortedMap<String, Number> snapshot() {
+        SortedMap<String, Number> snapshot = new TreeMap<>();
+        for (Counter counter : COUNTERS.values()) {
+            snapshot.put(counter.getName(), counter.getCount());
+        }
+        for (Map.Entry<String, Gauge> entry : GAUGES.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().getValue());
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            String name = histogram.getName();
+            snapshot.put(name + ".count", histogram.getCount());
+            snapshot.put(name + ".meanNanos", histogram.getMeanNanos());
+            snapshot.put(name + ".medianNanos", histogram.getMedianNanos());
+            snapshot.put(name + ".p99Nanos", histogram.get99thPercentileNanos());
+            snapshot.put(name + ".maxNanos", histogram.getMaxNanos());
+        }
+        return Collections.unmodifiableSortedMap(snapshot);
+    }
+
+    /**
+     * Writes a snapshot of every metric as a JSON object with a member for each kind of metric
+     * @param writer where the JSON is written, it is not closed
+     * @throws IOException if the JSON could not be written
+     */
+    public static void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"enabled\": " + enabled + ",\n  \"timestamp\": " + System.currentTimeMillis());
+        writer.write(",\n  \"counters\": {");
+        String separator = "";
+        for (Counter counter : new TreeMap<>(COUNTERS).values()) {
+            writer.write(separator + "\n    " + quote(counter.getName()) + ": " + counter.getCount());
+            separator = ",";
+        }
+        writer.write("\n  },\n  \"gauges\": {");
+        separator = "";
+        for (Map.Entry<String, Gauge> entry : new TreeMap<>(GAUGES).entrySet()) {
+            writer.write(separator + "\n    " + quote(entry.getKey()) + ": " + number(entry.getValue().getValue()));
+            separator = ",";
+        }
+        writer.write("\n  },\n  \"histograms\": {");
+        separator = "";
+        for (LatencyHistogram histogram : new TreeMap<>(HISTOGRAMS).values()) {
+            writer.write(separator + "\n    " + quote(histogram.getName()) + ": {\"count\": " + histogram.getCount()
+                    + ", \"meanNanos\": " + number(histogram.getMeanNanos()) + ", \"medianNanos\": "
+                    + histogram.getMedianNanos() + ", \"p99Nanos\": " + histogram.get99thPercentileNanos()
+                    + ", \"maxNanos\": " + histogram.getMaxNanos() + "}");
+            separator = ",";
+        }
+        writer.write("\n  }\n}\n");
+        writer.flush();
+    }
+
+    /**
+     * Sets every counter and histogram back to zero
+     */
+    public static void reset() {
+        for (Counter counter : COUNTERS.values()) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Registers every metric, and every metric created from now on, with the platform MBean server
+     */
+    public static void registerMBeans() {
+        registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Registers every metric, and every metric created from now on, with the server. Does nothing if
+     * MBeans have already been registered.
+     * @param server server to register the MBeans with
+     */
+    public static synchronized void registerMBeans(MBeanServer server) {
+        if (mBeanServer != null) {
+            return;
+        }
+        mBeanServer = server;
+        for (Counter counter : COUNTERS.values()) {
+            register("Counter", counter.getName(), counter);
+        }
+        for (final String name : GAUGES.keySet()) {
+            register("Gauge", name, new GaugeMXBean() {
+                @Override
+                public double getValue() {
+                    return GAUGES.get(name).getValue();
+                }
+            });
+        }
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            register("Histogram", histogram.getName(), histogram);
+        }
+    }
+
+    /**
+     * @param type type of the metric
+     * @param name name of the metric
+     * @return name of the MBean of the metric
+     * @throws JMException if the name is not a valid object name
+     */
+    public static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(MBEAN_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Registers the MBean of a metric if MBeans are being registered, logging any failure
+     * @param type  type of the metric
+     * @param name  name of the metric
+     * @param mBean MBean of the metric
+     */
+    private static synchronized void register(String type, String name, Object mBean) {
+        if (mBeanServer == null) {
+            return;
+        }
+        try {
+            mBeanServer.registerMBean(mBean, objectName(type, name));
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not register MBean for metric " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param value number to write
+     * @return the number as JSON, which has no representation for infinite values or NaN
+     */
+    private static String number(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+    }
+
+    /**
+     * @param text text to quote
+     * @return the text as a JSON string
+     */
+    private static String quote(String text) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < ' ') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
@@ -51,6 +51,25 @@ public interface PetriNetManager {
      */
     void createFromFile(File file) throws JAXBException, UnparsableException, FileNotFoundException;
 
+    /**
+     * Reads and parses the contents of the file without storing the resulting Petri net.
+     * This does not notify listeners and is safe to call off the event dispatch thread
+     * @param file location of Petri net xml file
+     * @return the parsed Petri net
+     * @throws JAXBException if error during unmarshalling
+     * @throws UnparsableException if rate parameter expression cannot be parsed
+     * @throws FileNotFoundException if file not found
+     */
+    PetriNet readFromFile(File file) throws JAXBException, UnparsableException, FileNotFoundException;
+
+    /**
+     * Adds a Petri net returned by {@link #readFromFile(File)}, naming it after the file
+     * and notifying listeners of its creation
+     * @param petriNet Petri net read from the file
+     * @param file location the Petri net was read from
+     */
+    void addPetriNetFromFile(PetriNet petriNet, File file);
+
     /**
      *
      * Saves the specified petri net to the location
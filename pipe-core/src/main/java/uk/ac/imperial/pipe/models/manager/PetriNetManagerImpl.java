@@ -93,8 +93,35 @@ public final class PetriNetManagerImpl implements PetriNetManager {
      */
     @Override
     public void createFromFile(File file) throws JAXBException, UnparsableException, FileNotFoundException {
+        PetriNet petriNet = readFromFile(file);
+        addPetriNetFromFile(petriNet, file);
+    }
+
+    /**
+     * Reads the Petri net from the file without registering it with this manager.
+     * No shared state is touched so this may be called from a background thread.
+     *
+     * @param file location of Petri net xml file
+     * @return the parsed Petri net
+     * @throws JAXBException if Petri net cannot be unmarshalled
+     * @throws UnparsableException  if rate parameter expression cannot be parsed
+     * @throws FileNotFoundException  if file not found
+     */
+    @Override
+    public PetriNet readFromFile(File file) throws JAXBException, UnparsableException, FileNotFoundException {
         PetriNetReader petriNetIO = new PetriNetIOImpl();
-        PetriNet petriNet = petriNetIO.read(file.getAbsolutePath());
+        return petriNetIO.read(file.getAbsolutePath());
+    }
+
+    /**
+     * Names a Petri net previously read by {@link #readFromFile(File)} after its file
+     * and fires a change message to indicate a Petri net has been added
+     *
+     * @param petriNet Petri net read from the file
+     * @param file location the Petri net was read from
+     */
+    @Override
+    public void addPetriNetFromFile(PetriNet petriNet, File file) {
         namePetriNetFromFile(petriNet, file);
         changeSupport.firePropertyChange(NEW_PETRI_NET_MESSAGE, null, petriNet);
     }
@@ -1,10 +1,13 @@
 package uk.ac.imperial.pipe.models.petrinet;
 
+import uk.ac.imperial.pipe.parsers.ExpressionType;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+
 import java.awt.geom.Point2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -49,9 +52,9 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
     private final ArcType type;
 
     /**
-     * Intermediate path arcPoints
+     * Intermediate path arcPoints, most arcs only have their source and target points
      */
-    private final List<ArcPoint> arcPoints = new LinkedList<>();
+    private final List<ArcPoint> arcPoints = new ArrayList<>(2);
 
     /**
      * The point at which the arc coonnects to the source
@@ -88,29 +91,9 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
         arcPoints.add(sourcePoint);
         arcPoints.add(targetPoint);
 
-        source.addPropertyChangeListener(new PropertyChangeListener(){
-
-            @Override
-            public void propertyChange(PropertyChangeEvent evt) {
-                String name = evt.getPropertyName();
-                if (name.equals(Connectable.X_CHANGE_MESSAGE) || name.equals(Connectable.Y_CHANGE_MESSAGE) || name.equals(Transition.ANGLE_CHANGE_MESSAGE)) {
-
-                    sourcePoint.setPoint(getStartPoint());
-                    targetPoint.setPoint(getEndPoint());
-                }
-            }
-        });
-        target.addPropertyChangeListener(new PropertyChangeListener(){
-
-            @Override
-            public void propertyChange(PropertyChangeEvent evt) {
-                String name = evt.getPropertyName();
-                if (name.equals(Connectable.X_CHANGE_MESSAGE) || name.equals(Connectable.Y_CHANGE_MESSAGE) || name.equals(Transition.ANGLE_CHANGE_MESSAGE)) {
-                    sourcePoint.setPoint(getStartPoint());
-                    targetPoint.setPoint(getEndPoint());
-                }
-            }
-        });
+        PropertyChangeListener endListener = new EndChangeListener();
+        source.addPropertyChangeListener(endListener);
+        target.addPropertyChangeListener(endListener);
 
 
     }
@@ -142,7 +125,7 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
     public void setSource(S source) {
         S old = this.source;
         this.source = source;
-        changeSupport.firePropertyChange(SOURCE_CHANGE_MESSAGE, old, source);
+        firePropertyChange(SOURCE_CHANGE_MESSAGE, old, source);
     }
 
     /**
@@ -162,7 +145,7 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
     public void setTarget(T target) {
         T old = this.target;
         this.target = target;
-        changeSupport.firePropertyChange(TARGET_CHANGE_MESSAGE, old, target);
+        firePropertyChange(TARGET_CHANGE_MESSAGE, old, target);
     }
 
 
@@ -200,7 +183,7 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
     public void setId(String id) {
         String old = this.id;
         this.id = id;
-        changeSupport.firePropertyChange(ID_CHANGE_MESSAGE, old, id);
+        firePropertyChange(ID_CHANGE_MESSAGE, old, id);
     }
 
     /**
@@ -256,8 +239,8 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
     @Override
     public void setWeight(String tokenId, String weight) {
         Map<String, String> old = new HashMap<>(tokenWeights);
-        tokenWeights.put(tokenId, weight);
-        changeSupport.firePropertyChange(WEIGHT_CHANGE_MESSAGE, old, tokenWeights);
+        tokenWeights.put(intern(tokenId), intern(weight));
+        firePropertyChange(WEIGHT_CHANGE_MESSAGE, old, tokenWeights);
     }
 
     /**
@@ -276,6 +259,20 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
         return false;
     }
 
+    /**
+     * Weights are classified when first parsed so this does not reparse them
+     *
+     * @return what the arcs token weights depend on, the most dynamic of its weights
+     */
+    @Override
+    public ExpressionType getWeightExpressionType() {
+        ExpressionType type = ExpressionType.CONSTANT;
+        for (String weight : tokenWeights.values()) {
+            type = type.combine(GrammarUtils.compile(weight).getType());
+        }
+        return type;
+    }
+
     /**
      *
      * @return arc type
@@ -309,7 +306,7 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
         point.addPropertyChangeListener(intermediateListener);
         recalculateStartPoint();
         recalculateEndPoint();
-        changeSupport.firePropertyChange(NEW_INTERMEDIATE_POINT_CHANGE_MESSAGE, null, point);
+        firePropertyChange(NEW_INTERMEDIATE_POINT_CHANGE_MESSAGE, null, point);
     }
 
     private void recalculateStartPoint() {
@@ -343,7 +340,7 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
         point.removePropertyChangeListener(intermediateListener);
         recalculateStartPoint();
         recalculateEndPoint();
-        changeSupport.firePropertyChange(DELETE_INTERMEDIATE_POINT_CHANGE_MESSAGE, point, null);
+        firePropertyChange(DELETE_INTERMEDIATE_POINT_CHANGE_MESSAGE, point, null);
     }
 
     /**
@@ -457,7 +454,25 @@ public abstract class AbstractArc<S extends Connectable, T extends Connectable>
      */
     @Override
     public void removeAllTokenWeights(String tokenId) {
+        Map<String, String> old = new HashMap<>(tokenWeights);
         tokenWeights.remove(tokenId);
+        firePropertyChange(WEIGHT_CHANGE_MESSAGE, old, tokenWeights);
+    }
+
+    /**
+     * Moves the source and target points when either end of the arc moves, a single
+     * instance listens to both ends
+     */
+    private class EndChangeListener implements PropertyChangeListener {
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            String name = evt.getPropertyName();
+            if (name.equals(Connectable.X_CHANGE_MESSAGE) || name.equals(Connectable.Y_CHANGE_MESSAGE) || name.equals(Transition.ANGLE_CHANGE_MESSAGE)) {
+                sourcePoint.setPoint(getStartPoint());
+                targetPoint.setPoint(getEndPoint());
+            }
+        }
     }
 
     private class ArcPointChangeListener implements PropertyChangeListener {
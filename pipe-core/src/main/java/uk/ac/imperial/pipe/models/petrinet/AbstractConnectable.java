@@ -32,8 +32,8 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     protected double nameYOffset = 35;
 
     protected AbstractConnectable(String id, String name) {
-        this.id = id;
-        this.name = name;
+        this.id = intern(id);
+        this.name = intern(name);
     }
 
     /**
@@ -126,7 +126,7 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     public final void setNameXOffset(double nameXOffset) {
         double oldValue = this.nameXOffset;
         this.nameXOffset = nameXOffset;
-        changeSupport.firePropertyChange(NAME_X_OFFSET_CHANGE_MESSAGE, oldValue, nameXOffset);
+        firePropertyChange(NAME_X_OFFSET_CHANGE_MESSAGE, oldValue, nameXOffset);
     }
 
     /**
@@ -146,7 +146,7 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     public final void setNameYOffset(double nameYOffset) {
         double oldValue = this.nameYOffset;
         this.nameYOffset = nameYOffset;
-        changeSupport.firePropertyChange(NAME_Y_OFFSET_CHANGE_MESSAGE, oldValue, nameXOffset);
+        firePropertyChange(NAME_Y_OFFSET_CHANGE_MESSAGE, oldValue, nameXOffset);
     }
 
     /**
@@ -164,8 +164,8 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     @Override
     public final void setName(String name) {
         String old = this.name;
-        this.name = name;
-        changeSupport.firePropertyChange(NAME_CHANGE_MESSAGE, old, name);
+        this.name = intern(name);
+        firePropertyChange(NAME_CHANGE_MESSAGE, old, name);
     }
 
     /**
@@ -184,8 +184,8 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     @Override
     public final void setId(String id) {
         String old = this.id;
-        this.id = id;
-        changeSupport.firePropertyChange(ID_CHANGE_MESSAGE, old, id);
+        this.id = intern(id);
+        firePropertyChange(ID_CHANGE_MESSAGE, old, id);
     }
 
     /**
@@ -205,7 +205,7 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     public final void setX(int x) {
         double oldValue = this.x;
         this.x = x;
-        changeSupport.firePropertyChange(X_CHANGE_MESSAGE, oldValue, x);
+        firePropertyChange(X_CHANGE_MESSAGE, oldValue, x);
 
     }
 
@@ -226,6 +226,6 @@ public abstract class AbstractConnectable  extends AbstractPetriNetPubSub implem
     public final void setY(int y) {
         double oldValue = this.y;
         this.y = y;
-        changeSupport.firePropertyChange(Y_CHANGE_MESSAGE, oldValue, y);
+        firePropertyChange(Y_CHANGE_MESSAGE, oldValue, y);
     }
 }
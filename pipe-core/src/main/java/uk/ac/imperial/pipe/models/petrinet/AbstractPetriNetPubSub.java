@@ -1,27 +1,124 @@
 package uk.ac.imperial.pipe.models.petrinet;
 
+import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
+import java.util.Arrays;
 
 /**
  * Abstract class that implements change support for PIPE
+ * <p>
+ * Listeners are held in a copy on write array that is only created when the first listener subscribes,
+ * so that components nobody listens to, such as most arc points, carry no change support at all and the
+ * rest carry a single small array rather than a {@link java.beans.PropertyChangeSupport} and its maps.
+ * Events are fired with the same rules as {@link java.beans.PropertyChangeSupport}, no event is fired
+ * when the old and new values are equal and non null.
+ * </p>
  */
 public abstract class AbstractPetriNetPubSub {
-    protected PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+    /**
+     * Listeners in the order they subscribed, null until a listener is added
+     */
+    private volatile PropertyChangeListener[] listeners;
 
     /**
      *
      * @param listener listener which will process all events of the implementing class
      */
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        changeSupport.addPropertyChangeListener(listener);
+    public synchronized void addPropertyChangeListener(PropertyChangeListener listener) {
+        if (listener == null) {
+            return;
+        }
+        if (listeners == null) {
+            listeners = new PropertyChangeListener[]{listener};
+        } else {
+            PropertyChangeListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+            added[listeners.length] = listener;
+            listeners = added;
+        }
     }
 
     /**
      *
      * @param listener listener to no longer listen to events in the implementing class
      */
-    public void removePropertyChangeListener(PropertyChangeListener listener) {
-        changeSupport.removePropertyChangeListener(listener);
+    public synchronized void removePropertyChangeListener(PropertyChangeListener listener) {
+        if (listener == null || listeners == null) {
+            return;
+        }
+        for (int index = 0; index < listeners.length; index++) {
+            if (listener.equals(listeners[index])) {
+                if (listeners.length == 1) {
+                    listeners = null;
+                } else {
+                    PropertyChangeListener[] removed = new PropertyChangeListener[listeners.length - 1];
+                    System.arraycopy(listeners, 0, removed, 0, index);
+                    System.arraycopy(listeners, index + 1, removed, index, removed.length - index);
+                    listeners = removed;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifies listeners of a property change, if there are any and the value changed
+     * @param propertyName name of the property that changed
+     * @param oldValue     value before the change
+     * @param newValue     value after the change
+     */
+    protected void firePropertyChange(String propertyName, Object oldValue, Object newValue) {
+        if (listeners != null && changed(oldValue, newValue)) {
+            dispatch(new PropertyChangeEvent(this, propertyName, oldValue, newValue));
+        }
+    }
+
+    /**
+     * Notifies listeners of a property change, if there are any and the value changed
+     * @param event change to notify listeners of
+     */
+    protected void firePropertyChange(PropertyChangeEvent event) {
+        if (listeners != null && changed(event.getOldValue(), event.getNewValue())) {
+            dispatch(event);
+        }
+    }
+
+    /**
+     * Lets callers skip building the values of an event nobody would receive. Listeners receive
+     * every property so this does not depend on which property would change.
+     * @return true if any listener is subscribed
+     */
+    protected boolean hasListeners() {
+        return listeners != null;
+    }
+
+    /**
+     * @param event event to pass to every listener subscribed when it is fired
+     */
+    private void dispatch(PropertyChangeEvent event) {
+        PropertyChangeListener[] current = listeners;
+        if (current != null) {
+            for (PropertyChangeListener listener : current) {
+                listener.propertyChange(event);
+            }
+        }
+    }
+
+    /**
+     * @param oldValue value before the change
+     * @param newValue value after the change
+     * @return false if the values are equal and non null
+     */
+    private static boolean changed(Object oldValue, Object newValue) {
+        return oldValue == null || newValue == null || !oldValue.equals(newValue);
+    }
+
+    /**
+     * Ids and token names repeat across the components of a large Petri net, interning them
+     * keeps a single copy of each
+     * @param value string to intern, may be null
+     * @return canonical copy of the string
+     */
+    protected static String intern(String value) {
+        return value == null ? null : value.intern();
     }
 }
@@ -160,7 +160,7 @@ public class AnnotationImpl extends AbstractPetriNetPubSub implements Annotation
     public void setX(int x) {
         int old = this.x;
         this.x = x;
-        changeSupport.firePropertyChange(X_CHANGE_MESSAGE, old, x);
+        firePropertyChange(X_CHANGE_MESSAGE, old, x);
     }
 
     /**
@@ -179,7 +179,7 @@ public class AnnotationImpl extends AbstractPetriNetPubSub implements Annotation
     public final void setY(int y) {
         int old = this.y;
         this.y = y;
-        changeSupport.firePropertyChange(Y_CHANGE_MESSAGE, old, y);
+        firePropertyChange(Y_CHANGE_MESSAGE, old, y);
     }
 
     /**
@@ -233,8 +233,8 @@ public class AnnotationImpl extends AbstractPetriNetPubSub implements Annotation
     public void setText(String text) {
         String old = this.text;
         this.text = text;
-        changeSupport.firePropertyChange(TEXT_CHANGE_MESSAGE, old, text);
-        changeSupport.firePropertyChange(ID_CHANGE_MESSAGE, old, text);
+        firePropertyChange(TEXT_CHANGE_MESSAGE, old, text);
+        firePropertyChange(ID_CHANGE_MESSAGE, old, text);
     }
 
     /**
@@ -289,6 +289,6 @@ public class AnnotationImpl extends AbstractPetriNetPubSub implements Annotation
      */
     public final void toggleBorder() {
         border = !border;
-        changeSupport.firePropertyChange(TOGGLE_BORDER_CHANGE_MESSAGE, !border, border);
+        firePropertyChange(TOGGLE_BORDER_CHANGE_MESSAGE, !border, border);
     }
 }
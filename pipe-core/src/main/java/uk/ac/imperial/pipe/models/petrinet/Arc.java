@@ -1,5 +1,6 @@
 package uk.ac.imperial.pipe.models.petrinet;
 
+import uk.ac.imperial.pipe.parsers.ExpressionType;
 import uk.ac.imperial.state.State;
 
 import java.awt.geom.Point2D;
@@ -98,6 +99,11 @@ public interface Arc<S extends Connectable, T extends Connectable> extends Petri
      */
     boolean hasFunctionalWeight();
 
+    /**
+     * @return what the arcs token weights depend on, the most dynamic of its weights
+     */
+    ExpressionType getWeightExpressionType();
+
     /**
      *
      * @return arc type e.g. normal, inhibitor etc.
@@ -80,14 +80,23 @@ public class ArcPoint extends AbstractPetriNetPubSub implements PlaceablePetriNe
     }
 
     /**
+     * The old location is only built if there is a listener to tell, since the source and target
+     * points of every arc move with its source and target
      *
      * @param point new location for the arc point
      */
     public void setPoint(Point2D point) {
-        Point2D old = new Point2D.Double(this.x, this.y);
-        this.x = (int) Math.round(point.getX());
-        this.y = (int) Math.round(point.getY());
-        changeSupport.firePropertyChange(UPDATE_LOCATION_CHANGE_MESSAGE, old, point);
+        int newX = (int) Math.round(point.getX());
+        int newY = (int) Math.round(point.getY());
+        if (hasListeners()) {
+            Point2D old = new Point2D.Double(this.x, this.y);
+            this.x = newX;
+            this.y = newY;
+            firePropertyChange(UPDATE_LOCATION_CHANGE_MESSAGE, old, point);
+        } else {
+            this.x = newX;
+            this.y = newY;
+        }
     }
 
     /**
@@ -205,7 +214,7 @@ public class ArcPoint extends AbstractPetriNetPubSub implements PlaceablePetriNe
     public void setCurved(boolean curved) {
         boolean old = this.curved;
         this.curved = curved;
-        changeSupport.firePropertyChange(UPDATE_CURVED_CHANGE_MESSAGE, old, curved);
+        firePropertyChange(UPDATE_CURVED_CHANGE_MESSAGE, old, curved);
     }
 
     @Override
@@ -27,7 +27,7 @@ public class ColoredToken extends AbstractPetriNetPubSub implements Token {
      * @param color of the token
      */
     public ColoredToken(String id, Color color) {
-        this.id = id;
+        this.id = intern(id);
         this.color = color;
     }
 
@@ -60,7 +60,7 @@ public class ColoredToken extends AbstractPetriNetPubSub implements Token {
     public void setColor(Color color) {
         Color old = this.color;
         this.color = color;
-        changeSupport.firePropertyChange(COLOR_CHANGE_MESSAGE, old, color);
+        firePropertyChange(COLOR_CHANGE_MESSAGE, old, color);
     }
 
     /**
@@ -109,8 +109,8 @@ public class ColoredToken extends AbstractPetriNetPubSub implements Token {
     @Override
     public void setId(String id) {
         String old = this.id;
-        this.id = id;
-        changeSupport.firePropertyChange(ID_CHANGE_MESSAGE, old, id);
+        this.id = intern(id);
+        firePropertyChange(ID_CHANGE_MESSAGE, old, id);
     }
 
     @Override
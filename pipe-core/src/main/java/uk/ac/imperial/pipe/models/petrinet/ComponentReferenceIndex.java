@@ -0,0 +1,82 @@
+package uk.ac.imperial.pipe.models.petrinet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse index from a component id to the components that reference it, for example
+ * the transitions, arcs and rate parameters whose functional expressions mention a place.
+ * <p>
+ * Referencing components are held by identity since their equality depends on mutable state,
+ * and their ids are read at lookup time so that they may be renamed freely.
+ * </p>
+ */
+final class ComponentReferenceIndex {
+
+    /**
+     * Referenced id -&gt; components referencing it
+     */
+    private final Map<String, Set<PetriNetComponent>> referencing = new HashMap<>();
+
+    /**
+     * Referencing component -&gt; ids it references
+     */
+    private final Map<PetriNetComponent, Collection<String>> references = new IdentityHashMap<>();
+
+    /**
+     * Replaces any references previously recorded for the component
+     * @param component referencing component
+     * @param ids       ids the component now references
+     */
+    void put(PetriNetComponent component, Collection<String> ids) {
+        remove(component);
+        if (ids.isEmpty()) {
+            return;
+        }
+        Collection<String> copy = new ArrayList<>(ids);
+        references.put(component, copy);
+        for (String id : copy) {
+            Set<PetriNetComponent> components = referencing.get(id);
+            if (components == null) {
+                components = Collections.newSetFromMap(new IdentityHashMap<PetriNetComponent, Boolean>());
+                referencing.put(id, components);
+            }
+            components.add(component);
+        }
+    }
+
+    /**
+     * Removes all references recorded for the component
+     * @param component referencing component
+     */
+    void remove(PetriNetComponent component) {
+        Collection<String> ids = references.remove(component);
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            Set<PetriNetComponent> components = referencing.get(id);
+            components.remove(component);
+            if (components.isEmpty()) {
+                referencing.remove(id);
+            }
+        }
+    }
+
+    /**
+     * @param id referenced id
+     * @return components referencing the id, a copy so it is safe to modify the index whilst iterating
+     */
+    Collection<PetriNetComponent> getReferencing(String id) {
+        Set<PetriNetComponent> components = referencing.get(id);
+        if (components == null) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(components);
+    }
+}
@@ -4,11 +4,22 @@ import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.visitor.component.PetriNetComponentVisitor;
 
 import java.awt.geom.Point2D;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * This class maps to the Place in PNML and has a discrete number of tokens
+ * <p>
+ * Token counts are kept in a primitive array indexed alongside an array of token ids, since a place
+ * rarely holds more than a few kinds of token, so changing a count neither boxes nor copies anything.
+ * Each change fires a {@link TokenCountChangeEvent} describing just that token, and only if something
+ * is listening.
+ * </p>
  */
 public final class DiscretePlace extends AbstractConnectable implements Place {
 
@@ -28,9 +39,24 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
     private int capacity = 0;
 
     /**
-     * Place tokens
+     * Ids of the tokens held, in the order they were first counted
      */
-    private Map<String, Integer> tokenCounts = new HashMap<>();
+    private String[] tokenIds = new String[1];
+
+    /**
+     * Count of each token, at the index of its id in tokenIds
+     */
+    private int[] counts = new int[1];
+
+    /**
+     * Number of distinct tokens held
+     */
+    private int tokenTypes = 0;
+
+    /**
+     * Read only view of the token counts
+     */
+    private final Map<String, Integer> tokenCounts = new TokenCounts();
 
     /**
      * Constructor
@@ -149,7 +175,8 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
 
     /**
      *
-     * @return token id's -&gt; count  i.e. the number of each type of token in this place
+     * @return read only view of token id's -&gt; count  i.e. the number of each type of token in this place,
+     *         which reflects later changes to the counts
      */
     @Override
     public Map<String, Integer> getTokenCounts() {
@@ -173,9 +200,19 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
                 throw new RuntimeException("Count of tokens exceeds capacity!");
             }
         }
-        Map<String, Integer> old = new HashMap<>(this.tokenCounts);
-        this.tokenCounts = new HashMap<>(tokenCounts);
-        changeSupport.firePropertyChange(TOKEN_CHANGE_MESSAGE, old, tokenCounts);
+        int index = 0;
+        while (index < tokenTypes) {
+            if (tokenCounts.containsKey(tokenIds[index])) {
+                index++;
+            } else {
+                remove(index);
+            }
+        }
+        for (Map.Entry<String, Integer> entry : tokenCounts.entrySet()) {
+            String token = entry.getKey();
+            int count = entry.getValue();
+            fireTokenChange(token, put(token, count), count);
+        }
     }
 
     /**
@@ -206,16 +243,7 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
      */
     @Override
     public void incrementTokenCount(String token) {
-        Integer count;
-        if (tokenCounts.containsKey(token)) {
-            count = tokenCounts.get(token);
-            count++;
-        } else {
-            count = 1;
-        }
-        Map<String, Integer> old = new HashMap<>(this.tokenCounts);
-        setTokenCount(token, count);
-        changeSupport.firePropertyChange(TOKEN_CHANGE_MESSAGE, old, tokenCounts);
+        setTokenCount(token, getTokenCount(token) + 1);
     }
 
     /**
@@ -233,9 +261,7 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
                         "the capacity of " + count);
             }
         }
-        Map<String, Integer> old = new HashMap<>(this.tokenCounts);
-        tokenCounts.put(token, count);
-        changeSupport.firePropertyChange(TOKEN_CHANGE_MESSAGE, old, tokenCounts);
+        fireTokenChange(token, put(token, count), count);
     }
 
     /**
@@ -243,7 +269,11 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
      */
     @Override
     public int getNumberOfTokensStored() {
-        return getNumberOfTokensStored(tokenCounts);
+        int sum = 0;
+        for (int index = 0; index < tokenTypes; index++) {
+            sum += counts[index];
+        }
+        return sum;
     }
 
     /**
@@ -253,10 +283,8 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
      */
     @Override
     public int getTokenCount(String token) {
-        if (tokenCounts.containsKey(token)) {
-            return tokenCounts.get(token);
-        }
-        return 0;
+        int index = indexOf(token);
+        return index < 0 ? 0 : counts[index];
     }
 
     /**
@@ -265,14 +293,73 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
      */
     @Override
     public void decrementTokenCount(String token) {
-        Map<String, Integer> old = new HashMap<>(this.tokenCounts);
-        Integer count;
-        if (tokenCounts.containsKey(token)) {
-            count = tokenCounts.get(token);
-            count--;
-            tokenCounts.put(token, count);
+        int index = indexOf(token);
+        if (index >= 0) {
+            int count = counts[index]--;
+            fireTokenChange(token, count, count - 1);
+        }
+    }
+
+    /**
+     * @param token token id
+     * @return index of the token in tokenIds, or -1 if this place does not hold it
+     */
+    private int indexOf(Object token) {
+        for (int index = 0; index < tokenTypes; index++) {
+            String id = tokenIds[index];
+            if (id == token || id != null && id.equals(token)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the count of a token without checking the capacity or firing a change
+     * @param token token id
+     * @param count new count
+     * @return previous count of the token
+     */
+    private int put(String token, int count) {
+        int index = indexOf(token);
+        if (index >= 0) {
+            int old = counts[index];
+            counts[index] = count;
+            return old;
+        }
+        if (tokenTypes == tokenIds.length) {
+            tokenIds = Arrays.copyOf(tokenIds, tokenTypes * 2);
+            counts = Arrays.copyOf(counts, tokenTypes * 2);
+        }
+        tokenIds[tokenTypes] = intern(token);
+        counts[tokenTypes++] = count;
+        return 0;
+    }
+
+    /**
+     * Removes the token at the index and fires the change of its count to zero
+     * @param index index of the token in tokenIds
+     */
+    private void remove(int index) {
+        String token = tokenIds[index];
+        int count = counts[index];
+        tokenTypes--;
+        System.arraycopy(tokenIds, index + 1, tokenIds, index, tokenTypes - index);
+        System.arraycopy(counts, index + 1, counts, index, tokenTypes - index);
+        tokenIds[tokenTypes] = null;
+        fireTokenChange(token, count, 0);
+    }
+
+    /**
+     * Tells listeners about the change of a token count, only creating the event if there are any
+     * @param token    token id
+     * @param oldCount count before the change
+     * @param newCount count after the change
+     */
+    private void fireTokenChange(String token, int oldCount, int newCount) {
+        if (oldCount != newCount && hasListeners()) {
+            firePropertyChange(new TokenCountChangeEvent(this, token, oldCount, newCount));
         }
-        changeSupport.firePropertyChange(TOKEN_CHANGE_MESSAGE, old, tokenCounts);
     }
 
     @Override
@@ -392,6 +479,68 @@ public final class DiscretePlace extends AbstractConnectable implements Place {
      */
     @Override
     public void removeAllTokens(String token) {
-        tokenCounts.remove(token);
+        int index = indexOf(token);
+        if (index >= 0) {
+            remove(index);
+        }
+    }
+
+    /**
+     * Read only map view of the token ids and counts
+     */
+    private final class TokenCounts extends AbstractMap<String, Integer> {
+        @Override
+        public int size() {
+            return tokenTypes;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            int index = indexOf(key);
+            return index < 0 ? null : counts[index];
+        }
+
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Entry<String, Integer>>() {
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    return new Iterator<Entry<String, Integer>>() {
+                        private int next = 0;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < tokenTypes;
+                        }
+
+                        @Override
+                        public Entry<String, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Integer> entry =
+                                    new SimpleImmutableEntry<>(tokenIds[next], counts[next]);
+                            next++;
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException("Token counts are read only");
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return tokenTypes;
+                }
+            };
+        }
     }
 }
@@ -1,6 +1,9 @@
 package uk.ac.imperial.pipe.models.petrinet;
 
+import uk.ac.imperial.pipe.parsers.ExpressionType;
 import uk.ac.imperial.pipe.parsers.FunctionalResults;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
 import uk.ac.imperial.pipe.parsers.PetriNetWeightParser;
 import uk.ac.imperial.pipe.parsers.StateEvalVisitor;
 import uk.ac.imperial.pipe.visitor.component.PetriNetComponentVisitor;
@@ -8,8 +11,11 @@ import uk.ac.imperial.state.State;
 
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static java.lang.Math.floor;
@@ -67,6 +73,33 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
      */
     private boolean enabled = false;
 
+    /**
+     * Parsed and classified rate expression. It is set with the rate and refreshed if the expression
+     * of a rate parameter used as the rate changes
+     */
+    private volatile ParsedExpression parsedRate;
+
+    /**
+     * Inbound arc weights compiled for the Petri net they were last evaluated in. Null until the
+     * enabling degree is first needed, and again after the Petri net or an inbound arc changes
+     */
+    private volatile InboundWeights inboundWeights;
+
+    /**
+     * Forgets the compiled inbound arc weights when the Petri net changes structure or an inbound
+     * arc changes its weights or ends
+     */
+    private final PropertyChangeListener inboundWeightsListener = new PropertyChangeListener() {
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            String name = evt.getPropertyName();
+            if (evt.getSource() instanceof PetriNet || Arc.WEIGHT_CHANGE_MESSAGE.equals(name)
+                    || Arc.SOURCE_CHANGE_MESSAGE.equals(name) || Arc.TARGET_CHANGE_MESSAGE.equals(name)) {
+                releaseInboundWeights();
+            }
+        }
+    };
+
     /**
      * Constructor with default rate and priority
      * @param id of the transition
@@ -280,7 +313,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     public void setPriority(int priority) {
         int old = this.priority;
         this.priority = priority;
-        changeSupport.firePropertyChange(PRIORITY_CHANGE_MESSAGE, old, priority);
+        firePropertyChange(PRIORITY_CHANGE_MESSAGE, old, priority);
     }
 
     /**
@@ -298,7 +331,10 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
      */
     @Override
     public void setRate(Rate rate) {
+        Rate old = this.rate;
         this.rate = rate;
+        parsedRate = rate == null ? null : GrammarUtils.compile(rate.getExpression());
+        firePropertyChange(RATE_CHANGE_MESSAGE, old, rate);
     }
 
     /**
@@ -311,21 +347,40 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
      */
     @Override
     public Double getActualRate(PetriNet petriNet, State state) {
-        StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
-        PetriNetWeightParser parser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
-        FunctionalResults<Double> results = parser.evaluateExpression(getRateExpr());
-        if (results.hasErrors()) {
-            //TODO:
-            return -1.;
+        ParsedExpression rateExpression = getParsedRate();
+        double rate;
+        if (rateExpression.isConstant()) {
+            rate = rateExpression.getConstant();
+        } else {
+            StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
+            PetriNetWeightParser parser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
+            FunctionalResults<Double> results = parser.evaluateExpression(rateExpression.getExpression());
+            if (results.hasErrors()) {
+                //TODO:
+                return -1.;
+            }
+            rate = results.getResult();
         }
-        Double rate = results.getResult();
 
         if (!isInfiniteServer()) {
             return rate;
         }
-        Map<String, Map<String, Double>> arcWeights = evaluateInboundArcWeights(parser, petriNet.inboundArcs(this));
-        int enablingDegree = getEnablingDegree(state, arcWeights);
-        return rate * enablingDegree;
+        return rate * getEnablingDegree(petriNet, state);
+    }
+
+    /**
+     * Constant rates are evaluated without creating a parser for the state
+     *
+     * @return the parsed rate expression, only looked up again when the expression changes
+     */
+    private ParsedExpression getParsedRate() {
+        String expression = getRateExpr();
+        ParsedExpression parsed = parsedRate;
+        if (parsed == null || !parsed.getExpression().equals(expression)) {
+            parsed = GrammarUtils.compile(expression);
+            parsedRate = parsed;
+        }
+        return parsed;
     }
 
     /**
@@ -339,99 +394,74 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
 
     /**
      *
-     * @return true if the transition is an infinite sever, false if it is a single server
+     * @return what the rate depends on, including when the rate is a rate parameter
      */
     @Override
-    public boolean isInfiniteServer() {
-        return infiniteServer;
+    public ExpressionType getRateExpressionType() {
+        return getParsedRate().getType();
     }
 
     /**
-     * @param parser parser for a given state of Petri net
-     * @param arcs   set of inbound arcs to evaluate weight against the current state
-     * @return map of arc place id -> arc weights associated with it
+     *
+     * @return true if the transition is an infinite sever, false if it is a single server
      */
-    private Map<String, Map<String, Double>> evaluateInboundArcWeights(PetriNetWeightParser parser,
-                                                                       Collection<InboundArc> arcs) {
-        Map<String, Map<String, Double>> result = new HashMap<>();
-        for (InboundArc arc : arcs) {
-            String placeId = arc.getSource().getId();
-            Map<String, String> arcWeights = arc.getTokenWeights();
-            Map<String, Double> weights = evaluateArcWeight(parser, arcWeights);
-            result.put(placeId, weights);
-        }
-
-        return result;
+    @Override
+    public boolean isInfiniteServer() {
+        return infiniteServer;
     }
 
     /**
      * A Transition is enabled if all its input places are marked with at least one token
      * This method calculates the minimum number of tokens needed in order for a transition to be enabled
      * <p>
-     * The enabling degree is the number of times that a transition is enabled
+     * The enabling degree is the number of times that a transition is enabled. The inbound arc weights
+     * are compiled once, so constant weights are read from an array and a visitor for the state is only
+     * created for functional weights.
      * </p>
+     * @param petriNet petri net this transition belongs to
      * @param state state of the petri net
-     * @param arcWeights evaluated arc weights for the given state
      * @return number of times this transition is enabled for the given state
      */
-    private int getEnablingDegree(State state, Map<String, Map<String, Double>> arcWeights) {
-        int enablingDegree = Integer.MAX_VALUE;
-
-        for (Map.Entry<String, Map<String, Double>> entry : arcWeights.entrySet()) {
-            String placeId = entry.getKey();
-            Map<String, Double> weights = entry.getValue();
-            for (Map.Entry<String, Double> weightEntry : weights.entrySet()) {
-                String tokenId = weightEntry.getKey();
-                Double weight = weightEntry.getValue();
-
-                int requiredTokenCount = (int) floor(weight);
-                if (requiredTokenCount == 0) {
-                    enablingDegree = 0;
-                } else {
-                    Map<String, Integer> tokenCount = state.getTokens(placeId);
-                    int placeTokenCount = tokenCount.get(tokenId);
-                    int currentDegree = placeTokenCount / requiredTokenCount;
-                    if (currentDegree < enablingDegree) {
-                        enablingDegree = currentDegree;
-                    }
-                }
-            }
-
+    private int getEnablingDegree(PetriNet petriNet, State state) {
+        InboundWeights weights = inboundWeights;
+        if (weights == null || weights.petriNet != petriNet) {
+            weights = compileInboundWeights(petriNet);
         }
-        return enablingDegree;
+        return weights.getEnablingDegree(state);
     }
 
     /**
-     * Parses a string representation of a weight with respect to the Petri net
-     *
-     * @param parser     parser for a given state of the Petri net
-     * @param arcWeights arc weights
-     * @return arc weights evaluated to the current state
+     * Compiles the weights of the inbound arcs and listens for changes that would make them stale
+     * @param petriNet petri net this transition belongs to
+     * @return compiled inbound arc weights
      */
-
-    private Map<String, Double> evaluateArcWeight(PetriNetWeightParser parser, Map<String, String> arcWeights) {
-        Map<String, Double> result = new HashMap<>();
-        for (Map.Entry<String, String> entry : arcWeights.entrySet()) {
-            String tokenId = entry.getKey();
-            double arcWeight = getArcWeight(parser, arcWeights.get(tokenId));
-            result.put(tokenId, arcWeight);
+    private synchronized InboundWeights compileInboundWeights(PetriNet petriNet) {
+        InboundWeights weights = inboundWeights;
+        if (weights != null && weights.petriNet == petriNet) {
+            return weights;
         }
-        return result;
+        releaseInboundWeights();
+        weights = new InboundWeights(petriNet, petriNet.inboundArcs(this));
+        petriNet.addPropertyChangeListener(inboundWeightsListener);
+        for (InboundArc arc : weights.arcs) {
+            arc.addPropertyChangeListener(inboundWeightsListener);
+        }
+        inboundWeights = weights;
+        return weights;
     }
 
     /**
-     * @param parser parser for a given state of the Petri net
-     * @param weight arc functional rate
-     * @return arc weight for a given state
+     * Forgets the compiled inbound arc weights and stops listening for their changes
      */
-    private double getArcWeight(PetriNetWeightParser parser, String weight) {
-        FunctionalResults<Double> result = parser.evaluateExpression(weight);
-        if (result.hasErrors()) {
-            //TODO:
-            throw new RuntimeException("Could not parse arc weight");
+    private synchronized void releaseInboundWeights() {
+        InboundWeights weights = inboundWeights;
+        if (weights != null) {
+            inboundWeights = null;
+            weights.petriNet.removePropertyChangeListener(inboundWeightsListener);
+            for (InboundArc arc : weights.arcs) {
+                arc.removePropertyChangeListener(inboundWeightsListener);
+            }
         }
-
-        return result.getResult();
     }
 
     /**
@@ -442,7 +472,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     public void setInfiniteServer(boolean infiniteServer) {
         boolean old = this.infiniteServer;
         this.infiniteServer = infiniteServer;
-        changeSupport.firePropertyChange(INFINITE_SEVER_CHANGE_MESSAGE, old, infiniteServer);
+        firePropertyChange(INFINITE_SEVER_CHANGE_MESSAGE, old, infiniteServer);
     }
 
     /**
@@ -462,7 +492,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     public void setAngle(int angle) {
         int old = this.angle;
         this.angle = angle;
-        changeSupport.firePropertyChange(ANGLE_CHANGE_MESSAGE, old, angle);
+        firePropertyChange(ANGLE_CHANGE_MESSAGE, old, angle);
     }
 
     /**
@@ -482,7 +512,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     public void setTimed(boolean timed) {
         boolean old = this.timed;
         this.timed = timed;
-        changeSupport.firePropertyChange(TIMED_CHANGE_MESSAGE, old, timed);
+        firePropertyChange(TIMED_CHANGE_MESSAGE, old, timed);
     }
 
     /**
@@ -524,7 +554,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     @Override
     public void enable() {
         enabled = true;
-        changeSupport.firePropertyChange(ENABLED_CHANGE_MESSAGE, false, true);
+        firePropertyChange(ENABLED_CHANGE_MESSAGE, false, true);
     }
 
     /**
@@ -533,7 +563,7 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     @Override
     public void disable() {
         enabled = false;
-        changeSupport.firePropertyChange(DISABLED_CHANGE_MESSAGE, true, false);
+        firePropertyChange(DISABLED_CHANGE_MESSAGE, true, false);
     }
 
     /**
@@ -544,4 +574,148 @@ public final class DiscreteTransition extends AbstractConnectable implements Tra
     public boolean isEnabled() {
         return enabled;
     }
+
+    /**
+     * Weights of the inbound arcs of a transition flattened into arrays, one entry per
+     * (arc, token) pair in arc order
+     */
+    private static final class InboundWeights {
+        /**
+         * Petri net the weights were compiled for
+         */
+        private final PetriNet petriNet;
+
+        /**
+         * Inbound arcs the weights were read from
+         */
+        private final InboundArc[] arcs;
+
+        /**
+         * Id of the source place of each arc
+         */
+        private final String[] placeIds;
+
+        /**
+         * Index into placeIds of each entry
+         */
+        private final int[] places;
+
+        /**
+         * Token id of each entry
+         */
+        private final String[] tokenIds;
+
+        /**
+         * Constant weight of each entry, NaN if the weight is functional
+         */
+        private final double[] weights;
+
+        /**
+         * Functional weight of each entry, null if the weight is constant or cannot be evaluated
+         * in the Petri net
+         */
+        private final ParsedExpression[] functionalWeights;
+
+        /**
+         * Compiles the weights
+         * @param petriNet Petri net the arcs belong to
+         * @param inbound  inbound arcs of the transition
+         */
+        private InboundWeights(PetriNet petriNet, Collection<InboundArc> inbound) {
+            this.petriNet = petriNet;
+            arcs = inbound.toArray(new InboundArc[inbound.size()]);
+            placeIds = new String[arcs.length];
+            List<Integer> entryPlaces = new ArrayList<>();
+            List<String> entryTokens = new ArrayList<>();
+            List<String> entryWeights = new ArrayList<>();
+            for (int arc = 0; arc < arcs.length; arc++) {
+                placeIds[arc] = arcs[arc].getSource().getId();
+                for (Map.Entry<String, String> entry : arcs[arc].getTokenWeights().entrySet()) {
+                    entryPlaces.add(arc);
+                    entryTokens.add(entry.getKey());
+                    entryWeights.add(entry.getValue());
+                }
+            }
+            int entries = entryTokens.size();
+            places = new int[entries];
+            tokenIds = entryTokens.toArray(new String[entries]);
+            weights = new double[entries];
+            functionalWeights = new ParsedExpression[entries];
+            for (int entry = 0; entry < entries; entry++) {
+                places[entry] = entryPlaces.get(entry);
+                ParsedExpression weight = GrammarUtils.compile(entryWeights.get(entry));
+                if (weight.isConstant()) {
+                    weights[entry] = weight.getConstant();
+                } else {
+                    weights[entry] = Double.NaN;
+                    functionalWeights[entry] = canEvaluate(weight) ? weight : null;
+                }
+            }
+        }
+
+        /**
+         * @param state state of the Petri net
+         * @return number of times the transition is enabled in the state
+         */
+        private int getEnablingDegree(State state) {
+            int enablingDegree = Integer.MAX_VALUE;
+            StateEvalVisitor visitor = null;
+            Map<String, Integer> tokenCounts = null;
+            int place = -1;
+            for (int entry = 0; entry < weights.length; entry++) {
+                double arcWeight = weights[entry];
+                if (Double.isNaN(arcWeight)) {
+                    if (visitor == null) {
+                        visitor = new StateEvalVisitor(petriNet, state);
+                    }
+                    arcWeight = evaluate(visitor, entry);
+                }
+
+                int requiredTokenCount = (int) floor(arcWeight);
+                if (requiredTokenCount == 0) {
+                    return 0;
+                }
+                if (places[entry] != place) {
+                    place = places[entry];
+                    tokenCounts = state.getTokens(placeIds[place]);
+                }
+                int currentDegree = tokenCounts.get(tokenIds[entry]) / requiredTokenCount;
+                if (currentDegree < enablingDegree) {
+                    enablingDegree = currentDegree;
+                }
+            }
+            return enablingDegree;
+        }
+
+        /**
+         * @param visitor visitor for the state of the Petri net
+         * @param entry   entry with a functional weight
+         * @return weight of the entry in the state
+         */
+        private double evaluate(StateEvalVisitor visitor, int entry) {
+            ParsedExpression weight = functionalWeights[entry];
+            Double result = weight == null ? null : visitor.visit(weight.getParseTree());
+            if (result == null || result < 0) {
+                //TODO:
+                throw new RuntimeException("Could not parse arc weight");
+            }
+            return result;
+        }
+
+        /**
+         * @param weight functional weight
+         * @return true if the weight parsed and every component it references is in the Petri net
+         */
+        private boolean canEvaluate(ParsedExpression weight) {
+            if (weight.hasErrors()) {
+                return false;
+            }
+            for (String id : weight.getComponents()) {
+                if (!petriNet.containsComponent(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -71,7 +71,7 @@ public final class FunctionalRateParameter extends AbstractPetriNetPubSub implem
     public void setExpression(String expression) {
         String old = this.expression;
         this.expression = expression;
-        changeSupport.firePropertyChange(EXPRESSION_CHANGE_MESSAGE, old, expression);
+        firePropertyChange(EXPRESSION_CHANGE_MESSAGE, old, expression);
     }
 
     /**
@@ -130,7 +130,7 @@ public final class FunctionalRateParameter extends AbstractPetriNetPubSub implem
     public void setId(String id) {
         String old = this.id;
         this.id = id;
-        changeSupport.firePropertyChange(ID_CHANGE_MESSAGE, old, id);
+        firePropertyChange(ID_CHANGE_MESSAGE, old, id);
     }
 
     @Override
@@ -36,19 +36,27 @@ public class InboundNormalArc extends InboundArc {
         	return false;
         }
         Map<String, String> tokenWeights = getTokenWeights();
-        StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
-        FunctionalWeightParser<Double> functionalWeightParser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
+        FunctionalWeightParser<Double> functionalWeightParser = null;
 
 
         for (Map.Entry<String, String> entry : tokenWeights.entrySet()) {
-            FunctionalResults<Double> results = functionalWeightParser.evaluateExpression(entry.getValue());
-            if (results.hasErrors()) {
-                //TODO: test when results has errors 
-                throw new RuntimeException("Errors evaluating arc weight against Petri net. Needs handling in code");
+            ParsedExpression weight = GrammarUtils.compile(entry.getValue());
+            double tokenWeight;
+            if (weight.isConstant()) {
+                tokenWeight = weight.getConstant();
+            } else {
+                if (functionalWeightParser == null) {
+                    StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
+                    functionalWeightParser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
+                }
+                FunctionalResults<Double> results = functionalWeightParser.evaluateExpression(entry.getValue());
+                if (results.hasErrors()) {
+                    //TODO: test when results has errors 
+                    throw new RuntimeException("Errors evaluating arc weight against Petri net. Needs handling in code");
+                }
+                tokenWeight = results.getResult();
             }
 
-            double tokenWeight = results.getResult();
-
             String tokenId = entry.getKey();
             int currentCount = tokenCounts.get(tokenId);
             if (currentCount < tokenWeight) {  
@@ -2,6 +2,8 @@ package uk.ac.imperial.pipe.models.petrinet;
 
 import uk.ac.imperial.pipe.parsers.FunctionalResults;
 import uk.ac.imperial.pipe.parsers.FunctionalWeightParser;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
 import uk.ac.imperial.pipe.parsers.PetriNetWeightParser;
 import uk.ac.imperial.pipe.parsers.StateEvalVisitor;
 import uk.ac.imperial.state.State;
@@ -75,11 +77,19 @@ public class OutboundNormalArc extends OutboundArc {
      * @return the sum of total number of tokens that the specified arc needs for its weight
      */
     private int getTokenCounts(PetriNet petriNet, State state, AbstractArc<? extends Connectable, ? extends Connectable> arc) {
-        StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
-        FunctionalWeightParser<Double> functionalWeightParser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
+        FunctionalWeightParser<Double> functionalWeightParser = null;
 
         int count = 0;
         for (Map.Entry<String, String> entry : arc.tokenWeights.entrySet()) {
+            ParsedExpression parsedWeight = GrammarUtils.compile(entry.getValue());
+            if (parsedWeight.isConstant()) {
+                count += parsedWeight.getConstant();
+                continue;
+            }
+            if (functionalWeightParser == null) {
+                StateEvalVisitor stateEvalVisitor = new StateEvalVisitor(petriNet, state);
+                functionalWeightParser = new PetriNetWeightParser(stateEvalVisitor, petriNet);
+            }
             FunctionalResults<Double> result =  functionalWeightParser.evaluateExpression(entry.getValue());
             if (result.hasErrors()) {
                 throw new RuntimeException("Cannot parse outbound arc weight");
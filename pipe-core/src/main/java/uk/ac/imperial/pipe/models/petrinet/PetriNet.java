@@ -10,6 +10,7 @@ import uk.ac.imperial.pipe.models.petrinet.name.PetriNetName;
 import uk.ac.imperial.pipe.parsers.EvalVisitor;
 import uk.ac.imperial.pipe.parsers.FunctionalResults;
 import uk.ac.imperial.pipe.parsers.FunctionalWeightParser;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
 import uk.ac.imperial.pipe.parsers.PetriNetWeightParser;
 import uk.ac.imperial.pipe.visitor.component.PetriNetComponentVisitor;
 
@@ -89,6 +90,22 @@ public class PetriNet {
      */
     public static final String DELETE_RATE_PARAMETER_CHANGE_MESSAGE = "deleteRateParameter";
 
+    /**
+     * Message fired when a bulk update is committed, its new value is a {@link PetriNetChange}
+     * listing all the components added and removed during the update
+     */
+    public static final String BULK_CHANGE_MESSAGE = "bulkChange";
+
+    /**
+     * Message fired when the id of a place in the Petri net changes, its old and new values are the ids
+     */
+    public static final String PLACE_ID_CHANGE_MESSAGE = "placeIdChange";
+
+    /**
+     * Message fired when the id of a transition in the Petri net changes, its old and new values are the ids
+     */
+    public static final String TRANSITION_ID_CHANGE_MESSAGE = "transitionIdChange";
+
     /**
      * Property change support used to fire messages and register listeners to
      */
@@ -150,6 +167,27 @@ public class PetriNet {
      */
     private final Multimap<String, InboundArc> transitionInboundArcs =  HashMultimap.create();
 
+    /**
+     * Maps component id -> transitions, arcs and rate parameters whose functional expressions reference it.
+     * Kept up to date as expressions change so that reference checks do not need to re-parse every expression
+     */
+    private final ComponentReferenceIndex expressionReferences = new ComponentReferenceIndex();
+
+    /**
+     * Maps token id -> arcs that have a weight for the token
+     */
+    private final ComponentReferenceIndex arcTokenWeights = new ComponentReferenceIndex();
+
+    /**
+     * Listens for rate, weight and expression changes to keep the reference indexes up to date
+     */
+    private final PropertyChangeListener expressionChangeListener = new ExpressionChangeListener();
+
+    /**
+     * Keeps the component maps up to date as ids change, a single instance shared by every component
+     */
+    private final PropertyChangeListener nameChangeListener = new NameChangeListener();
+
     /**
      * A tokens that will contain the maps specified above.
      * It's ID is the class type to tokens
@@ -165,6 +203,16 @@ public class PetriNet {
      */
     private final PetriNetComponentVisitor addVisitor = new PetriNetComponentAddVisitor(this);
 
+    /**
+     * Number of {@link #beginUpdate()} calls that have not yet been committed
+     */
+    private int updateDepth = 0;
+
+    /**
+     * Changes made since the outermost {@link #beginUpdate()}, null when no update is in progress
+     */
+    private PetriNetChange pendingChange;
+
     /**
      * Name of hte Petri net
      */
@@ -332,10 +380,10 @@ public class PetriNet {
      * @param place place to add to Petri net
      */
     public void addPlace(Place place) {
-        if (!places.containsValue(place)) {
+        if (!place.equals(places.get(place.getId()))) {
             places.put(place.getId(), place);
-            place.addPropertyChangeListener(new NameChangeListener<>(place, places));
-            changeSupport.firePropertyChange(NEW_PLACE_CHANGE_MESSAGE, null, place);
+            place.addPropertyChangeListener(nameChangeListener);
+            fireComponentAdded(NEW_PLACE_CHANGE_MESSAGE, place);
         }
     }
 
@@ -362,7 +410,7 @@ public class PetriNet {
         for (InboundArc arc : outboundArcs(place)) {
             removeArc(arc);
         }
-        changeSupport.firePropertyChange(DELETE_PLACE_CHANGE_MESSAGE, place, null);
+        fireComponentRemoved(DELETE_PLACE_CHANGE_MESSAGE, place);
     }
 
     /**
@@ -372,46 +420,73 @@ public class PetriNet {
      */
     private Collection<String> getComponentsReferencingId(String componentId) {
         Set<String> results = new HashSet<>();
-        for (Transition transition : getTransitions()) {
-            if (referencesId(transition.getRateExpr(), componentId)) {
-                results.add(transition.getId());
-            }
-        }
-        for (Arc<?, ?> arc : getArcs()) {
-            for (String expr : arc.getTokenWeights().values()) {
-                if (referencesId(expr, componentId)) {
-                    results.add(arc.getId());
-                    break;
-                }
-            }
-        }
-        for (RateParameter rateParameter : getRateParameters()) {
-            if (referencesId(rateParameter.getExpression(), componentId)) {
-                results.add(rateParameter.getId());
-            }
+        for (PetriNetComponent component : expressionReferences.getReferencing(componentId)) {
+            results.add(component.getId());
         }
         return results;
     }
 
     /**
      *
-     * @param expr
-     * @param id
-     * @return true if the component id is referenced in the functional expression
+     * @param expression functional expression, may be null
+     * @return ids of the components that the expression references
      */
-    private boolean referencesId(String expr, String id) {
-        Collection<String> components = getComponents(expr);
-        return components.contains(id);
+    private static Collection<String> getReferencedComponents(String expression) {
+        if (expression == null) {
+            return Collections.emptySet();
+        }
+        return GrammarUtils.getReferencedComponents(expression);
     }
 
     /**
-     *
-     * @param expression
-     * @return a list of components that the expression references
+     * Records the components the transitions rate references
+     * @param transition transition whose rate has been set
+     */
+    private void indexRate(Transition transition) {
+        Rate rate = transition.getRate();
+        String expression = rate == null ? null : rate.getExpression();
+        expressionReferences.put(transition, getReferencedComponents(expression));
+    }
+
+    /**
+     * Records the components and tokens the arcs weights reference
+     * @param arc arc whose weights have been set
+     */
+    private void indexWeights(Arc<? extends Connectable, ? extends Connectable> arc) {
+        Map<String, String> weights = arc.getTokenWeights();
+        if (weights == null) {
+            return;
+        }
+        Set<String> referenced = new HashSet<>();
+        for (String weight : weights.values()) {
+            referenced.addAll(getReferencedComponents(weight));
+        }
+        expressionReferences.put(arc, referenced);
+        arcTokenWeights.put(arc, weights.keySet());
+    }
+
+    /**
+     * Records the components the rate parameters expression references, along with
+     * those of the transitions whose rate is the parameter
+     * @param rateParameter rate parameter whose expression has been set
      */
-    private Collection<String> getComponents(String expression) {
-        FunctionalResults<Double> results = parseExpression(expression);
-        return results.getComponents();
+    private void indexExpression(RateParameter rateParameter) {
+        expressionReferences.put(rateParameter, getReferencedComponents(rateParameter.getExpression()));
+        for (Transition transition : transitions.values()) {
+            if (rateParameter.equals(transition.getRate())) {
+                indexRate(transition);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the references the component makes
+     * @param component transition, arc or rate parameter being removed
+     */
+    private void deindex(PetriNetComponent component) {
+        component.removePropertyChangeListener(expressionChangeListener);
+        expressionReferences.remove(component);
+        arcTokenWeights.remove(component);
     }
 
     /**
@@ -436,7 +511,8 @@ public class PetriNet {
     public void removeArc(InboundArc arc) {
         inboundArcs.remove(arc.getId());
         transitionInboundArcs.remove(arc.getTarget().getId(), arc);
-        changeSupport.firePropertyChange(DELETE_ARC_CHANGE_MESSAGE, arc, null);
+        deindex(arc);
+        fireComponentRemoved(DELETE_ARC_CHANGE_MESSAGE, arc);
     }
 
     /**
@@ -445,11 +521,12 @@ public class PetriNet {
      * @param transition transition to add to the Petri net
      */
     public void addTransition(Transition transition) {
-        if (!transitions.containsValue(transition)) {
+        if (!transition.equals(transitions.get(transition.getId()))) {
             transitions.put(transition.getId(), transition);
-            transition.addPropertyChangeListener(new NameChangeListener<>(transition, transitions));
-            transition.addPropertyChangeListener(new NameChangeArcListener());
-            changeSupport.firePropertyChange(NEW_TRANSITION_CHANGE_MESSAGE, null, transition);
+            transition.addPropertyChangeListener(nameChangeListener);
+            transition.addPropertyChangeListener(expressionChangeListener);
+            indexRate(transition);
+            fireComponentAdded(NEW_TRANSITION_CHANGE_MESSAGE, transition);
         }
     }
 
@@ -466,7 +543,8 @@ public class PetriNet {
         }
         transitionOutboundArcs.removeAll(transition.getId());
         transitionInboundArcs.removeAll(transition.getId());
-        changeSupport.firePropertyChange(DELETE_TRANSITION_CHANGE_MESSAGE, transition, null);
+        deindex(transition);
+        fireComponentRemoved(DELETE_TRANSITION_CHANGE_MESSAGE, transition);
     }
 
     /**
@@ -488,7 +566,8 @@ public class PetriNet {
     public void removeArc(OutboundArc arc) {
         outboundArcs.remove(arc.getId());
         transitionOutboundArcs.remove(arc.getSource().getId(), arc);
-        changeSupport.firePropertyChange(DELETE_ARC_CHANGE_MESSAGE, arc, null);
+        deindex(arc);
+        fireComponentRemoved(DELETE_ARC_CHANGE_MESSAGE, arc);
     }
 
     /**
@@ -508,8 +587,10 @@ public class PetriNet {
         if (!inboundArcs.containsKey(inboundArc.getId())) {
             inboundArcs.put(inboundArc.getId(), inboundArc);
             transitionInboundArcs.put(inboundArc.getTarget().getId(), inboundArc);
-            inboundArc.addPropertyChangeListener(new NameChangeListener<>(inboundArc, inboundArcs));
-            changeSupport.firePropertyChange(NEW_ARC_CHANGE_MESSAGE, null, inboundArc);
+            inboundArc.addPropertyChangeListener(nameChangeListener);
+            inboundArc.addPropertyChangeListener(expressionChangeListener);
+            indexWeights(inboundArc);
+            fireComponentAdded(NEW_ARC_CHANGE_MESSAGE, inboundArc);
         }
     }
 
@@ -521,8 +602,10 @@ public class PetriNet {
         if (!outboundArcs.containsKey(outboundArc.getId())) {
             outboundArcs.put(outboundArc.getId(), outboundArc);
             transitionOutboundArcs.put(outboundArc.getSource().getId(), outboundArc);
-            outboundArc.addPropertyChangeListener(new NameChangeListener<>(outboundArc, outboundArcs));
-            changeSupport.firePropertyChange(NEW_ARC_CHANGE_MESSAGE, null, outboundArc);
+            outboundArc.addPropertyChangeListener(nameChangeListener);
+            outboundArc.addPropertyChangeListener(expressionChangeListener);
+            indexWeights(outboundArc);
+            fireComponentAdded(NEW_ARC_CHANGE_MESSAGE, outboundArc);
         }
     }
 
@@ -560,9 +643,8 @@ public class PetriNet {
     public void addToken(Token token) {
         if (!tokens.containsValue(token)) {
             tokens.put(token.getId(), token);
-            token.addPropertyChangeListener(new NameChangeListener<>(token, tokens));
-            token.addPropertyChangeListener(new TokenNameChanger());
-            changeSupport.firePropertyChange(NEW_TOKEN_CHANGE_MESSAGE, null, token);
+            token.addPropertyChangeListener(nameChangeListener);
+            fireComponentAdded(NEW_TOKEN_CHANGE_MESSAGE, token);
         }
     }
 
@@ -577,7 +659,7 @@ public class PetriNet {
         Collection<Transition> referencedTransitions = getTransitionsReferencingToken(token);
         if (referencedPlaces.isEmpty() && referencedTransitions.isEmpty()) {
             tokens.remove(token.getId());
-            changeSupport.firePropertyChange(DELETE_TOKEN_CHANGE_MESSAGE, token, null);
+            fireComponentRemoved(DELETE_TOKEN_CHANGE_MESSAGE, token);
             return;
         }
         StringBuilder message = new StringBuilder();
@@ -620,10 +702,9 @@ public class PetriNet {
      */
     private Collection<Transition> getTransitionsReferencingToken(Token token) {
         Collection<Transition> result = new LinkedList<>();
-        for (Transition transition : transitions.values()) {
-            FunctionalResults<Double> results = functionalWeightParser.evaluateExpression(transition.getRateExpr());
-            if (results.getComponents().contains(token.getId())) {
-                result.add(transition);
+        for (PetriNetComponent component : expressionReferences.getReferencing(token.getId())) {
+            if (component instanceof Transition) {
+                result.add((Transition) component);
             }
         }
         return result;
@@ -644,8 +725,8 @@ public class PetriNet {
     public void addAnnotation(Annotation annotation) {
         if (!annotations.containsKey(annotation.getId())) {
             annotations.put(annotation.getId(), annotation);
-            annotation.addPropertyChangeListener(new NameChangeListener<>(annotation, annotations));
-            changeSupport.firePropertyChange(NEW_ANNOTATION_CHANGE_MESSAGE, null, annotation);
+            annotation.addPropertyChangeListener(nameChangeListener);
+            fireComponentAdded(NEW_ANNOTATION_CHANGE_MESSAGE, annotation);
         }
     }
 
@@ -656,7 +737,7 @@ public class PetriNet {
      */
     public void removeAnnotation(Annotation annotation) {
         annotations.remove(annotation.getId());
-        changeSupport.firePropertyChange(DELETE_ANNOTATION_CHANGE_MESSAGE, annotation, null);
+        fireComponentRemoved(DELETE_ANNOTATION_CHANGE_MESSAGE, annotation);
     }
 
     /**
@@ -679,8 +760,10 @@ public class PetriNet {
 
         if (!rateParameters.containsValue(rateParameter)) {
             rateParameters.put(rateParameter.getId(), rateParameter);
-            rateParameter.addPropertyChangeListener(new NameChangeListener<>(rateParameter, rateParameters));
-            changeSupport.firePropertyChange(NEW_RATE_PARAMETER_CHANGE_MESSAGE, null, rateParameter);
+            rateParameter.addPropertyChangeListener(nameChangeListener);
+            rateParameter.addPropertyChangeListener(expressionChangeListener);
+            indexExpression(rateParameter);
+            fireComponentAdded(NEW_RATE_PARAMETER_CHANGE_MESSAGE, rateParameter);
         }
     }
 
@@ -706,7 +789,8 @@ public class PetriNet {
     public void removeRateParameter(RateParameter parameter) {
         removeRateParameterFromTransitions(parameter);
         rateParameters.remove(parameter.getId());
-        changeSupport.firePropertyChange(DELETE_RATE_PARAMETER_CHANGE_MESSAGE, parameter, null);
+        deindex(parameter);
+        fireComponentRemoved(DELETE_RATE_PARAMETER_CHANGE_MESSAGE, parameter);
     }
 
     /**
@@ -754,6 +838,127 @@ public class PetriNet {
         }
     }
 
+    /**
+     * Adds all the components to the Petri net as a single bulk update, publishing one
+     * {@link #BULK_CHANGE_MESSAGE} rather than a message per component.
+     * <p>
+     * Components are added in dependency order: tokens, places, rate parameters, transitions,
+     * arcs and then annotations, so the collection may be given in any order.
+     * </p>
+     *
+     * @param components to be added
+     * @throws PetriNetComponentException if a component cannot be added, components added before
+     *                                    the failure remain in the Petri net and are published
+     */
+    public void addAll(Collection<? extends PetriNetComponent> components) throws PetriNetComponentException {
+        ComponentSorter sorter = new ComponentSorter();
+        for (PetriNetComponent component : components) {
+            component.accept(sorter);
+        }
+        beginUpdate();
+        try {
+            for (PetriNetComponent component : sorter.inAdditionOrder()) {
+                component.accept(addVisitor);
+            }
+        } finally {
+            commitUpdate();
+        }
+    }
+
+    /**
+     * Removes all the components contained in the Petri net as a single bulk update, publishing one
+     * {@link #BULK_CHANGE_MESSAGE} rather than a message per component.
+     * <p>
+     * Components are removed in the reverse order to {@link #addAll(Collection)} so that arcs
+     * are removed before the places and transitions they connect. Components not contained
+     * in the Petri net are ignored.
+     * </p>
+     *
+     * @param components to be removed
+     * @throws PetriNetComponentException if a component cannot be removed, components removed before
+     *                                    the failure remain removed and are published
+     */
+    public void removeAll(Collection<? extends PetriNetComponent> components) throws PetriNetComponentException {
+        ComponentSorter sorter = new ComponentSorter();
+        for (PetriNetComponent component : components) {
+            component.accept(sorter);
+        }
+        beginUpdate();
+        try {
+            for (PetriNetComponent component : sorter.inRemovalOrder()) {
+                remove(component);
+            }
+        } finally {
+            commitUpdate();
+        }
+    }
+
+    /**
+     * Starts a bulk update. Until the matching {@link #commitUpdate()} component addition and
+     * removal messages are not fired, instead they are aggregated into a single
+     * {@link #BULK_CHANGE_MESSAGE}. Updates may be nested, in which case the message is fired
+     * when the outermost update is committed.
+     */
+    public void beginUpdate() {
+        if (updateDepth == 0) {
+            pendingChange = new PetriNetChange();
+        }
+        updateDepth++;
+    }
+
+    /**
+     * Finishes a bulk update started with {@link #beginUpdate()}. Committing the outermost update
+     * fires a {@link #BULK_CHANGE_MESSAGE} if any components were added or removed.
+     */
+    public void commitUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("No update in progress to commit");
+        }
+        updateDepth--;
+        if (updateDepth == 0) {
+            PetriNetChange change = pendingChange;
+            pendingChange = null;
+            if (!change.isEmpty()) {
+                changeSupport.firePropertyChange(BULK_CHANGE_MESSAGE, null, change);
+            }
+        }
+    }
+
+    /**
+     * @return true if a bulk update is in progress
+     */
+    public boolean isUpdating() {
+        return updateDepth > 0;
+    }
+
+    /**
+     * Publishes the addition of a component, either immediately or as part of the
+     * bulk update in progress
+     * @param message message describing the addition
+     * @param component added component
+     */
+    private void fireComponentAdded(String message, PetriNetComponent component) {
+        if (pendingChange != null) {
+            pendingChange.componentAdded(message, component);
+        } else {
+            changeSupport.firePropertyChange(message, null, component);
+        }
+    }
+
+    /**
+     * Publishes the removal of a component, either immediately or as part of the
+     * bulk update in progress
+     * @param message message describing the removal
+     * @param component removed component
+     */
+    private void fireComponentRemoved(String message, PetriNetComponent component) {
+        if (pendingChange != null) {
+            pendingChange.componentRemoved(message, component);
+        } else {
+            changeSupport.firePropertyChange(message, component, null);
+        }
+    }
+
     /**
      * @return true if the Petri net contains a default token
      */
@@ -846,91 +1051,78 @@ public class PetriNet {
     }
 
     /**
-     * Listener for changing a components name in the set it is referenced by
-     * @param <T>
+     * Listener for changing a components name in the map it is referenced by. A single instance
+     * listens to every component of the Petri net, working out the map from the type of the component
      */
-    private static class NameChangeListener<T extends PetriNetComponent> implements PropertyChangeListener {
-        /**
-         * Comoponent whose name will change
-         */
-        private final T component;
-
-        /**
-         * Component map that houses the component, needs to be updated on name change
-         */
-        private final Map<String, T> componentMap;
-
-        /**
-         * Constructor
-         * @param component
-         * @param componentMap
-         */
-        public NameChangeListener(T component, Map<String, T> componentMap) {
-            this.component = component;
-            this.componentMap = componentMap;
-        }
+    private class NameChangeListener implements PropertyChangeListener {
 
         /**
-         * If the name/id of the component changes then it is updated in the component map.
-         * That is the old key is removed and the compoennt is readded with the new name.
+         * If the name/id of the component changes then it is updated in its component map.
+         * Transition name changes also re-key the transitions arcs, and token name changes
+         * the token counts of places and the weights of arcs.
          * @param evt
          */
         @Override
         public void propertyChange(PropertyChangeEvent evt) {
-            if (evt.getPropertyName().equals(PetriNetComponent.ID_CHANGE_MESSAGE)) {
-                String oldId = (String) evt.getOldValue();
-                String newId = (String) evt.getNewValue();
-                componentMap.remove(oldId);
-                componentMap.put(newId, component);
+            if (!evt.getPropertyName().equals(PetriNetComponent.ID_CHANGE_MESSAGE)) {
+                return;
+            }
+            String oldId = (String) evt.getOldValue();
+            String newId = (String) evt.getNewValue();
+            Object source = evt.getSource();
+            if (source instanceof Place) {
+                rename((Place) source, places, oldId, newId, PLACE_ID_CHANGE_MESSAGE);
+            } else if (source instanceof Transition) {
+                rename((Transition) source, transitions, oldId, newId, TRANSITION_ID_CHANGE_MESSAGE);
+                changeTransitionArcs(oldId, newId);
+            } else if (source instanceof InboundArc) {
+                rename((InboundArc) source, inboundArcs, oldId, newId, null);
+            } else if (source instanceof OutboundArc) {
+                rename((OutboundArc) source, outboundArcs, oldId, newId, null);
+            } else if (source instanceof Token) {
+                rename((Token) source, tokens, oldId, newId, null);
+                changePlaceTokens(oldId, newId);
+                changeArcTokens(oldId, newId);
+            } else if (source instanceof Annotation) {
+                rename((Annotation) source, annotations, oldId, newId, null);
+            } else if (source instanceof RateParameter) {
+                rename((RateParameter) source, rateParameters, oldId, newId, null);
             }
-
         }
-    }
-
-    /**
-     * This class is responsible for changing inbound and outbound arc references from
-     * a transition id change
-     */
-    private class NameChangeArcListener implements PropertyChangeListener {
 
         /**
-         * If a transition changes name then this is updated in the maps by removing the key
-         * and replacing the inbound/outbound arcs with the new name as the key.
-         * @param evt
+         * Removes the old key of the component and re-adds the component with the new one
+         * @param component       component whose id changed
+         * @param componentMap    component map that houses the component
+         * @param oldId           previous id
+         * @param newId           new id
+         * @param idChangeMessage message fired by the Petri net when the id changes, so that listeners
+         *                        need not listen to every component, null if none is fired
          */
-        @Override
-        public void propertyChange(PropertyChangeEvent evt) {
-            if (evt.getPropertyName().equals(PetriNetComponent.ID_CHANGE_MESSAGE)) {
-                String oldId = (String) evt.getOldValue();
-                String newId = (String) evt.getNewValue();
-                Collection<InboundArc> inbound = transitionInboundArcs.removeAll(oldId);
-                Collection<OutboundArc> outbound = transitionOutboundArcs.removeAll(oldId);
-                transitionInboundArcs.putAll(newId, inbound);
-                transitionOutboundArcs.putAll(newId, outbound);
+        private <T extends PetriNetComponent> void rename(T component, Map<String, T> componentMap, String oldId,
+                                                          String newId, String idChangeMessage) {
+            boolean contained = componentMap.get(oldId) == component;
+            componentMap.remove(oldId);
+            componentMap.put(newId, component);
+            if (contained && idChangeMessage != null) {
+                changeSupport.firePropertyChange(idChangeMessage, oldId, newId);
             }
         }
-    }
-
-    /**
-     * Listens for name changes of a token
-     */
-    private class TokenNameChanger implements PropertyChangeListener {
 
         /**
-         * When a tokens name changes then the maps in the places and arc need adjusting
-         * @param evt
+         * If a transition changes name then this is updated in the maps by removing the key
+         * and replacing the inbound/outbound arcs with the new name as the key.
+         *
+         * @param oldId old transition id
+         * @param newId new transition id
          */
-        @Override
-        public void propertyChange(PropertyChangeEvent evt) {
-            if (evt.getPropertyName().equals(PetriNetComponent.ID_CHANGE_MESSAGE)) {
-                String oldId = (String) evt.getOldValue();
-                String newId = (String) evt.getNewValue();
-                changePlaceTokens(oldId, newId);
-                changeArcTokens(oldId, newId);
-            }
+        private void changeTransitionArcs(String oldId, String newId) {
+            Collection<InboundArc> inbound = transitionInboundArcs.removeAll(oldId);
+            Collection<OutboundArc> outbound = transitionOutboundArcs.removeAll(oldId);
+            transitionInboundArcs.putAll(newId, inbound);
+            transitionOutboundArcs.putAll(newId, outbound);
         }
 
-
         /**
          *
          * Changes references of token counts in place containing old id to new id
@@ -954,7 +1146,8 @@ public class PetriNet {
          * @param newId new token id
          */
         private void changeArcTokens(String oldId, String newId) {
-            for (Arc<? extends Connectable, ? extends Connectable> arc : getArcs()) {
+            for (PetriNetComponent component : arcTokenWeights.getReferencing(oldId)) {
+                Arc<?, ?> arc = (Arc<?, ?>) component;
                 if (arc.getTokenWeights().containsKey(oldId)) {
                     String weight = arc.getWeightForToken(oldId);
                     arc.removeAllTokenWeights(oldId);
@@ -964,6 +1157,37 @@ public class PetriNet {
         }
     }
 
+    /**
+     * Re-indexes the references of a transition, arc or rate parameter when its
+     * functional expression changes
+     */
+    private class ExpressionChangeListener implements PropertyChangeListener {
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            Object source = evt.getSource();
+            switch (evt.getPropertyName()) {
+                case Transition.RATE_CHANGE_MESSAGE:
+                    if (source instanceof Transition) {
+                        indexRate((Transition) source);
+                    }
+                    break;
+                case Arc.WEIGHT_CHANGE_MESSAGE:
+                    if (source instanceof Arc) {
+                        indexWeights((Arc<?, ?>) source);
+                    }
+                    break;
+                case RateParameter.EXPRESSION_CHANGE_MESSAGE:
+                    if (source instanceof RateParameter) {
+                        indexExpression((RateParameter) source);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     /**
      *
      * @return a set of all component id's contained within this Petri net
@@ -982,6 +1206,85 @@ public class PetriNet {
      * @return true if a component with the given id exists in the Petri net
      */
     public boolean contains(String id) {
-        return getComponentIds().contains(id);
+        return containsComponent(id);
+    }
+
+    /**
+     * Sorts components by type so that they can be added and removed in an order
+     * that respects the dependencies between them
+     */
+    private static final class ComponentSorter
+            implements PlaceVisitor, TransitionVisitor, ArcVisitor, TokenVisitor, AnnotationVisitor,
+            RateParameterVisitor {
+
+        private final List<PetriNetComponent> tokens = new ArrayList<>();
+
+        private final List<PetriNetComponent> places = new ArrayList<>();
+
+        private final List<PetriNetComponent> rateParameters = new ArrayList<>();
+
+        private final List<PetriNetComponent> transitions = new ArrayList<>();
+
+        private final List<PetriNetComponent> arcs = new ArrayList<>();
+
+        private final List<PetriNetComponent> annotations = new ArrayList<>();
+
+        @Override
+        public void visit(Place place) {
+            places.add(place);
+        }
+
+        @Override
+        public void visit(Transition transition) {
+            transitions.add(transition);
+        }
+
+        @Override
+        public void visit(InboundArc inboundArc) {
+            arcs.add(inboundArc);
+        }
+
+        @Override
+        public void visit(OutboundArc outboundArc) {
+            arcs.add(outboundArc);
+        }
+
+        @Override
+        public void visit(Token token) {
+            tokens.add(token);
+        }
+
+        @Override
+        public void visit(Annotation annotation) {
+            annotations.add(annotation);
+        }
+
+        @Override
+        public void visit(FunctionalRateParameter rate) {
+            rateParameters.add(rate);
+        }
+
+        /**
+         * @return components ordered such that anything a component depends on precedes it
+         */
+        private List<PetriNetComponent> inAdditionOrder() {
+            List<PetriNetComponent> ordered = new ArrayList<>();
+            ordered.addAll(tokens);
+            ordered.addAll(places);
+            ordered.addAll(rateParameters);
+            ordered.addAll(transitions);
+            ordered.addAll(arcs);
+            ordered.addAll(annotations);
+            return ordered;
+        }
+
+        /**
+         * @return components ordered such that anything depending on a component precedes it
+         */
+        private List<PetriNetComponent> inRemovalOrder() {
+            List<PetriNetComponent> ordered = inAdditionOrder();
+            Collections.reverse(ordered);
+            return ordered;
+        }
     }
 }
@@ -0,0 +1,167 @@
+package uk.ac.imperial.pipe.models.petrinet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated record of the components added to and removed from a Petri net during a bulk update.
+ * <p>
+ * It is published as the new value of a {@link PetriNet#BULK_CHANGE_MESSAGE} event once the
+ * outermost update is committed. Each component is recorded against the message that would have been
+ * fired had it been added or removed on its own, e.g. a place added is stored under
+ * {@link PetriNet#NEW_PLACE_CHANGE_MESSAGE} and a place removed under
+ * {@link PetriNet#DELETE_PLACE_CHANGE_MESSAGE}.
+ * </p>
+ * <p>
+ * Listeners should process the removed components before the added ones. A component that is added
+ * and then removed within the same update does not appear in either.
+ * </p>
+ */
+public final class PetriNetChange {
+
+    /**
+     * Added components in the order they were added
+     */
+    private final List<PetriNetComponent> added = new LinkedList<>();
+
+    /**
+     * Removed components in the order they were removed
+     */
+    private final List<PetriNetComponent> removed = new LinkedList<>();
+
+    /**
+     * Added component -&gt; message it was added under.
+     * Identity based since component equality depends on mutable state
+     */
+    private final Map<PetriNetComponent, String> addedMessages = new IdentityHashMap<>();
+
+    /**
+     * Removed component -&gt; message it was removed under
+     */
+    private final Map<PetriNetComponent, String> removedMessages = new IdentityHashMap<>();
+
+    /**
+     * Records the addition of a component
+     * @param message change message the component would have been individually published with
+     * @param component added component
+     */
+    void componentAdded(String message, PetriNetComponent component) {
+        added.add(component);
+        addedMessages.put(component, message);
+    }
+
+    /**
+     * Records the removal of a component. If the component was added as part of this change
+     * its addition is cancelled instead.
+     * @param message change message the component would have been individually published with
+     * @param component removed component
+     */
+    void componentRemoved(String message, PetriNetComponent component) {
+        if (addedMessages.remove(component) != null) {
+            removeByIdentity(added, component);
+            return;
+        }
+        removed.add(component);
+        removedMessages.put(component, message);
+    }
+
+    /**
+     * @return true if no components were added or removed
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * @return all components added in the order they were added
+     */
+    public Collection<PetriNetComponent> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /**
+     * @param message new component message, e.g. {@link PetriNet#NEW_PLACE_CHANGE_MESSAGE}
+     * @return the components added under the message
+     */
+    public Collection<PetriNetComponent> getAdded(String message) {
+        return filter(added, addedMessages, message);
+    }
+
+    /**
+     * @return all components removed in the order they were removed
+     */
+    public Collection<PetriNetComponent> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * @param message delete component message, e.g. {@link PetriNet#DELETE_PLACE_CHANGE_MESSAGE}
+     * @return the components removed under the message
+     */
+    public Collection<PetriNetComponent> getRemoved(String message) {
+        return filter(removed, removedMessages, message);
+    }
+
+    /**
+     * @return ids of all the added components
+     */
+    public Collection<String> getAddedIds() {
+        return ids(added);
+    }
+
+    /**
+     * @return ids of all the removed components
+     */
+    public Collection<String> getRemovedIds() {
+        return ids(removed);
+    }
+
+    /**
+     * @param components to filter
+     * @param messages   component -&gt; message
+     * @param message    message to keep
+     * @return components recorded under the message
+     */
+    private static Collection<PetriNetComponent> filter(List<PetriNetComponent> components,
+                                                        Map<PetriNetComponent, String> messages, String message) {
+        Collection<PetriNetComponent> result = new ArrayList<>();
+        for (PetriNetComponent component : components) {
+            if (message.equals(messages.get(component))) {
+                result.add(component);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param components components
+     * @return their ids
+     */
+    private static Collection<String> ids(List<PetriNetComponent> components) {
+        Collection<String> result = new ArrayList<>(components.size());
+        for (PetriNetComponent component : components) {
+            result.add(component.getId());
+        }
+        return result;
+    }
+
+    /**
+     * Removes the exact component instance from the list
+     * @param components list to remove from
+     * @param component instance to remove
+     */
+    private static void removeByIdentity(List<PetriNetComponent> components, PetriNetComponent component) {
+        for (Iterator<PetriNetComponent> iterator = components.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == component) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+}
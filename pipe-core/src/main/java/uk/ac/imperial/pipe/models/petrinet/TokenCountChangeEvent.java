@@ -0,0 +1,49 @@
+package uk.ac.imperial.pipe.models.petrinet;
+
+import java.beans.PropertyChangeEvent;
+
+/**
+ * {@link Place#TOKEN_CHANGE_MESSAGE} event describing the change of a single token count,
+ * its old and new values are the old and new counts
+ */
+@SuppressWarnings("serial")
+public final class TokenCountChangeEvent extends PropertyChangeEvent {
+
+    /**
+     * Id of the token whose count changed
+     */
+    private final String tokenId;
+
+    /**
+     * Constructor
+     * @param place    place whose token count changed
+     * @param tokenId  id of the token whose count changed
+     * @param oldCount count before the change, zero if the place did not hold the token
+     * @param newCount count after the change
+     */
+    public TokenCountChangeEvent(Place place, String tokenId, int oldCount, int newCount) {
+        super(place, Place.TOKEN_CHANGE_MESSAGE, oldCount, newCount);
+        this.tokenId = tokenId;
+    }
+
+    /**
+     * @return id of the token whose count changed
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    /**
+     * @return count before the change
+     */
+    public int getOldCount() {
+        return (Integer) getOldValue();
+    }
+
+    /**
+     * @return count after the change
+     */
+    public int getNewCount() {
+        return (Integer) getNewValue();
+    }
+}
@@ -1,5 +1,6 @@
 package uk.ac.imperial.pipe.models.petrinet;
 
+import uk.ac.imperial.pipe.parsers.ExpressionType;
 import uk.ac.imperial.state.State;
 
 /**
@@ -85,6 +86,12 @@ public interface Transition extends Connectable {
      */
     String getRateExpr();
 
+    /**
+     *
+     * @return what the rate depends on, including when the rate is a rate parameter
+     */
+    ExpressionType getRateExpressionType();
+
     /**
      *
      * @return true if infinite server, false if single
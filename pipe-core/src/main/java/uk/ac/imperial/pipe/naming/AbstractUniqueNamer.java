@@ -1,8 +1,7 @@
 package uk.ac.imperial.pipe.naming;
 
-import java.beans.PropertyChangeListener;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.List;
 
 /**
  * Used for naming components, listens to component
@@ -13,26 +12,21 @@ import java.util.HashSet;
 public abstract class AbstractUniqueNamer implements UniqueNamer {
 
     /**
-     * Prefix for this namer
+     * Names that exist already, indexed by their number so that unique names are found in constant time
      */
-    private final String namePrefix;
+    private final NameSet nameSet;
 
     /**
      * Names that exist already
      */
-    protected final Collection<String> names = new HashSet<>();
-
-    /**
-     * Listens for name changes and will alter those that are in names
-     */
-    protected final PropertyChangeListener nameListener =  new NameChangeListener(names);
+    protected final Collection<String> names;
 
     /**
      * @param namePrefix Value to prefix component names with, e.g. "P" for place
      */
     protected AbstractUniqueNamer(String namePrefix) {
-
-        this.namePrefix = namePrefix;
+        nameSet = new NameSet(namePrefix);
+        names = nameSet;
     }
 
 
@@ -42,13 +36,7 @@ public abstract class AbstractUniqueNamer implements UniqueNamer {
      */
     @Override
     public final String getName() {
-        int nameNumber = 0;
-        String name = namePrefix + nameNumber;
-        while (names.contains(name)) {
-            nameNumber++;
-            name = namePrefix + nameNumber;
-        }
-        return name;
+        return nameSet.firstFreeName();
     }
 
     /**
@@ -60,4 +48,23 @@ public abstract class AbstractUniqueNamer implements UniqueNamer {
     public final boolean isUniqueName(String name) {
         return !names.contains(name);
     }
+
+    /**
+     *
+     * @param name that is now in use
+     */
+    @Override
+    public final void reserveName(String name) {
+        names.add(name);
+    }
+
+    /**
+     * Takes the first count unused numbered names
+     * @param count number of names required
+     * @return count distinct unique names, all of which are now reserved
+     */
+    @Override
+    public final List<String> reserveNames(int count) {
+        return nameSet.addFirstFreeNames(count);
+    }
 }
@@ -1,5 +1,6 @@
 package uk.ac.imperial.pipe.naming;
 
+import uk.ac.imperial.pipe.models.petrinet.PetriNetChange;
 import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
@@ -7,7 +8,8 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 
 /**
- * This class listens for add/delete messages for a component coming from the Petri net
+ * This class listens for add/delete and id change messages for a component coming from the Petri net.
+ * Only the Petri net is listened to, so naming a large net does not attach a listener to every component.
  */
 public class ComponentNamer extends AbstractUniqueNamer {
 
@@ -21,12 +23,23 @@ public class ComponentNamer extends AbstractUniqueNamer {
      * @param namePrefix          Value to prefix component names with, e.g. "P" for place
      * @param newChangeMessage    PetriNet message to look out for when adding item, triggers addition of name
      * @param deleteChangeMessage PetriNet message to look out for when deleting item, triggers removal of name
+     * @param idChangeMessage     PetriNet message to look out for when an items id changes, triggers renaming
      */
     protected ComponentNamer(PetriNet petriNet, String namePrefix, String newChangeMessage,
-                             String deleteChangeMessage) {
+                             String deleteChangeMessage, String idChangeMessage) {
         super(namePrefix);
         this.petriNet = petriNet;
-        observeChanges(petriNet, newChangeMessage, deleteChangeMessage);
+        observeChanges(petriNet, newChangeMessage, deleteChangeMessage, idChangeMessage);
+    }
+
+    /**
+     * Records the names of components already in the Petri net
+     * @param components existing components
+     */
+    protected final void registerComponents(Iterable<? extends PetriNetComponent> components) {
+        for (PetriNetComponent component : components) {
+            names.add(component.getId());
+        }
     }
 
     /**
@@ -34,23 +47,48 @@ public class ComponentNamer extends AbstractUniqueNamer {
      * @param petriNet petri net to listen to
      * @param newChangeMessage message to listen for a new name
      * @param deleteChangeMessage message to lsten for for a delete
+     * @param idChangeMessage message to listen for an id change
      */
-    private void observeChanges(PetriNet petriNet, final String newChangeMessage, final String deleteChangeMessage) {
+    private void observeChanges(PetriNet petriNet, final String newChangeMessage, final String deleteChangeMessage,
+                                final String idChangeMessage) {
         PropertyChangeListener listener = new PropertyChangeListener() {
             @Override
             public void propertyChange(PropertyChangeEvent propertyChangeEvent) {
                 String name = propertyChangeEvent.getPropertyName();
                 if (name.equals(newChangeMessage)) {
-                    PetriNetComponent component = (PetriNetComponent) propertyChangeEvent.getNewValue();
-                    component.addPropertyChangeListener(nameListener);
-                    names.add(component.getId());
+                    registerComponent((PetriNetComponent) propertyChangeEvent.getNewValue());
                 } else if (name.equals(deleteChangeMessage)) {
-                    PetriNetComponent component = (PetriNetComponent) propertyChangeEvent.getOldValue();
-                    component.removePropertyChangeListener(nameListener);
-                    names.remove(component.getId());
+                    deregisterComponent((PetriNetComponent) propertyChangeEvent.getOldValue());
+                } else if (name.equals(idChangeMessage)) {
+                    names.remove(propertyChangeEvent.getOldValue());
+                    names.add((String) propertyChangeEvent.getNewValue());
+                } else if (name.equals(PetriNet.BULK_CHANGE_MESSAGE)) {
+                    PetriNetChange change = (PetriNetChange) propertyChangeEvent.getNewValue();
+                    for (PetriNetComponent component : change.getRemoved(deleteChangeMessage)) {
+                        deregisterComponent(component);
+                    }
+                    for (PetriNetComponent component : change.getAdded(newChangeMessage)) {
+                        registerComponent(component);
+                    }
                 }
             }
         };
         petriNet.addPropertyChangeListener(listener);
     }
+
+    /**
+     * Records the components name
+     * @param component new component
+     */
+    private void registerComponent(PetriNetComponent component) {
+        names.add(component.getId());
+    }
+
+    /**
+     * Frees the components name
+     * @param component deleted component
+     */
+    private void deregisterComponent(PetriNetComponent component) {
+        names.remove(component.getId());
+    }
 }
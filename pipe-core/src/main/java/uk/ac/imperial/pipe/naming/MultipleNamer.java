@@ -1,5 +1,7 @@
 package uk.ac.imperial.pipe.naming;
 
+import java.util.List;
+
 /**
  * Deals with the naming of multiple objects
  */
@@ -16,6 +18,20 @@ public interface MultipleNamer {
      */
     String getTransitionName();
 
+    /**
+     *
+     * @param count number of names required
+     * @return count distinct unique place names
+     */
+    List<String> getPlaceNames(int count);
+
+    /**
+     *
+     * @param count number of names required
+     * @return count distinct unique transition names
+     */
+    List<String> getTransitionNames(int count);
+
     /**
      *
      * @return a unique arc name
@@ -0,0 +1,182 @@
+package uk.ac.imperial.pipe.naming;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set of names that also indexes the numbers used by names of the form prefix followed by a number,
+ * so that the lowest unused number can be found without probing every name from zero.
+ * <p>
+ * Used numbers are kept in a bit set and the lowest number that might be free in a counter. Every
+ * number below the counter is in use, so finding a free number scans forwards from it a word of the bit
+ * set at a time and moves the counter on. Removing a name only moves the counter back to the freed number
+ * if it is lower, so freed numbers are reclaimed lazily by the next search. Creating names one after
+ * another therefore takes constant amortized time each.
+ * </p>
+ */
+final class NameSet extends AbstractSet<String> {
+
+    /**
+     * Numbers at or above this are only kept in the set of names, not indexed, so that a name with a
+     * huge number does not allocate a huge bit set
+     */
+    private static final int MAX_INDEXED_NUMBER = 1 << 24;
+
+    /**
+     * Prefix of the numbered names
+     */
+    private final String prefix;
+
+    /**
+     * Every name in the set
+     */
+    private final Set<String> names = new HashSet<>();
+
+    /**
+     * Indexed numbers in use
+     */
+    private final BitSet used = new BitSet();
+
+    /**
+     * Every number below this is in use
+     */
+    private int nextFree;
+
+    /**
+     * @param prefix prefix of the numbered names
+     */
+    NameSet(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * @return the numbered name with the lowest number that is not in the set
+     */
+    String firstFreeName() {
+        return prefix + firstFreeNumber();
+    }
+
+    /**
+     * Adds the numbered names with the lowest unused numbers
+     * @param count number of names to add
+     * @return the added names in ascending order of number
+     */
+    List<String> addFirstFreeNames(int count) {
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = firstFreeName();
+            add(name);
+            result.add(name);
+        }
+        return result;
+    }
+
+    /**
+     * @return lowest number whose name is not in the set
+     */
+    private int firstFreeNumber() {
+        nextFree = used.nextClearBit(nextFree);
+        int number = nextFree;
+        while (number >= MAX_INDEXED_NUMBER && names.contains(prefix + number)) {
+            number++;
+        }
+        return number;
+    }
+
+    /**
+     * @param name name, may be null
+     * @return number of the name if it is the prefix followed by an indexed number without leading zeros,
+     * otherwise -1
+     */
+    private int indexedNumber(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int length = name.length() - prefix.length();
+        if (length < 1 || length > 8 || !name.startsWith(prefix)
+                || (length > 1 && name.charAt(prefix.length()) == '0')) {
+            return -1;
+        }
+        int number = 0;
+        for (int i = prefix.length(); i < name.length(); i++) {
+            char digit = name.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            number = number * 10 + digit - '0';
+        }
+        return number < MAX_INDEXED_NUMBER ? number : -1;
+    }
+
+    @Override
+    public boolean add(String name) {
+        if (!names.add(name)) {
+            return false;
+        }
+        int number = indexedNumber(name);
+        if (number >= 0) {
+            used.set(number);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object name) {
+        if (!names.remove(name)) {
+            return false;
+        }
+        int number = indexedNumber((String) name);
+        if (number >= 0) {
+            used.clear(number);
+            nextFree = Math.min(nextFree, number);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(Object name) {
+        return names.contains(name);
+    }
+
+    @Override
+    public int size() {
+        return names.size();
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        final Iterator<String> iterator = names.iterator();
+        return new Iterator<String>() {
+            /**
+             * Name last returned
+             */
+            private String last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public String next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                int number = indexedNumber(last);
+                if (number >= 0) {
+                    used.clear(number);
+                    nextFree = Math.min(nextFree, number);
+                }
+            }
+        };
+    }
+}
@@ -2,6 +2,8 @@ package uk.ac.imperial.pipe.naming;
 
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
+import java.util.List;
+
 /**
  * Gives unique names to places, transitions and arcs
  */
@@ -28,21 +30,47 @@ public final class PetriNetComponentNamer implements MultipleNamer {
 
 
     /**
-     *
+     * Each call returns a different name, even if the previously returned names
+     * have not yet been added to the Petri net
      * @return unique place name
      */
     @Override
     public String getPlaceName() {
-        return placeNamer.getName();
+        String name = placeNamer.getName();
+        placeNamer.reserveName(name);
+        return name;
     }
 
     /**
-     *
+     * Each call returns a different name, even if the previously returned names
+     * have not yet been added to the Petri net
      * @return unique transition name
      */
     @Override
     public String getTransitionName() {
-        return transitionNamer.getName();
+        String name = transitionNamer.getName();
+        transitionNamer.reserveName(name);
+        return name;
+    }
+
+    /**
+     * The names differ from any previously returned
+     * @param count number of names required
+     * @return count distinct unique place names
+     */
+    @Override
+    public List<String> getPlaceNames(int count) {
+        return placeNamer.reserveNames(count);
+    }
+
+    /**
+     * The names differ from any previously returned
+     * @param count number of names required
+     * @return count distinct unique transition names
+     */
+    @Override
+    public List<String> getTransitionNames(int count) {
+        return transitionNamer.reserveNames(count);
     }
 
     /**
@@ -1,6 +1,5 @@
 package uk.ac.imperial.pipe.naming;
 
-import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
 /**
@@ -14,17 +13,8 @@ public class PlaceNamer extends ComponentNamer {
      * @param petriNet of the places to be named 
      */
     public PlaceNamer(PetriNet petriNet) {
-        super(petriNet, "P", PetriNet.NEW_PLACE_CHANGE_MESSAGE, PetriNet.DELETE_PLACE_CHANGE_MESSAGE);
-        initialisePlaceNames();
-    }
-
-    /**
-     * Initialises the names list with places already stored in the Petri net
-     */
-    private void initialisePlaceNames() {
-        for (Place place : petriNet.getPlaces()) {
-            place.addPropertyChangeListener(nameListener);
-            names.add(place.getId());
-        }
+        super(petriNet, "P", PetriNet.NEW_PLACE_CHANGE_MESSAGE, PetriNet.DELETE_PLACE_CHANGE_MESSAGE,
+                PetriNet.PLACE_ID_CHANGE_MESSAGE);
+        registerComponents(petriNet.getPlaces());
     }
 }
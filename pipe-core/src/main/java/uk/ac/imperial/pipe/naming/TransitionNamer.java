@@ -1,6 +1,5 @@
 package uk.ac.imperial.pipe.naming;
 
-import uk.ac.imperial.pipe.models.petrinet.Transition;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
 /**
@@ -15,17 +14,8 @@ public class TransitionNamer extends ComponentNamer {
      * @param petriNet of the transitions to be named 
      */
     public TransitionNamer(PetriNet petriNet) {
-        super(petriNet, "T", PetriNet.NEW_TRANSITION_CHANGE_MESSAGE, PetriNet.DELETE_TRANSITION_CHANGE_MESSAGE);
-        initialiseTransitionNames();
-    }
-
-    /**
-     * Populates the names data structure with transitions that already exist in the Petri net
-     */
-    private void initialiseTransitionNames() {
-        for (Transition transition : petriNet.getTransitions()) {
-            transition.addPropertyChangeListener(nameListener);
-            names.add(transition.getId());
-        }
+        super(petriNet, "T", PetriNet.NEW_TRANSITION_CHANGE_MESSAGE, PetriNet.DELETE_TRANSITION_CHANGE_MESSAGE,
+                PetriNet.TRANSITION_ID_CHANGE_MESSAGE);
+        registerComponents(petriNet.getTransitions());
     }
 }
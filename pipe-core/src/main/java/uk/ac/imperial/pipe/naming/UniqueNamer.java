@@ -1,5 +1,7 @@
 package uk.ac.imperial.pipe.naming;
 
+import java.util.List;
+
 /**
  * Namer is used to find unique names for {@link uk.ac.imperial.pipe.models.petrinet.PetriNetComponent}'s within a
  * {@link uk.ac.imperial.pipe.models.petrinet.PetriNet}
@@ -16,4 +18,19 @@ public interface UniqueNamer {
      * @return true if name doesn't exist anywhere else in the {@link uk.ac.imperial.pipe.models.petrinet.PetriNetComponent}
      */
     boolean isUniqueName(String name);
+
+    /**
+     * Marks the name as used so that it will no longer be returned by {@link #getName()}.
+     * Useful when names are handed out before the components they belong to are added
+     * @param name name that is now in use
+     */
+    void reserveName(String name);
+
+    /**
+     * Finds and reserves many unique names at once, which is cheaper than repeatedly
+     * calling {@link #getName()} and {@link #reserveName(String)}
+     * @param count number of names required
+     * @return count distinct unique names, all of which are now reserved
+     */
+    List<String> reserveNames(int count);
 }
@@ -0,0 +1,34 @@
+package uk.ac.imperial.pipe.parsers;
+
+/**
+ * Listener that determines the {@link ExpressionType} of a parse tree whilst walking it
+ */
+class ExpressionClassifier extends RateGrammarBaseListener {
+
+    /**
+     * Type of the expression walked so far
+     */
+    private ExpressionType type = ExpressionType.CONSTANT;
+
+    @Override
+    public void enterCapacity(RateGrammarParser.CapacityContext ctx) {
+        type = type.combine(ExpressionType.CAPACITY_ONLY);
+    }
+
+    @Override
+    public void enterToken_number(RateGrammarParser.Token_numberContext ctx) {
+        type = ExpressionType.MARKING_DEPENDENT;
+    }
+
+    @Override
+    public void enterToken_color_number(RateGrammarParser.Token_color_numberContext ctx) {
+        type = ExpressionType.MARKING_DEPENDENT;
+    }
+
+    /**
+     * @return type of the walked expression
+     */
+    public ExpressionType getType() {
+        return type;
+    }
+}
@@ -0,0 +1,34 @@
+package uk.ac.imperial.pipe.parsers;
+
+/**
+ * Static classification of a functional expression by what its value depends on.
+ * <p>
+ * Types are ordered from least to most dynamic, so the type of several expressions
+ * combined is the greatest of their types.
+ * </p>
+ */
+public enum ExpressionType {
+    /**
+     * The expression does not reference any Petri net component so always has the same value
+     */
+    CONSTANT,
+
+    /**
+     * The expression references place capacities but not token counts, so its value does not
+     * change with the marking
+     */
+    CAPACITY_ONLY,
+
+    /**
+     * The expression references token counts so must be evaluated against each marking
+     */
+    MARKING_DEPENDENT;
+
+    /**
+     * @param other type to combine with
+     * @return type of an expression that depends on everything this and the other type depend on
+     */
+    public ExpressionType combine(ExpressionType other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+}
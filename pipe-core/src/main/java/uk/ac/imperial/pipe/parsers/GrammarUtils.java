@@ -1,18 +1,78 @@
 package uk.ac.imperial.pipe.parsers;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.primitives.Doubles;
 import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import uk.ac.imperial.pipe.metrics.Counter;
+import uk.ac.imperial.pipe.metrics.LatencyHistogram;
+import uk.ac.imperial.pipe.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Useful utilities for handling PetriNet functional weight grammar
  */
 public final class GrammarUtils {
 
+    /**
+     * Maximum number of parsed expressions to keep
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 10000;
+
+    /**
+     * Number of expressions compiled, whether or not they were already parsed
+     */
+    private static final Counter COMPILES = Metrics.counter("parser.expressions.compiles");
+
+    /**
+     * Number of expressions actually parsed, the rest of the compiles were cache hits
+     */
+    private static final Counter PARSES = Metrics.counter("parser.expressions.parses");
+
+    /**
+     * Time taken to parse and classify an expression
+     */
+    private static final LatencyHistogram PARSE_LATENCY = Metrics.histogram("parser.expressions.parseLatency");
+
+    /**
+     * Parsed expressions, so that rates and arc weights evaluated in every state are parsed once
+     */
+    private static final LoadingCache<String, ParsedExpression> PARSED_EXPRESSIONS =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_EXPRESSIONS).build(
+                    new CacheLoader<String, ParsedExpression>() {
+                        @Override
+                        public ParsedExpression load(String expression) {
+                            long start = PARSE_LATENCY.start();
+                            ParsedExpression parsed = parseExpression(expression);
+                            PARSES.increment();
+                            PARSE_LATENCY.stop(start);
+                            return parsed;
+                        }
+                    });
+
     /**
      * Private utility constructor
      */
     private GrammarUtils() {}
 
+    /**
+     * Parses the expression, reusing the result of any previous parse of the same expression
+     *
+     * @param expression string to parse
+     * @return parsed expression
+     */
+    public static ParsedExpression compile(String expression) {
+        COMPILES.increment();
+        return PARSED_EXPRESSIONS.getUnchecked(expression);
+    }
+
     /**
      *
      * Parses an expression
@@ -33,4 +93,68 @@ public final class GrammarUtils {
         }
         return parser.program();
     }
+
+    /**
+     * Determines the ids of the components an expression references without evaluating it.
+     * Expressions that are plain numbers are not parsed at all.
+     *
+     * @param expression string to parse
+     * @return ids of the places and tokens referenced by the expression
+     */
+    public static Set<String> getReferencedComponents(String expression) {
+        return new HashSet<>(compile(expression).getComponents());
+    }
+
+    /**
+     *
+     * @param parseTree parsed expression
+     * @return ids of the places and tokens referenced by the parsed expression
+     */
+    public static Set<String> getReferencedComponents(ParseTree parseTree) {
+        ParseTreeWalker walker = new ParseTreeWalker();
+        PetriNetWeightParser.ComponentListener listener = new PetriNetWeightParser.ComponentListener();
+        walker.walk(listener, parseTree);
+        return listener.getComponentIds();
+    }
+
+    /**
+     * @param expression string to parse
+     * @return parsed and classified expression, folded to its value if it is constant
+     */
+    private static ParsedExpression parseExpression(String expression) {
+        Double constant = Doubles.tryParse(expression);
+        if (constant != null) {
+            return new ParsedExpression(expression, constant);
+        }
+        RateGrammarErrorListener errorListener = new RateGrammarErrorListener();
+        ParseTree parseTree = parse(expression, errorListener);
+        List<String> errors = new ArrayList<>(errorListener.getErrors());
+        ExpressionType type = getType(parseTree);
+        Double folded = null;
+        if (type == ExpressionType.CONSTANT && errors.isEmpty()) {
+            folded = fold(parseTree);
+        }
+        return new ParsedExpression(expression, parseTree, errors, getReferencedComponents(parseTree), type, folded);
+    }
+
+    /**
+     * @param parseTree parsed expression
+     * @return what the value of the parsed expression depends on
+     */
+    public static ExpressionType getType(ParseTree parseTree) {
+        ExpressionClassifier classifier = new ExpressionClassifier();
+        new ParseTreeWalker().walk(classifier, parseTree);
+        return classifier.getType();
+    }
+
+    /**
+     * Evaluates an expression that references no Petri net components
+     *
+     * @param parseTree parsed constant expression
+     * @return value of the expression, or null if it is negative and so not a valid rate or weight
+     */
+    private static Double fold(ParseTree parseTree) {
+        Double value = new EvalVisitor(null).visit(parseTree);
+        return value != null && value >= 0 ? value : null;
+    }
 }
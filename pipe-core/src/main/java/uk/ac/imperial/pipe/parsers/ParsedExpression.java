@@ -0,0 +1,143 @@
+package uk.ac.imperial.pipe.parsers;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of parsing a functional expression, independent of any Petri net state.
+ * <p>
+ * Expressions are classified by their {@link ExpressionType} and constant expressions are folded
+ * to their value, so they never need evaluating against a Petri net or state.
+ * </p>
+ * <p>
+ * Parse trees are never modified once built so a parsed expression can be shared and
+ * evaluated by many visitors, including on different threads.
+ * </p>
+ */
+public final class ParsedExpression {
+
+    /**
+     * Expression that was parsed
+     */
+    private final String expression;
+
+    /**
+     * Folded value of the expression if it is constant, otherwise null
+     */
+    private final Double constant;
+
+    /**
+     * What the value of the expression depends on
+     */
+    private final ExpressionType type;
+
+    /**
+     * Parse tree of the expression, null if it is a plain number
+     */
+    private final ParseTree parseTree;
+
+    /**
+     * Syntax errors found whilst parsing
+     */
+    private final List<String> errors;
+
+    /**
+     * Ids of the components the expression references
+     */
+    private final Set<String> components;
+
+    /**
+     * Constructor for expressions that are plain numbers
+     * @param expression expression that was parsed
+     * @param constant   value of the expression
+     */
+    ParsedExpression(String expression, double constant) {
+        this.expression = expression;
+        this.constant = constant;
+        this.type = ExpressionType.CONSTANT;
+        this.parseTree = null;
+        this.errors = Collections.emptyList();
+        this.components = Collections.emptySet();
+    }
+
+    /**
+     * Constructor for expressions that needed parsing
+     * @param expression expression that was parsed
+     * @param parseTree  parse tree of the expression
+     * @param errors     syntax errors found whilst parsing
+     * @param components ids of the components the expression references
+     * @param type       what the value of the expression depends on
+     * @param constant   folded value if the expression is constant, otherwise null
+     */
+    ParsedExpression(String expression, ParseTree parseTree, List<String> errors, Set<String> components,
+                     ExpressionType type, Double constant) {
+        this.expression = expression;
+        this.constant = constant;
+        this.type = type;
+        this.parseTree = parseTree;
+        this.errors = Collections.unmodifiableList(errors);
+        this.components = Collections.unmodifiableSet(components);
+    }
+
+    /**
+     * @return expression that was parsed
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return what the value of the expression depends on
+     */
+    public ExpressionType getType() {
+        return type;
+    }
+
+    /**
+     * Constant expressions that have syntax errors or fold to a negative value, which is not a valid
+     * rate or weight, are not folded so that evaluating them reports the problem.
+     *
+     * @return true if the expression has been folded to a value and so needs no evaluation
+     */
+    public boolean isConstant() {
+        return constant != null;
+    }
+
+    /**
+     * @return folded value of a constant expression
+     */
+    public double getConstant() {
+        return constant;
+    }
+
+    /**
+     * @return parse tree of the expression, null if it is a plain number
+     */
+    public ParseTree getParseTree() {
+        return parseTree;
+    }
+
+    /**
+     * @return true if the expression has syntax errors
+     */
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * @return syntax errors found whilst parsing
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return ids of the places and tokens referenced by the expression
+     */
+    public Set<String> getComponents() {
+        return components;
+    }
+}
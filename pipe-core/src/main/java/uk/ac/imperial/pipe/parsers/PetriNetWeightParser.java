@@ -1,10 +1,10 @@
 package uk.ac.imperial.pipe.parsers;
 
-import com.google.common.primitives.Doubles;
 import org.antlr.v4.runtime.misc.NotNull;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -39,21 +39,6 @@ public class PetriNetWeightParser implements FunctionalWeightParser<Double> {
     }
 
 
-    /**
-     *
-     * @param parseTree
-     * @return components referenced by the functional expression that is being parsed
-     */
-    //TODO: Use memoization
-    private Set<String> getReferencedComponents(ParseTree parseTree) {
-        ParseTreeWalker walker = new ParseTreeWalker();
-        ComponentListener listener = new ComponentListener();
-        walker.walk(listener, parseTree);
-        return listener.getComponentIds();
-    }
-
-
-
     /**
      *
      * @return true if all referenced components in expression
@@ -76,21 +61,26 @@ public class PetriNetWeightParser implements FunctionalWeightParser<Double> {
      */
     @Override
     public FunctionalResults<Double> evaluateExpression(String expression) {
-        Double maybeDouble = Doubles.tryParse(expression);
-        if (maybeDouble != null) {
-            return new FunctionalResults<>(maybeDouble, new HashSet<String>());
+        TraceSpan span = Tracer.begin(Operation.EVALUATE_EXPRESSION);
+        try {
+            return evaluate(expression);
+        } finally {
+            Tracer.end(span, petriNet, expression);
         }
+    }
 
-
-        RateGrammarErrorListener errorListener = new RateGrammarErrorListener();
-        ParseTree parseTree = GrammarUtils.parse(expression, errorListener);
-
-        List<String> errors = new LinkedList<>();
-        if (errorListener.hasErrors()) {
-            errors.addAll(errorListener.getErrors());
+    /**
+     * @param expression to evaluate
+     * @return evaluated results which contain error, component and the actual value if no errors were reported
+     */
+    private FunctionalResults<Double> evaluate(String expression) {
+        ParsedExpression parsedExpression = GrammarUtils.compile(expression);
+        if (parsedExpression.isConstant()) {
+            return new FunctionalResults<>(parsedExpression.getConstant(), new HashSet<String>());
         }
 
-        Set<String> components = getReferencedComponents(parseTree);
+        List<String> errors = new LinkedList<>(parsedExpression.getErrors());
+        Set<String> components = new HashSet<>(parsedExpression.getComponents());
         if (!allComponentsInPetriNet(components)) {
             errors.add("Not all referenced components exist in the Petri net!");
         }
@@ -99,13 +89,13 @@ public class PetriNetWeightParser implements FunctionalWeightParser<Double> {
             return new FunctionalResults<>(-1., errors, components);
         }
 
-        Double result = evalVisitor.visit(parseTree);
+        Double result = evalVisitor.visit(parsedExpression.getParseTree());
         if (result < 0) {
             errors.add("Expression result cannot be less than zero!");
             return new FunctionalResults<>(-1., errors, components);
         }
 
-        return new FunctionalResults<>(evalVisitor.visit(parseTree), components);
+        return new FunctionalResults<>(result, components);
     }
 
     /**
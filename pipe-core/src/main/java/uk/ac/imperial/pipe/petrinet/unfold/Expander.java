@@ -3,11 +3,16 @@ package uk.ac.imperial.pipe.petrinet.unfold;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentNotFoundException;
 import uk.ac.imperial.pipe.models.petrinet.*;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 import uk.ac.imperial.pipe.visitor.PlaceCloner;
 import uk.ac.imperial.pipe.visitor.TransitionCloner;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.logging.Level;
@@ -122,8 +127,11 @@ public final class Expander {
      * @return new unfolded petri net
      */
     public PetriNet unfold() {
+        TraceSpan span = Tracer.begin(Operation.UNFOLD);
         unfoldTransitions();
-        return createPetriNet();
+        PetriNet unfolded = createPetriNet();
+        Tracer.end(span, unfolded, petriNet.getName() == null ? null : petriNet.getNameValue());
+        return unfolded;
     }
 
     /**
@@ -148,26 +156,19 @@ public final class Expander {
 
     /**
      *
-     * @return new unfolded Petri net
+     * @return new unfolded Petri net, built with a single bulk update
      */
     private PetriNet createPetriNet() {
         PetriNet petriNet = new PetriNet();
-        petriNet.addToken(unfoldToken);
-
-        for (Place place : newPlaces.values()) {
-            petriNet.addPlace(place);
-        }
-
-        for (Transition transition : newTransitions.values()) {
-            petriNet.addTransition(transition);
-        }
-
-        for (Arc<? extends Connectable, ? extends Connectable> arc : newArcs.values()) {
-            try {
-                petriNet.add(arc);
-            } catch (PetriNetComponentException e) {
-                LOGGER.log(Level.SEVERE, e.getMessage());
-            }
+        List<PetriNetComponent> components = new ArrayList<>();
+        components.add(unfoldToken);
+        components.addAll(newPlaces.values());
+        components.addAll(newTransitions.values());
+        components.addAll(newArcs.values());
+        try {
+            petriNet.addAll(components);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
         }
         return petriNet;
     }
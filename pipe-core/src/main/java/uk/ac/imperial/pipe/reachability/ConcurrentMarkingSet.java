@@ -0,0 +1,359 @@
+package uk.ac.imperial.pipe.reachability;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrent set of encoded markings that assigns every marking a dense id in insertion order.
+ * <p>
+ * Markings are indexed by an open addressing hash table of int slots that is probed linearly.
+ * A slot is claimed by compare and set before the marking is copied into chunked primitive
+ * storage, and is then published by writing the markings id into it. Threads that probe a
+ * claimed slot wait for it to be published so that a marking is never added twice.
+ * </p>
+ * <p>
+ * The table starts small and doubles once it is half full, so the capacity is only a limit on
+ * the number of markings and not memory reserved up front. Each thread probes the table holding
+ * one of a set of striped locks, so threads do not contend with each other, and a resize takes
+ * every stripe to rebuild the table from the stored markings and their hashes.
+ * </p>
+ */
+public final class ConcurrentMarkingSet implements MarkingStore {
+
+    /**
+     * Largest number of markings a set can be created to hold
+     */
+    public static final int MAX_CAPACITY = 1 << 29;
+
+    /**
+     * Value of a slot that has not been used
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * Value of a slot whose marking is being written
+     */
+    private static final int CLAIMED = -1;
+
+    /**
+     * Log2 of the number of markings stored per chunk
+     */
+    private static final int CHUNK_BITS = 12;
+
+    /**
+     * Number of markings stored per chunk
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /**
+     * Number of slots in a new table
+     */
+    private static final int INITIAL_TABLE_SIZE = 1 << 12;
+
+    /**
+     * Number of locks threads are spread across, a power of two
+     */
+    private static final int STRIPES = 16;
+
+    /**
+     * Number of ints each marking occupies in a chunk, its hash followed by its token counts
+     */
+    private final int recordWidth;
+
+    /**
+     * Maximum number of markings the set can hold
+     */
+    private final int capacity;
+
+    /**
+     * Number of slots in a table that can hold every marking up to the capacity
+     */
+    private final int maxTableSize;
+
+    /**
+     * Current hash table, replaced by a larger one while every stripe is held
+     */
+    private volatile Table table;
+
+    /**
+     * Held by a thread whilst it probes the table and by a resize for all stripes
+     */
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    /**
+     * Marking storage, each chunk is created on demand by the first marking that lands in it
+     */
+    private final AtomicReferenceArray<int[]> chunks;
+
+    /**
+     * Next id to hand out
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Constructor
+     * @param width    number of token counts in each marking
+     * @param capacity maximum number of markings the set will hold
+     */
+    public ConcurrentMarkingSet(int width, int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(
+                    "Capacity must be between 1 and " + MAX_CAPACITY + ", was " + capacity);
+        }
+        this.recordWidth = width + 1;
+        this.capacity = capacity;
+        this.maxTableSize = Integer.highestOneBit(capacity + capacity / 2) << 1;
+        this.table = new Table(Math.min(INITIAL_TABLE_SIZE, maxTableSize));
+        this.chunks = new AtomicReferenceArray<>((capacity >>> CHUNK_BITS) + 1);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Adds the marking to the set if it is not already contained in it
+     * <p>
+     * The returned value is the id of the marking if it was added, or -(id + 1) if it was already
+     * present, so a non negative result means the caller added it.
+     * </p>
+     * @param marking encoded marking, it is copied so may be reused by the caller
+     * @return id of the newly added marking, or -(id + 1) if it was already in the set
+     * @throws IllegalStateException if the set is full
+     */
+    @Override
+    public int add(int[] marking) {
+        int hash = MarkingLayout.hash(marking);
+        ReentrantLock stripe = stripe();
+        Table current;
+        int result;
+        stripe.lock();
+        try {
+            current = table;
+            result = add(current, hash, marking);
+        } finally {
+            stripe.unlock();
+        }
+        if (size.get() > current.threshold && current.slots.length() < maxTableSize) {
+            resize(current);
+        }
+        return result;
+    }
+
+    /**
+     * @param current table to add the marking to, the callers stripe must be held
+     * @param hash    marking hash
+     * @param marking encoded marking
+     * @return id of the newly added marking, or -(id + 1) if it was already in the set
+     */
+    private int add(Table current, int hash, int[] marking) {
+        AtomicIntegerArray slots = current.slots;
+        int index = hash & current.mask;
+        while (true) {
+            int value = slots.get(index);
+            if (value == EMPTY) {
+                if (slots.compareAndSet(index, EMPTY, CLAIMED)) {
+                    int id = size.getAndIncrement();
+                    if (id >= capacity) {
+                        size.decrementAndGet();
+                        slots.set(index, EMPTY);
+                        throw new IllegalStateException("Marking set is full, it can hold " + capacity + " markings");
+                    }
+                    store(id, hash, marking);
+                    slots.set(index, id + 1);
+                    return id;
+                }
+            } else if (value == CLAIMED) {
+                Thread.yield();
+            } else {
+                int id = value - 1;
+                if (matches(id, hash, marking)) {
+                    return -id - 1;
+                }
+                index = (index + 1) & current.mask;
+            }
+        }
+    }
+
+    /**
+     * @param marking encoded marking
+     * @return id of the marking or -1 if it is not in the set
+     */
+    @Override
+    public int indexOf(int[] marking) {
+        int hash = MarkingLayout.hash(marking);
+        ReentrantLock stripe = stripe();
+        stripe.lock();
+        try {
+            Table current = table;
+            int index = hash & current.mask;
+            while (true) {
+                int value = current.slots.get(index);
+                if (value == EMPTY) {
+                    return -1;
+                } else if (value == CLAIMED) {
+                    Thread.yield();
+                } else {
+                    int id = value - 1;
+                    if (matches(id, hash, marking)) {
+                        return id;
+                    }
+                    index = (index + 1) & current.mask;
+                }
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Doubles the table, unless another thread already replaced it. Every stripe is held so no
+     * marking is being added and each stored marking is indexed again by its stored hash
+     * @param full table that reached its threshold
+     */
+    private void resize(Table full) {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            if (table != full) {
+                return;
+            }
+            Table larger = new Table(Math.min(full.slots.length() << 1, maxTableSize));
+            int markings = size.get();
+            for (int id = 0; id < markings; id++) {
+                int index = chunks.get(id >>> CHUNK_BITS)[offset(id)] & larger.mask;
+                while (larger.slots.get(index) != EMPTY) {
+                    index = (index + 1) & larger.mask;
+                }
+                larger.slots.set(index, id + 1);
+            }
+            table = larger;
+        } finally {
+            for (ReentrantLock stripe : stripes) {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return lock of the calling thread's stripe
+     */
+    private ReentrantLock stripe() {
+        return stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+    }
+
+    /**
+     * @param id marking id
+     * @return copy of the encoded marking
+     */
+    @Override
+    public int[] get(int id) {
+        int[] marking = new int[recordWidth - 1];
+        get(id, marking);
+        return marking;
+    }
+
+    /**
+     * Copies the marking into the given array
+     * @param id      marking id
+     * @param marking array to copy the encoded marking into
+     */
+    @Override
+    public void get(int id, int[] marking) {
+        int[] chunk = chunks.get(id >>> CHUNK_BITS);
+        System.arraycopy(chunk, offset(id) + 1, marking, 0, recordWidth - 1);
+    }
+
+    /**
+     * @return number of markings in the set
+     */
+    @Override
+    public int size() {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     * @return maximum number of markings the set can hold
+     */
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes the marking into its chunk, creating the chunk if needed
+     * @param id      marking id
+     * @param hash    marking hash
+     * @param marking encoded marking
+     */
+    private void store(int id, int hash, int[] marking) {
+        int chunkIndex = id >>> CHUNK_BITS;
+        int[] chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            chunks.compareAndSet(chunkIndex, null, new int[CHUNK_SIZE * recordWidth]);
+            chunk = chunks.get(chunkIndex);
+        }
+        int offset = offset(id);
+        chunk[offset] = hash;
+        System.arraycopy(marking, 0, chunk, offset + 1, marking.length);
+    }
+
+    /**
+     * @param id      id of a published marking
+     * @param hash    hash of the marking to compare
+     * @param marking marking to compare
+     * @return true if the stored marking equals the given marking
+     */
+    private boolean matches(int id, int hash, int[] marking) {
+        int[] chunk = chunks.get(id >>> CHUNK_BITS);
+        int offset = offset(id);
+        if (chunk[offset] != hash) {
+            return false;
+        }
+        for (int i = 0; i < marking.length; i++) {
+            if (chunk[offset + 1 + i] != marking[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id marking id
+     * @return offset of the markings record within its chunk
+     */
+    private int offset(int id) {
+        return (id & (CHUNK_SIZE - 1)) * recordWidth;
+    }
+
+    /**
+     * Hash table of markings ids
+     */
+    private static final class Table {
+        /**
+         * Slots that are EMPTY, CLAIMED or the id + 1 of the marking stored there
+         */
+        private final AtomicIntegerArray slots;
+
+        /**
+         * Mask of the slot index, the table length is a power of two
+         */
+        private final int mask;
+
+        /**
+         * Number of markings after which the table is replaced by a larger one
+         */
+        private final int threshold;
+
+        /**
+         * @param size number of slots, a power of two
+         */
+        private Table(int size) {
+            slots = new AtomicIntegerArray(size);
+            mask = size - 1;
+            threshold = size / 2;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Karp-Miller coverability graph produced by a {@link CoverabilityGraphBuilder}.
+ * <p>
+ * Nodes are identified by dense integer ids, the initial marking having id 0. A token count of
+ * {@link #OMEGA} means the count can grow without bound. Every reachable marking is covered by the
+ * marking of some node, so a place is unbounded exactly when some node holds {@link #OMEGA} tokens
+ * in it.
+ * </p>
+ */
+public final class CoverabilityGraph {
+
+    /**
+     * Token count standing for an unbounded number of tokens, which
+     * {@link uk.ac.imperial.pipe.animation.PetriNetAnimationLogic} already treats as infinite
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    /**
+     * Encoding of the markings
+     */
+    private final MarkingLayout layout;
+
+    /**
+     * Markings indexed by node id
+     */
+    private final List<int[]> markings;
+
+    /**
+     * Parent of each node in the Karp-Miller tree, -1 for the root
+     */
+    private final int[] parents;
+
+    /**
+     * Transitions indexed as they are on edges
+     */
+    private final Transition[] transitions;
+
+    /**
+     * Edges between the nodes, including those to the nodes covering pruned successors
+     */
+    private final EdgeBuffer edges;
+
+    /**
+     * Largest token count of each (place, token) pair over every node
+     */
+    private final int[] bounds;
+
+    /**
+     * Ids of the places with an unbounded token count
+     */
+    private final Set<String> unboundedPlaces;
+
+    /**
+     * True if the Petri net is monotonic so that the bounds are certain
+     */
+    private final boolean exact;
+
+    /**
+     * True if every node was expanded rather than stopping at the first unbounded place
+     */
+    private final boolean complete;
+
+    /**
+     * Statistics of the construction of this graph
+     */
+    private final ExplorationStatistics statistics;
+
+    /**
+     * Constructor
+     * @param layout          encoding of the markings
+     * @param markings        markings indexed by node id
+     * @param parents         parent of each node in the Karp-Miller tree
+     * @param transitions     transitions indexed as they are on edges
+     * @param edges           edges between the nodes
+     * @param bounds          largest token count of each (place, token) pair
+     * @param unboundedPlaces ids of the places with an unbounded token count
+     * @param exact           true if the bounds are certain
+     * @param complete        true if every node was expanded
+     * @param elapsedNanos    time the construction took
+     */
+    CoverabilityGraph(MarkingLayout layout, List<int[]> markings, int[] parents, Transition[] transitions,
+                      EdgeBuffer edges, int[] bounds, Set<String> unboundedPlaces, boolean exact, boolean complete,
+                      long elapsedNanos) {
+        this.layout = layout;
+        this.markings = markings;
+        this.parents = parents;
+        this.transitions = transitions;
+        this.edges = edges;
+        this.bounds = bounds;
+        this.unboundedPlaces = Collections.unmodifiableSet(unboundedPlaces);
+        this.exact = exact;
+        this.complete = complete;
+        statistics = new ExplorationStatistics(markings.size(), edges.size, elapsedNanos, 1);
+    }
+
+    /**
+     * @return number of nodes in the graph
+     */
+    public int getNodeCount() {
+        return markings.size();
+    }
+
+    /**
+     * @param node node id
+     * @return copy of the nodes encoded marking, unbounded counts being {@link #OMEGA}
+     */
+    public int[] getMarking(int node) {
+        return markings.get(node).clone();
+    }
+
+    /**
+     * @param node node id
+     * @return parent of the node in the Karp-Miller tree, or -1 for the initial node
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    /**
+     * @return number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return edges.size;
+    }
+
+    /**
+     * @param edge edge index
+     * @return node the edge leaves
+     */
+    public int getEdgeSource(int edge) {
+        return edges.sources[edge];
+    }
+
+    /**
+     * @param edge edge index
+     * @return node the edge enters
+     */
+    public int getEdgeTarget(int edge) {
+        return edges.targets[edge];
+    }
+
+    /**
+     * @param edge edge index
+     * @return transition fired along the edge
+     */
+    public Transition getEdgeTransition(int edge) {
+        return transitions[edges.transitions[edge]];
+    }
+
+    /**
+     * @return true if no place is unbounded
+     */
+    public boolean isBounded() {
+        return unboundedPlaces.isEmpty();
+    }
+
+    /**
+     * @return ids of the places whose token count can grow without bound
+     */
+    public Set<String> getUnboundedPlaces() {
+        return unboundedPlaces;
+    }
+
+    /**
+     * @param placeId place id
+     * @param tokenId token id
+     * @return most tokens of the type the place holds in any reachable marking, {@link #OMEGA} if it is unbounded
+     */
+    public int getBound(String placeId, String tokenId) {
+        return bounds[layout.indexOf(placeId, tokenId)];
+    }
+
+    /**
+     * Karp-Miller acceleration relies on firing sequences that can be repeated once they have fired
+     * with fewer tokens. Inhibitor arcs, capacities, marking dependent weights and the priority of
+     * immediate over timed transitions can break this, in which case the graph is only a heuristic
+     * and the places it reports as unbounded or bounded should be checked by exploration.
+     *
+     * @return true if the reported bounds are certain
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * @return true if every node was expanded, false if construction stopped at the first unbounded place
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return encoding of the markings
+     */
+    public MarkingLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return statistics of the construction of this graph
+     */
+    public ExplorationStatistics getStatistics() {
+        return statistics;
+    }
+}
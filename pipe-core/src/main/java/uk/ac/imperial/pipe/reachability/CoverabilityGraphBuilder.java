@@ -0,0 +1,434 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.animation.AnimationLogic;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.ArcType;
+import uk.ac.imperial.pipe.models.petrinet.InboundArc;
+import uk.ac.imperial.pipe.models.petrinet.OutboundArc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Token;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.parsers.ExpressionType;
+import uk.ac.imperial.state.State;
+
+import java.nio.IntBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the Karp-Miller coverability graph of a Petri net, which is finite even when the net is
+ * unbounded, so that unbounded places can be found quickly rather than by exploring until a state
+ * limit is hit.
+ * <p>
+ * Successors are computed by the given {@link AnimationLogic}. Whenever a new marking strictly
+ * covers one of its ancestors the firing sequence between them can be repeated, so the token counts
+ * that grew are accelerated to {@link CoverabilityGraph#OMEGA}. New markings covered by a marking
+ * already in the graph are pruned and replaced with an edge to the covering node, since everything
+ * they could reach is covered by what the covering node reaches.
+ * </p>
+ * <p>
+ * Markings already in the graph are found by hash, and a covering node is only searched for among
+ * the nodes with omega counts. A marking without omega counts is therefore only pruned when it is
+ * already in the graph, which keeps the construction linear in the number of nodes for bounded nets.
+ * The cache of the animation logic is cleared once the graph is built.
+ * </p>
+ */
+public final class CoverabilityGraphBuilder {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(CoverabilityGraphBuilder.class.getName());
+
+    /**
+     * Petri net to analyse
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Logic used to find successor states
+     */
+    private final AnimationLogic animationLogic;
+
+    /**
+     * Maximum number of nodes the graph may have
+     */
+    private final int maxNodes;
+
+    /**
+     * Constructor
+     * @param petriNet       Petri net to analyse
+     * @param animationLogic logic used to find successor states, it must treat
+     *                       {@link CoverabilityGraph#OMEGA} token counts as infinite
+     * @param maxNodes       maximum number of nodes the graph may have
+     */
+    public CoverabilityGraphBuilder(PetriNet petriNet, AnimationLogic animationLogic, int maxNodes) {
+        this.petriNet = petriNet;
+        this.animationLogic = animationLogic;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param initialState state to build the graph from, it will have id 0 in the graph
+     * @return complete coverability graph
+     * @throws StateSpaceExplorationException if the graph has more than maxNodes nodes or the
+     *                                        calling thread is interrupted
+     */
+    public CoverabilityGraph build(State initialState) throws StateSpaceExplorationException {
+        return build(initialState, false);
+    }
+
+    /**
+     * Builds the graph depth first only until the first unbounded place is found, which is enough
+     * to reject an unbounded net before exploring its state space
+     *
+     * @param initialState state to build the graph from, it will have id 0 in the graph
+     * @return coverability graph, complete only if the net is bounded
+     * @throws StateSpaceExplorationException if the graph has more than maxNodes nodes or the
+     *                                        calling thread is interrupted
+     */
+    public CoverabilityGraph buildUntilUnbounded(State initialState) throws StateSpaceExplorationException {
+        return build(initialState, true);
+    }
+
+    /**
+     * @param initialState      state to build the graph from
+     * @param stopWhenUnbounded true to stop as soon as an unbounded place is found
+     * @return coverability graph
+     * @throws StateSpaceExplorationException if the graph has more than maxNodes nodes or the
+     *                                        calling thread is interrupted
+     */
+    private CoverabilityGraph build(State initialState, boolean stopWhenUnbounded)
+            throws StateSpaceExplorationException {
+        long start = System.nanoTime();
+        Construction construction = new Construction(new MarkingLayout(petriNet));
+        boolean complete;
+        try {
+            complete = construction.run(initialState, stopWhenUnbounded);
+        } finally {
+            animationLogic.clear();
+        }
+        CoverabilityGraph graph = construction.toGraph(isMonotonic(), complete, System.nanoTime() - start);
+        LOGGER.log(Level.INFO, "Built coverability graph {0}, unbounded places {1}",
+                new Object[]{graph.getStatistics(), graph.getUnboundedPlaces()});
+        return graph;
+    }
+
+    /**
+     * @return true if firing sequences that are enabled in a marking are enabled in every larger one
+     */
+    private boolean isMonotonic() {
+        for (Place place : petriNet.getPlaces()) {
+            if (place.hasCapacityRestriction()) {
+                return false;
+            }
+        }
+        for (InboundArc arc : petriNet.getInboundArcs()) {
+            if (arc.getType() == ArcType.INHIBITOR
+                    || arc.getWeightExpressionType() == ExpressionType.MARKING_DEPENDENT) {
+                return false;
+            }
+        }
+        for (OutboundArc arc : petriNet.getOutboundArcs()) {
+            if (arc.getWeightExpressionType() == ExpressionType.MARKING_DEPENDENT) {
+                return false;
+            }
+        }
+        boolean timed = false;
+        Set<Integer> immediatePriorities = new TreeSet<>();
+        for (Transition transition : petriNet.getTransitions()) {
+            if (transition.isTimed()) {
+                timed = true;
+            } else {
+                immediatePriorities.add(transition.getPriority());
+            }
+        }
+        return immediatePriorities.isEmpty() || (!timed && immediatePriorities.size() == 1);
+    }
+
+    /**
+     * @return transitions of the Petri net ordered by id
+     */
+    private Transition[] sortedTransitions() {
+        Collection<Transition> transitions = petriNet.getTransitions();
+        Transition[] sorted = transitions.toArray(new Transition[transitions.size()]);
+        Arrays.sort(sorted, new Comparator<Transition>() {
+            @Override
+            public int compare(Transition t1, Transition t2) {
+                return t1.getId().compareTo(t2.getId());
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * State of a single call to build
+     */
+    private final class Construction {
+        /**
+         * Encoding of the markings
+         */
+        private final MarkingLayout layout;
+
+        /**
+         * Transitions indexed as they are recorded on edges
+         */
+        private final Transition[] transitions = sortedTransitions();
+
+        /**
+         * Index of each transition
+         */
+        private final Map<Transition, Integer> transitionIndexes = new IdentityHashMap<>();
+
+        /**
+         * True for the rows of places with a capacity, which cannot grow without bound
+         */
+        private final boolean[] capacityRows;
+
+        /**
+         * Markings indexed by node id
+         */
+        private final List<int[]> markings = new ArrayList<>();
+
+        /**
+         * Parent of each node
+         */
+        private int[] parents = new int[64];
+
+        /**
+         * Smallest {@link #weight} of each node and its ancestors. A marking can only strictly cover a
+         * marking of smaller weight, so ancestors need not be walked once this is no smaller than
+         * the weight of the new marking
+         */
+        private long[] minWeights = new long[64];
+
+        /**
+         * Node of each marking in the graph
+         */
+        private final Map<IntBuffer, Integer> nodes = new HashMap<>();
+
+        /**
+         * Nodes with omega counts whose markings are not covered by any other node with omega counts,
+         * the only ones a marking not already in the graph is checked against
+         */
+        private final List<Integer> maximal = new ArrayList<>();
+
+        /**
+         * Edges between the nodes
+         */
+        private final EdgeBuffer edges = new EdgeBuffer();
+
+        private Construction(MarkingLayout layout) {
+            this.layout = layout;
+            for (int i = 0; i < transitions.length; i++) {
+                transitionIndexes.put(transitions[i], i);
+            }
+            capacityRows = new boolean[layout.getWidth()];
+            for (Place place : petriNet.getPlaces()) {
+                if (place.hasCapacityRestriction()) {
+                    for (Token token : petriNet.getTokens()) {
+                        capacityRows[layout.indexOf(place.getId(), token.getId())] = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param initialState      state to build the graph from
+         * @param stopWhenUnbounded true to stop as soon as an unbounded place is found
+         * @return true if every node was expanded
+         * @throws StateSpaceExplorationException if the graph has more than maxNodes nodes or the
+         *                                        building thread is interrupted
+         */
+        private boolean run(State initialState, boolean stopWhenUnbounded) throws StateSpaceExplorationException {
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(add(layout.encode(initialState), -1));
+            while (!stack.isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new StateSpaceExplorationException("Coverability graph construction was interrupted");
+                }
+                int node = stack.pop();
+                State state = layout.decode(markings.get(node));
+                for (Map.Entry<State, Collection<Transition>> entry : animationLogic.getSuccessors(state).entrySet()) {
+                    int[] successor = layout.encode(entry.getKey());
+                    boolean unbounded = accelerate(successor, node);
+                    int target = findCovering(successor);
+                    if (target < 0) {
+                        if (markings.size() >= maxNodes) {
+                            throw new StateSpaceExplorationException(
+                                    "Coverability graph has more than " + maxNodes + " nodes");
+                        }
+                        target = add(successor, node);
+                        stack.push(target);
+                    }
+                    for (Transition transition : entry.getValue()) {
+                        edges.add(node, target, transitionIndexes.get(transition));
+                    }
+                    if (unbounded && stopWhenUnbounded) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Sets every count that has grown since an ancestor it covers to omega, repeating until no
+         * ancestor gives any more growth
+         *
+         * @param marking marking to accelerate in place
+         * @param parent  parent of the marking
+         * @return true if the marking has any omega counts
+         */
+        private boolean accelerate(int[] marking, int parent) {
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                long weight = weight(marking);
+                for (int ancestor = parent; ancestor >= 0; ancestor = parents[ancestor]) {
+                    if (weight != Long.MAX_VALUE && minWeights[ancestor] >= weight) {
+                        break;
+                    }
+                    int[] previous = markings.get(ancestor);
+                    if (covers(marking, previous) && !Arrays.equals(marking, previous)) {
+                        for (int i = 0; i < marking.length; i++) {
+                            if (previous[i] < marking[i] && marking[i] != CoverabilityGraph.OMEGA
+                                    && !capacityRows[i]) {
+                                marking[i] = CoverabilityGraph.OMEGA;
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+            }
+            return hasOmega(marking);
+        }
+
+        /**
+         * @param marking marking
+         * @return node whose marking covers the marking, or -1 if there is none
+         */
+        private int findCovering(int[] marking) {
+            Integer existing = nodes.get(IntBuffer.wrap(marking));
+            if (existing != null) {
+                return existing;
+            }
+            for (int node : maximal) {
+                if (covers(markings.get(node), marking)) {
+                    return node;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Adds a node, if it has omega counts replacing any maximal nodes it covers
+         * @param marking marking of the node, it must not be changed afterwards
+         * @param parent  parent of the node
+         * @return id of the new node
+         */
+        private int add(int[] marking, int parent) {
+            int node = markings.size();
+            markings.add(marking);
+            if (node == parents.length) {
+                parents = Arrays.copyOf(parents, node * 2);
+                minWeights = Arrays.copyOf(minWeights, node * 2);
+            }
+            parents[node] = parent;
+            minWeights[node] = parent < 0 ? weight(marking) : Math.min(weight(marking), minWeights[parent]);
+            nodes.put(IntBuffer.wrap(marking), node);
+            if (hasOmega(marking)) {
+                Iterator<Integer> iterator = maximal.iterator();
+                while (iterator.hasNext()) {
+                    if (covers(marking, markings.get(iterator.next()))) {
+                        iterator.remove();
+                    }
+                }
+                maximal.add(node);
+            }
+            return node;
+        }
+
+        /**
+         * @param exact        true if the bounds are certain
+         * @param complete     true if every node was expanded
+         * @param elapsedNanos time the construction took
+         * @return the constructed graph
+         */
+        private CoverabilityGraph toGraph(boolean exact, boolean complete, long elapsedNanos) {
+            int[] bounds = new int[layout.getWidth()];
+            for (int[] marking : markings) {
+                for (int i = 0; i < bounds.length; i++) {
+                    bounds[i] = Math.max(bounds[i], marking[i]);
+                }
+            }
+            Set<String> unbounded = new TreeSet<>();
+            for (Place place : petriNet.getPlaces()) {
+                for (Token token : petriNet.getTokens()) {
+                    if (bounds[layout.indexOf(place.getId(), token.getId())] == CoverabilityGraph.OMEGA) {
+                        unbounded.add(place.getId());
+                    }
+                }
+            }
+            return new CoverabilityGraph(layout, markings, Arrays.copyOf(parents, markings.size()), transitions,
+                    edges, bounds, unbounded, exact, complete, elapsedNanos);
+        }
+    }
+
+    /**
+     * @param marking marking
+     * @return total number of tokens in the marking, or Long.MAX_VALUE if it has omega counts since
+     *         such a marking cannot be strictly covered by one without them
+     */
+    private static long weight(int[] marking) {
+        long weight = 0;
+        for (int count : marking) {
+            if (count == CoverabilityGraph.OMEGA) {
+                return Long.MAX_VALUE;
+            }
+            weight += count;
+        }
+        return weight;
+    }
+
+    /**
+     * @param marking marking
+     * @return true if any count of the marking is omega
+     */
+    private static boolean hasOmega(int[] marking) {
+        for (int count : marking) {
+            if (count == CoverabilityGraph.OMEGA) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param larger  marking
+     * @param smaller marking
+     * @return true if every count of larger is at least the count in smaller
+     */
+    private static boolean covers(int[] larger, int[] smaller) {
+        for (int i = 0; i < larger.length; i++) {
+            if (larger[i] < smaller[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
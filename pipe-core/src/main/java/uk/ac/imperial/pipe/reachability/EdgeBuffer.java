@@ -0,0 +1,75 @@
+package uk.ac.imperial.pipe.reachability;
+
+import java.util.Arrays;
+
+/**
+ * Growable primitive list of edges recorded by a single exploration thread, along with the states
+ * whose outgoing edges have all been recorded
+ */
+final class EdgeBuffer {
+
+    /**
+     * Initial number of edges the buffer can hold
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Source state id of each edge
+     */
+    int[] sources = new int[INITIAL_CAPACITY];
+
+    /**
+     * Target state id of each edge
+     */
+    int[] targets = new int[INITIAL_CAPACITY];
+
+    /**
+     * Index of the transition fired along each edge
+     */
+    int[] transitions = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of edges in the buffer
+     */
+    int size;
+
+    /**
+     * Ids of the states whose outgoing edges have all been recorded
+     */
+    int[] expanded = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of ids in expanded
+     */
+    int expandedSize;
+
+    /**
+     * Appends an edge to the buffer
+     * @param source     source state id
+     * @param target     target state id
+     * @param transition index of the transition fired
+     */
+    void add(int source, int target, int transition) {
+        if (size == sources.length) {
+            int capacity = size + (size >> 1);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            transitions = Arrays.copyOf(transitions, capacity);
+        }
+        sources[size] = source;
+        targets[size] = target;
+        transitions[size] = transition;
+        size++;
+    }
+
+    /**
+     * Records that every outgoing edge of the state is in the buffer
+     * @param state state id
+     */
+    void expanded(int state) {
+        if (expandedSize == expanded.length) {
+            expanded = Arrays.copyOf(expanded, expandedSize + (expandedSize >> 1));
+        }
+        expanded[expandedSize++] = state;
+    }
+}
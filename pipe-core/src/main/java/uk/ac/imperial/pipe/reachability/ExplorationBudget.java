@@ -0,0 +1,143 @@
+package uk.ac.imperial.pipe.reachability;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on the resources a {@link ReachabilityExplorer} may use before it stops and returns the part of
+ * the state space it has explored so far. Unlike the maximum number of states of the explorer, which fails
+ * the exploration, reaching a budget stops it cleanly so that it can be resumed later.
+ * <p>
+ * Budgets are immutable, each with method returns a copy with the given limit changed.
+ * </p>
+ */
+public final class ExplorationBudget {
+
+    /**
+     * Resource whose budget stopped an exploration
+     */
+    public enum Limit {
+        /**
+         * Number of discovered states
+         */
+        STATES,
+
+        /**
+         * Wall clock time
+         */
+        TIME,
+
+        /**
+         * Bytes used on the Java heap
+         */
+        HEAP,
+
+        /**
+         * Bytes used by the marking store, in direct memory and spilled to disk for an {@link OffHeapMarkingStore}
+         */
+        STORE
+    }
+
+    /**
+     * Budget without any limits
+     */
+    private static final ExplorationBudget UNLIMITED =
+            new ExplorationBudget(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Number of states that may be discovered
+     */
+    private final int maxStates;
+
+    /**
+     * Wall clock time the exploration may take in nanoseconds
+     */
+    private final long maxNanos;
+
+    /**
+     * Bytes of the Java heap that may be in use
+     */
+    private final long maxHeapBytes;
+
+    /**
+     * Bytes the marking store may use
+     */
+    private final long maxStoreBytes;
+
+    private ExplorationBudget(int maxStates, long maxNanos, long maxHeapBytes, long maxStoreBytes) {
+        this.maxStates = maxStates;
+        this.maxNanos = maxNanos;
+        this.maxHeapBytes = maxHeapBytes;
+        this.maxStoreBytes = maxStoreBytes;
+    }
+
+    /**
+     * @return budget without any limits
+     */
+    public static ExplorationBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param states number of states that may be discovered, the exploration stops once it has this many
+     * @return copy of this budget with the state limit
+     */
+    public ExplorationBudget withMaxStates(int states) {
+        return new ExplorationBudget(states, maxNanos, maxHeapBytes, maxStoreBytes);
+    }
+
+    /**
+     * @param time wall clock time the exploration may take
+     * @param unit unit of the time
+     * @return copy of this budget with the time limit
+     */
+    public ExplorationBudget withTimeLimit(long time, TimeUnit unit) {
+        return new ExplorationBudget(maxStates, unit.toNanos(time), maxHeapBytes, maxStoreBytes);
+    }
+
+    /**
+     * The heap in use is read from the runtime so includes garbage that has not been collected yet,
+     * this limit should be set well below the maximum heap size
+     * @param bytes bytes of the Java heap that may be in use
+     * @return copy of this budget with the heap limit
+     */
+    public ExplorationBudget withMaxHeapBytes(long bytes) {
+        return new ExplorationBudget(maxStates, maxNanos, bytes, maxStoreBytes);
+    }
+
+    /**
+     * @param bytes bytes the marking store may use, for stores other than {@link OffHeapMarkingStore}
+     *              this is estimated from the number and width of the stored markings
+     * @return copy of this budget with the store limit
+     */
+    public ExplorationBudget withMaxStoreBytes(long bytes) {
+        return new ExplorationBudget(maxStates, maxNanos, maxHeapBytes, bytes);
+    }
+
+    /**
+     * @return number of states that may be discovered
+     */
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    /**
+     * @return wall clock time the exploration may take in nanoseconds
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return bytes of the Java heap that may be in use
+     */
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    /**
+     * @return bytes the marking store may use
+     */
+    public long getMaxStoreBytes() {
+        return maxStoreBytes;
+    }
+}
@@ -0,0 +1,168 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * State space explored by a {@link ReachabilityExplorer} within an {@link ExplorationBudget}.
+ * <p>
+ * The graph is consistent even if a budget stopped the exploration: every state has either all
+ * of its outgoing edges or, if it is on the frontier, none of them. The frontier can be written as
+ * a checkpoint and the exploration resumed from it with
+ * {@link ReachabilityExplorer#resume(java.io.InputStream, MarkingStore, ExplorationBudget)}.
+ * </p>
+ */
+public final class ExplorationResult {
+
+    /**
+     * First int of every checkpoint
+     */
+    static final int CHECKPOINT_MAGIC = 0x50495045;
+
+    /**
+     * Version of the checkpoint format
+     */
+    static final int CHECKPOINT_VERSION = 1;
+
+    /**
+     * Explored state space, frontier states have no outgoing edges
+     */
+    private final StateGraph graph;
+
+    /**
+     * Ids of the discovered states that have not been expanded
+     */
+    private final int[] frontier;
+
+    /**
+     * Limit that stopped the exploration, null if it finished
+     */
+    private final ExplorationBudget.Limit stopReason;
+
+    /**
+     * States discovered per second towards the end of the exploration
+     */
+    private final double growthRate;
+
+    /**
+     * Estimated number of reachable states, -1 if the state space was still growing too fast to tell
+     */
+    private final long estimatedStates;
+
+    /**
+     * Constructor
+     * @param graph           explored state space
+     * @param frontier        ids of the discovered states that have not been expanded
+     * @param stopReason      limit that stopped the exploration, null if it finished
+     * @param growthRate      states discovered per second towards the end of the exploration
+     * @param estimatedStates estimated number of reachable states, -1 if unknown
+     */
+    ExplorationResult(StateGraph graph, int[] frontier, ExplorationBudget.Limit stopReason, double growthRate,
+                      long estimatedStates) {
+        this.graph = graph;
+        this.frontier = frontier;
+        this.stopReason = stopReason;
+        this.growthRate = growthRate;
+        this.estimatedStates = estimatedStates;
+    }
+
+    /**
+     * @return explored state space, states on the frontier have no outgoing edges
+     */
+    public StateGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return true if every reachable state was explored
+     */
+    public boolean isComplete() {
+        return stopReason == null;
+    }
+
+    /**
+     * @return limit that stopped the exploration, or null if it finished
+     */
+    public ExplorationBudget.Limit getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return ids of the discovered states that have not been expanded
+     */
+    public int[] getFrontier() {
+        return Arrays.copyOf(frontier, frontier.length);
+    }
+
+    /**
+     * @return number of discovered states that have not been expanded
+     */
+    public int getFrontierSize() {
+        return frontier.length;
+    }
+
+    /**
+     * @return states discovered per second towards the end of the exploration
+     */
+    public double getGrowthRate() {
+        return growthRate;
+    }
+
+    /**
+     * The estimate assumes that each frontier state will discover new states at the rate states were
+     * discovered towards the end of the exploration, so it is only a rough guide
+     * @return estimated number of reachable states, or -1 if the state space was still growing too fast to tell
+     */
+    public long getEstimatedStates() {
+        return estimatedStates;
+    }
+
+    /**
+     * Writes the explored states, their edges and the frontier so that the exploration can be resumed
+     * @param output stream to write to, it is not closed
+     * @throws IOException if the checkpoint could not be written
+     */
+    public void writeCheckpoint(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output));
+        data.writeInt(CHECKPOINT_MAGIC);
+        data.writeInt(CHECKPOINT_VERSION);
+        data.writeInt(graph.getLayout().getWidth());
+        Transition[] transitions = graph.getTransitions();
+        data.writeInt(transitions.length);
+        for (Transition transition : transitions) {
+            data.writeUTF(transition.getId());
+        }
+        int states = graph.getStateCount();
+        data.writeInt(states);
+        for (int state = 0; state < states; state++) {
+            for (int count : graph.getMarking(state)) {
+                data.writeInt(count);
+            }
+        }
+        data.writeInt(graph.getEdgeCount());
+        for (int state = 0; state < states; state++) {
+            for (int edge = 0; edge < graph.getOutDegree(state); edge++) {
+                data.writeInt(state);
+                data.writeInt(graph.getSuccessor(state, edge));
+                data.writeInt(graph.getTransitionIndex(state, edge));
+            }
+        }
+        data.writeInt(frontier.length);
+        for (int state : frontier) {
+            data.writeInt(state);
+        }
+        data.flush();
+    }
+
+    @Override
+    public String toString() {
+        String status = isComplete() ? "complete" : "stopped by " + stopReason + " budget";
+        return String.format("%s, %s, %d on the frontier, %.0f states/s, estimated %d states", graph.getStatistics(),
+                status, frontier.length, growthRate, estimatedStates);
+    }
+}
@@ -0,0 +1,87 @@
+package uk.ac.imperial.pipe.reachability;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of a completed state space exploration
+ */
+public final class ExplorationStatistics {
+
+    /**
+     * Number of states explored
+     */
+    private final int states;
+
+    /**
+     * Number of edges recorded
+     */
+    private final long edges;
+
+    /**
+     * Wall clock time the exploration took
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Number of threads the exploration used
+     */
+    private final int parallelism;
+
+    /**
+     * Constructor
+     * @param states       number of states explored
+     * @param edges        number of edges recorded
+     * @param elapsedNanos wall clock time the exploration took in nanoseconds
+     * @param parallelism  number of threads the exploration used
+     */
+    public ExplorationStatistics(int states, long edges, long elapsedNanos, int parallelism) {
+        this.states = states;
+        this.edges = edges;
+        this.elapsedNanos = elapsedNanos;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return number of states explored
+     */
+    public int getStates() {
+        return states;
+    }
+
+    /**
+     * @return number of edges recorded
+     */
+    public long getEdges() {
+        return edges;
+    }
+
+    /**
+     * @return wall clock time the exploration took in milliseconds
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return number of threads the exploration used
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return average number of states explored per second
+     */
+    public double getStatesPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return states * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d states, %d edges in %d ms on %d threads (%.0f states/s)", states, edges,
+                getElapsedMillis(), parallelism, getStatesPerSecond());
+    }
+}
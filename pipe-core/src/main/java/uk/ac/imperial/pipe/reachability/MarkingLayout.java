@@ -0,0 +1,139 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Token;
+import uk.ac.imperial.state.HashedStateBuilder;
+import uk.ac.imperial.state.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding of a Petri net marking as a fixed width array of token counts.
+ * <p>
+ * Every (place, token) pair of the Petri net is given a position in the array, places and
+ * tokens being ordered by id. This lets markings be stored and compared without the nested
+ * string keyed maps of a {@link State}.
+ * </p>
+ */
+public final class MarkingLayout {
+
+    /**
+     * Place ids in the order they are encoded
+     */
+    private final String[] placeIds;
+
+    /**
+     * Token ids in the order they are encoded within each place
+     */
+    private final String[] tokenIds;
+
+    /**
+     * Constructor
+     * @param petriNet Petri net whose markings will be encoded
+     */
+    public MarkingLayout(PetriNet petriNet) {
+        List<String> places = new ArrayList<>();
+        for (Place place : petriNet.getPlaces()) {
+            places.add(place.getId());
+        }
+        List<String> tokens = new ArrayList<>();
+        for (Token token : petriNet.getTokens()) {
+            tokens.add(token.getId());
+        }
+        Collections.sort(places);
+        Collections.sort(tokens);
+        placeIds = places.toArray(new String[places.size()]);
+        tokenIds = tokens.toArray(new String[tokens.size()]);
+    }
+
+    /**
+     * @return number of token counts in an encoded marking
+     */
+    public int getWidth() {
+        return placeIds.length * tokenIds.length;
+    }
+
+    /**
+     * @param placeId place id
+     * @param tokenId token id
+     * @return position of the places token count in an encoded marking, or -1 if either is unknown
+     */
+    public int indexOf(String placeId, String tokenId) {
+        int place = indexOf(placeIds, placeId);
+        int token = indexOf(tokenIds, tokenId);
+        if (place < 0 || token < 0) {
+            return -1;
+        }
+        return place * tokenIds.length + token;
+    }
+
+    /**
+     * @param state state to encode, places or tokens it does not contain are encoded as zero
+     * @return encoded marking
+     */
+    public int[] encode(State state) {
+        int[] marking = new int[getWidth()];
+        int index = 0;
+        for (String placeId : placeIds) {
+            Map<String, Integer> counts = state.containsTokens(placeId) ? state.getTokens(placeId) : null;
+            for (String tokenId : tokenIds) {
+                Integer count = counts == null ? null : counts.get(tokenId);
+                marking[index++] = count == null ? 0 : count;
+            }
+        }
+        return marking;
+    }
+
+    /**
+     * @param marking encoded marking
+     * @return state containing every place and token of the Petri net
+     */
+    public State decode(int[] marking) {
+        HashedStateBuilder builder = new HashedStateBuilder();
+        int index = 0;
+        for (String placeId : placeIds) {
+            for (String tokenId : tokenIds) {
+                builder.placeWithToken(placeId, tokenId, marking[index++]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param marking encoded marking
+     * @return well distributed hash of the marking
+     */
+    public static int hash(int[] marking) {
+        int hash = 0x9747b28c;
+        for (int count : marking) {
+            int k = count * 0xcc9e2d51;
+            k = Integer.rotateLeft(k, 15) * 0x1b873593;
+            hash = Integer.rotateLeft(hash ^ k, 13) * 5 + 0xe6546b64;
+        }
+        hash ^= marking.length;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * @param ids sorted ids
+     * @param id  id to find
+     * @return index of the id or -1 if not found
+     */
+    private static int indexOf(String[] ids, String id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
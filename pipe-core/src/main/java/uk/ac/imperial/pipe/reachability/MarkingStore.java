@@ -0,0 +1,51 @@
+package uk.ac.imperial.pipe.reachability;
+
+/**
+ * Set of encoded markings that assigns every marking a dense id in insertion order.
+ * <p>
+ * Implementations must be safe for concurrent use by many exploration threads.
+ * </p>
+ */
+public interface MarkingStore {
+
+    /**
+     * Adds the marking to the store if it is not already contained in it
+     * <p>
+     * The returned value is the id of the marking if it was added, or -(id + 1) if it was already
+     * present, so a non negative result means the caller added it.
+     * </p>
+     * @param marking encoded marking, it is copied so may be reused by the caller
+     * @return id of the newly added marking, or -(id + 1) if it was already in the store
+     * @throws IllegalStateException if the store is full
+     */
+    int add(int[] marking);
+
+    /**
+     * @param marking encoded marking
+     * @return id of the marking or -1 if it is not in the store
+     */
+    int indexOf(int[] marking);
+
+    /**
+     * @param id marking id
+     * @return copy of the encoded marking
+     */
+    int[] get(int id);
+
+    /**
+     * Copies the marking into the given array
+     * @param id      marking id
+     * @param marking array to copy the encoded marking into
+     */
+    void get(int id, int[] marking);
+
+    /**
+     * @return number of markings in the store
+     */
+    int size();
+
+    /**
+     * @return maximum number of markings the store can hold
+     */
+    int getCapacity();
+}
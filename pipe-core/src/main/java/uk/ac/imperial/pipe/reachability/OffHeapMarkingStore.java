@@ -0,0 +1,471 @@
+package uk.ac.imperial.pipe.reachability;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Marking store that keeps markings and their hash index outside of the Java heap, so that
+ * state spaces far larger than the heap can be explored without garbage collection overhead.
+ * <p>
+ * Each marking is packed into a fixed width byte record of its hash followed by its token counts,
+ * each count taking one, two or four bytes depending on the largest count the store must hold.
+ * Records are written into segments of direct memory until the memory budget is used up, after
+ * which new segments are memory mapped from a spill file so that the operating system pages
+ * them to and from disk.
+ * </p>
+ * <p>
+ * The hash index is split into shards each guarded by their own lock, which keeps contention
+ * low with many exploration threads while allowing the index itself to live off heap.
+ * </p>
+ */
+public final class OffHeapMarkingStore implements MarkingStore, Closeable {
+
+    /**
+     * Log2 of the number of index shards
+     */
+    private static final int SHARD_BITS = 8;
+
+    /**
+     * Largest size of a record segment in bytes
+     */
+    private static final int SEGMENT_BYTES = 1 << 26;
+
+    /**
+     * Number of token counts in each marking
+     */
+    private final int width;
+
+    /**
+     * Number of bytes used for each token count
+     */
+    private final int countBytes;
+
+    /**
+     * Largest token count the store can hold
+     */
+    private final int maxCount;
+
+    /**
+     * Number of bytes in each record
+     */
+    private final int recordBytes;
+
+    /**
+     * Log2 of the number of records in each segment
+     */
+    private final int segmentBits;
+
+    /**
+     * Maximum number of markings the store can hold
+     */
+    private final int capacity;
+
+    /**
+     * Number of bytes that may be allocated in direct memory before spilling to disk
+     */
+    private final long memoryBudget;
+
+    /**
+     * Directory the spill file is created in
+     */
+    private final File spillDirectory;
+
+    /**
+     * Hash index shards
+     */
+    private final Shard[] shards;
+
+    /**
+     * Record segments, created on demand
+     */
+    private final AtomicReferenceArray<ByteBuffer> segments;
+
+    /**
+     * Next id to hand out
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Bytes allocated in direct memory
+     */
+    private long allocatedBytes;
+
+    /**
+     * Bytes mapped from the spill file
+     */
+    private long spilledBytes;
+
+    /**
+     * File that segments are mapped from once the memory budget is used up, created on demand
+     */
+    private File spillFile;
+
+    /**
+     * Open spill file
+     */
+    private RandomAccessFile spill;
+
+    /**
+     * Creates a store that spills to the default temporary file directory
+     * @param width        number of token counts in each marking
+     * @param capacity     maximum number of markings the store will hold
+     * @param maxCount     largest token count of any place in any marking
+     * @param memoryBudget number of bytes that may be held in direct memory before spilling to disk
+     * @throws IOException if the index could not be created
+     */
+    public OffHeapMarkingStore(int width, int capacity, int maxCount, long memoryBudget) throws IOException {
+        this(width, capacity, maxCount, memoryBudget, new File(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Constructor
+     * @param width          number of token counts in each marking
+     * @param capacity       maximum number of markings the store will hold
+     * @param maxCount       largest token count of any place in any marking
+     * @param memoryBudget   number of bytes that may be held in direct memory before spilling to disk
+     * @param spillDirectory directory to create the spill file in
+     * @throws IOException if the index could not be created
+     */
+    public OffHeapMarkingStore(int width, int capacity, int maxCount, long memoryBudget, File spillDirectory)
+            throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was " + capacity);
+        }
+        this.width = width;
+        this.capacity = capacity;
+        this.maxCount = maxCount;
+        this.memoryBudget = memoryBudget;
+        this.spillDirectory = spillDirectory;
+        if (maxCount <= 0xFF) {
+            countBytes = 1;
+        } else if (maxCount <= 0xFFFF) {
+            countBytes = 2;
+        } else {
+            countBytes = 4;
+        }
+        recordBytes = 4 + width * countBytes;
+        int capacityBits = 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        int segmentLimitBits = 31 - Integer.numberOfLeadingZeros(Math.max(1, SEGMENT_BYTES / recordBytes));
+        segmentBits = Math.min(capacityBits, segmentLimitBits);
+        segments = new AtomicReferenceArray<>((int) (((long) capacity - 1 >>> segmentBits) + 1));
+
+        int perShard = (int) (((long) capacity >>> SHARD_BITS) + 1);
+        int tableSize = Math.max(16, Integer.highestOneBit(perShard) << 2);
+        shards = new Shard[1 << SHARD_BITS];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(allocate(tableSize * 4).asIntBuffer());
+        }
+    }
+
+    /**
+     * Creates a store whose counts are wide enough for the bound of every place, such as those from
+     * {@link uk.ac.imperial.pipe.structural.InvariantCalculator#getBounds(uk.ac.imperial.pipe.models.petrinet.PetriNet,
+     * uk.ac.imperial.state.State)}. If any place is unbounded the store uses four byte counts, which
+     * hold any token count.
+     * @param bounds       largest token count of each place in any reachable marking, -1 if unknown
+     * @param capacity     maximum number of markings the store will hold
+     * @param memoryBudget number of bytes that may be held in direct memory before spilling to disk
+     * @return store for markings of bounds.length places
+     * @throws IOException if the index could not be created
+     */
+    public static OffHeapMarkingStore forBounds(int[] bounds, int capacity, long memoryBudget) throws IOException {
+        int maxCount = 0;
+        for (int bound : bounds) {
+            maxCount = bound < 0 ? Integer.MAX_VALUE : Math.max(maxCount, bound);
+            if (maxCount == Integer.MAX_VALUE) {
+                break;
+            }
+        }
+        return new OffHeapMarkingStore(bounds.length, capacity, maxCount, memoryBudget);
+    }
+
+    /**
+     * Adds the marking to the store if it is not already contained in it
+     * @param marking encoded marking, it is copied so may be reused by the caller
+     * @return id of the newly added marking, or -(id + 1) if it was already in the store
+     * @throws IllegalStateException if the store is full, the marking has a count larger than the
+     *                               store can hold or the store could not spill to disk
+     */
+    @Override
+    public int add(int[] marking) {
+        for (int count : marking) {
+            if (count < 0 || count > maxCount) {
+                throw new IllegalStateException(
+                        "Token count " + count + " is outside of the range this store can hold: 0 to " + maxCount);
+            }
+        }
+        int hash = MarkingLayout.hash(marking);
+        Shard shard = shards[hash >>> (32 - SHARD_BITS)];
+        synchronized (shard) {
+            int index = hash & shard.mask;
+            int value;
+            while ((value = shard.table.get(index)) != 0) {
+                if (matches(value - 1, hash, marking)) {
+                    return -value;
+                }
+                index = (index + 1) & shard.mask;
+            }
+            if (shard.size == shard.mask) {
+                throw new IllegalStateException("Marking store index is full");
+            }
+            int id = size.getAndIncrement();
+            if (id >= capacity) {
+                size.decrementAndGet();
+                throw new IllegalStateException("Marking store is full, it can hold " + capacity + " markings");
+            }
+            write(id, hash, marking);
+            shard.table.put(index, id + 1);
+            shard.size++;
+            return id;
+        }
+    }
+
+    /**
+     * @param marking encoded marking
+     * @return id of the marking or -1 if it is not in the store
+     */
+    @Override
+    public int indexOf(int[] marking) {
+        int hash = MarkingLayout.hash(marking);
+        Shard shard = shards[hash >>> (32 - SHARD_BITS)];
+        synchronized (shard) {
+            int index = hash & shard.mask;
+            int value;
+            while ((value = shard.table.get(index)) != 0) {
+                if (matches(value - 1, hash, marking)) {
+                    return value - 1;
+                }
+                index = (index + 1) & shard.mask;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * @param id marking id
+     * @return copy of the encoded marking
+     */
+    @Override
+    public int[] get(int id) {
+        int[] marking = new int[width];
+        get(id, marking);
+        return marking;
+    }
+
+    /**
+     * Copies the marking into the given array. The id must have been obtained from this store
+     * by the calling thread or handed to it by one that did.
+     * @param id      marking id
+     * @param marking array to copy the encoded marking into
+     */
+    @Override
+    public void get(int id, int[] marking) {
+        ByteBuffer segment = segments.get(id >>> segmentBits);
+        int position = offset(id) + 4;
+        for (int i = 0; i < width; i++) {
+            marking[i] = readCount(segment, position);
+            position += countBytes;
+        }
+    }
+
+    /**
+     * @return number of markings in the store
+     */
+    @Override
+    public int size() {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     * @return maximum number of markings the store can hold
+     */
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of bytes held in direct memory
+     */
+    public synchronized long getMemoryBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return number of bytes mapped from the spill file
+     */
+    public synchronized long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    /**
+     * Closes and deletes the spill file. The store must not be used afterwards.
+     * @throws IOException if the spill file could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (spill != null) {
+            spill.close();
+            spill = null;
+            if (!spillFile.delete()) {
+                spillFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Writes the marking into its record, creating its segment if needed
+     * @param id      marking id
+     * @param hash    marking hash
+     * @param marking encoded marking
+     */
+    private void write(int id, int hash, int[] marking) {
+        ByteBuffer segment = segment(id >>> segmentBits);
+        int position = offset(id);
+        segment.putInt(position, hash);
+        position += 4;
+        for (int count : marking) {
+            writeCount(segment, position, count);
+            position += countBytes;
+        }
+    }
+
+    /**
+     * @param id      id of a stored marking
+     * @param hash    hash of the marking to compare
+     * @param marking marking to compare
+     * @return true if the stored marking equals the given marking
+     */
+    private boolean matches(int id, int hash, int[] marking) {
+        ByteBuffer segment = segments.get(id >>> segmentBits);
+        int position = offset(id);
+        if (segment.getInt(position) != hash) {
+            return false;
+        }
+        position += 4;
+        for (int count : marking) {
+            if (readCount(segment, position) != count) {
+                return false;
+            }
+            position += countBytes;
+        }
+        return true;
+    }
+
+    /**
+     * @param segment  segment to read from
+     * @param position byte position of the count
+     * @return token count at the position
+     */
+    private int readCount(ByteBuffer segment, int position) {
+        switch (countBytes) {
+            case 1:
+                return segment.get(position) & 0xFF;
+            case 2:
+                return segment.getShort(position) & 0xFFFF;
+            default:
+                return segment.getInt(position);
+        }
+    }
+
+    /**
+     * @param segment  segment to write to
+     * @param position byte position of the count
+     * @param count    token count
+     */
+    private void writeCount(ByteBuffer segment, int position, int count) {
+        switch (countBytes) {
+            case 1:
+                segment.put(position, (byte) count);
+                break;
+            case 2:
+                segment.putShort(position, (short) count);
+                break;
+            default:
+                segment.putInt(position, count);
+        }
+    }
+
+    /**
+     * @param id marking id
+     * @return byte offset of the markings record within its segment
+     */
+    private int offset(int id) {
+        return (id & ((1 << segmentBits) - 1)) * recordBytes;
+    }
+
+    /**
+     * @param index segment index
+     * @return the segment, allocating it if it does not yet exist
+     */
+    private ByteBuffer segment(int index) {
+        ByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            synchronized (segments) {
+                segment = segments.get(index);
+                if (segment == null) {
+                    try {
+                        segment = allocate((1 << segmentBits) * recordBytes);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Could not spill markings to disk", e);
+                    }
+                    segments.set(index, segment);
+                }
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Allocates zeroed direct memory if within the memory budget, otherwise maps a new region
+     * of the spill file
+     * @param bytes number of bytes to allocate
+     * @return allocated buffer
+     * @throws IOException if the spill file could not be created or mapped
+     */
+    private synchronized ByteBuffer allocate(int bytes) throws IOException {
+        if (allocatedBytes + bytes <= memoryBudget) {
+            allocatedBytes += bytes;
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        if (spill == null) {
+            spillFile = File.createTempFile("pipe-markings", ".bin", spillDirectory);
+            spill = new RandomAccessFile(spillFile, "rw");
+        }
+        ByteBuffer buffer = spill.getChannel().map(FileChannel.MapMode.READ_WRITE, spilledBytes, bytes);
+        spilledBytes += bytes;
+        return buffer;
+    }
+
+    /**
+     * Open addressing hash table of marking id + 1, zero marking an empty slot
+     */
+    private static final class Shard {
+        /**
+         * Slots of the table
+         */
+        private final IntBuffer table;
+
+        /**
+         * Table mask, the table length is a power of two
+         */
+        private final int mask;
+
+        /**
+         * Number of used slots
+         */
+        private int size;
+
+        private Shard(IntBuffer table) {
+            this.table = table;
+            this.mask = table.capacity() - 1;
+        }
+    }
+}
@@ -0,0 +1,722 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.animation.AnimationLogic;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.metrics.Counter;
+import uk.ac.imperial.pipe.metrics.Gauge;
+import uk.ac.imperial.pipe.metrics.Metrics;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Explores the reachable state space of a Petri net on many threads.
+ * <p>
+ * Newly discovered states are expanded in small batches by fork join tasks, so idle threads
+ * steal work from the frontier of busy ones. Discovered markings are deduplicated by a
+ * {@link MarkingStore}, by default the lock free {@link ConcurrentMarkingSet}, and each thread records
+ * the edges it finds into its own primitive buffer, so the only shared writes during exploration are
+ * to the visited store.
+ * </p>
+ * <p>
+ * Enabled transitions and successor states are computed by the given {@link AnimationLogic},
+ * which must be safe to call from many threads at once. Its cache is cleared as the exploration goes
+ * and once it has finished.
+ * </p>
+ * <p>
+ * An {@link ExplorationBudget} stops the exploration cleanly when it runs out, returning the states
+ * explored so far and the frontier still to expand, which can be checkpointed and resumed later.
+ * </p>
+ */
+public final class ReachabilityExplorer {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(ReachabilityExplorer.class.getName());
+
+    /**
+     * Number of newly discovered states expanded by each task
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * Number of state expansions between checks of the time and memory budgets
+     */
+    private static final int BUDGET_CHECK_INTERVAL = 256;
+
+    /**
+     * Number of state expansions after which the enabled transitions cached by the animation logic are
+     * dropped. Each state is expanded once, so the cache would otherwise hold every visited state on the
+     * heap, even when the visited markings themselves are kept off heap
+     */
+    private static final int CACHE_CLEAR_INTERVAL = 4096;
+
+    /**
+     * Number of states discovered by every exploration
+     */
+    private static final Counter STATES_DISCOVERED = Metrics.counter("reachability.statesDiscovered");
+
+    /**
+     * Rate at which the latest exploration discovered states, sampled at every budget check
+     */
+    private static volatile double statesPerSecond;
+
+    static {
+        Metrics.gauge("reachability.statesPerSecond", new Gauge() {
+            @Override
+            public double getValue() {
+                return statesPerSecond;
+            }
+        });
+    }
+
+    /**
+     * Petri net to explore
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Logic used to find enabled transitions and successor states
+     */
+    private final AnimationLogic animationLogic;
+
+    /**
+     * Maximum number of states the exploration will visit
+     */
+    private final int maxStates;
+
+    /**
+     * Number of threads to explore with
+     */
+    private final int parallelism;
+
+    /**
+     * Explores with one thread per available processor
+     * @param petriNet       Petri net to explore
+     * @param animationLogic logic used to find enabled transitions and successor states
+     * @param maxStates      maximum number of states the exploration will visit
+     */
+    public ReachabilityExplorer(PetriNet petriNet, AnimationLogic animationLogic, int maxStates) {
+        this(petriNet, animationLogic, maxStates, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor
+     * @param petriNet       Petri net to explore
+     * @param animationLogic logic used to find enabled transitions and successor states
+     * @param maxStates      maximum number of states the exploration will visit
+     * @param parallelism    number of threads to explore with
+     */
+    public ReachabilityExplorer(PetriNet petriNet, AnimationLogic animationLogic, int maxStates, int parallelism) {
+        this.petriNet = petriNet;
+        this.animationLogic = animationLogic;
+        this.maxStates = maxStates;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Explores every state reachable from the initial state, keeping the visited markings on the heap
+     * @param initialState state to start exploring from, it will have id 0 in the graph
+     * @return reachability graph of the Petri net
+     * @throws StateSpaceExplorationException if there are more than maxStates reachable states or
+     *                                        a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    public StateGraph explore(State initialState) throws StateSpaceExplorationException, InterruptedException {
+        return explore(initialState, ExplorationBudget.unlimited()).getGraph();
+    }
+
+    /**
+     * Explores every state reachable from the initial state, recording the visited markings in the
+     * given store. This allows the visited markings to be held off heap, see {@link OffHeapMarkingStore},
+     * or compressed by the P-invariants of the Petri net, see
+     * {@link uk.ac.imperial.pipe.structural.CompressedMarkingStore#forPetriNet(PetriNet, State, int)}.
+     * @param initialState state to start exploring from, it will have id 0 in the graph
+     * @param visited      empty store for markings of {@link MarkingLayout#getWidth()} of this Petri net, it
+     *                     should have room for maxStates plus one marking per thread
+     * @return reachability graph of the Petri net, which reads its markings from the store
+     * @throws StateSpaceExplorationException if there are more than maxStates reachable states or
+     *                                        a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    public StateGraph explore(State initialState, MarkingStore visited)
+            throws StateSpaceExplorationException, InterruptedException {
+        return explore(initialState, visited, ExplorationBudget.unlimited()).getGraph();
+    }
+
+    /**
+     * Explores the states reachable from the initial state until they have all been explored or the
+     * budget runs out, keeping the visited markings on the heap
+     * @param initialState state to start exploring from, it will have id 0 in the graph
+     * @param budget       limits on the exploration
+     * @return the explored part of the state space
+     * @throws StateSpaceExplorationException if there are more than maxStates reachable states or
+     *                                        a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    public ExplorationResult explore(State initialState, ExplorationBudget budget)
+            throws StateSpaceExplorationException, InterruptedException {
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        return explore(initialState, layout, new ConcurrentMarkingSet(layout.getWidth(), getStoreCapacity()), budget);
+    }
+
+    /**
+     * Explores the states reachable from the initial state until they have all been explored or the
+     * budget runs out, recording the visited markings in the given store
+     * @param initialState state to start exploring from, it will have id 0 in the graph
+     * @param visited      empty store for markings of {@link MarkingLayout#getWidth()} of this Petri net, it
+     *                     should have room for maxStates plus one marking per thread
+     * @param budget       limits on the exploration
+     * @return the explored part of the state space, which reads its markings from the store
+     * @throws StateSpaceExplorationException if there are more than maxStates reachable states or
+     *                                        a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    public ExplorationResult explore(State initialState, MarkingStore visited, ExplorationBudget budget)
+            throws StateSpaceExplorationException, InterruptedException {
+        return explore(initialState, new MarkingLayout(petriNet), visited, budget);
+    }
+
+    /**
+     * Resumes an exploration from a checkpoint, keeping the visited markings on the heap
+     * @param checkpoint stream to read the checkpoint from, it is not closed
+     * @param budget     limits on this part of the exploration
+     * @return the explored part of the state space, including the states from the checkpoint
+     * @throws StateSpaceExplorationException if the checkpoint is not for this Petri net, there are more
+     *                                        than maxStates reachable states or a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     * @throws IOException if the checkpoint could not be read
+     */
+    public ExplorationResult resume(InputStream checkpoint, ExplorationBudget budget)
+            throws StateSpaceExplorationException, InterruptedException, IOException {
+        int width = new MarkingLayout(petriNet).getWidth();
+        return resume(checkpoint, new ConcurrentMarkingSet(width, getStoreCapacity()), budget);
+    }
+
+    /**
+     * Resumes an exploration from a checkpoint written by {@link ExplorationResult#writeCheckpoint(java.io.OutputStream)},
+     * expanding the states on its frontier until they have all been explored or the budget runs out.
+     * States keep the ids they had when the checkpoint was written.
+     * @param checkpoint stream to read the checkpoint from, it is not closed
+     * @param visited    empty store for markings of {@link MarkingLayout#getWidth()} of this Petri net, it
+     *                   should have room for maxStates plus one marking per thread
+     * @param budget     limits on this part of the exploration
+     * @return the explored part of the state space, including the states from the checkpoint
+     * @throws StateSpaceExplorationException if the checkpoint is not for this Petri net, there are more
+     *                                        than maxStates reachable states or a state could not be expanded
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     * @throws IOException if the checkpoint could not be read
+     */
+    public ExplorationResult resume(InputStream checkpoint, MarkingStore visited, ExplorationBudget budget)
+            throws StateSpaceExplorationException, InterruptedException, IOException {
+        long start = System.nanoTime();
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        Exploration exploration = new Exploration(layout, sortedTransitions(), visited, budget, start);
+        int[] frontier = exploration.restore(new DataInputStream(new BufferedInputStream(checkpoint)));
+        LOGGER.log(Level.INFO, "Resuming exploration of {0} states with {1} on the frontier",
+                new Object[]{visited.size(), frontier.length});
+        return explore(exploration, frontier, start);
+    }
+
+    /**
+     * Capacity a store passed to this explorer should have. The heap store grows as states are found,
+     * so for it this is a limit rather than memory reserved
+     * @return room for maxStates plus one overshoot per thread
+     */
+    public int getStoreCapacity() {
+        return (int) Math.min((long) maxStates + parallelism, ConcurrentMarkingSet.MAX_CAPACITY);
+    }
+
+    /**
+     * @param initialState state to start exploring from
+     * @param layout       encoding of the markings
+     * @param visited      empty store for the visited markings
+     * @param budget       limits on the exploration
+     * @return the explored part of the state space
+     * @throws StateSpaceExplorationException if the exploration failed
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    private ExplorationResult explore(State initialState, MarkingLayout layout, MarkingStore visited,
+                                      ExplorationBudget budget)
+            throws StateSpaceExplorationException, InterruptedException {
+        long start = System.nanoTime();
+        Exploration exploration = new Exploration(layout, sortedTransitions(), visited, budget, start);
+        int initial = visited.add(layout.encode(initialState));
+        return explore(exploration, new int[]{initial}, start);
+    }
+
+    /**
+     * @param exploration exploration to run
+     * @param frontier    ids of the states to start expanding from
+     * @param start       time the exploration started
+     * @return the explored part of the state space
+     * @throws StateSpaceExplorationException if the exploration failed
+     * @throws InterruptedException if interrupted whilst waiting for the exploration to finish
+     */
+    private ExplorationResult explore(Exploration exploration, int[] frontier, long start)
+            throws StateSpaceExplorationException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            exploration.run(pool, frontier);
+        } finally {
+            pool.shutdownNow();
+            animationLogic.clear();
+        }
+        ExplorationResult result = exploration.toResult(System.nanoTime() - start);
+        LOGGER.log(Level.INFO, "Explored {0}", result);
+        return result;
+    }
+
+    /**
+     * @return transitions of the Petri net ordered by id
+     */
+    private Transition[] sortedTransitions() {
+        Collection<Transition> transitions = petriNet.getTransitions();
+        Transition[] sorted = transitions.toArray(new Transition[transitions.size()]);
+        Arrays.sort(sorted, new Comparator<Transition>() {
+            @Override
+            public int compare(Transition t1, Transition t2) {
+                return t1.getId().compareTo(t2.getId());
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Shared state of a single call to explore
+     */
+    private final class Exploration {
+        /**
+         * Encoding of the markings
+         */
+        private final MarkingLayout layout;
+
+        /**
+         * Transitions indexed as they are recorded on edges
+         */
+        private final Transition[] transitions;
+
+        /**
+         * Index of each transition
+         */
+        private final Map<Transition, Integer> transitionIndexes = new IdentityHashMap<>();
+
+        /**
+         * Visited markings, with room for each thread to overshoot maxStates by one before noticing
+         */
+        private final MarkingStore visited;
+
+        /**
+         * Limits on the exploration
+         */
+        private final ExplorationBudget budget;
+
+        /**
+         * Time the exploration started
+         */
+        private final long start;
+
+        /**
+         * Edge buffers of every thread that has taken part in the exploration
+         */
+        private final Queue<EdgeBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Edge buffer of the current thread
+         */
+        private final ThreadLocal<EdgeBuffer> threadBuffer = new ThreadLocal<EdgeBuffer>() {
+            @Override
+            protected EdgeBuffer initialValue() {
+                EdgeBuffer buffer = new EdgeBuffer();
+                buffers.add(buffer);
+                return buffer;
+            }
+        };
+
+        /**
+         * Number of tasks that have been forked but not yet finished
+         */
+        private final AtomicLong pending = new AtomicLong();
+
+        /**
+         * Released when there are no pending tasks left or the exploration fails
+         */
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        /**
+         * First failure of the exploration, once set every task stops expanding states
+         */
+        private final AtomicReference<StateSpaceExplorationException> failure = new AtomicReference<>();
+
+        /**
+         * First budget that ran out, once set every task stops expanding states and the
+         * exploration finishes when they have all returned
+         */
+        private final AtomicReference<ExplorationBudget.Limit> stopReason = new AtomicReference<>();
+
+        /**
+         * Number of states expanded
+         */
+        private final AtomicLong expansions = new AtomicLong();
+
+        /**
+         * Time of the last budget check
+         */
+        private long sampleNanos;
+
+        /**
+         * Number of states expanded at the last budget check
+         */
+        private long sampleExpansions;
+
+        /**
+         * Number of states discovered at the last budget check
+         */
+        private int sampleStates;
+
+        /**
+         * States discovered per second between the last two budget checks
+         */
+        private double growthRate;
+
+        /**
+         * States discovered per state expanded between the last two budget checks
+         */
+        private double yield;
+
+        private Exploration(MarkingLayout layout, Transition[] transitions, MarkingStore visited,
+                            ExplorationBudget budget, long start) {
+            this.layout = layout;
+            this.transitions = transitions;
+            for (int i = 0; i < transitions.length; i++) {
+                transitionIndexes.put(transitions[i], i);
+            }
+            this.visited = visited;
+            this.budget = budget;
+            this.start = start;
+            sampleNanos = start;
+        }
+
+        /**
+         * Restores the states and edges of a checkpoint into the empty store
+         * @param data checkpoint
+         * @return frontier of the checkpoint
+         * @throws StateSpaceExplorationException if the checkpoint is not for this Petri net or has
+         *                                        more than maxStates states
+         * @throws IOException if the checkpoint could not be read
+         */
+        private int[] restore(DataInput data) throws StateSpaceExplorationException, IOException {
+            if (data.readInt() != ExplorationResult.CHECKPOINT_MAGIC
+                    || data.readInt() != ExplorationResult.CHECKPOINT_VERSION) {
+                throw new StateSpaceExplorationException("Not an exploration checkpoint");
+            }
+            int width = data.readInt();
+            boolean matches = width == layout.getWidth() && data.readInt() == transitions.length;
+            for (int i = 0; matches && i < transitions.length; i++) {
+                matches = data.readUTF().equals(transitions[i].getId());
+            }
+            if (!matches) {
+                throw new StateSpaceExplorationException("Checkpoint was written for a different Petri net");
+            }
+            int states = data.readInt();
+            if (states > maxStates) {
+                throw new StateSpaceExplorationException("State space has more than " + maxStates + " states");
+            }
+            int[] marking = new int[width];
+            for (int state = 0; state < states; state++) {
+                for (int i = 0; i < width; i++) {
+                    marking[i] = data.readInt();
+                }
+                if (visited.add(marking) != state) {
+                    throw new StateSpaceExplorationException("Checkpoint must be restored into an empty store");
+                }
+            }
+            EdgeBuffer restored = new EdgeBuffer();
+            int edges = data.readInt();
+            for (int edge = 0; edge < edges; edge++) {
+                restored.add(data.readInt(), data.readInt(), data.readInt());
+            }
+            int[] frontier = new int[data.readInt()];
+            boolean[] unexpanded = new boolean[states];
+            for (int i = 0; i < frontier.length; i++) {
+                frontier[i] = data.readInt();
+                unexpanded[frontier[i]] = true;
+            }
+            for (int state = 0; state < states; state++) {
+                if (!unexpanded[state]) {
+                    restored.expanded(state);
+                }
+            }
+            buffers.add(restored);
+            sampleStates = states;
+            return frontier;
+        }
+
+        /**
+         * Expands the states on the frontier and waits for the exploration to finish
+         * @param pool     pool to explore on
+         * @param frontier ids of the states to expand first
+         * @throws StateSpaceExplorationException if the exploration failed
+         * @throws InterruptedException if interrupted whilst waiting
+         */
+        private void run(ForkJoinPool pool, int[] frontier)
+                throws StateSpaceExplorationException, InterruptedException {
+            if (sampleStates == 0) {
+                sampleStates = visited.size();
+            }
+            if (frontier.length == 0) {
+                return;
+            }
+            // Every batch is counted before any is submitted, so an early batch finishing
+            // cannot see no pending tasks whilst later ones are still to be submitted
+            pending.addAndGet((frontier.length + BATCH_SIZE - 1) / BATCH_SIZE);
+            for (int from = 0; from < frontier.length; from += BATCH_SIZE) {
+                int count = Math.min(BATCH_SIZE, frontier.length - from);
+                pool.execute(new ExpandTask(Arrays.copyOfRange(frontier, from, from + count), count));
+            }
+            try {
+                finished.await();
+            } catch (InterruptedException e) {
+                fail(new StateSpaceExplorationException("Exploration was interrupted", e));
+                throw e;
+            }
+            StateSpaceExplorationException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        /**
+         * @return true if no task has failed and no budget has run out
+         */
+        private boolean isRunning() {
+            return failure.get() == null && stopReason.get() == null;
+        }
+
+        /**
+         * Records the failure and stops the exploration
+         * @param e cause of the failure
+         */
+        private void fail(StateSpaceExplorationException e) {
+            if (failure.compareAndSet(null, e)) {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Stops the exploration once the running tasks have returned, leaving the unexpanded states on the frontier
+         * @param limit budget that ran out
+         */
+        private void stop(ExplorationBudget.Limit limit) {
+            if (stopReason.compareAndSet(null, limit)) {
+                LOGGER.log(Level.INFO, "Stopping exploration, {0} budget reached", limit);
+            }
+        }
+
+        /**
+         * Marks a task as finished, releasing the waiting thread if it was the last one
+         */
+        private void taskFinished() {
+            if (pending.decrementAndGet() == 0) {
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Stops the exploration if the time or memory budget has run out and samples its growth
+         */
+        private synchronized void checkBudget() {
+            long now = System.nanoTime();
+            if (now - start >= budget.getMaxNanos()) {
+                stop(ExplorationBudget.Limit.TIME);
+            }
+            Runtime runtime = Runtime.getRuntime();
+            if (runtime.totalMemory() - runtime.freeMemory() >= budget.getMaxHeapBytes()) {
+                stop(ExplorationBudget.Limit.HEAP);
+            }
+            if (budget.getMaxStoreBytes() != Long.MAX_VALUE && storeBytes() >= budget.getMaxStoreBytes()) {
+                stop(ExplorationBudget.Limit.STORE);
+            }
+            sample(now);
+        }
+
+        /**
+         * Updates the growth rate and yield from the states discovered since the last sample
+         * @param now current time
+         */
+        private synchronized void sample(long now) {
+            long expanded = expansions.get();
+            int states = visited.size();
+            if (expanded > sampleExpansions && now > sampleNanos) {
+                growthRate = (states - sampleStates) * (double) TimeUnit.SECONDS.toNanos(1) / (now - sampleNanos);
+                statesPerSecond = growthRate;
+                yield = (states - sampleStates) / (double) (expanded - sampleExpansions);
+                sampleNanos = now;
+                sampleExpansions = expanded;
+                sampleStates = states;
+            }
+        }
+
+        /**
+         * @return bytes used by the marking store
+         */
+        private long storeBytes() {
+            if (visited instanceof OffHeapMarkingStore) {
+                OffHeapMarkingStore store = (OffHeapMarkingStore) visited;
+                return store.getMemoryBytes() + store.getSpilledBytes();
+            }
+            return visited.size() * (long) layout.getWidth() * 4;
+        }
+
+        /**
+         * @param elapsedNanos time the exploration took
+         * @return the explored state space and its frontier
+         */
+        private synchronized ExplorationResult toResult(long elapsedNanos) {
+            sample(System.nanoTime());
+            StateGraph graph = new StateGraph(layout, visited, transitions, new ArrayList<>(buffers), elapsedNanos,
+                    parallelism);
+            int states = graph.getStateCount();
+            boolean[] expanded = new boolean[states];
+            for (EdgeBuffer buffer : buffers) {
+                for (int i = 0; i < buffer.expandedSize; i++) {
+                    expanded[buffer.expanded[i]] = true;
+                }
+            }
+            int[] frontier = new int[states];
+            int frontierSize = 0;
+            for (int state = 0; state < states; state++) {
+                if (!expanded[state]) {
+                    frontier[frontierSize++] = state;
+                }
+            }
+            ExplorationBudget.Limit limit = stopReason.get();
+            long estimate = states;
+            if (limit != null) {
+                estimate = yield < 1 ? states + Math.round(frontierSize * yield / (1 - yield)) : -1;
+            }
+            return new ExplorationResult(graph, Arrays.copyOf(frontier, frontierSize), limit, growthRate, estimate);
+        }
+
+        /**
+         * Expands a batch of newly discovered states, forking tasks for the states they discover
+         */
+        private final class ExpandTask extends RecursiveAction {
+            /**
+             * Ids of the states to expand
+             */
+            private final int[] states;
+
+            /**
+             * Number of ids in states
+             */
+            private final int count;
+
+            private ExpandTask(int[] states, int count) {
+                this.states = states;
+                this.count = count;
+            }
+
+            /**
+             * Expands each state, recording its edges only if every successor was found before
+             * the exploration stopped so that partially expanded states stay on the frontier
+             */
+            @Override
+            protected void compute() {
+                try {
+                    EdgeBuffer edges = threadBuffer.get();
+                    int[] marking = new int[layout.getWidth()];
+                    int[] discovered = new int[BATCH_SIZE];
+                    int discoveredCount = 0;
+                    for (int i = 0; i < count && isRunning(); i++) {
+                        int source = states[i];
+                        int firstEdge = edges.size;
+                        visited.get(source, marking);
+                        State state = layout.decode(marking);
+                        for (Transition transition : animationLogic.getEnabledTransitions(state)) {
+                            State successor = animationLogic.getFiredState(state, transition);
+                            int added = visited.add(layout.encode(successor));
+                            int target = added >= 0 ? added : -added - 1;
+                            edges.add(source, target, transitionIndexes.get(transition));
+                            if (added >= 0) {
+                                STATES_DISCOVERED.increment();
+                                if (added >= maxStates) {
+                                    fail(new StateSpaceExplorationException(
+                                            "State space has more than " + maxStates + " states"));
+                                    return;
+                                }
+                                if (added + 1 >= budget.getMaxStates()) {
+                                    stop(ExplorationBudget.Limit.STATES);
+                                }
+                                discovered[discoveredCount++] = added;
+                                if (discoveredCount == BATCH_SIZE) {
+                                    fork(discovered, discoveredCount);
+                                    discovered = new int[BATCH_SIZE];
+                                    discoveredCount = 0;
+                                }
+                            }
+                            if (!isRunning()) {
+                                break;
+                            }
+                        }
+                        if (!isRunning()) {
+                            edges.size = firstEdge;
+                            break;
+                        }
+                        edges.expanded(source);
+                        long expanded = expansions.incrementAndGet();
+                        if (expanded % BUDGET_CHECK_INTERVAL == 0) {
+                            checkBudget();
+                        }
+                        if (expanded % CACHE_CLEAR_INTERVAL == 0) {
+                            animationLogic.clear();
+                        }
+                    }
+                    if (discoveredCount > 0) {
+                        fork(discovered, discoveredCount);
+                    }
+                } catch (RuntimeException e) {
+                    fail(new StateSpaceExplorationException("Could not expand state: " + e.getMessage(), e));
+                } finally {
+                    taskFinished();
+                }
+            }
+
+            /**
+             * Forks a task to expand the discovered states, unless the exploration has stopped
+             * in which case they are left on the frontier
+             * @param discovered ids of the discovered states
+             * @param discoveredCount number of ids in discovered
+             */
+            private void fork(int[] discovered, int discoveredCount) {
+                if (isRunning()) {
+                    pending.incrementAndGet();
+                    new ExpandTask(discovered, discoveredCount).fork();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Answer to a reachability query, such as whether a deadlock or a given marking can be reached
+ */
+public final class ReachabilityQueryResult {
+
+    /**
+     * Marking that answers the query, null if none is reachable
+     */
+    private final State witness;
+
+    /**
+     * Transitions fired from the initial state to reach the witness
+     */
+    private final List<Transition> trace;
+
+    /**
+     * Statistics of the search
+     */
+    private final ExplorationStatistics statistics;
+
+    /**
+     * Constructor
+     * @param witness    marking that answers the query, null if none is reachable
+     * @param trace      transitions fired from the initial state to reach the witness
+     * @param statistics statistics of the search
+     */
+    ReachabilityQueryResult(State witness, List<Transition> trace, ExplorationStatistics statistics) {
+        this.witness = witness;
+        this.trace = Collections.unmodifiableList(trace);
+        this.statistics = statistics;
+    }
+
+    /**
+     * @return true if a marking answering the query is reachable
+     */
+    public boolean isFound() {
+        return witness != null;
+    }
+
+    /**
+     * @return reachable marking answering the query, or null if there is none
+     */
+    public State getWitness() {
+        return witness;
+    }
+
+    /**
+     * @return transitions to fire from the initial state to reach the witness, empty if there is none
+     */
+    public List<Transition> getTrace() {
+        return trace;
+    }
+
+    /**
+     * @return statistics of the search, whose state count is the number of states visited
+     */
+    public ExplorationStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,178 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
+
+import java.util.List;
+
+/**
+ * Reachability graph produced by a {@link ReachabilityExplorer}.
+ * <p>
+ * States are identified by dense integer ids, the initial state having id 0. Edges are stored
+ * in compressed sparse row form: the outgoing edges of state s are the indexes from
+ * offsets[s] up to offsets[s + 1] into the target and transition arrays.
+ * </p>
+ */
+public final class StateGraph {
+
+    /**
+     * Encoding of the markings
+     */
+    private final MarkingLayout layout;
+
+    /**
+     * Markings indexed by state id
+     */
+    private final MarkingStore markings;
+
+    /**
+     * Transitions indexed as they are on edges
+     */
+    private final Transition[] transitions;
+
+    /**
+     * Start of each states outgoing edges, has one more entry than there are states
+     */
+    private final int[] offsets;
+
+    /**
+     * Target state of each edge
+     */
+    private final int[] targets;
+
+    /**
+     * Index of the transition fired along each edge
+     */
+    private final int[] edgeTransitions;
+
+    /**
+     * Statistics of the exploration that created this graph
+     */
+    private final ExplorationStatistics statistics;
+
+    /**
+     * Builds the graph from the edges recorded by each exploration thread
+     * @param layout      encoding of the markings
+     * @param markings    explored markings
+     * @param transitions transitions indexed as they are on edges
+     * @param buffers     edges recorded during exploration
+     * @param elapsedNanos time the exploration took
+     * @param parallelism number of threads the exploration used
+     */
+    StateGraph(MarkingLayout layout, MarkingStore markings, Transition[] transitions,
+               List<EdgeBuffer> buffers, long elapsedNanos, int parallelism) {
+        this.layout = layout;
+        this.markings = markings;
+        this.transitions = transitions;
+        int states = markings.size();
+        int edges = 0;
+        offsets = new int[states + 1];
+        for (EdgeBuffer buffer : buffers) {
+            edges += buffer.size;
+            for (int i = 0; i < buffer.size; i++) {
+                offsets[buffer.sources[i] + 1]++;
+            }
+        }
+        for (int state = 0; state < states; state++) {
+            offsets[state + 1] += offsets[state];
+        }
+        targets = new int[edges];
+        edgeTransitions = new int[edges];
+        int[] next = new int[states];
+        System.arraycopy(offsets, 0, next, 0, states);
+        for (EdgeBuffer buffer : buffers) {
+            for (int i = 0; i < buffer.size; i++) {
+                int edge = next[buffer.sources[i]]++;
+                targets[edge] = buffer.targets[i];
+                edgeTransitions[edge] = buffer.transitions[i];
+            }
+        }
+        statistics = new ExplorationStatistics(states, edges, elapsedNanos, parallelism);
+    }
+
+    /**
+     * @return number of states in the graph
+     */
+    public int getStateCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return number of edges in the graph
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param state state id
+     * @return number of outgoing edges of the state
+     */
+    public int getOutDegree(int state) {
+        return offsets[state + 1] - offsets[state];
+    }
+
+    /**
+     * @param state state id
+     * @param edge  index of the edge between 0 and the states out degree
+     * @return id of the state the edge leads to
+     */
+    public int getSuccessor(int state, int edge) {
+        return targets[offsets[state] + edge];
+    }
+
+    /**
+     * @param state state id
+     * @param edge  index of the edge between 0 and the states out degree
+     * @return transition fired along the edge
+     */
+    public Transition getTransition(int state, int edge) {
+        return transitions[edgeTransitions[offsets[state] + edge]];
+    }
+
+    /**
+     * @param state state id
+     * @param edge  index of the edge between 0 and the states out degree
+     * @return index of the transition fired along the edge
+     */
+    int getTransitionIndex(int state, int edge) {
+        return edgeTransitions[offsets[state] + edge];
+    }
+
+    /**
+     * @return transitions indexed as they are on edges
+     */
+    Transition[] getTransitions() {
+        return transitions;
+    }
+
+    /**
+     * @param state state id
+     * @return encoded marking of the state
+     */
+    public int[] getMarking(int state) {
+        return markings.get(state);
+    }
+
+    /**
+     * @param state state id
+     * @return the state with the given id
+     */
+    public State getState(int state) {
+        return layout.decode(markings.get(state));
+    }
+
+    /**
+     * @return encoding used for the markings of this graph
+     */
+    public MarkingLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return statistics of the exploration that created this graph
+     */
+    public ExplorationStatistics getStatistics() {
+        return statistics;
+    }
+}
@@ -0,0 +1,668 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.animation.AnimationLogic;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.ArcType;
+import uk.ac.imperial.pipe.models.petrinet.InboundArc;
+import uk.ac.imperial.pipe.models.petrinet.OutboundArc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Token;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
+import uk.ac.imperial.state.State;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Answers deadlock and marking reachability queries by exploring only a stubborn subset of the
+ * enabled transitions in each state, which avoids exploring every interleaving of concurrent
+ * transitions. The reduced state space contains every deadlock of the full one, and a marking is
+ * reachable in it exactly when it is reachable in the full one. It does not preserve the
+ * Markov chain so is no use for stochastic analysis.
+ * <p>
+ * Stubborn sets are closed over the dependencies read from the arcs of the Petri net. An enabled
+ * transition in the set brings in every transition that could disable it or that it could disable,
+ * and a disabled transition brings in the transitions that could enable it. Inhibitor arcs, place
+ * capacities and functional weights are treated as extra reads of the places involved, and the
+ * priority of immediate over timed transitions as a read of every place that higher priority
+ * transitions read, so the sets stay sound at the cost of being larger.
+ * </p>
+ * <p>
+ * For reachability queries the set also contains every transition that could move some place
+ * towards its target count, so that no path to the target is cut off.
+ * </p>
+ */
+public final class StubbornSetExplorer {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(StubbornSetExplorer.class.getName());
+
+    /**
+     * Petri net to explore
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Logic used to find enabled transitions and successor states
+     */
+    private final AnimationLogic animationLogic;
+
+    /**
+     * Maximum number of states the search will visit
+     */
+    private final int maxStates;
+
+    /**
+     * Constructor
+     * @param petriNet       Petri net to explore
+     * @param animationLogic logic used to find enabled transitions and successor states
+     * @param maxStates      maximum number of states the search will visit
+     */
+    public StubbornSetExplorer(PetriNet petriNet, AnimationLogic animationLogic, int maxStates) {
+        this.petriNet = petriNet;
+        this.animationLogic = animationLogic;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * @param initialState state to search from
+     * @return a reachable state with no enabled transitions, if there is one
+     * @throws StateSpaceExplorationException if more than maxStates states are visited
+     */
+    public ReachabilityQueryResult findDeadlock(State initialState) throws StateSpaceExplorationException {
+        return search(initialState, null);
+    }
+
+    /**
+     * @param initialState state to search from
+     * @param target       token counts to reach, places it does not contain may hold any number of tokens
+     * @return a reachable state with the target token counts, if there is one
+     * @throws StateSpaceExplorationException if more than maxStates states are visited
+     */
+    public ReachabilityQueryResult findMarking(State initialState, State target)
+            throws StateSpaceExplorationException {
+        return search(initialState, target);
+    }
+
+    /**
+     * Depth first search of the reduced state space
+     * @param initialState state to search from
+     * @param targetState  token counts to reach, or null to search for a deadlock
+     * @return result of the search
+     * @throws StateSpaceExplorationException if more than maxStates states are visited
+     */
+    private ReachabilityQueryResult search(State initialState, State targetState)
+            throws StateSpaceExplorationException {
+        long start = System.nanoTime();
+        Structure structure = new Structure();
+        MarkingLayout layout = structure.layout;
+        int[] target = targetState == null ? null : structure.encodeTarget(targetState);
+        int limit = Math.min(maxStates, ConcurrentMarkingSet.MAX_CAPACITY - 1);
+        ConcurrentMarkingSet visited = new ConcurrentMarkingSet(layout.getWidth(), limit + 1);
+        int[] parents = new int[64];
+        int[] parentTransitions = new int[64];
+        long edges = 0;
+
+        Deque<Integer> stack = new ArrayDeque<>();
+        parents[0] = -1;
+        stack.push(visited.add(layout.encode(initialState)));
+        int[] marking = new int[layout.getWidth()];
+        int found = -1;
+        while (!stack.isEmpty() && found < 0) {
+            int id = stack.pop();
+            visited.get(id, marking);
+            State state = layout.decode(marking);
+            Collection<Transition> enabled = animationLogic.getEnabledTransitions(state);
+            if (target == null ? enabled.isEmpty() : matches(marking, target)) {
+                found = id;
+                break;
+            }
+            for (int transition : structure.stubborn(marking, enabled, target)) {
+                State successor = animationLogic.getFiredState(state, structure.transitions[transition]);
+                int added = visited.add(layout.encode(successor));
+                edges++;
+                if (added < 0) {
+                    continue;
+                }
+                if (added >= limit) {
+                    throw new StateSpaceExplorationException("State space has more than " + limit + " states");
+                }
+                if (added == parents.length) {
+                    parents = Arrays.copyOf(parents, added * 2);
+                    parentTransitions = Arrays.copyOf(parentTransitions, added * 2);
+                }
+                parents[added] = id;
+                parentTransitions[added] = transition;
+                stack.push(added);
+            }
+        }
+
+        ExplorationStatistics statistics =
+                new ExplorationStatistics(visited.size(), edges, System.nanoTime() - start, 1);
+        LOGGER.log(Level.INFO, "Stubborn set search {0} found {1}", new Object[]{statistics, found >= 0});
+        if (found < 0) {
+            return new ReachabilityQueryResult(null, Collections.<Transition>emptyList(), statistics);
+        }
+        LinkedList<Transition> trace = new LinkedList<>();
+        for (int id = found; parents[id] >= 0; id = parents[id]) {
+            trace.addFirst(structure.transitions[parentTransitions[id]]);
+        }
+        return new ReachabilityQueryResult(layout.decode(visited.get(found)), new ArrayList<>(trace), statistics);
+    }
+
+    /**
+     * @param marking encoded marking
+     * @param target  target counts, -1 where any count is allowed
+     * @return true if the marking has the target counts
+     */
+    private static boolean matches(int[] marking, int[] target) {
+        for (int row = 0; row < target.length; row++) {
+            if (target[row] >= 0 && marking[row] != target[row]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Dependencies between the transitions of the Petri net, read from its arcs.
+     * Places and transitions are referred to by their index, places in the order of the
+     * {@link MarkingLayout} and transitions ordered by id.
+     */
+    private final class Structure {
+        /**
+         * Encoding of the markings
+         */
+        private final MarkingLayout layout = new MarkingLayout(petriNet);
+
+        /**
+         * Transitions ordered by id
+         */
+        private final Transition[] transitions;
+
+        /**
+         * Index of each transition
+         */
+        private final Map<Transition, Integer> transitionIndexes = new IdentityHashMap<>();
+
+        /**
+         * Place ids ordered as they are in the layout
+         */
+        private final List<String> placeIds = new ArrayList<>();
+
+        /**
+         * Token ids ordered as they are in the layout
+         */
+        private final List<String> tokenIds = new ArrayList<>();
+
+        /**
+         * Per transition, places read through normal inbound arcs
+         */
+        private final int[][] inputs;
+
+        /**
+         * Per transition, layout rows and constant weights of its inbound arcs, two entries per row
+         */
+        private final int[][] inputWeights;
+
+        /**
+         * Per transition, true if any of its arcs has a weight that is not constant
+         */
+        private final boolean[] functional;
+
+        /**
+         * Per transition, places read through inhibitor arcs
+         */
+        private final int[][] inhibitors;
+
+        /**
+         * Per transition, places written through outbound arcs
+         */
+        private final int[][] outputs;
+
+        /**
+         * Per transition, output places with a capacity
+         */
+        private final int[][] capacityOutputs;
+
+        /**
+         * Per transition, places referenced by its arc weights
+         */
+        private final int[][] referenced;
+
+        /**
+         * Per transition, places read by transitions that take priority over it
+         */
+        private final int[][] preemptingReads;
+
+        /**
+         * Per place, transitions that add tokens to it
+         */
+        private final int[][] producers;
+
+        /**
+         * Per place, transitions that remove tokens from it
+         */
+        private final int[][] consumers;
+
+        /**
+         * Per place, transitions it inhibits
+         */
+        private final int[][] inhibited;
+
+        /**
+         * Per place, transitions whose enabling depends on its capacity
+         */
+        private final int[][] capacityUsers;
+
+        /**
+         * Per place, transitions whose arc weights reference it
+         */
+        private final int[][] referencers;
+
+        /**
+         * Per place, transitions that can be preempted by a transition reading it
+         */
+        private final int[][] preempted;
+
+        private Structure() {
+            Collection<Transition> all = petriNet.getTransitions();
+            transitions = all.toArray(new Transition[all.size()]);
+            Arrays.sort(transitions, new Comparator<Transition>() {
+                @Override
+                public int compare(Transition t1, Transition t2) {
+                    return t1.getId().compareTo(t2.getId());
+                }
+            });
+            for (int i = 0; i < transitions.length; i++) {
+                transitionIndexes.put(transitions[i], i);
+            }
+            for (Place place : petriNet.getPlaces()) {
+                placeIds.add(place.getId());
+            }
+            for (Token token : petriNet.getTokens()) {
+                tokenIds.add(token.getId());
+            }
+            Collections.sort(placeIds);
+            Collections.sort(tokenIds);
+            Map<String, Integer> placeIndexes = new HashMap<>();
+            for (int i = 0; i < placeIds.size(); i++) {
+                placeIndexes.put(placeIds.get(i), i);
+            }
+
+            int count = transitions.length;
+            int places = placeIds.size();
+            List<Set<Integer>> inputSets = sets(count);
+            List<Set<Integer>> inhibitorSets = sets(count);
+            List<Set<Integer>> outputSets = sets(count);
+            List<Set<Integer>> capacitySets = sets(count);
+            List<Set<Integer>> referencedSets = sets(count);
+            List<List<Integer>> weights = new ArrayList<>();
+            functional = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                weights.add(new ArrayList<Integer>());
+                Transition transition = transitions[i];
+                for (InboundArc arc : petriNet.inboundArcs(transition)) {
+                    int place = placeIndexes.get(arc.getSource().getId());
+                    if (arc.getType() == ArcType.INHIBITOR) {
+                        inhibitorSets.get(i).add(place);
+                        continue;
+                    }
+                    inputSets.get(i).add(place);
+                    for (Map.Entry<String, String> weight : arc.getTokenWeights().entrySet()) {
+                        ParsedExpression expression = GrammarUtils.compile(weight.getValue());
+                        if (expression.isConstant()) {
+                            weights.get(i).add(layout.indexOf(arc.getSource().getId(), weight.getKey()));
+                            weights.get(i).add((int) Math.ceil(expression.getConstant()));
+                        } else {
+                            functional[i] = true;
+                            addPlaces(referencedSets.get(i), expression, placeIndexes);
+                        }
+                    }
+                }
+                for (OutboundArc arc : petriNet.outboundArcs(transition)) {
+                    Place target = arc.getTarget();
+                    int place = placeIndexes.get(target.getId());
+                    outputSets.get(i).add(place);
+                    if (target.hasCapacityRestriction()) {
+                        capacitySets.get(i).add(place);
+                    }
+                    for (String weight : arc.getTokenWeights().values()) {
+                        ParsedExpression expression = GrammarUtils.compile(weight);
+                        if (!expression.isConstant()) {
+                            functional[i] = true;
+                            addPlaces(referencedSets.get(i), expression, placeIndexes);
+                        }
+                    }
+                }
+            }
+
+            inputs = toArrays(inputSets);
+            inhibitors = toArrays(inhibitorSets);
+            outputs = toArrays(outputSets);
+            capacityOutputs = toArrays(capacitySets);
+            referenced = toArrays(referencedSets);
+            inputWeights = new int[count][];
+            for (int i = 0; i < count; i++) {
+                inputWeights[i] = toArray(weights.get(i));
+            }
+            producers = invert(outputs, places);
+            consumers = invert(inputs, places);
+            inhibited = invert(inhibitors, places);
+            capacityUsers = invert(capacityOutputs, places);
+            referencers = invert(referenced, places);
+
+            int[] levels = new int[count];
+            for (int i = 0; i < count; i++) {
+                levels[i] = transitions[i].isTimed() ? Integer.MIN_VALUE : transitions[i].getPriority();
+            }
+            List<Set<Integer>> preemptingSets = sets(count);
+            List<Set<Integer>> preemptedSets = sets(places);
+            for (int higher = 0; higher < count; higher++) {
+                Set<Integer> reads = new TreeSet<>();
+                addAll(reads, inputs[higher], inhibitors[higher], capacityOutputs[higher], referenced[higher]);
+                for (int lower = 0; lower < count; lower++) {
+                    if (levels[lower] < levels[higher]) {
+                        preemptingSets.get(lower).addAll(reads);
+                        for (int place : reads) {
+                            preemptedSets.get(place).add(lower);
+                        }
+                    }
+                }
+            }
+            preemptingReads = toArrays(preemptingSets);
+            preempted = toArrays(preemptedSets);
+        }
+
+        /**
+         * @param state target state
+         * @return target counts by layout row, -1 for the rows of places the state does not contain
+         */
+        private int[] encodeTarget(State state) {
+            int[] target = layout.encode(state);
+            for (String placeId : placeIds) {
+                if (!state.containsTokens(placeId)) {
+                    for (String tokenId : tokenIds) {
+                        target[layout.indexOf(placeId, tokenId)] = -1;
+                    }
+                }
+            }
+            return target;
+        }
+
+        /**
+         * @param marking encoded marking
+         * @param enabled transitions enabled in the marking
+         * @param target  target counts, or null when searching for a deadlock
+         * @return enabled transitions of a stubborn set of the marking
+         */
+        private int[] stubborn(int[] marking, Collection<Transition> enabled, int[] target) {
+            boolean[] isEnabled = new boolean[transitions.length];
+            for (Transition transition : enabled) {
+                isEnabled[transitionIndexes.get(transition)] = true;
+            }
+            if (target != null) {
+                int[] seed = closestTarget(marking, target);
+                return seed == null ? allEnabled(isEnabled) : close(seed, marking, isEnabled);
+            }
+            int[] best = null;
+            for (int transition = 0; transition < transitions.length; transition++) {
+                if (isEnabled[transition]) {
+                    int[] candidate = close(new int[]{transition}, marking, isEnabled);
+                    if (best == null || candidate.length < best.length) {
+                        best = candidate;
+                        if (best.length == 1) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best == null ? new int[0] : best;
+        }
+
+        /**
+         * @param marking encoded marking
+         * @param target  target counts
+         * @return the smallest set of transitions that must fire for some place to reach its target count,
+         * or null if no place can
+         */
+        private int[] closestTarget(int[] marking, int[] target) {
+            int[] best = null;
+            for (int row = 0; row < target.length; row++) {
+                if (target[row] < 0 || marking[row] == target[row]) {
+                    continue;
+                }
+                int place = row / tokenIds.size();
+                int[] candidate = marking[row] < target[row] ? producers[place] : consumers[place];
+                if (best == null || candidate.length < best.length) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @param isEnabled true for each enabled transition
+         * @return every enabled transition
+         */
+        private int[] allEnabled(boolean[] isEnabled) {
+            List<Integer> enabled = new ArrayList<>();
+            for (int transition = 0; transition < isEnabled.length; transition++) {
+                if (isEnabled[transition]) {
+                    enabled.add(transition);
+                }
+            }
+            return toArray(enabled);
+        }
+
+        /**
+         * Closes the seed transitions under the stubborn set rules
+         * @param seed      transitions that must be in the set
+         * @param marking   encoded marking
+         * @param isEnabled true for each enabled transition
+         * @return enabled transitions of the closed set
+         */
+        private int[] close(int[] seed, int[] marking, boolean[] isEnabled) {
+            boolean[] inSet = new boolean[transitions.length];
+            Deque<Integer> pending = new ArrayDeque<>();
+            add(seed, inSet, pending);
+            List<Integer> enabled = new ArrayList<>();
+            while (!pending.isEmpty()) {
+                int transition = pending.pop();
+                if (isEnabled[transition]) {
+                    enabled.add(transition);
+                    addInterfering(transition, inSet, pending);
+                } else {
+                    addEnabling(transition, marking, inSet, pending);
+                }
+            }
+            Collections.sort(enabled);
+            return toArray(enabled);
+        }
+
+        /**
+         * Adds the transitions that could disable the enabled transition or be disabled by it
+         */
+        private void addInterfering(int transition, boolean[] inSet, Deque<Integer> pending) {
+            for (int place : inputs[transition]) {
+                add(consumers[place], inSet, pending);
+                add(referencers[place], inSet, pending);
+                add(preempted[place], inSet, pending);
+            }
+            for (int place : outputs[transition]) {
+                add(inhibited[place], inSet, pending);
+                add(capacityUsers[place], inSet, pending);
+                add(referencers[place], inSet, pending);
+                add(preempted[place], inSet, pending);
+            }
+            for (int place : inhibitors[transition]) {
+                add(producers[place], inSet, pending);
+            }
+            for (int place : capacityOutputs[transition]) {
+                add(producers[place], inSet, pending);
+            }
+            addWriters(referenced[transition], inSet, pending);
+            addWriters(preemptingReads[transition], inSet, pending);
+        }
+
+        /**
+         * Adds the transitions that could enable the disabled transition, only those that fix one
+         * reason it is disabled when that reason can be found from its constant weights
+         */
+        private void addEnabling(int transition, int[] marking, boolean[] inSet, Deque<Integer> pending) {
+            if (!functional[transition]) {
+                int[] weights = inputWeights[transition];
+                for (int i = 0; i < weights.length; i += 2) {
+                    if (marking[weights[i]] < weights[i + 1]) {
+                        add(producers[weights[i] / tokenIds.size()], inSet, pending);
+                        return;
+                    }
+                }
+                for (int place : inhibitors[transition]) {
+                    if (hasTokens(marking, place)) {
+                        add(consumers[place], inSet, pending);
+                        return;
+                    }
+                }
+            }
+            addWriters(inputs[transition], inSet, pending);
+            addWriters(inhibitors[transition], inSet, pending);
+            addWriters(capacityOutputs[transition], inSet, pending);
+            addWriters(referenced[transition], inSet, pending);
+            addWriters(preemptingReads[transition], inSet, pending);
+        }
+
+        /**
+         * @param marking encoded marking
+         * @param place   place index
+         * @return true if the place holds any tokens
+         */
+        private boolean hasTokens(int[] marking, int place) {
+            int tokens = tokenIds.size();
+            for (int row = place * tokens; row < (place + 1) * tokens; row++) {
+                if (marking[row] != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds every transition that changes the token count of any of the places
+         */
+        private void addWriters(int[] places, boolean[] inSet, Deque<Integer> pending) {
+            for (int place : places) {
+                add(producers[place], inSet, pending);
+                add(consumers[place], inSet, pending);
+            }
+        }
+
+        /**
+         * Adds the transitions not already in the set to it and to the pending work
+         */
+        private void add(int[] transitionsToAdd, boolean[] inSet, Deque<Integer> pending) {
+            for (int transition : transitionsToAdd) {
+                if (!inSet[transition]) {
+                    inSet[transition] = true;
+                    pending.push(transition);
+                }
+            }
+        }
+
+        /**
+         * Adds the places an expression references to the set
+         */
+        private void addPlaces(Set<Integer> places, ParsedExpression expression, Map<String, Integer> placeIndexes) {
+            for (String component : expression.getComponents()) {
+                Integer place = placeIndexes.get(component);
+                if (place != null) {
+                    places.add(place);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param count number of sets
+     * @return that many empty ordered sets
+     */
+    private static List<Set<Integer>> sets(int count) {
+        List<Set<Integer>> sets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sets.add(new LinkedHashSet<Integer>());
+        }
+        return sets;
+    }
+
+    /**
+     * @param target set to add to
+     * @param arrays values to add
+     */
+    private static void addAll(Set<Integer> target, int[]... arrays) {
+        for (int[] array : arrays) {
+            for (int value : array) {
+                target.add(value);
+            }
+        }
+    }
+
+    /**
+     * @param sets sets of indexes
+     * @return the sets as arrays
+     */
+    private static int[][] toArrays(List<? extends Collection<Integer>> sets) {
+        int[][] arrays = new int[sets.size()][];
+        for (int i = 0; i < arrays.length; i++) {
+            arrays[i] = toArray(sets.get(i));
+        }
+        return arrays;
+    }
+
+    /**
+     * @param values values
+     * @return the values as an array
+     */
+    private static int[] toArray(Collection<Integer> values) {
+        int[] array = new int[values.size()];
+        int i = 0;
+        for (int value : values) {
+            array[i++] = value;
+        }
+        return array;
+    }
+
+    /**
+     * @param relation per transition, related places
+     * @param places   number of places
+     * @return per place, the transitions related to it
+     */
+    private static int[][] invert(int[][] relation, int places) {
+        List<Set<Integer>> inverted = sets(places);
+        for (int transition = 0; transition < relation.length; transition++) {
+            for (int place : relation[transition]) {
+                inverted.get(place).add(transition);
+            }
+        }
+        return toArrays(inverted);
+    }
+}
@@ -0,0 +1,227 @@
+package uk.ac.imperial.pipe.reachability;
+
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Continuous time Markov chain of the tangible states of a {@link StateGraph}.
+ * <p>
+ * A state is vanishing if the transitions fired from it are immediate, which the animation logic
+ * only allows when no timed transition may fire. Vanishing states are eliminated by passing the rate
+ * of every timed transition that enters one on to the tangible states its immediate transitions
+ * lead to, in proportion to their weights. States without outgoing edges, including those on the
+ * frontier of an exploration stopped by its budget, are tangible and absorbing.
+ * </p>
+ * <p>
+ * Tangible states are given dense ids in the order of their ids in the graph.
+ * </p>
+ */
+public final class TangibleStateSpace {
+
+    /**
+     * Probabilities below this are not followed through vanishing states
+     */
+    private static final double EPSILON = 1e-12;
+
+    /**
+     * Number of steps through vanishing states after which they are taken to form a timeless trap
+     */
+    private static final int MAX_VANISHING_STEPS = 1000000;
+
+    /**
+     * Explored state space
+     */
+    private final StateGraph graph;
+
+    /**
+     * Graph id of each tangible state
+     */
+    private final int[] graphIds;
+
+    /**
+     * Tangible id of each graph state, -1 for vanishing states
+     */
+    private final int[] tangibleIds;
+
+    /**
+     * Rates to the successors of each tangible state, keyed by tangible id
+     */
+    private final Map<Integer, Double>[] successorRates;
+
+    /**
+     * Builds the chain
+     * @param petriNet Petri net the graph was explored from
+     * @param graph    explored state space
+     * @throws StateSpaceExplorationException if a rate cannot be evaluated or vanishing states form a timeless trap
+     */
+    @SuppressWarnings("unchecked")
+    public TangibleStateSpace(PetriNet petriNet, StateGraph graph) throws StateSpaceExplorationException {
+        this.graph = graph;
+        int states = graph.getStateCount();
+        tangibleIds = new int[states];
+        int tangible = 0;
+        for (int state = 0; state < states; state++) {
+            tangibleIds[state] = isVanishing(state) ? -1 : tangible++;
+        }
+        graphIds = new int[tangible];
+        for (int state = 0; state < states; state++) {
+            if (tangibleIds[state] >= 0) {
+                graphIds[tangibleIds[state]] = state;
+            }
+        }
+
+        Map<Integer, Map<Integer, Double>> absorption = new HashMap<>();
+        successorRates = new Map[tangible];
+        for (int id = 0; id < tangible; id++) {
+            int state = graphIds[id];
+            State marking = graph.getState(state);
+            Map<Integer, Double> rates = new HashMap<>();
+            for (int edge = 0; edge < graph.getOutDegree(state); edge++) {
+                double rate = getRate(petriNet, graph.getTransition(state, edge), marking);
+                int successor = graph.getSuccessor(state, edge);
+                if (tangibleIds[successor] >= 0) {
+                    add(rates, tangibleIds[successor], rate);
+                } else {
+                    for (Map.Entry<Integer, Double> entry : absorb(petriNet, successor, absorption).entrySet()) {
+                        add(rates, entry.getKey(), rate * entry.getValue());
+                    }
+                }
+            }
+            rates.remove(id);
+            successorRates[id] = rates;
+        }
+    }
+
+    /**
+     * @return number of tangible states
+     */
+    public int getStateCount() {
+        return graphIds.length;
+    }
+
+    /**
+     * @return number of transitions between distinct tangible states
+     */
+    public int getTransitionCount() {
+        int transitions = 0;
+        for (Map<Integer, Double> rates : successorRates) {
+            transitions += rates.size();
+        }
+        return transitions;
+    }
+
+    /**
+     * @param id tangible state id
+     * @return the marking of the tangible state
+     */
+    public State getState(int id) {
+        return graph.getState(graphIds[id]);
+    }
+
+    /**
+     * @param id tangible state id
+     * @return id of the tangible state in the explored graph
+     */
+    public int getGraphId(int id) {
+        return graphIds[id];
+    }
+
+    /**
+     * @param id tangible state id
+     * @return rates to the tangible states it leads to, keyed by their tangible ids
+     */
+    public Map<Integer, Double> getSuccessorRates(int id) {
+        return successorRates[id];
+    }
+
+    /**
+     * @param state graph state id
+     * @return true if the transitions fired from the state are immediate
+     */
+    private boolean isVanishing(int state) {
+        return graph.getOutDegree(state) > 0 && !graph.getTransition(state, 0).isTimed();
+    }
+
+    /**
+     * @param petriNet   Petri net the graph was explored from
+     * @param vanishing  graph id of a vanishing state
+     * @param absorption probabilities of the tangible states already worked out for vanishing states
+     * @return probability of leaving the vanishing state for each tangible state, keyed by tangible id
+     * @throws StateSpaceExplorationException if a weight cannot be evaluated or the vanishing states form a timeless trap
+     */
+    private Map<Integer, Double> absorb(PetriNet petriNet, int vanishing, Map<Integer, Map<Integer, Double>> absorption)
+            throws StateSpaceExplorationException {
+        Map<Integer, Double> probabilities = absorption.get(vanishing);
+        if (probabilities != null) {
+            return probabilities;
+        }
+        probabilities = new HashMap<>();
+        Deque<Integer> states = new ArrayDeque<>();
+        Deque<Double> masses = new ArrayDeque<>();
+        states.push(vanishing);
+        masses.push(1.0);
+        int steps = 0;
+        while (!states.isEmpty()) {
+            if (++steps > MAX_VANISHING_STEPS) {
+                throw new StateSpaceExplorationException(
+                        "Immediate transitions from state " + vanishing + " form a timeless trap");
+            }
+            int state = states.pop();
+            double mass = masses.pop();
+            if (tangibleIds[state] >= 0) {
+                add(probabilities, tangibleIds[state], mass);
+                continue;
+            }
+            State marking = graph.getState(state);
+            int degree = graph.getOutDegree(state);
+            double[] weights = new double[degree];
+            double total = 0;
+            for (int edge = 0; edge < degree; edge++) {
+                weights[edge] = getRate(petriNet, graph.getTransition(state, edge), marking);
+                total += weights[edge];
+            }
+            for (int edge = 0; edge < degree; edge++) {
+                double next = total > 0 ? mass * weights[edge] / total : mass / degree;
+                if (next > EPSILON) {
+                    states.push(graph.getSuccessor(state, edge));
+                    masses.push(next);
+                }
+            }
+        }
+        absorption.put(vanishing, probabilities);
+        return probabilities;
+    }
+
+    /**
+     * @param petriNet   Petri net the graph was explored from
+     * @param transition transition fired from the state
+     * @param state      marking the transition fires in
+     * @return rate of a timed transition or weight of an immediate one
+     * @throws StateSpaceExplorationException if the rate could not be evaluated
+     */
+    private static double getRate(PetriNet petriNet, Transition transition, State state)
+            throws StateSpaceExplorationException {
+        double rate = transition.getActualRate(petriNet, state);
+        if (rate < 0) {
+            throw new StateSpaceExplorationException("Could not evaluate the rate of transition " + transition.getId());
+        }
+        return rate;
+    }
+
+    /**
+     * @param values map to add to
+     * @param key    key to add the value to
+     * @param value  value to add
+     */
+    private static void add(Map<Integer, Double> values, int key, double value) {
+        Double current = values.get(key);
+        values.put(key, current == null ? value : current + value);
+    }
+}
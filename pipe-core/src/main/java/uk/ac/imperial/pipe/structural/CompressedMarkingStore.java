@@ -0,0 +1,105 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.ConcurrentMarkingSet;
+import uk.ac.imperial.pipe.reachability.MarkingStore;
+import uk.ac.imperial.state.State;
+
+/**
+ * Marking store that holds markings compressed by a {@link MarkingCompressor} in another store,
+ * so that each stored marking only takes the compressed width
+ * <p>
+ * It can be passed to {@link uk.ac.imperial.pipe.reachability.ReachabilityExplorer#explore(State, MarkingStore)}
+ * like any other store, since the explorer only adds markings reachable from the initial state.
+ * </p>
+ */
+public final class CompressedMarkingStore implements MarkingStore {
+
+    /**
+     * Compressor for the markings
+     */
+    private final MarkingCompressor compressor;
+
+    /**
+     * Store of compressed width that holds the compressed markings
+     */
+    private final MarkingStore delegate;
+
+    /**
+     * Constructor
+     * @param compressor compressor for the markings
+     * @param delegate   store created for markings of the compressors compressed width
+     */
+    public CompressedMarkingStore(MarkingCompressor compressor, MarkingStore delegate) {
+        this.compressor = compressor;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates a heap store for exploring the Petri net from the initial state, holding each marking
+     * without the token counts its P-invariants imply
+     * @param petriNet     Petri net to explore
+     * @param initialState state the exploration starts from
+     * @param capacity     maximum number of markings the store will hold, see
+     *                     {@link uk.ac.imperial.pipe.reachability.ReachabilityExplorer#getStoreCapacity()}
+     * @return store for the markings reachable from the initial state
+     */
+    public static CompressedMarkingStore forPetriNet(PetriNet petriNet, State initialState, int capacity) {
+        MarkingCompressor compressor = MarkingCompressor.forPetriNet(petriNet, initialState);
+        return new CompressedMarkingStore(compressor,
+                new ConcurrentMarkingSet(compressor.getCompressedWidth(), capacity));
+    }
+
+    /**
+     * @param marking encoded marking reachable from the compressors initial marking
+     * @return id of the newly added marking, or -(id + 1) if it was already in the store
+     */
+    @Override
+    public int add(int[] marking) {
+        return delegate.add(compressor.compress(marking));
+    }
+
+    /**
+     * @param marking encoded marking
+     * @return id of the marking or -1 if it is not in the store
+     */
+    @Override
+    public int indexOf(int[] marking) {
+        return delegate.indexOf(compressor.compress(marking));
+    }
+
+    /**
+     * @param id marking id
+     * @return copy of the uncompressed marking
+     */
+    @Override
+    public int[] get(int id) {
+        return compressor.decompress(delegate.get(id));
+    }
+
+    /**
+     * Copies the uncompressed marking into the given array
+     * @param id      marking id
+     * @param marking array to copy the encoded marking into
+     */
+    @Override
+    public void get(int id, int[] marking) {
+        compressor.decompress(delegate.get(id), marking);
+    }
+
+    /**
+     * @return number of markings in the store
+     */
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * @return maximum number of markings the store can hold
+     */
+    @Override
+    public int getCapacity() {
+        return delegate.getCapacity();
+    }
+}
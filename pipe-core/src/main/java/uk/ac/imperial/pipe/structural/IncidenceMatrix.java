@@ -0,0 +1,203 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.ArcType;
+import uk.ac.imperial.pipe.models.petrinet.InboundArc;
+import uk.ac.imperial.pipe.models.petrinet.OutboundArc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sparse incidence matrix of a Petri net.
+ * <p>
+ * Rows are the (place, token) pairs of a {@link MarkingLayout} so that vectors over the rows apply
+ * directly to encoded markings, and columns are the transitions ordered by id. Entry (p, t) is the
+ * change in the token count of p when t fires. Inhibitor arcs do not change the marking so are
+ * not included.
+ * </p>
+ * <p>
+ * Only constant arc weights can be represented. Transitions with functional weights are recorded
+ * as unsupported along with the rows their functional weights touch, so that analyses can leave
+ * them out rather than give unsound results.
+ * </p>
+ */
+public final class IncidenceMatrix {
+
+    /**
+     * Marking layout the rows follow
+     */
+    private final MarkingLayout layout;
+
+    /**
+     * Transitions in column order
+     */
+    private final List<Transition> transitions;
+
+    /**
+     * Sparse columns, one per transition
+     */
+    private final List<SparseIntVector> columns;
+
+    /**
+     * Rows touched by functional arc weights
+     */
+    private final BitSet unsupportedRows = new BitSet();
+
+    /**
+     * Columns of transitions with functional arc weights
+     */
+    private final BitSet unsupportedColumns = new BitSet();
+
+    /**
+     * Builds the incidence matrix of the Petri net
+     * @param petriNet Petri net to build the matrix of
+     * @param layout   marking layout of the Petri net
+     */
+    public IncidenceMatrix(PetriNet petriNet, MarkingLayout layout) {
+        this.layout = layout;
+        List<Transition> sorted = new ArrayList<>(petriNet.getTransitions());
+        Collections.sort(sorted, new Comparator<Transition>() {
+            @Override
+            public int compare(Transition t1, Transition t2) {
+                return t1.getId().compareTo(t2.getId());
+            }
+        });
+        transitions = Collections.unmodifiableList(sorted);
+        List<SparseIntVector> builtColumns = new ArrayList<>(sorted.size());
+        for (int column = 0; column < sorted.size(); column++) {
+            builtColumns.add(buildColumn(petriNet, sorted.get(column), column));
+        }
+        columns = Collections.unmodifiableList(builtColumns);
+    }
+
+    /**
+     * @return number of rows, the width of the marking layout
+     */
+    public int getRowCount() {
+        return layout.getWidth();
+    }
+
+    /**
+     * @return number of columns, the number of transitions
+     */
+    public int getColumnCount() {
+        return transitions.size();
+    }
+
+    /**
+     * @return marking layout the rows follow
+     */
+    public MarkingLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param column column index
+     * @return transition of the column
+     */
+    public Transition getTransition(int column) {
+        return transitions.get(column);
+    }
+
+    /**
+     * @return sparse columns, one per transition in column order
+     */
+    public List<SparseIntVector> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return sparse rows, one per (place, token) pair in layout order
+     */
+    public List<SparseIntVector> getRows() {
+        List<SparseIntVector.Builder> builders = new ArrayList<>(getRowCount());
+        for (int row = 0; row < getRowCount(); row++) {
+            builders.add(new SparseIntVector.Builder());
+        }
+        for (int column = 0; column < columns.size(); column++) {
+            SparseIntVector vector = columns.get(column);
+            for (int entry = 0; entry < vector.size(); entry++) {
+                builders.get(vector.indexAt(entry)).add(column, vector.valueAt(entry));
+            }
+        }
+        List<SparseIntVector> rows = new ArrayList<>(builders.size());
+        for (SparseIntVector.Builder builder : builders) {
+            rows.add(builder.build());
+        }
+        return rows;
+    }
+
+    /**
+     * @return rows whose entries are unknown because of functional arc weights
+     */
+    public BitSet getUnsupportedRows() {
+        return (BitSet) unsupportedRows.clone();
+    }
+
+    /**
+     * @return columns whose entries are unknown because of functional arc weights
+     */
+    public BitSet getUnsupportedColumns() {
+        return (BitSet) unsupportedColumns.clone();
+    }
+
+    /**
+     * @param petriNet   Petri net the transition belongs to
+     * @param transition transition to build the column of
+     * @param column     index of the column
+     * @return sparse column of the transition
+     */
+    private SparseIntVector buildColumn(PetriNet petriNet, Transition transition, int column) {
+        Map<Integer, Integer> entries = new TreeMap<>();
+        for (InboundArc arc : petriNet.inboundArcs(transition)) {
+            if (arc.getType() != ArcType.INHIBITOR) {
+                addWeights(entries, arc.getSource().getId(), arc.getTokenWeights(), -1, column);
+            }
+        }
+        for (OutboundArc arc : petriNet.outboundArcs(transition)) {
+            addWeights(entries, arc.getTarget().getId(), arc.getTokenWeights(), 1, column);
+        }
+        SparseIntVector.Builder builder = new SparseIntVector.Builder(entries.size());
+        for (Map.Entry<Integer, Integer> entry : entries.entrySet()) {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Adds the arcs weights to the column entries, recording functional weights as unsupported
+     * @param entries     column entries by row
+     * @param placeId     place the arc connects to
+     * @param tokenWeights arc weights by token id
+     * @param sign        -1 for inbound arcs and 1 for outbound arcs
+     * @param column      index of the column
+     */
+    private void addWeights(Map<Integer, Integer> entries, String placeId, Map<String, String> tokenWeights,
+                            int sign, int column) {
+        for (Map.Entry<String, String> weight : tokenWeights.entrySet()) {
+            int row = layout.indexOf(placeId, weight.getKey());
+            if (row < 0) {
+                continue;
+            }
+            ParsedExpression expression = GrammarUtils.compile(weight.getValue());
+            if (!expression.isConstant()) {
+                unsupportedRows.set(row);
+                unsupportedColumns.set(column);
+                continue;
+            }
+            Integer current = entries.get(row);
+            int value = (current == null ? 0 : current) + sign * (int) expression.getConstant();
+            entries.put(row, value);
+        }
+    }
+}
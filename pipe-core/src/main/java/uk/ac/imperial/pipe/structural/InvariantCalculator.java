@@ -0,0 +1,339 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes minimal semi-positive P- and T-invariants of an {@link IncidenceMatrix} with the
+ * Farkas algorithm.
+ * <p>
+ * Each invariant candidate is kept as a pair of sparse vectors: the part of the matrix still to
+ * be eliminated and the combination of original rows it was built from. Columns are eliminated one
+ * at a time by combining every candidate with a positive entry with every candidate with a negative
+ * entry, then candidates whose support is not minimal are discarded. Both steps are split across
+ * a fork join pool.
+ * </p>
+ * <p>
+ * The number of minimal invariants can grow exponentially with the size of the net, so this is
+ * intended for nets whose invariants are reasonably few.
+ * </p>
+ */
+public final class InvariantCalculator {
+
+    /**
+     * Number of candidates below which work is not split further
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 32;
+
+    /**
+     * Number of threads to compute with
+     */
+    private final int parallelism;
+
+    /**
+     * Computes with one thread per available processor
+     */
+    public InvariantCalculator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param parallelism number of threads to compute with
+     */
+    public InvariantCalculator(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * P-invariants y satisfy y.C = 0 so the weighted token sum y.m is the same in every reachable
+     * marking m. Rows touched by functional weights are left out of every invariant.
+     *
+     * @param matrix incidence matrix
+     * @return minimal semi-positive P-invariants as vectors over the rows of the matrix
+     */
+    public List<SparseIntVector> getPInvariants(IncidenceMatrix matrix) {
+        return farkas(matrix.getRows(), matrix.getUnsupportedRows(), matrix.getColumnCount());
+    }
+
+    /**
+     * T-invariants x satisfy C.x = 0 so firing each transition t x[t] times returns to the same
+     * marking. Transitions with functional weights are left out of every invariant.
+     *
+     * @param matrix incidence matrix
+     * @return minimal semi-positive T-invariants as vectors over the columns of the matrix
+     */
+    public List<SparseIntVector> getTInvariants(IncidenceMatrix matrix) {
+        return farkas(matrix.getColumns(), matrix.getUnsupportedColumns(), matrix.getRowCount());
+    }
+
+    /**
+     * Bounds the places of a Petri net, as encoded by its {@link MarkingLayout}, by its P-invariants
+     *
+     * @param petriNet     Petri net to bound
+     * @param initialState state the markings are reachable from
+     * @return largest token count of each place in any marking reachable from the initial state, or -1
+     *         if no invariant covers it
+     */
+    public static int[] getBounds(PetriNet petriNet, State initialState) {
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        List<SparseIntVector> invariants =
+                new InvariantCalculator().getPInvariants(new IncidenceMatrix(petriNet, layout));
+        return getBounds(invariants, layout.encode(initialState));
+    }
+
+    /**
+     * Bounds each row by the semi-positive P-invariants that cover it
+     *
+     * @param pInvariants    semi-positive P-invariants
+     * @param initialMarking encoded initial marking
+     * @return largest token count of each row in any reachable marking, or -1 if no invariant covers it
+     */
+    public static int[] getBounds(List<SparseIntVector> pInvariants, int[] initialMarking) {
+        int[] bounds = new int[initialMarking.length];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = -1;
+        }
+        for (SparseIntVector invariant : pInvariants) {
+            if (!invariant.isNonNegative()) {
+                continue;
+            }
+            long total = invariant.dot(initialMarking);
+            for (int entry = 0; entry < invariant.size(); entry++) {
+                int row = invariant.indexAt(entry);
+                long bound = total / invariant.valueAt(entry);
+                if (bounds[row] < 0 || bound < bounds[row]) {
+                    bounds[row] = (int) Math.min(bound, Integer.MAX_VALUE);
+                }
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * @param vectors  rows of the matrix to find invariants of
+     * @param excluded rows that may not take part in an invariant
+     * @param columns  number of columns to eliminate
+     * @return minimal semi-positive invariants over the rows
+     */
+    private List<SparseIntVector> farkas(List<SparseIntVector> vectors, BitSet excluded, int columns) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < vectors.size(); i++) {
+            if (!excluded.get(i)) {
+                candidates.add(new Candidate(vectors.get(i), SparseIntVector.unit(i, 1)));
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int column = 0; column < columns && !candidates.isEmpty(); column++) {
+                candidates = eliminate(pool, candidates, column);
+            }
+        } finally {
+            pool.shutdown();
+        }
+        List<SparseIntVector> invariants = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            invariants.add(candidate.invariant);
+        }
+        return invariants;
+    }
+
+    /**
+     * @param pool       pool to compute on
+     * @param candidates current candidates
+     * @param column     column to eliminate
+     * @return candidates with a zero entry in the column and minimal support
+     */
+    private List<Candidate> eliminate(ForkJoinPool pool, List<Candidate> candidates, int column) {
+        List<Candidate> zero = new ArrayList<>();
+        List<Candidate> positive = new ArrayList<>();
+        List<Candidate> negative = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            int value = candidate.remaining.get(column);
+            if (value == 0) {
+                zero.add(candidate);
+            } else if (value > 0) {
+                positive.add(candidate);
+            } else {
+                negative.add(candidate);
+            }
+        }
+        if (positive.isEmpty() && negative.isEmpty()) {
+            return candidates;
+        }
+        if (positive.isEmpty() || negative.isEmpty()) {
+            return zero;
+        }
+        List<Candidate> combined = new ArrayList<>(zero);
+        combined.addAll(pool.invoke(new CombineTask(positive, negative, column, 0, positive.size())));
+        return pool.invoke(new MinimalTask(combined, 0, combined.size()));
+    }
+
+    /**
+     * @param a support with cardinality no greater than b
+     * @param b support
+     * @return true if a is a subset of b
+     */
+    private static boolean isSubset(BitSet a, BitSet b) {
+        for (int i = a.nextSetBit(0); i >= 0; i = a.nextSetBit(i + 1)) {
+            if (!b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An invariant candidate
+     */
+    private static final class Candidate {
+        /**
+         * Columns still to be eliminated
+         */
+        private final SparseIntVector remaining;
+
+        /**
+         * Combination of original rows this candidate was built from
+         */
+        private final SparseIntVector invariant;
+
+        /**
+         * Support of the invariant
+         */
+        private final BitSet support;
+
+        /**
+         * Size of the support
+         */
+        private final int supportSize;
+
+        private Candidate(SparseIntVector remaining, SparseIntVector invariant) {
+            this.remaining = remaining;
+            this.invariant = invariant;
+            this.support = invariant.support();
+            this.supportSize = support.cardinality();
+        }
+
+        /**
+         * Combines a candidate with a positive entry in the column with one with a negative entry
+         * so that the column entry cancels out
+         * @param positive candidate with a positive entry
+         * @param negative candidate with a negative entry
+         * @param column   column being eliminated
+         * @return combined candidate divided by the gcd of its entries
+         */
+        private static Candidate combine(Candidate positive, Candidate negative, int column) {
+            int a = -negative.remaining.get(column);
+            int b = positive.remaining.get(column);
+            SparseIntVector remaining = positive.remaining.combine(a, negative.remaining, b);
+            SparseIntVector invariant = positive.invariant.combine(a, negative.invariant, b);
+            int gcd = SparseIntVector.gcd(remaining.gcd(), invariant.gcd());
+            return new Candidate(remaining.divide(gcd), invariant.divide(gcd));
+        }
+    }
+
+    /**
+     * Combines a range of positive candidates with every negative candidate
+     */
+    private static final class CombineTask extends RecursiveTask<List<Candidate>> {
+        private final List<Candidate> positive;
+        private final List<Candidate> negative;
+        private final int column;
+        private final int from;
+        private final int to;
+
+        private CombineTask(List<Candidate> positive, List<Candidate> negative, int column, int from, int to) {
+            this.positive = positive;
+            this.negative = negative;
+            this.column = column;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            if ((to - from) * negative.size() <= SEQUENTIAL_THRESHOLD || to - from == 1) {
+                List<Candidate> combined = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    for (Candidate candidate : negative) {
+                        combined.add(Candidate.combine(positive.get(i), candidate, column));
+                    }
+                }
+                return combined;
+            }
+            int middle = (from + to) >>> 1;
+            CombineTask left = new CombineTask(positive, negative, column, from, middle);
+            left.fork();
+            List<Candidate> right = new CombineTask(positive, negative, column, middle, to).compute();
+            List<Candidate> combined = left.join();
+            combined.addAll(right);
+            return combined;
+        }
+    }
+
+    /**
+     * Keeps the candidates in a range whose support does not strictly contain the support of another
+     * candidate, dropping duplicates of earlier candidates
+     */
+    private static final class MinimalTask extends RecursiveTask<List<Candidate>> {
+        private final List<Candidate> candidates;
+        private final int from;
+        private final int to;
+
+        private MinimalTask(List<Candidate> candidates, int from, int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                List<Candidate> minimal = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    if (isMinimal(i)) {
+                        minimal.add(candidates.get(i));
+                    }
+                }
+                return minimal;
+            }
+            int middle = (from + to) >>> 1;
+            MinimalTask left = new MinimalTask(candidates, from, middle);
+            left.fork();
+            List<Candidate> right = new MinimalTask(candidates, middle, to).compute();
+            List<Candidate> minimal = left.join();
+            minimal.addAll(right);
+            return minimal;
+        }
+
+        /**
+         * @param index index of the candidate to check
+         * @return true if no other candidate has a smaller support and it is not a duplicate of an earlier candidate
+         */
+        private boolean isMinimal(int index) {
+            Candidate candidate = candidates.get(index);
+            for (int j = 0; j < candidates.size(); j++) {
+                Candidate other = candidates.get(j);
+                if (j == index || other.supportSize > candidate.supportSize) {
+                    continue;
+                }
+                if (other.supportSize == candidate.supportSize) {
+                    if (j < index && other.invariant.equals(candidate.invariant)) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (isSubset(other.support, candidate.support)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
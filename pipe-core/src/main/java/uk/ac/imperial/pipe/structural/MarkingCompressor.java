@@ -0,0 +1,214 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compresses encoded markings by dropping the token counts implied by P-invariants.
+ * <p>
+ * Every P-invariant y fixes y.m to its value in the initial marking, so for each linearly
+ * independent invariant one token count can be worked out from the others. The invariants are
+ * brought into reduced row echelon form with integer arithmetic so that each one solves for a single
+ * dropped count in terms of kept counts only.
+ * </p>
+ * <p>
+ * Only markings reachable from the initial marking satisfy the invariants, so only they can be
+ * compressed and restored faithfully.
+ * </p>
+ */
+public final class MarkingCompressor {
+
+    /**
+     * Width of an uncompressed marking
+     */
+    private final int width;
+
+    /**
+     * Rows kept in a compressed marking, in order
+     */
+    private final int[] kept;
+
+    /**
+     * Equations, each solving for one dropped row in terms of kept rows
+     */
+    private final SparseIntVector[] equations;
+
+    /**
+     * Dropped row each equation solves for
+     */
+    private final int[] dropped;
+
+    /**
+     * Value of each equation in the initial marking
+     */
+    private final long[] totals;
+
+    /**
+     * Constructor
+     * @param pInvariants    P-invariants of the net
+     * @param initialMarking encoded initial marking
+     */
+    public MarkingCompressor(List<SparseIntVector> pInvariants, int[] initialMarking) {
+        width = initialMarking.length;
+        List<SparseIntVector> rows = new ArrayList<>();
+        List<Integer> pivots = new ArrayList<>();
+        for (SparseIntVector invariant : pInvariants) {
+            try {
+                addEquation(rows, pivots, invariant);
+            } catch (ArithmeticException ignored) {
+                // Too large to eliminate exactly, the count stays in the compressed marking
+            }
+        }
+
+        equations = rows.toArray(new SparseIntVector[rows.size()]);
+        dropped = new int[pivots.size()];
+        totals = new long[rows.size()];
+        boolean[] isDropped = new boolean[width];
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = pivots.get(i);
+            isDropped[dropped[i]] = true;
+            totals[i] = equations[i].dot(initialMarking);
+        }
+        kept = new int[width - dropped.length];
+        int position = 0;
+        for (int row = 0; row < width; row++) {
+            if (!isDropped[row]) {
+                kept[position++] = row;
+            }
+        }
+    }
+
+    /**
+     * Compresses the markings of a Petri net, as encoded by its {@link MarkingLayout}, by the P-invariants
+     * of its incidence matrix
+     * @param petriNet     Petri net whose markings will be compressed
+     * @param initialState state the markings are reachable from
+     * @return compressor for the markings reachable from the initial state
+     */
+    public static MarkingCompressor forPetriNet(PetriNet petriNet, State initialState) {
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        List<SparseIntVector> invariants =
+                new InvariantCalculator().getPInvariants(new IncidenceMatrix(petriNet, layout));
+        return new MarkingCompressor(invariants, layout.encode(initialState));
+    }
+
+    /**
+     * @return width of an uncompressed marking
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return width of a compressed marking
+     */
+    public int getCompressedWidth() {
+        return kept.length;
+    }
+
+    /**
+     * @return rows that are dropped from compressed markings
+     */
+    public int[] getDroppedRows() {
+        return dropped.clone();
+    }
+
+    /**
+     * @param marking encoded marking reachable from the initial marking
+     * @return compressed marking
+     */
+    public int[] compress(int[] marking) {
+        int[] compressed = new int[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            compressed[i] = marking[kept[i]];
+        }
+        return compressed;
+    }
+
+    /**
+     * @param compressed compressed marking
+     * @return the encoded marking it was compressed from
+     */
+    public int[] decompress(int[] compressed) {
+        int[] marking = new int[width];
+        decompress(compressed, marking);
+        return marking;
+    }
+
+    /**
+     * Restores a compressed marking into the given array
+     * @param compressed compressed marking
+     * @param marking    array of the uncompressed width to restore the marking into
+     */
+    public void decompress(int[] compressed, int[] marking) {
+        for (int i = 0; i < kept.length; i++) {
+            marking[kept[i]] = compressed[i];
+        }
+        for (int i = 0; i < equations.length; i++) {
+            SparseIntVector equation = equations[i];
+            long rest = totals[i];
+            int coefficient = 0;
+            for (int entry = 0; entry < equation.size(); entry++) {
+                int row = equation.indexAt(entry);
+                if (row == dropped[i]) {
+                    coefficient = equation.valueAt(entry);
+                } else {
+                    rest -= (long) equation.valueAt(entry) * marking[row];
+                }
+            }
+            marking[dropped[i]] = (int) (rest / coefficient);
+        }
+    }
+
+    /**
+     * Reduces the invariant by the existing equations and, if it is independent of them, adds it
+     * as a new equation and eliminates its pivot from the existing ones
+     * @param rows      existing equations
+     * @param pivots    pivot of each existing equation
+     * @param invariant invariant to add
+     */
+    private static void addEquation(List<SparseIntVector> rows, List<Integer> pivots, SparseIntVector invariant) {
+        SparseIntVector reduced = invariant;
+        for (int k = 0; k < rows.size(); k++) {
+            reduced = eliminate(reduced, rows.get(k), pivots.get(k));
+        }
+        if (reduced.isZero()) {
+            return;
+        }
+        int pivotEntry = 0;
+        for (int entry = 1; entry < reduced.size(); entry++) {
+            if (Math.abs(reduced.valueAt(entry)) < Math.abs(reduced.valueAt(pivotEntry))) {
+                pivotEntry = entry;
+            }
+        }
+        int pivot = reduced.indexAt(pivotEntry);
+        List<SparseIntVector> updated = new ArrayList<>(rows.size());
+        for (SparseIntVector row : rows) {
+            updated.add(eliminate(row, reduced, pivot));
+        }
+        for (int k = 0; k < rows.size(); k++) {
+            rows.set(k, updated.get(k));
+        }
+        rows.add(reduced);
+        pivots.add(pivot);
+    }
+
+    /**
+     * @param vector vector to eliminate the pivot from
+     * @param row    equation with a non zero pivot entry
+     * @param pivot  index of the pivot
+     * @return multiple of the vector plus a multiple of the row with a zero pivot entry
+     */
+    private static SparseIntVector eliminate(SparseIntVector vector, SparseIntVector row, int pivot) {
+        int value = vector.get(pivot);
+        if (value == 0) {
+            return vector;
+        }
+        int pivotValue = row.get(pivot);
+        return vector.combine(pivotValue, row, -value).normalize();
+    }
+}
@@ -0,0 +1,627 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.Arc;
+import uk.ac.imperial.pipe.models.petrinet.ArcType;
+import uk.ac.imperial.pipe.models.petrinet.Connectable;
+import uk.ac.imperial.pipe.models.petrinet.InboundArc;
+import uk.ac.imperial.pipe.models.petrinet.NormalRate;
+import uk.ac.imperial.pipe.models.petrinet.OutboundArc;
+import uk.ac.imperial.pipe.models.petrinet.OutboundNormalArc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.RateParameter;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.models.petrinet.name.NormalPetriNetName;
+import uk.ac.imperial.pipe.parsers.GrammarUtils;
+import uk.ac.imperial.pipe.parsers.ParsedExpression;
+import uk.ac.imperial.pipe.visitor.ClonePetriNet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reduces a Petri net to a smaller one with the same tangible behaviour before its state space
+ * is explored.
+ * <p>
+ * The reductions applied until none are left are
+ * <ul>
+ *     <li>series place fusion, a place p1 whose tokens are moved on by a single immediate
+ *     transition into a place p2 is merged into p2</li>
+ *     <li>series transition fusion, an immediate transition fed only by a place with a single
+ *     producer is fused into that producer</li>
+ *     <li>implicit place removal, a place with the same arcs as another place and at least as many
+ *     initial tokens never disables a transition so is removed</li>
+ *     <li>parallel transition merging, transitions with identical arcs, timing and priority are merged
+ *     into one whose rate is the sum of theirs</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Timed transitions are never fused in series since the sum of two exponential delays is not
+ * exponential. Immediate transitions are only fused when the tokens they move can only be seen by
+ * timed transitions, so that the tangible markings and the rates between them, which are all GSPN
+ * steady state analysis needs, are unchanged. Places and transitions with capacities, inhibitor arcs
+ * or functional expressions that could observe the difference are left alone.
+ * </p>
+ */
+public final class PetriNetReducer {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(PetriNetReducer.class.getName());
+
+    /**
+     * Orders components by id so that reductions are applied deterministically
+     */
+    private static final Comparator<Connectable> BY_ID = new Comparator<Connectable>() {
+        @Override
+        public int compare(Connectable c1, Connectable c2) {
+            return c1.getId().compareTo(c2.getId());
+        }
+    };
+
+    /**
+     * Reduces a copy of the Petri net, leaving the original untouched. The copy is named after the
+     * original with a reduced suffix so that its results are never mistaken for those of the original
+     *
+     * @param petriNet Petri net to reduce
+     * @return reduced Petri net and the mapping from the original components onto it
+     * @throws PetriNetComponentException if a component cannot be removed from the reduced net
+     */
+    public PetriNetReduction reduce(PetriNet petriNet) throws PetriNetComponentException {
+        PetriNet reduced = ClonePetriNet.clone(petriNet);
+        if (petriNet.getName() != null) {
+            reduced.setName(new NormalPetriNetName(petriNet.getNameValue() + " (reduced)"));
+        }
+        ReductionMapping mapping = new ReductionMapping(petriNet);
+        int applied = 0;
+        int round;
+        do {
+            round = new Pass(reduced, mapping).fuseSeriesPlaces();
+            round += new Pass(reduced, mapping).fuseSeriesTransitions();
+            round += new Pass(reduced, mapping).removeImplicitPlaces();
+            round += new Pass(reduced, mapping).mergeParallelTransitions();
+            applied += round;
+        } while (round > 0);
+        LOGGER.log(Level.INFO, "Applied {0} reductions leaving {1} places and {2} transitions",
+                new Object[]{applied, reduced.getPlaces().size(), reduced.getTransitions().size()});
+        return new PetriNetReduction(reduced, mapping);
+    }
+
+    /**
+     * @param arc arc
+     * @return token id -&gt; non zero weight, or null if any weight is not a constant integer
+     */
+    private static Map<String, Integer> constantWeights(Arc<? extends Connectable, ? extends Connectable> arc) {
+        Map<String, Integer> weights = new TreeMap<>();
+        for (Map.Entry<String, String> entry : arc.getTokenWeights().entrySet()) {
+            ParsedExpression expression = GrammarUtils.compile(entry.getValue());
+            if (!expression.isConstant() || expression.getConstant() != Math.rint(expression.getConstant())) {
+                return null;
+            }
+            int weight = (int) expression.getConstant();
+            if (weight != 0) {
+                weights.put(entry.getKey(), weight);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * @param arc arc
+     * @return the token if the arc has a weight of one for a single token and zero for the rest, otherwise null
+     */
+    private static String unitToken(Arc<? extends Connectable, ? extends Connectable> arc) {
+        Map<String, Integer> weights = constantWeights(arc);
+        if (weights == null || weights.size() != 1) {
+            return null;
+        }
+        Map.Entry<String, Integer> weight = weights.entrySet().iterator().next();
+        return weight.getValue() == 1 ? weight.getKey() : null;
+    }
+
+    /**
+     * @param expression functional expression, may be null
+     * @return constant value of the expression, or null if it is not constant
+     */
+    private static Double constantRate(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        ParsedExpression parsed = GrammarUtils.compile(expression);
+        return parsed.isConstant() ? parsed.getConstant() : null;
+    }
+
+    /**
+     * A single sweep of one reduction rule over an index of the net built at the start of the sweep.
+     * Components changed by a reduction are marked as touched and are not considered again in the
+     * same sweep, so that every reduction applied sees an accurate index.
+     */
+    private static final class Pass {
+        /**
+         * Petri net being reduced
+         */
+        private final PetriNet petriNet;
+
+        /**
+         * Mapping being built
+         */
+        private final ReductionMapping mapping;
+
+        /**
+         * Ids of the components referenced by functional expressions
+         */
+        private final Set<String> referenced = new HashSet<>();
+
+        /**
+         * Place id -&gt; arcs into the place
+         */
+        private final Map<String, List<OutboundArc>> producers = new HashMap<>();
+
+        /**
+         * Place id -&gt; arcs out of the place
+         */
+        private final Map<String, List<InboundArc>> consumers = new HashMap<>();
+
+        /**
+         * Ids of the components changed in this sweep
+         */
+        private final Set<String> touched = new HashSet<>();
+
+        private Pass(PetriNet petriNet, ReductionMapping mapping) {
+            this.petriNet = petriNet;
+            this.mapping = mapping;
+            for (Place place : petriNet.getPlaces()) {
+                producers.put(place.getId(), new ArrayList<OutboundArc>());
+                consumers.put(place.getId(), new ArrayList<InboundArc>());
+            }
+            for (OutboundArc arc : petriNet.getOutboundArcs()) {
+                producers.get(arc.getTarget().getId()).add(arc);
+                reference(arc.getTokenWeights().values());
+            }
+            for (InboundArc arc : petriNet.getInboundArcs()) {
+                consumers.get(arc.getSource().getId()).add(arc);
+                reference(arc.getTokenWeights().values());
+            }
+            for (Transition transition : petriNet.getTransitions()) {
+                reference(Collections.singleton(transition.getRateExpr()));
+            }
+            for (RateParameter rateParameter : petriNet.getRateParameters()) {
+                reference(Collections.singleton(rateParameter.getExpression()));
+            }
+        }
+
+        /**
+         * Merges a place p1 into p2 when the only thing done with tokens in p1 is to move them one at a
+         * time into p2 with an immediate transition
+         *
+         * @return number of reductions applied
+         * @throws PetriNetComponentException if a component cannot be removed
+         */
+        private int fuseSeriesPlaces() throws PetriNetComponentException {
+            int applied = 0;
+            for (Transition transition : sorted(petriNet.getTransitions())) {
+                Collection<InboundArc> inbound = petriNet.inboundArcs(transition);
+                Collection<OutboundArc> outbound = petriNet.outboundArcs(transition);
+                if (transition.isTimed() || inbound.size() != 1 || outbound.size() != 1) {
+                    continue;
+                }
+                InboundArc in = inbound.iterator().next();
+                OutboundArc out = outbound.iterator().next();
+                Place source = in.getSource();
+                Place target = out.getTarget();
+                String token = unitToken(in);
+                if (in.getType() != ArcType.NORMAL || source.getId().equals(target.getId()) || token == null
+                        || !token.equals(unitToken(out))) {
+                    continue;
+                }
+                List<OutboundArc> fed = producers.get(source.getId());
+                if (!isRemovable(source) || consumers.get(source.getId()).size() != 1 || !holdsOnly(source, token)
+                        || !isSeenOnlyWhenTangible(target) || isTouched(transition, source, target)
+                        || !canAddOutputs(fed, target)) {
+                    continue;
+                }
+
+                for (OutboundArc arc : fed) {
+                    addOutput(arc.getSource(), target, constantWeights(arc));
+                    petriNet.removeArc(arc);
+                    touched.add(arc.getSource().getId());
+                }
+                target.setTokenCount(token, target.getTokenCount(token) + source.getTokenCount(token));
+                petriNet.removeArc(in);
+                petriNet.removeArc(out);
+                petriNet.removeTransition(transition);
+                petriNet.removePlace(source);
+                mapping.transitionRemoved(transition.getId());
+                mapping.placeEmptied(source.getId());
+                touch(transition, source, target);
+                applied++;
+            }
+            return applied;
+        }
+
+        /**
+         * Fuses an immediate transition t2 into t1 when t2's only input is a place fed only by t1
+         *
+         * @return number of reductions applied
+         * @throws PetriNetComponentException if a component cannot be removed
+         */
+        private int fuseSeriesTransitions() throws PetriNetComponentException {
+            int applied = 0;
+            for (Place place : sorted(petriNet.getPlaces())) {
+                List<OutboundArc> fed = producers.get(place.getId());
+                List<InboundArc> drained = consumers.get(place.getId());
+                if (!isRemovable(place) || place.getNumberOfTokensStored() != 0 || fed.size() != 1
+                        || drained.size() != 1) {
+                    continue;
+                }
+                OutboundArc in = fed.get(0);
+                InboundArc out = drained.get(0);
+                Transition producer = in.getSource();
+                Transition consumer = out.getTarget();
+                String token = unitToken(in);
+                if (consumer.isTimed() || producer.getId().equals(consumer.getId()) || token == null
+                        || !token.equals(unitToken(out)) || petriNet.inboundArcs(consumer).size() != 1
+                        || isTouched(place, producer, consumer)) {
+                    continue;
+                }
+                List<OutboundArc> outputs = new ArrayList<>(petriNet.outboundArcs(consumer));
+                if (!canFuseOutputs(producer, place, outputs)) {
+                    continue;
+                }
+
+                for (OutboundArc arc : outputs) {
+                    addOutput(producer, arc.getTarget(), constantWeights(arc));
+                    petriNet.removeArc(arc);
+                    touched.add(arc.getTarget().getId());
+                }
+                petriNet.removeArc(in);
+                petriNet.removeArc(out);
+                petriNet.removeTransition(consumer);
+                petriNet.removePlace(place);
+                mapping.transitionRemoved(consumer.getId());
+                mapping.placeEmptied(place.getId());
+                touch(place, producer, consumer);
+                applied++;
+            }
+            return applied;
+        }
+
+        /**
+         * Removes places whose arcs are identical to another place's and that start with at least as
+         * many tokens, so always hold a fixed number of tokens more than it
+         *
+         * @return number of reductions applied
+         * @throws PetriNetComponentException if a component cannot be removed
+         */
+        private int removeImplicitPlaces() throws PetriNetComponentException {
+            Map<String, List<Place>> rows = new LinkedHashMap<>();
+            for (Place place : sorted(petriNet.getPlaces())) {
+                String row = rowOf(place);
+                if (row != null) {
+                    List<Place> places = rows.get(row);
+                    if (places == null) {
+                        places = new ArrayList<>();
+                        rows.put(row, places);
+                    }
+                    places.add(place);
+                }
+            }
+
+            int applied = 0;
+            for (List<Place> places : rows.values()) {
+                for (Place place : places) {
+                    if (!isRemovable(place)) {
+                        continue;
+                    }
+                    Place duplicate = findCoveredDuplicate(place, places);
+                    if (duplicate == null) {
+                        continue;
+                    }
+                    Map<String, Integer> offsets = new HashMap<>();
+                    for (Map.Entry<String, Integer> entry : place.getTokenCounts().entrySet()) {
+                        offsets.put(entry.getKey(), entry.getValue() - duplicate.getTokenCount(entry.getKey()));
+                    }
+                    for (OutboundArc arc : producers.get(place.getId())) {
+                        petriNet.removeArc(arc);
+                    }
+                    petriNet.removePlace(place);
+                    mapping.placeMerged(place.getId(), duplicate.getId(), offsets);
+                    touch(place);
+                    applied++;
+                }
+            }
+            return applied;
+        }
+
+        /**
+         * Merges transitions with identical arcs, timing, priority and server semantics and constant
+         * rates into a single transition whose rate is the sum of theirs
+         *
+         * @return number of reductions applied
+         */
+        private int mergeParallelTransitions() {
+            Map<String, Transition> survivors = new HashMap<>();
+            int applied = 0;
+            for (Transition transition : sorted(petriNet.getTransitions())) {
+                String signature = signatureOf(transition);
+                if (signature == null) {
+                    continue;
+                }
+                Transition survivor = survivors.get(signature);
+                if (survivor == null) {
+                    survivors.put(signature, transition);
+                    continue;
+                }
+                double survivorRate = constantRate(survivor.getRateExpr());
+                double rate = constantRate(transition.getRateExpr());
+                survivor.setRate(new NormalRate(Double.toString(survivorRate + rate)));
+                for (InboundArc arc : new ArrayList<>(petriNet.inboundArcs(transition))) {
+                    petriNet.removeArc(arc);
+                }
+                for (OutboundArc arc : new ArrayList<>(petriNet.outboundArcs(transition))) {
+                    petriNet.removeArc(arc);
+                }
+                petriNet.removeTransition(transition);
+                mapping.transitionsMerged(transition.getId(), survivor.getId(), rate / (survivorRate + rate));
+                applied++;
+            }
+            return applied;
+        }
+
+        /**
+         * @param place place
+         * @return true if nothing but the arcs of the place can observe its token count
+         */
+        private boolean isRemovable(Place place) {
+            if (referenced.contains(place.getId()) || place.hasCapacityRestriction()) {
+                return false;
+            }
+            for (InboundArc arc : consumers.get(place.getId())) {
+                if (arc.getType() != ArcType.NORMAL) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param place place
+         * @return true if tokens arriving in the place early, whilst immediate transitions are
+         * still firing, cannot change which tangible marking is reached
+         */
+        private boolean isSeenOnlyWhenTangible(Place place) {
+            if (!isRemovable(place)) {
+                return false;
+            }
+            for (InboundArc arc : consumers.get(place.getId())) {
+                if (!arc.getTarget().isTimed()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param place place
+         * @param token token id
+         * @return true if the place can only ever hold the given token
+         */
+        private boolean holdsOnly(Place place, String token) {
+            for (Map.Entry<String, Integer> entry : place.getTokenCounts().entrySet()) {
+                if (entry.getValue() != 0 && !entry.getKey().equals(token)) {
+                    return false;
+                }
+            }
+            for (OutboundArc arc : producers.get(place.getId())) {
+                Map<String, Integer> weights = constantWeights(arc);
+                if (weights == null || !Collections.singleton(token).containsAll(weights.keySet())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param arcs   arcs whose sources will output to the target instead
+         * @param target new target of the arcs
+         * @return true if every arc has constant weights and can be merged with any existing arc to the target
+         */
+        private boolean canAddOutputs(Collection<OutboundArc> arcs, Place target) {
+            for (OutboundArc arc : arcs) {
+                if (constantWeights(arc) == null || touched.contains(arc.getSource().getId())
+                        || !canAddOutput(arc.getSource(), target)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param producer transition that will output directly to the consumers outputs
+         * @param place    place being removed between the two transitions
+         * @param outputs  outputs of the consumer
+         * @return true if every output can be moved to the producer
+         */
+        private boolean canFuseOutputs(Transition producer, Place place, Collection<OutboundArc> outputs) {
+            for (OutboundArc arc : outputs) {
+                Place target = arc.getTarget();
+                if (target.getId().equals(place.getId()) || constantWeights(arc) == null
+                        || !isSeenOnlyWhenTangible(target) || touched.contains(target.getId())
+                        || !canAddOutput(producer, target)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param source transition
+         * @param target place
+         * @return true if the transition has no arc to the place or its arc has constant weights
+         */
+        private boolean canAddOutput(Transition source, Place target) {
+            OutboundArc existing = findOutput(source, target);
+            return existing == null || constantWeights(existing) != null;
+        }
+
+        /**
+         * Adds the weights to the arc from the transition to the place, creating it if necessary
+         * @param source  transition
+         * @param target  place
+         * @param weights token id -&gt; weight to add
+         */
+        private void addOutput(Transition source, Place target, Map<String, Integer> weights) {
+            OutboundArc existing = findOutput(source, target);
+            if (existing == null) {
+                Map<String, String> tokenWeights = new HashMap<>();
+                for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                    tokenWeights.put(entry.getKey(), entry.getValue().toString());
+                }
+                petriNet.addArc(new OutboundNormalArc(source, target, tokenWeights));
+                return;
+            }
+            Map<String, Integer> current = constantWeights(existing);
+            for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                Integer weight = current.get(entry.getKey());
+                existing.setWeight(entry.getKey(), Integer.toString((weight == null ? 0 : weight) + entry.getValue()));
+            }
+        }
+
+        /**
+         * @param source transition
+         * @param target place
+         * @return arc from the transition to the place or null if there is none
+         */
+        private OutboundArc findOutput(Transition source, Place target) {
+            for (OutboundArc arc : petriNet.outboundArcs(source)) {
+                if (arc.getTarget().getId().equals(target.getId())) {
+                    return arc;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param place     place
+         * @param duplicates places with the same arcs
+         * @return a place other than this one with no more tokens than it, or null if there is none
+         */
+        private Place findCoveredDuplicate(Place place, List<Place> duplicates) {
+            for (Place duplicate : duplicates) {
+                if (duplicate == place || touched.contains(duplicate.getId())) {
+                    continue;
+                }
+                boolean covered = true;
+                for (Map.Entry<String, Integer> entry : duplicate.getTokenCounts().entrySet()) {
+                    if (entry.getValue() > place.getTokenCount(entry.getKey())) {
+                        covered = false;
+                        break;
+                    }
+                }
+                if (covered) {
+                    return duplicate;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param place place
+         * @return description of every arc of the place, or null if it has none or any is not constant
+         */
+        private String rowOf(Place place) {
+            Map<String, String> row = new TreeMap<>();
+            for (OutboundArc arc : producers.get(place.getId())) {
+                Map<String, Integer> weights = constantWeights(arc);
+                if (weights == null) {
+                    return null;
+                }
+                row.put("out " + arc.getSource().getId(), weights.toString());
+            }
+            for (InboundArc arc : consumers.get(place.getId())) {
+                Map<String, Integer> weights = constantWeights(arc);
+                if (weights == null) {
+                    return null;
+                }
+                row.put(arc.getType() + " " + arc.getTarget().getId(), weights.toString());
+            }
+            return row.isEmpty() ? null : row.toString();
+        }
+
+        /**
+         * @param transition transition
+         * @return description of the transitions arcs, timing, priority and server semantics, or null
+         * if it cannot be merged with another transition
+         */
+        private String signatureOf(Transition transition) {
+            if (constantRate(transition.getRateExpr()) == null) {
+                return null;
+            }
+            Map<String, String> arcs = new TreeMap<>();
+            for (InboundArc arc : petriNet.inboundArcs(transition)) {
+                arcs.put(arc.getType() + " " + arc.getSource().getId(), new TreeMap<>(arc.getTokenWeights()).toString());
+            }
+            for (OutboundArc arc : petriNet.outboundArcs(transition)) {
+                arcs.put("out " + arc.getTarget().getId(), new TreeMap<>(arc.getTokenWeights()).toString());
+            }
+            return transition.isTimed() + " " + transition.getPriority() + " " + transition.isInfiniteServer() + " "
+                    + arcs;
+        }
+
+        /**
+         * @param expressions functional expressions to record the references of
+         */
+        private void reference(Collection<String> expressions) {
+            for (String expression : expressions) {
+                if (expression != null) {
+                    referenced.addAll(GrammarUtils.compile(expression).getComponents());
+                }
+            }
+        }
+
+        /**
+         * @param components components
+         * @return true if any component has already been changed in this sweep
+         */
+        private boolean isTouched(Connectable... components) {
+            for (Connectable component : components) {
+                if (touched.contains(component.getId())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param components components changed by a reduction
+         */
+        private void touch(Connectable... components) {
+            for (Connectable component : components) {
+                touched.add(component.getId());
+            }
+        }
+
+        /**
+         * @param components components to sort
+         * @return copy of the components ordered by id
+         */
+        private <T extends Connectable> List<T> sorted(Collection<T> components) {
+            List<T> sorted = new ArrayList<>(components);
+            Collections.sort(sorted, BY_ID);
+            return sorted;
+        }
+    }
+}
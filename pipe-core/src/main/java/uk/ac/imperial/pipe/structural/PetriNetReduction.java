@@ -0,0 +1,43 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+
+/**
+ * Result of reducing a Petri net, the reduced net along with how the original components map onto it
+ */
+public final class PetriNetReduction {
+
+    /**
+     * Reduced Petri net
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Mapping from the original components to the reduced ones
+     */
+    private final ReductionMapping mapping;
+
+    /**
+     * Constructor
+     * @param petriNet reduced Petri net
+     * @param mapping  mapping from the original components to the reduced ones
+     */
+    PetriNetReduction(PetriNet petriNet, ReductionMapping mapping) {
+        this.petriNet = petriNet;
+        this.mapping = mapping;
+    }
+
+    /**
+     * @return reduced Petri net
+     */
+    public PetriNet getPetriNet() {
+        return petriNet;
+    }
+
+    /**
+     * @return mapping from the original components to the reduced ones
+     */
+    public ReductionMapping getMapping() {
+        return mapping;
+    }
+}
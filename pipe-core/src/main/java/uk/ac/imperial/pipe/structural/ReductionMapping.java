@@ -0,0 +1,227 @@
+package uk.ac.imperial.pipe.structural;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Token;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps the places and transitions of a Petri net onto the net it was reduced to, so that
+ * metrics computed on the reduced net can be reported against the original component ids.
+ * <p>
+ * In every tangible marking the token count of an original place is the count of the place it
+ * maps to plus a constant offset. Places that map to nothing are always empty in tangible markings.
+ * The throughput of an original timed transition is a fixed share of the throughput of the
+ * transition it maps to.
+ * </p>
+ */
+public final class ReductionMapping {
+
+    /**
+     * Token ids of the original Petri net
+     */
+    private final Collection<String> tokens = new ArrayList<>();
+
+    /**
+     * Original place id -&gt; its image in the reduced net
+     */
+    private final Map<String, PlaceImage> places = new TreeMap<>();
+
+    /**
+     * Original transition id -&gt; its image in the reduced net
+     */
+    private final Map<String, TransitionImage> transitions = new TreeMap<>();
+
+    /**
+     * Creates the identity mapping of the Petri net
+     * @param petriNet original Petri net
+     */
+    ReductionMapping(PetriNet petriNet) {
+        for (Token token : petriNet.getTokens()) {
+            tokens.add(token.getId());
+        }
+        for (Place place : petriNet.getPlaces()) {
+            places.put(place.getId(), new PlaceImage(place.getId()));
+        }
+        for (Transition transition : petriNet.getTransitions()) {
+            transitions.put(transition.getId(), new TransitionImage(transition.getId()));
+        }
+    }
+
+    /**
+     * @param originalId id of a place in the original net
+     * @return id of the place it maps to in the reduced net, or null if it is empty in every tangible marking
+     */
+    public String getReducedPlace(String originalId) {
+        return places.get(originalId).reducedId;
+    }
+
+    /**
+     * @param originalId id of a place in the original net
+     * @param tokenId    token id
+     * @return number of tokens the place holds above the place it maps to
+     */
+    public int getTokenOffset(String originalId, String tokenId) {
+        Integer offset = places.get(originalId).offsets.get(tokenId);
+        return offset == null ? 0 : offset;
+    }
+
+    /**
+     * @param originalId id of a transition in the original net
+     * @return id of the transition it maps to in the reduced net, or null if its firing was fused away
+     */
+    public String getReducedTransition(String originalId) {
+        return transitions.get(originalId).reducedId;
+    }
+
+    /**
+     * @param originalId id of a transition in the original net
+     * @return share of the throughput of the transition it maps to that belongs to it
+     */
+    public double getThroughputShare(String originalId) {
+        return transitions.get(originalId).share;
+    }
+
+    /**
+     * @param reducedAverages average token counts of the reduced net's places, place id -&gt; token id -&gt; average
+     * @return average token counts of the original net's places
+     */
+    public Map<String, Map<String, Double>> mapAverageTokens(Map<String, Map<String, Double>> reducedAverages) {
+        Map<String, Map<String, Double>> averages = new HashMap<>();
+        for (Map.Entry<String, PlaceImage> entry : places.entrySet()) {
+            PlaceImage image = entry.getValue();
+            Map<String, Double> reduced = image.reducedId == null ? null : reducedAverages.get(image.reducedId);
+            if (image.reducedId != null && reduced == null) {
+                continue;
+            }
+            Map<String, Double> average = new HashMap<>();
+            for (String token : tokens) {
+                Double count = reduced == null ? null : reduced.get(token);
+                Integer offset = image.offsets.get(token);
+                average.put(token, (count == null ? 0 : count) + (offset == null ? 0 : offset));
+            }
+            averages.put(entry.getKey(), average);
+        }
+        return averages;
+    }
+
+    /**
+     * @param reducedThroughputs throughputs of the reduced net's transitions, transition id -&gt; throughput
+     * @return throughputs of the original net's transitions
+     */
+    public Map<String, Double> mapThroughputs(Map<String, Double> reducedThroughputs) {
+        Map<String, Double> throughputs = new HashMap<>();
+        for (Map.Entry<String, TransitionImage> entry : transitions.entrySet()) {
+            TransitionImage image = entry.getValue();
+            Double throughput = image.reducedId == null ? null : reducedThroughputs.get(image.reducedId);
+            if (throughput != null) {
+                throughputs.put(entry.getKey(), throughput * image.share);
+            }
+        }
+        return throughputs;
+    }
+
+    /**
+     * Records that a place has been fused away and is empty in every tangible marking
+     * @param reducedId id of the removed place
+     */
+    void placeEmptied(String reducedId) {
+        for (PlaceImage image : places.values()) {
+            if (reducedId.equals(image.reducedId)) {
+                image.reducedId = null;
+            }
+        }
+    }
+
+    /**
+     * Records that a place has been removed as it always holds the same tokens as another plus an offset
+     * @param reducedId  id of the removed place
+     * @param survivorId id of the place it duplicates
+     * @param offsets    token id -&gt; tokens the removed place holds above the survivor
+     */
+    void placeMerged(String reducedId, String survivorId, Map<String, Integer> offsets) {
+        for (PlaceImage image : places.values()) {
+            if (reducedId.equals(image.reducedId)) {
+                image.reducedId = survivorId;
+                for (Map.Entry<String, Integer> offset : offsets.entrySet()) {
+                    Integer previous = image.offsets.get(offset.getKey());
+                    image.offsets.put(offset.getKey(), (previous == null ? 0 : previous) + offset.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that an immediate transition has been fused into the transitions that enable it
+     * @param reducedId id of the removed transition
+     */
+    void transitionRemoved(String reducedId) {
+        for (TransitionImage image : transitions.values()) {
+            if (reducedId.equals(image.reducedId)) {
+                image.reducedId = null;
+                image.share = 0;
+            }
+        }
+    }
+
+    /**
+     * Records that a transition has been merged into an identical parallel transition
+     * @param reducedId    id of the removed transition
+     * @param survivorId   id of the transition it was merged into
+     * @param removedShare share of the merged rate that came from the removed transition
+     */
+    void transitionsMerged(String reducedId, String survivorId, double removedShare) {
+        for (TransitionImage image : transitions.values()) {
+            if (reducedId.equals(image.reducedId)) {
+                image.reducedId = survivorId;
+                image.share *= removedShare;
+            } else if (survivorId.equals(image.reducedId)) {
+                image.share *= 1 - removedShare;
+            }
+        }
+    }
+
+    /**
+     * Image of an original place in the reduced net
+     */
+    private static final class PlaceImage {
+        /**
+         * Place it maps to, null if it is always empty in tangible markings
+         */
+        private String reducedId;
+
+        /**
+         * Token id -&gt; tokens held above the place it maps to
+         */
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        private PlaceImage(String reducedId) {
+            this.reducedId = reducedId;
+        }
+    }
+
+    /**
+     * Image of an original transition in the reduced net
+     */
+    private static final class TransitionImage {
+        /**
+         * Transition it maps to, null if it was fused away
+         */
+        private String reducedId;
+
+        /**
+         * Share of the throughput of the transition it maps to
+         */
+        private double share = 1;
+
+        private TransitionImage(String reducedId) {
+            this.reducedId = reducedId;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package uk.ac.imperial.pipe.structural;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable sparse vector of integers, storing only its non zero entries in index order
+ */
+public final class SparseIntVector {
+
+    /**
+     * Vector with no non zero entries
+     */
+    public static final SparseIntVector ZERO = new SparseIntVector(new int[0], new int[0]);
+
+    /**
+     * Indexes of the non zero entries in ascending order
+     */
+    private final int[] indexes;
+
+    /**
+     * Values of the non zero entries
+     */
+    private final int[] values;
+
+    /**
+     * @param indexes indexes of the non zero entries in ascending order
+     * @param values  values of the non zero entries
+     */
+    private SparseIntVector(int[] indexes, int[] values) {
+        this.indexes = indexes;
+        this.values = values;
+    }
+
+    /**
+     * @param index index of the single non zero entry
+     * @param value value of the entry
+     * @return vector with a single non zero entry
+     */
+    public static SparseIntVector unit(int index, int value) {
+        if (value == 0) {
+            return ZERO;
+        }
+        return new SparseIntVector(new int[]{index}, new int[]{value});
+    }
+
+    /**
+     * @param dense dense vector
+     * @return sparse copy of the dense vector
+     */
+    public static SparseIntVector of(int[] dense) {
+        Builder builder = new Builder();
+        for (int i = 0; i < dense.length; i++) {
+            builder.add(i, dense[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return number of non zero entries
+     */
+    public int size() {
+        return indexes.length;
+    }
+
+    /**
+     * @param entry position of the entry between 0 and size
+     * @return index of the entry
+     */
+    public int indexAt(int entry) {
+        return indexes[entry];
+    }
+
+    /**
+     * @param entry position of the entry between 0 and size
+     * @return value of the entry
+     */
+    public int valueAt(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * @param index vector index
+     * @return value at the index, zero if it is not stored
+     */
+    public int get(int index) {
+        int entry = Arrays.binarySearch(indexes, index);
+        return entry >= 0 ? values[entry] : 0;
+    }
+
+    /**
+     * @return true if every entry is zero
+     */
+    public boolean isZero() {
+        return indexes.length == 0;
+    }
+
+    /**
+     * @return true if no entry is negative
+     */
+    public boolean isNonNegative() {
+        for (int value : values) {
+            if (value < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return indexes of the non zero entries
+     */
+    public BitSet support() {
+        BitSet support = new BitSet();
+        for (int index : indexes) {
+            support.set(index);
+        }
+        return support;
+    }
+
+    /**
+     * @param dense dense vector at least as long as the largest index of this vector
+     * @return dot product of this vector and the dense vector
+     */
+    public long dot(int[] dense) {
+        long result = 0;
+        for (int i = 0; i < indexes.length; i++) {
+            result += (long) values[i] * dense[indexes[i]];
+        }
+        return result;
+    }
+
+    /**
+     * Computes a * this + b * other
+     *
+     * @param a     scale of this vector
+     * @param other vector to add
+     * @param b     scale of the other vector
+     * @return linear combination of the two vectors
+     * @throws ArithmeticException if an entry overflows an int
+     */
+    public SparseIntVector combine(int a, SparseIntVector other, int b) {
+        Builder builder = new Builder(indexes.length + other.indexes.length);
+        int i = 0;
+        int j = 0;
+        while (i < indexes.length || j < other.indexes.length) {
+            if (j == other.indexes.length || (i < indexes.length && indexes[i] < other.indexes[j])) {
+                builder.add(indexes[i], checked((long) a * values[i]));
+                i++;
+            } else if (i == indexes.length || other.indexes[j] < indexes[i]) {
+                builder.add(other.indexes[j], checked((long) b * other.values[j]));
+                j++;
+            } else {
+                builder.add(indexes[i], checked((long) a * values[i] + (long) b * other.values[j]));
+                i++;
+                j++;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param divisor value that exactly divides every entry
+     * @return vector with every entry divided by the divisor
+     */
+    public SparseIntVector divide(int divisor) {
+        if (divisor == 1) {
+            return this;
+        }
+        int[] divided = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            divided[i] = values[i] / divisor;
+        }
+        return new SparseIntVector(indexes, divided);
+    }
+
+    /**
+     * @return greatest common divisor of the entries, zero for the zero vector
+     */
+    public int gcd() {
+        int gcd = 0;
+        for (int value : values) {
+            gcd = gcd(gcd, Math.abs(value));
+            if (gcd == 1) {
+                break;
+            }
+        }
+        return gcd;
+    }
+
+    /**
+     * @return this vector divided by the greatest common divisor of its entries
+     */
+    public SparseIntVector normalize() {
+        int gcd = gcd();
+        return gcd == 0 ? this : divide(gcd);
+    }
+
+    /**
+     * @param length length of the dense vector
+     * @return dense copy of this vector
+     */
+    public int[] toArray(int length) {
+        int[] dense = new int[length];
+        for (int i = 0; i < indexes.length; i++) {
+            dense[indexes[i]] = values[i];
+        }
+        return dense;
+    }
+
+    /**
+     * @param a first value
+     * @param b second value
+     * @return greatest common divisor of two non negative values
+     */
+    static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * @param value value to convert
+     * @return value as an int
+     * @throws ArithmeticException if the value overflows an int
+     */
+    private static int checked(long value) {
+        if (value != (int) value) {
+            throw new ArithmeticException("Integer overflow combining invariant vectors");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        SparseIntVector that = (SparseIntVector) o;
+
+        return Arrays.equals(indexes, that.indexes) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(indexes);
+        result = 31 * result + Arrays.hashCode(values);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < indexes.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(indexes[i]).append('=').append(values[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Builds a sparse vector from entries added in ascending index order
+     */
+    public static final class Builder {
+        /**
+         * Indexes added so far
+         */
+        private int[] indexes;
+
+        /**
+         * Values added so far
+         */
+        private int[] values;
+
+        /**
+         * Number of entries added
+         */
+        private int size;
+
+        /**
+         * Creates a builder with room for a few entries
+         */
+        public Builder() {
+            this(4);
+        }
+
+        /**
+         * @param capacity expected number of non zero entries
+         */
+        public Builder(int capacity) {
+            indexes = new int[Math.max(1, capacity)];
+            values = new int[Math.max(1, capacity)];
+        }
+
+        /**
+         * Adds an entry, zero values are ignored
+         * @param index index greater than any previously added
+         * @param value value of the entry
+         * @return this builder
+         */
+        public Builder add(int index, int value) {
+            if (value == 0) {
+                return this;
+            }
+            if (size > 0 && indexes[size - 1] >= index) {
+                throw new IllegalArgumentException("Indexes must be added in ascending order");
+            }
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            indexes[size] = index;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return the built vector
+         */
+        public SparseIntVector build() {
+            if (size == 0) {
+                return ZERO;
+            }
+            return new SparseIntVector(Arrays.copyOf(indexes, size), Arrays.copyOf(values, size));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package uk.ac.imperial.pipe.trace;
+
+/**
+ * Model operations that are traced
+ */
+public enum Operation {
+    /**
+     * Firing a transition in the animator, the subject is the transition id
+     */
+    FIRE_TRANSITION,
+
+    /**
+     * Evaluating the enabled transitions of a state, the subject is the number enabled
+     */
+    ENABLED_TRANSITIONS,
+
+    /**
+     * Evaluating a functional expression against the Petri net, the subject is the expression
+     */
+    EVALUATE_EXPRESSION,
+
+    /**
+     * Reading a Petri net from PNML, the subject is the path read
+     */
+    READ_PNML,
+
+    /**
+     * Writing a Petri net as PNML
+     */
+    WRITE_PNML,
+
+    /**
+     * Unfolding a coloured Petri net, the net is the unfolded one
+     */
+    UNFOLD,
+
+    /**
+     * Laying out a Petri net
+     */
+    LAYOUT,
+
+    /**
+     * A phase of state space generation or loading, the subject is the phase
+     */
+    STATE_SPACE
+}
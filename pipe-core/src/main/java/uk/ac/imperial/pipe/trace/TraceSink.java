@@ -0,0 +1,18 @@
+package uk.ac.imperial.pipe.trace;
+
+/**
+ * Destination of traced operations, such as Java Flight Recorder.
+ * <p>
+ * Sinks are found with {@link java.util.ServiceLoader}, so one is installed by putting a jar
+ * that declares it in {@code META-INF/services/uk.ac.imperial.pipe.trace.TraceSink} on the class path.
+ * </p>
+ */
+public interface TraceSink {
+
+    /**
+     * Must be safe to call from any thread and cheap when the sink is not recording
+     * @param operation operation starting
+     * @return span to end when the operation finishes, {@link TraceSpan#NONE} if it is not being recorded
+     */
+    TraceSpan begin(Operation operation);
+}
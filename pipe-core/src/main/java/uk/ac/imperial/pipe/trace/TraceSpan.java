@@ -0,0 +1,36 @@
+package uk.ac.imperial.pipe.trace;
+
+/**
+ * A traced operation that has begun and is ended once, with details of the Petri net it ran on
+ */
+public interface TraceSpan {
+
+    /**
+     * Span that records nothing, returned whilst tracing is off
+     */
+    TraceSpan NONE = new TraceSpan() {
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public void end(String net, int places, int transitions, String subject) {
+            // Nothing to record
+        }
+    };
+
+    /**
+     * @return true if ending the span records it, callers can skip gathering details otherwise
+     */
+    boolean isRecording();
+
+    /**
+     * Ends the span, recording how long it took
+     * @param net         name of the Petri net, or null if unknown
+     * @param places      number of places in the Petri net
+     * @param transitions number of transitions in the Petri net
+     * @param subject     id of the component or other detail of the operation, or null
+     */
+    void end(String net, int places, int transitions, String subject);
+}
@@ -0,0 +1,109 @@
+package uk.ac.imperial.pipe.trace;
+
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Traces model operations, such as firing a transition or reading a PNML file, to a {@link TraceSink}
+ * so that slow spans in a recording can be tied to the operation and Petri net responsible.
+ * <p>
+ * A traced operation is wrapped as
+ * </p>
+ * <pre>
+ *     TraceSpan span = Tracer.begin(Operation.LAYOUT);
+ *     ...
+ *     Tracer.end(span, petriNet, null);
+ * </pre>
+ * <p>
+ * The sink is the first one found by {@link ServiceLoader}. Without one, or with the
+ * {@value #DISABLED_PROPERTY} system property set, beginning a span returns {@link TraceSpan#NONE}
+ * after reading a single field and nothing about the Petri net is gathered.
+ * </p>
+ */
+public final class Tracer {
+
+    /**
+     * System property that turns tracing off even if a sink is on the class path
+     */
+    public static final String DISABLED_PROPERTY = "pipe.trace.disabled";
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(Tracer.class.getName());
+
+    /**
+     * Sink traced operations go to, null if tracing is off
+     */
+    private static volatile TraceSink sink = Boolean.getBoolean(DISABLED_PROPERTY) ? null : loadSink();
+
+    /**
+     * Private constructor for the static class
+     */
+    private Tracer() {
+    }
+
+    /**
+     * @return first sink on the class path, or null if there is none or it could not be loaded
+     */
+    private static TraceSink loadSink() {
+        try {
+            Iterator<TraceSink> sinks = ServiceLoader.load(TraceSink.class, Tracer.class.getClassLoader()).iterator();
+            if (sinks.hasNext()) {
+                TraceSink found = sinks.next();
+                LOGGER.log(Level.INFO, "Tracing model operations to {0}", found.getClass().getName());
+                return found;
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            LOGGER.log(Level.WARNING, "Could not load trace sink, tracing is off: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return true if operations are being traced
+     */
+    public static boolean isEnabled() {
+        return sink != null;
+    }
+
+    /**
+     * Replaces the sink traced operations go to
+     * @param traceSink new sink, or null to turn tracing off
+     */
+    public static void setSink(TraceSink traceSink) {
+        sink = traceSink;
+    }
+
+    /**
+     * @param operation operation starting
+     * @return span to end when the operation finishes
+     */
+    public static TraceSpan begin(Operation operation) {
+        TraceSink current = sink;
+        return current == null ? TraceSpan.NONE : current.begin(operation);
+    }
+
+    /**
+     * Ends the span with the name and size of the Petri net, which are only read if the span is recording
+     * @param span     span to end
+     * @param petriNet Petri net the operation ran on, or null if unknown
+     * @param subject  id of the component or other detail of the operation, or null
+     */
+    public static void end(TraceSpan span, PetriNet petriNet, String subject) {
+        if (!span.isRecording()) {
+            return;
+        }
+        if (petriNet == null) {
+            span.end(null, 0, 0, subject);
+        } else {
+            String name = petriNet.getName() == null ? null : petriNet.getNameValue();
+            span.end(name, petriNet.getPlaces().size(), petriNet.getTransitions().size(), subject);
+        }
+    }
+}
@@ -67,12 +67,27 @@ public final class ClonePetriNet {
     /**
      *
      * Clones the petri net by visiting all its components and adding them to the new Petri net
+     * as a single bulk update
      *
      * @return cloned Petri net
      */
     private PetriNet clonePetriNet() {
         visit(petriNet.getName());
 
+        newPetriNet.beginUpdate();
+        try {
+            cloneComponents();
+        } finally {
+            newPetriNet.commitUpdate();
+        }
+        return newPetriNet;
+    }
+
+    /**
+     * Clones every component of the Petri net into the new Petri net
+     */
+    private void cloneComponents() {
+
         for (Token token : petriNet.getTokens()) {
             visit(token);
         }
@@ -101,7 +116,6 @@ public final class ClonePetriNet {
         for (OutboundArc arc : petriNet.getOutboundArcs()) {
             visit(arc);
         }
-        return newPetriNet;
     }
 
     /**
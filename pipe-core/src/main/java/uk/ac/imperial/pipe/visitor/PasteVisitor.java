@@ -31,7 +31,7 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
     /**
      * Components to paste
      */
-    private final Collection<PetriNetComponent> components = new HashSet<>();
+    private final Collection<PetriNetComponent> components = new LinkedHashSet<>();
 
     /**
      * Maps original id to copied connectable
@@ -43,6 +43,17 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
      */
     private final Map<String, Transition> createdTransitions = new HashMap<>();
 
+    /**
+     * Maps original place id to the id of its copy, precomputed for every place being
+     * pasted so that the namer only has to be consulted once for all of them
+     */
+    private final Map<String, String> pastedPlaceIds = new HashMap<>();
+
+    /**
+     * Maps original transition id to the id of its copy, precomputed for every transition being pasted
+     */
+    private final Map<String, String> pastedTransitionIds = new HashMap<>();
+
     /**
      * New components created
      */
@@ -85,6 +96,35 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
         this.components.addAll(components);
         this.xOffset = xOffset;
         this.yOffset = yOffset;
+        assignPastedIds();
+    }
+
+    /**
+     * Reserves unique ids for all the places and transitions being pasted in bulk
+     */
+    private void assignPastedIds() {
+        List<String> placeIds = new ArrayList<>();
+        List<String> transitionIds = new ArrayList<>();
+        for (PetriNetComponent component : components) {
+            if (component instanceof Place) {
+                placeIds.add(component.getId());
+            } else if (component instanceof Transition) {
+                transitionIds.add(component.getId());
+            }
+        }
+        mapIds(pastedPlaceIds, placeIds, multipleNamer.getPlaceNames(placeIds.size()));
+        mapIds(pastedTransitionIds, transitionIds, multipleNamer.getTransitionNames(transitionIds.size()));
+    }
+
+    /**
+     * @param pastedIds   map to store original id -&gt; new id in
+     * @param originalIds ids of the components being copied
+     * @param newIds      ids for their copies
+     */
+    private static void mapIds(Map<String, String> pastedIds, List<String> originalIds, List<String> newIds) {
+        for (int i = 0; i < originalIds.size() && i < newIds.size(); i++) {
+            pastedIds.put(originalIds.get(i), newIds.get(i));
+        }
     }
 
     /**
@@ -102,8 +142,8 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
     @Override
     public void visit(DiscretePlace place) {
         Place newPlace = new DiscretePlace(place);
-        setId(newPlace);
-        setName(newPlace);
+        String id = pastedPlaceIds.remove(place.getId());
+        setIdAndName(newPlace, id != null ? id : multipleNamer.getPlaceName());
         setOffset(newPlace);
         petriNet.addPlace(newPlace);
         createdPlaces.put(place.getId(), newPlace);
@@ -111,19 +151,13 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
     }
 
     /**
-     * Give the place a unique id
-     * @param place id 
+     * Gives the connectable a unique id and uses it as its name too
+     * @param connectable to name
+     * @param name unique name
      */
-    private void setId(Place place) {
-        place.setId(multipleNamer.getPlaceName());
-    }
-
-    /**
-     * Gives the place a name
-     * @param place name
-     */
-    private void setName(Place place) {
-        place.setName(multipleNamer.getPlaceName());
+    private void setIdAndName(Connectable connectable, String name) {
+        connectable.setId(name);
+        connectable.setName(name);
     }
 
     /**
@@ -148,30 +182,14 @@ public final class PasteVisitor implements TransitionVisitor, ArcVisitor, Discre
             LOGGER.log(Level.SEVERE, e.getMessage());
         }
         Transition newTransition = cloner.cloned;
-        setId(newTransition);
-        setName(newTransition);
+        String id = pastedTransitionIds.remove(transition.getId());
+        setIdAndName(newTransition, id != null ? id : multipleNamer.getTransitionName());
         setOffset(newTransition);
         petriNet.addTransition(newTransition);
         createdTransitions.put(transition.getId(), newTransition);
         createdComponents.add(newTransition);
     }
 
-    /**
-     * Gives the transition a unique id
-     * @param transition id 
-     */
-    private void setId(Transition transition) {
-        transition.setId(multipleNamer.getTransitionName());
-    }
-
-    /**
-     * Gives the transition a new name
-     * @param transition name
-     */
-    private void setName(Transition transition) {
-        transition.setName(multipleNamer.getTransitionName());
-    }
-
     /**
      * Visits the arc cloning it and sets its source/target either to a new cloned component if it
      * was in the original pasting components, or the old original component if not
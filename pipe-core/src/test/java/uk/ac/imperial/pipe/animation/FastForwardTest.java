@@ -0,0 +1,80 @@
+package uk.ac.imperial.pipe.animation;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.awt.Color;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FastForwardTest {
+
+    private static PetriNet createCycle() throws PetriNetComponentException {
+        return APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").containing(2, "Default").tokens()).and(APlace.withId("P1")).and(
+                AnImmediateTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+    }
+
+    @Test
+    public void firesRequestedNumberWithoutChangingPetriNet() throws PetriNetComponentException {
+        PetriNet petriNet = createCycle();
+        State initial = AnimationUtils.getState(petriNet);
+        FastForward fastForward = new FastForward(petriNet, initial, 1000, new Random(7));
+        fastForward.run();
+
+        assertEquals(1000, fastForward.getFired());
+        assertEquals(1000, fastForward.getHistory().size());
+        assertFalse(fastForward.isDeadlocked());
+        assertEquals(2, petriNet.getComponent("P0", Place.class).getTokenCount("Default"));
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        assertArrayEquals(layout.encode(fastForward.getState()), fastForward.getHistory().getMarking(1000));
+    }
+
+    @Test
+    public void stopsWhenDeadlocked() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").containing(3, "Default").tokens()).and(
+                AnImmediateTransition.withId("T0")).andFinally(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token());
+        FastForward fastForward = new FastForward(petriNet, AnimationUtils.getState(petriNet), 10);
+        fastForward.run();
+
+        assertTrue(fastForward.isDeadlocked());
+        assertEquals(3, fastForward.getFired());
+    }
+
+    @Test
+    public void trajectoryCanBeAppendedToHistory() throws PetriNetComponentException {
+        PetriNet petriNet = createCycle();
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        State initial = AnimationUtils.getState(petriNet);
+        MarkingHistory history = new MarkingHistory(layout, initial);
+        FastForward fastForward = new FastForward(petriNet, initial, 150, new Random(3));
+        fastForward.run();
+
+        history.recordAll(fastForward.getHistory());
+
+        assertEquals(150, history.size());
+        assertEquals(150, history.getCurrentStep());
+        for (int step = 0; step <= 150; step++) {
+            assertArrayEquals(fastForward.getHistory().getMarking(step), history.getMarking(step));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package uk.ac.imperial.pipe.animation;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MarkingHistoryTest {
+
+    private PetriNet petriNet;
+
+    private MarkingLayout layout;
+
+    private Animator animator;
+
+    /**
+     * T0 doubles the tokens in P0 into P1 so that firing it backwards depends on the marking,
+     * T1 moves a token back
+     */
+    @Before
+    public void setUp() throws PetriNetComponentException {
+        petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").containing(1, "Default").token()).and(APlace.withId("P1")).and(
+                AnImmediateTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("#(P0)", "Default").tokens()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("#(P0)*2", "Default").tokens()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+        layout = new MarkingLayout(petriNet);
+        animator = new PetriNetAnimator(petriNet);
+    }
+
+    @Test
+    public void rebuildsEveryStepExactly() {
+        MarkingHistory history = new MarkingHistory(layout, animator.getCurrentState(), 3);
+        List<int[]> expected = new ArrayList<>();
+        expected.add(layout.encode(animator.getCurrentState()));
+        for (int i = 0; i < 20; i++) {
+            Transition transition = animator.getRandomEnabledTransition();
+            animator.fireTransition(transition);
+            State state = animator.getCurrentState();
+            history.record(transition, state);
+            expected.add(layout.encode(state));
+        }
+
+        assertEquals(20, history.size());
+        for (int step = expected.size() - 1; step >= 0; step--) {
+            assertArrayEquals(expected.get(step), history.getMarking(step));
+        }
+    }
+
+    @Test
+    public void movingBackRestoresMarkingDependentFiring() throws PetriNetComponentException {
+        MarkingHistory history = new MarkingHistory(layout, animator.getCurrentState());
+        Transition t0 = petriNet.getComponent("T0", Transition.class);
+        animator.fireTransition(t0);
+        history.record(t0, animator.getCurrentState());
+
+        animator.setCurrentState(history.moveTo(0));
+
+        assertEquals(1, petriNet.getComponent("P0", Place.class).getTokenCount("Default"));
+        assertEquals(0, petriNet.getComponent("P1", Place.class).getTokenCount("Default"));
+        assertEquals(0, history.getCurrentStep());
+    }
+
+    @Test
+    public void recordingAfterMovingBackDiscardsLaterSteps() throws PetriNetComponentException {
+        MarkingHistory history = new MarkingHistory(layout, animator.getCurrentState(), 2);
+        Transition t0 = petriNet.getComponent("T0", Transition.class);
+        Transition t1 = petriNet.getComponent("T1", Transition.class);
+        for (Transition transition : new Transition[]{t0, t1, t1}) {
+            animator.fireTransition(transition);
+            history.record(transition, animator.getCurrentState());
+        }
+
+        animator.setCurrentState(history.moveTo(1));
+        animator.fireTransition(t1);
+        State state = animator.getCurrentState();
+        history.record(t1, state);
+
+        assertEquals(2, history.size());
+        assertEquals(2, history.getCurrentStep());
+        assertEquals(t1, history.getTransition(1));
+        assertArrayEquals(layout.encode(state), history.getMarking(2));
+    }
+}
@@ -3,17 +3,20 @@ package uk.ac.imperial.pipe.animation;
 import org.junit.Test;
 import uk.ac.imperial.pipe.dsl.*;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.DiscretePlace;
 import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.Token;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.visitor.ClonePetriNet;
+import uk.ac.imperial.state.State;
 
 import java.awt.Color;
 import java.util.Collection;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PetriNetAnimatorTest {
@@ -246,6 +249,55 @@ public class PetriNetAnimatorTest {
     }
 
 
+    @Test
+    public void currentStateIsTheFiredStateWithoutReadingPlaces() throws PetriNetComponentException {
+        PetriNet petriNet = createSimplePetriNet(1);
+        Animator animator = new PetriNetAnimator(petriNet);
+        animator.fireTransition(petriNet.getComponent("T1", Transition.class));
+
+        State state = animator.getCurrentState();
+        assertSame(state, animator.getCurrentState());
+        assertEquals(AnimationUtils.getState(petriNet), state);
+    }
+
+    @Test
+    public void currentStateFollowsTokenChangesOutsideAnimator() throws PetriNetComponentException {
+        PetriNet petriNet = createSimplePetriNet(1);
+        Animator animator = new PetriNetAnimator(petriNet);
+        animator.getCurrentState();
+
+        petriNet.getComponent("P2", Place.class).setTokenCount("Default", 4);
+
+        assertEquals(4, (int) animator.getCurrentState().getTokens("P2").get("Default"));
+    }
+
+    @Test
+    public void currentStateFollowsPlacesAddedLater() throws PetriNetComponentException {
+        PetriNet petriNet = createSimplePetriNet(1);
+        Animator animator = new PetriNetAnimator(petriNet);
+        animator.getCurrentState();
+        Place place = new DiscretePlace("P3");
+        petriNet.addPlace(place);
+        animator.getCurrentState();
+
+        place.setTokenCount("Default", 2);
+
+        assertEquals(2, (int) animator.getCurrentState().getTokens("P3").get("Default"));
+    }
+
+    @Test
+    public void stopsFollowingTokenChangesOnceDisposed() throws PetriNetComponentException {
+        PetriNet petriNet = createSimplePetriNet(1);
+        Animator animator = new PetriNetAnimator(petriNet);
+        State state = animator.getCurrentState();
+        animator.dispose();
+
+        petriNet.getComponent("P2", Place.class).setTokenCount("Default", 4);
+        petriNet.addPlace(new DiscretePlace("P3"));
+
+        assertSame(state, animator.getCurrentState());
+    }
+
     /**
      * Create simple Petri net with P1 -> T1 -> P2
      * Initialises a token in P1 and gives arcs A1 and A2 a weight of tokenWeight to a default token
@@ -0,0 +1,43 @@
+package uk.ac.imperial.pipe.markov;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FoxGlynnTest {
+
+    @Test
+    public void weightsArePoissonProbabilities() {
+        FoxGlynn weights = FoxGlynn.compute(3, 1e-12);
+
+        assertEquals(0, weights.getLeft());
+        double probability = Math.exp(-3);
+        for (int k = 0; k <= 20; k++) {
+            assertEquals(probability, weights.getWeight(k), 1e-12);
+            probability *= 3.0 / (k + 1);
+        }
+    }
+
+    @Test
+    public void truncatesBothTailsOfLargeRates() {
+        FoxGlynn weights = FoxGlynn.compute(10000, 1e-10);
+
+        assertTrue(weights.getLeft() > 9000);
+        assertTrue(weights.getRight() < 11000);
+        double total = 0;
+        for (int k = weights.getLeft(); k <= weights.getRight(); k++) {
+            total += weights.getWeight(k);
+        }
+        assertEquals(1, total, 1e-12);
+        assertEquals(0, weights.getWeight(weights.getLeft() - 1), 0);
+    }
+
+    @Test
+    public void zeroRateHasAllWeightOnZero() {
+        FoxGlynn weights = FoxGlynn.compute(0, 1e-10);
+
+        assertEquals(0, weights.getRight());
+        assertEquals(1, weights.getWeight(0), 0);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.ac.imperial.pipe.markov;
+
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.ATimedTransition;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.state.ClassifiedState;
+import uk.ac.imperial.state.Record;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TransientSolutionTest {
+
+    private PetriNet petriNet;
+
+    private Map<Integer, ClassifiedState> stateMappings;
+
+    private TransientSolution solution;
+
+    @Before
+    public void setUp() throws Exception {
+        petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                ATimedTransition.withId("T0").andRate("2")).and(ATimedTransition.withId("T1").andRate("3")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+        stateMappings = new HashMap<>();
+        stateMappings.put(0, state(1, 0));
+        stateMappings.put(1, state(0, 1));
+        Collection<Record> records = new ArrayList<>();
+        records.add(new Record(0, Collections.singletonMap(1, 2.0)));
+        records.add(new Record(1, Collections.singletonMap(0, 3.0)));
+
+        solution = new TransientSolver(1, 1e-10).solve(RateMatrix.fromRecords(records, stateMappings), 0, 0.5);
+    }
+
+    @Test
+    public void averagesTokensByTheDistributionAtTheTime() {
+        double p1 = 0.4 * (1 - Math.exp(-2.5));
+
+        Map<String, Map<String, Double>> averages = solution.getAverageTokens(0, stateMappings);
+
+        assertEquals(1 - p1, averages.get("P0").get("Default"), 1e-8);
+        assertEquals(p1, averages.get("P1").get("Default"), 1e-8);
+    }
+
+    @Test
+    public void weighsTransitionRatesByTheDistributionAtTheTime() {
+        double p1 = 0.4 * (1 - Math.exp(-2.5));
+
+        Map<String, Double> throughputs = solution.getThroughputs(0, stateMappings, petriNet);
+
+        assertEquals(2 * (1 - p1), throughputs.get("T0"), 1e-8);
+        assertEquals(3 * p1, throughputs.get("T1"), 1e-8);
+    }
+
+    private static ClassifiedState state(int p0, int p1) {
+        ClassifiedState state = mock(ClassifiedState.class);
+        when(state.getPlaces()).thenReturn(Arrays.asList("P0", "P1"));
+        when(state.getTokens("P0")).thenReturn(Collections.singletonMap("Default", p0));
+        when(state.getTokens("P1")).thenReturn(Collections.singletonMap("Default", p1));
+        when(state.containsTokens("P0")).thenReturn(true);
+        when(state.containsTokens("P1")).thenReturn(true);
+        return state;
+    }
+}
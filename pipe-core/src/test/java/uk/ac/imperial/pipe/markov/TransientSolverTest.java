@@ -0,0 +1,61 @@
+package uk.ac.imperial.pipe.markov;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransientSolverTest {
+
+    @Test
+    public void solvesTwoStateChainAtManyTimes() {
+        RateMatrix matrix = new RateMatrix.Builder(2).add(0, 1, 2).add(1, 0, 3).build();
+
+        TransientSolution solution = new TransientSolver(2, 1e-10).solve(matrix, 0, 1, 0, 0.1);
+
+        assertEquals(3, solution.getTimeCount());
+        assertEquals(0, solution.getTime(0), 0);
+        assertEquals(1, solution.getProbabilities(0)[0], 1e-9);
+        for (int i = 1; i < solution.getTimeCount(); i++) {
+            double expected = 0.4 * (1 - Math.exp(-5 * solution.getTime(i)));
+            assertEquals(expected, solution.getDistribution(i).get(1), 1e-8);
+            assertEquals(1 - expected, solution.getDistribution(i).get(0), 1e-8);
+        }
+    }
+
+    @Test
+    public void absorbingTargetGivesProbabilityOfReachingItInTime() {
+        RateMatrix matrix = new RateMatrix.Builder(3).add(0, 1, 1).add(1, 0, 1).add(1, 2, 1).add(2, 0, 5).build();
+
+        TransientSolution solution = new TransientSolver(2, 1e-10).solve(
+                matrix.withAbsorbing(Collections.singleton(1)), 0, 2);
+
+        assertEquals(1 - Math.exp(-2), solution.getProbability(0, Collections.singleton(1)), 1e-8);
+    }
+
+    @Test
+    public void splitsLargeChainsAcrossThreads() {
+        int states = 10000;
+        RateMatrix.Builder builder = new RateMatrix.Builder(states);
+        for (int state = 0; state < states; state++) {
+            builder.add(state, (state + 1) % states, 1);
+        }
+
+        TransientSolution solution = new TransientSolver(4, 1e-10).solve(builder.build(), 0, 3);
+
+        double expected = 4.5 * Math.exp(-3);
+        assertEquals(expected, solution.getProbabilities(0)[3], 1e-8);
+    }
+
+    @Test
+    public void steadyStateDetectionStopsEarly() {
+        RateMatrix matrix = new RateMatrix.Builder(2).add(0, 1, 2).add(1, 0, 3).build();
+
+        TransientSolution solution = new TransientSolver(1, 1e-10, 1e-14).solve(matrix, 0, 1000);
+
+        assertEquals(0.4, solution.getProbabilities(0)[1], 1e-8);
+        assertTrue(solution.getIterations() < 1000);
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.imperial.pipe.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.state.State;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.awt.Color;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsTest {
+
+    @Before
+    public void setUp() {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    @Test
+    public void countsOnlyWhilstEnabled() {
+        Counter counter = Metrics.counter("test.counter");
+        counter.increment();
+        counter.add(4);
+        Metrics.setEnabled(false);
+        counter.increment();
+
+        assertEquals(5, counter.getCount());
+        assertEquals(5L, Metrics.snapshot().get("test.counter"));
+    }
+
+    @Test
+    public void returnsSameMetricForName() {
+        assertTrue(Metrics.counter("test.same") == Metrics.counter("test.same"));
+        assertTrue(Metrics.histogram("test.same") == Metrics.histogram("test.same"));
+    }
+
+    @Test
+    public void histogramPercentilesAreBoundedByBuckets() {
+        LatencyHistogram histogram = Metrics.histogram("test.histogram");
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(149, histogram.getMeanNanos(), 0.001);
+        assertEquals(5000, histogram.getMaxNanos());
+        assertEquals(127, histogram.getMedianNanos());
+        assertEquals(127, histogram.get99thPercentileNanos());
+        assertEquals(5000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void disabledHistogramDoesNotTime() {
+        Metrics.setEnabled(false);
+        LatencyHistogram histogram = Metrics.histogram("test.disabled");
+        long start = histogram.start();
+        histogram.stop(start);
+
+        assertEquals(LatencyHistogram.NOT_TIMED, start);
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void writesJsonSnapshot() throws IOException {
+        Metrics.counter("test.json").add(3);
+        Metrics.gauge("test.gauge", new Gauge() {
+            @Override
+            public double getValue() {
+                return Double.NaN;
+            }
+        });
+        StringWriter writer = new StringWriter();
+        Metrics.writeJson(writer);
+        String json = writer.toString();
+
+        assertTrue(json, json.contains("\"test.json\": 3"));
+        assertTrue(json, json.contains("\"test.gauge\": null"));
+        assertTrue(json, json.contains("\"histograms\": {"));
+    }
+
+    @Test
+    public void registersMBeans() throws Exception {
+        Counter counter = Metrics.counter("test.mbean");
+        counter.add(7);
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        Metrics.registerMBeans(server);
+
+        assertEquals(7L, server.getAttribute(Metrics.objectName("Counter", "test.mbean"), "Count"));
+    }
+
+    @Test
+    public void countsEnabledTransitionCacheHits() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).andFinally(
+                APlace.withId("P0").containing(1, "Default").token());
+        State state = AnimationUtils.getState(petriNet);
+        PetriNetAnimationLogic logic = new PetriNetAnimationLogic(petriNet);
+        logic.getEnabledTransitions(state);
+        logic.getEnabledTransitions(state);
+
+        assertEquals(1, Metrics.counter("animation.enabledTransitions.evaluations").getCount());
+        assertEquals(1, Metrics.counter("animation.enabledTransitions.cacheHits").getCount());
+        assertEquals(1, Metrics.histogram("animation.enabledTransitions.latency").getCount());
+    }
+}
@@ -8,15 +8,19 @@ import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.models.petrinet.DiscretePlace;
 import uk.ac.imperial.pipe.models.petrinet.DiscretePlaceVisitor;
 import uk.ac.imperial.pipe.models.petrinet.PlaceVisitor;
+import uk.ac.imperial.pipe.models.petrinet.TokenCountChangeEvent;
 
 import java.awt.Point;
 import java.awt.geom.Point2D;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
@@ -265,5 +269,55 @@ public class DiscretePlaceTest {
         verify(mockListener).propertyChange(any(PropertyChangeEvent.class));
     }
 
+    @Test
+    public void tokenChangeEventDescribesOnlyTheChangedToken() {
+        place.setTokenCount("Red", 2);
+        place.setTokenCount("Blue", 3);
+        final List<TokenCountChangeEvent> events = new ArrayList<>();
+        place.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                events.add((TokenCountChangeEvent) evt);
+            }
+        });
+
+        place.incrementTokenCount("Blue");
+
+        assertEquals(1, events.size());
+        assertEquals("Blue", events.get(0).getTokenId());
+        assertEquals(3, events.get(0).getOldCount());
+        assertEquals(4, events.get(0).getNewCount());
+    }
+
+    @Test
+    public void setTokenCountsRemovesTokensNotInMap() {
+        place.setTokenCount("Red", 2);
+        place.setTokenCount("Blue", 3);
+        Map<String, Integer> tokenCounts = new HashMap<>();
+        tokenCounts.put("Blue", 1);
+
+        place.setTokenCounts(tokenCounts);
+
+        assertEquals(tokenCounts, place.getTokenCounts());
+        assertFalse(place.getTokenCounts().containsKey("Red"));
+        assertEquals(1, place.getNumberOfTokensStored());
+    }
+
+    @Test
+    public void tokenCountsViewReflectsChanges() {
+        Map<String, Integer> view = place.getTokenCounts();
+        place.setTokenCount("Default", 0);
+        place.incrementTokenCount("Default");
+
+        assertEquals(Integer.valueOf(1), view.get("Default"));
+        assertEquals(1, view.size());
+    }
+
+    @Test
+    public void tokenCountsViewIsReadOnly() {
+        place.setTokenCount("Default", 1);
 
+        exception.expect(UnsupportedOperationException.class);
+        place.getTokenCounts().put("Default", 2);
+    }
 }
@@ -19,9 +19,13 @@ import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentNotFoundException;
 import uk.ac.imperial.pipe.models.petrinet.DiscreteTransition;
 import uk.ac.imperial.pipe.models.petrinet.DiscreteTransitionVisitor;
+import uk.ac.imperial.pipe.models.petrinet.FunctionalRateParameter;
+import uk.ac.imperial.pipe.models.petrinet.InboundArc;
+import uk.ac.imperial.pipe.models.petrinet.NormalRate;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
 import uk.ac.imperial.pipe.models.petrinet.TransitionVisitor;
+import uk.ac.imperial.pipe.parsers.ExpressionType;
 import uk.ac.imperial.state.State;
 
 public class DiscreteTransitionTest {
@@ -190,6 +194,47 @@ public class DiscreteTransitionTest {
     }
 
 
+    @Test
+    public void infiniteServerRateFollowsChangedArcWeight()
+            throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(6, "Default").tokens()).and(
+                ATimedTransition.withId("T0").andIsAnInfinite().server().andRate("4")).andFinally(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token());
+        State state = AnimationUtils.getState(petriNet);
+        Transition t0 = petriNet.getComponent("T0", Transition.class);
+        assertEquals(24, t0.getActualRate(petriNet, state), 0.0001);
+
+        petriNet.getComponent("P0 TO T0", InboundArc.class).setWeight("Default", "3");
+
+        assertEquals(8, t0.getActualRate(petriNet, state), 0.0001);
+    }
+
+    @Test
+    public void actualRateFollowsChangedRateExpression()
+            throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(5, "Default").tokens()).andFinally(
+                ATimedTransition.withId("T0").andIsASingle().server().andRate("4"));
+        State state = AnimationUtils.getState(petriNet);
+
+        Transition t0 = petriNet.getComponent("T0", Transition.class);
+        assertEquals(4, t0.getActualRate(petriNet, state), 0.0001);
+        t0.setRate(new NormalRate("#(P0) * 2"));
+        assertEquals(10, t0.getActualRate(petriNet, state), 0.0001);
+    }
+
+    @Test
+    public void rateParameterExpressionIsClassified() {
+        FunctionalRateParameter parameter = new FunctionalRateParameter("2 * 3", "rate1", "rate1");
+        Transition transition = new DiscreteTransition("T0", "T0");
+        transition.setRate(parameter);
+        assertEquals(ExpressionType.CONSTANT, transition.getRateExpressionType());
+
+        parameter.setExpression("#(P0) * 3");
+        assertEquals(ExpressionType.MARKING_DEPENDENT, transition.getRateExpressionType());
+    }
+
     @Test
     public void actualRateSingleServer()
             throws PetriNetComponentException {
@@ -12,16 +12,19 @@ import uk.ac.imperial.pipe.exceptions.InvalidRateException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.models.petrinet.*;
+import utils.PropertyChangeUtils;
 
 import java.awt.Color;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -676,6 +679,63 @@ public class PetriNetTest {
         fail("Did not throw Petri net exception!");
     }
 
+    @Test
+    public void cannotDeletePlaceIfTransitionRateChangesToReferenceIt() throws PetriNetComponentException {
+        expectedException.expect(PetriNetComponentException.class);
+        expectedException.expectMessage("Cannot delete P0 it is referenced in a functional expression!");
+        PetriNet petriNet = APetriNet.with(APlace.withId("P0")).andFinally(ATimedTransition.withId("T0"));
+        Transition transition = petriNet.getComponent("T0", Transition.class);
+        transition.setRate(new NormalRate("#(P0)"));
+        petriNet.removePlace(petriNet.getComponent("P0", Place.class));
+    }
+
+    @Test
+    public void canDeletePlaceOnceTransitionRateNoLongerReferencesIt() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(APlace.withId("P0")).andFinally(
+                ATimedTransition.withId("T0").andRate("#(P0)"));
+        Transition transition = petriNet.getComponent("T0", Transition.class);
+        transition.setRate(new NormalRate("2"));
+        petriNet.removePlace(petriNet.getComponent("P0", Place.class));
+        assertFalse(petriNet.containsComponent("P0"));
+    }
+
+    @Test
+    public void canDeletePlaceOnceRateParameterExpressionNoLongerReferencesIt() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(APlace.withId("P0")).andFinally(ARateParameter.withId("R1").andExpression("#(P0)"));
+        RateParameter rateParameter = petriNet.getComponent("R1", RateParameter.class);
+        rateParameter.setExpression("5");
+        petriNet.removePlace(petriNet.getComponent("P0", Place.class));
+        assertFalse(petriNet.containsComponent("P0"));
+    }
+
+    @Test
+    public void canDeletePlaceOnceReferencingArcIsRemoved() throws PetriNetComponentException {
+        PetriNet petriNet =
+                APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(APlace.withId("P0")).and(
+                        AnImmediateTransition.withId("T0")).andFinally(
+                        ANormalArc.withSource("T0").andTarget("P0").with("#(P0)", "Default").token());
+        petriNet.removeArc(petriNet.getComponent("T0 TO P0", OutboundArc.class));
+        petriNet.removePlace(petriNet.getComponent("P0", Place.class));
+        assertFalse(petriNet.containsComponent("P0"));
+    }
+
+    @Test
+    public void changingTokenIdChangesWeightsSetAfterAddingArc() {
+        Place p = new DiscretePlace("P0", "P0");
+        Transition t = new DiscreteTransition("T0", "T0");
+        Token token = new ColoredToken("Default", Color.BLACK);
+        InboundArc a = new InboundNormalArc(p, t, new HashMap<String, String>());
+
+        net.addToken(token);
+        net.addPlace(p);
+        net.addTransition(t);
+        net.addArc(a);
+        a.setWeight(token.getId(), "5");
+
+        token.setId("Red");
+        assertEquals("5", a.getWeightForToken("Red"));
+    }
+
     @Test
     public void allComponents() throws PetriNetComponentException {
         PetriNet petriNet =
@@ -721,4 +781,93 @@ public class PetriNetTest {
 
 
 
+
+    @Test
+    public void addAllNotifiesObserversOnce() throws PetriNetComponentException {
+        net.addPropertyChangeListener(mockListener);
+        Place place = new DiscretePlace("P0", "P0");
+        Transition transition = new DiscreteTransition("T0", "T0");
+        InboundArc arc = new InboundNormalArc(place, transition, new HashMap<String, String>());
+
+        net.addAll(Arrays.<PetriNetComponent>asList(arc, transition, place));
+
+        verify(mockListener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+        verify(mockListener).propertyChange(argThat(PropertyChangeUtils.hasName(PetriNet.BULK_CHANGE_MESSAGE)));
+        assertThat(net.getPlaces()).containsExactly(place);
+        assertThat(net.inboundArcs(transition)).containsExactly(arc);
+    }
+
+    @Test
+    public void bulkChangeListsAddedComponentsByMessage() throws PetriNetComponentException {
+        BulkChangeRecorder recorder = new BulkChangeRecorder();
+        net.addPropertyChangeListener(recorder);
+        Place place = new DiscretePlace("P0", "P0");
+        Transition transition = new DiscreteTransition("T0", "T0");
+
+        net.addAll(Arrays.<PetriNetComponent>asList(place, transition));
+
+        assertThat(recorder.change.getAddedIds()).containsOnly("P0", "T0");
+        assertThat(recorder.change.getAdded(PetriNet.NEW_PLACE_CHANGE_MESSAGE)).containsExactly(place);
+        assertThat(recorder.change.getRemoved()).isEmpty();
+    }
+
+    @Test
+    public void nestedUpdatesNotifyOnOutermostCommit() {
+        net.addPropertyChangeListener(mockListener);
+        net.beginUpdate();
+        net.beginUpdate();
+        net.addPlace(new DiscretePlace("P0", "P0"));
+        net.commitUpdate();
+        verify(mockListener, never()).propertyChange(any(PropertyChangeEvent.class));
+
+        net.commitUpdate();
+        verify(mockListener).propertyChange(argThat(PropertyChangeUtils.hasName(PetriNet.BULK_CHANGE_MESSAGE)));
+    }
+
+    @Test
+    public void addingThenRemovingInUpdateDoesNotNotify() throws PetriNetComponentException {
+        net.addPropertyChangeListener(mockListener);
+        Place place = new DiscretePlace("P0", "P0");
+        net.beginUpdate();
+        net.addPlace(place);
+        net.removePlace(place);
+        net.commitUpdate();
+        verify(mockListener, never()).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void removeAllListsRemovedIds() throws PetriNetComponentException {
+        Place place = new DiscretePlace("P0", "P0");
+        Transition transition = new DiscreteTransition("T0", "T0");
+        InboundArc arc = new InboundNormalArc(place, transition, new HashMap<String, String>());
+        net.addAll(Arrays.<PetriNetComponent>asList(place, transition, arc));
+        BulkChangeRecorder recorder = new BulkChangeRecorder();
+        net.addPropertyChangeListener(recorder);
+
+        net.removeAll(Arrays.<PetriNetComponent>asList(place, transition, arc));
+
+        assertThat(recorder.change.getRemovedIds()).containsOnly("P0", "T0", arc.getId());
+        assertThat(net.getPlaces()).isEmpty();
+        assertThat(net.getArcs()).isEmpty();
+    }
+
+    @Test
+    public void commitWithoutBeginThrows() {
+        expectedException.expect(IllegalStateException.class);
+        net.commitUpdate();
+    }
+
+    /**
+     * Records the last bulk change fired
+     */
+    private static class BulkChangeRecorder implements PropertyChangeListener {
+        private PetriNetChange change;
+
+        @Override
+        public void propertyChange(PropertyChangeEvent evt) {
+            if (evt.getPropertyName().equals(PetriNet.BULK_CHANGE_MESSAGE)) {
+                change = (PetriNetChange) evt.getNewValue();
+            }
+        }
+    }
 }
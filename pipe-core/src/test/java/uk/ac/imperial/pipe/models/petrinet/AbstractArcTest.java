@@ -4,6 +4,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.runners.MockitoJUnitRunner;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.parsers.ExpressionType;
 import uk.ac.imperial.pipe.visitor.component.PetriNetComponentVisitor;
 import uk.ac.imperial.state.State;
 
@@ -35,6 +36,17 @@ public class AbstractArcTest {
 
 
 
+    @Test
+    public void weightTypeIsMostDynamicWeight() {
+        DummyArc dummyArc = new DummyArc(place, transition);
+        dummyArc.setWeight("Default", "2 * 3");
+        assertEquals(ExpressionType.CONSTANT, dummyArc.getWeightExpressionType());
+        dummyArc.setWeight("Red", "cap(P0)");
+        assertEquals(ExpressionType.CAPACITY_ONLY, dummyArc.getWeightExpressionType());
+        dummyArc.setWeight("Blue", "#(P0)");
+        assertEquals(ExpressionType.MARKING_DEPENDENT, dummyArc.getWeightExpressionType());
+    }
+
     @Test
     public void endPoint() {
         place.setX(0);
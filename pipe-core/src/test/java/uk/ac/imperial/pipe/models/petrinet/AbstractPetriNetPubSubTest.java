@@ -0,0 +1,104 @@
+package uk.ac.imperial.pipe.models.petrinet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.awt.geom.Point2D;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AbstractPetriNetPubSubTest {
+
+    @Mock
+    private PropertyChangeListener listener;
+
+    @Mock
+    private PropertyChangeListener other;
+
+    private ArcPoint point;
+
+    @Before
+    public void setUp() {
+        point = new ArcPoint(new Point2D.Double(1, 2), false);
+    }
+
+    @Test
+    public void changesWithoutListenersStillApply() {
+        point.setPoint(new Point2D.Double(5, 6));
+        point.setCurved(true);
+
+        assertEquals(5, point.getX());
+        assertEquals(6, point.getY());
+        assertEquals(true, point.isCurved());
+    }
+
+    @Test
+    public void notifiesListenerAddedAfterCreation() {
+        point.addPropertyChangeListener(listener);
+        point.setCurved(true);
+        verify(listener).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void doesNotNotifyWhenValueUnchanged() {
+        point.addPropertyChangeListener(listener);
+        point.setCurved(false);
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void removedListenerIsNotNotified() {
+        point.addPropertyChangeListener(listener);
+        point.addPropertyChangeListener(other);
+        point.removePropertyChangeListener(listener);
+        point.setCurved(true);
+
+        verify(listener, never()).propertyChange(any(PropertyChangeEvent.class));
+        verify(other).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void listenerAddedTwiceIsRemovedOnce() {
+        point.addPropertyChangeListener(listener);
+        point.addPropertyChangeListener(listener);
+        point.removePropertyChangeListener(listener);
+        point.setCurved(true);
+
+        verify(listener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void listenerRemovingItselfDoesNotStopOthers() {
+        point.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                point.removePropertyChangeListener(this);
+            }
+        });
+        point.addPropertyChangeListener(other);
+        point.setCurved(true);
+
+        verify(other).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void internsIdsAndTokenNames() {
+        DiscretePlace place = new DiscretePlace(new String("P0"), new String("P0"));
+        place.setTokenCount(new String("Default"), 1);
+
+        assertSame("P0", place.getId());
+        assertSame("P0", place.getName());
+        assertSame("Default", place.getTokenCounts().keySet().iterator().next());
+    }
+}
@@ -80,6 +80,22 @@ public class PasteVisitorTest {
         return new CopiedPlace(place, offset, mockNamer.getPlaceName());
     }
 
+    @Test
+    public void pastingPlacesUsesNamesReservedInBulk() throws PetriNetComponentException {
+        Place place = new DiscretePlace("id", "name");
+        Place place2 = new DiscretePlace("id2", "name2");
+        pasteComponents.add(place);
+        pasteComponents.add(place2);
+        when(mockNamer.getPlaceNames(2)).thenReturn(Arrays.asList("P5", "P6"));
+        visitor = new PasteVisitor(petriNet, pasteComponents, mockNamer);
+
+        doPaste();
+
+        verify(mockNamer, never()).getPlaceName();
+        verify(petriNet).addPlace(argThat(new CopiedPlace(place, "P5")));
+        verify(petriNet).addPlace(argThat(new CopiedPlace(place2, "P6")));
+    }
+
     @Test
     public void pastingTransition() throws PetriNetComponentException {
         Transition transition = new DiscreteTransition("id", "name");
@@ -6,6 +6,9 @@ import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.models.petrinet.DiscretePlace;
 import uk.ac.imperial.pipe.models.petrinet.Place;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
+
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -143,4 +146,51 @@ public class PlaceNamerTest {
     }
 
 
+    @Test
+    public void registersPlacesAddedInBulk() throws PetriNetComponentException {
+        petriNet.addAll(Arrays.<PetriNetComponent>asList(new DiscretePlace("P0", "P0"), new DiscretePlace("P1", "P1")));
+        assertEquals("P2", placeNamer.getName());
+    }
+
+    @Test
+    public void reservedNameIsNotReturned() {
+        placeNamer.reserveName("P0");
+        assertEquals("P1", placeNamer.getName());
+    }
+
+    @Test
+    public void reserveNamesSkipsExistingNames() {
+        Place place = new DiscretePlace("P1", "P1");
+        petriNet.addPlace(place);
+        assertEquals(Arrays.asList("P0", "P2", "P3"), placeNamer.reserveNames(3));
+        assertEquals("P4", placeNamer.getName());
+    }
+
+    @Test
+    public void namesWithLeadingZerosDoNotUseTheirNumber() {
+        petriNet.addPlace(new DiscretePlace("P00", "P00"));
+        assertEquals("P0", placeNamer.getName());
+    }
+
+    @Test
+    public void renamedPlaceFreesItsNumber() throws PetriNetComponentException {
+        addNConsecutivePlaces(3);
+        petriNet.getComponent("P1", Place.class).setId("Buffer");
+        assertEquals("P1", placeNamer.getName());
+        assertFalse(placeNamer.isUniqueName("Buffer"));
+    }
+
+    @Test
+    public void namesManyPlacesInLinearTime() throws PetriNetComponentException {
+        int count = 100000;
+        PetriNetComponentNamer namer = new PetriNetComponentNamer(petriNet);
+        for (int i = 0; i < count; i++) {
+            String id = namer.getPlaceName();
+            petriNet.addPlace(new DiscretePlace(id, id));
+        }
+        petriNet.removePlace(petriNet.getComponent("P500", Place.class));
+
+        assertEquals("P500", placeNamer.getName());
+        assertEquals(Arrays.asList("P500", "P100000"), placeNamer.reserveNames(2));
+    }
 }
@@ -14,6 +14,7 @@ import java.awt.Color;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class PetriNetWeightParserTest {
@@ -50,6 +51,34 @@ public class PetriNetWeightParserTest {
     }
 
 
+    @Test
+    public void reusesParsedExpressions() {
+        assertSame(GrammarUtils.compile("2 + 3 * 4"), GrammarUtils.compile("2 + 3 * 4"));
+    }
+
+    @Test
+    public void foldsConstantExpressions() {
+        ParsedExpression expression = GrammarUtils.compile("(2 + 3) * 4");
+        assertEquals(ExpressionType.CONSTANT, expression.getType());
+        assertTrue(expression.isConstant());
+        assertEquals(20, expression.getConstant(), 0.0001);
+    }
+
+    @Test
+    public void classifiesCapacityAndMarkingDependentExpressions() {
+        assertEquals(ExpressionType.CAPACITY_ONLY, GrammarUtils.compile("cap(P0) * 2").getType());
+        assertEquals(ExpressionType.MARKING_DEPENDENT, GrammarUtils.compile("#(P0) + cap(P0)").getType());
+        assertEquals(ExpressionType.MARKING_DEPENDENT, GrammarUtils.compile("#(P0, Default)").getType());
+    }
+
+    @Test
+    public void repeatedEvaluationDoesNotAccumulateErrors() {
+        FunctionalWeightParser<Double> parser = new PetriNetWeightParser(evalVisitor, EMPTY_PETRI_NET);
+        parser.evaluateExpression("#(P9)");
+        FunctionalResults<Double> result = parser.evaluateExpression("#(P9)");
+        assertThat(result.getErrors()).containsExactly("Not all referenced components exist in the Petri net!");
+    }
+
     @Test
     public void returnsErrorIfResultIsLessThanZero() throws UnparsableException {
         FunctionalWeightParser<Double> parser = new PetriNetWeightParser(evalVisitor, EMPTY_PETRI_NET);
@@ -0,0 +1,105 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ConcurrentMarkingSetTest {
+
+    @Test
+    public void assignsDenseIdsToNewMarkings() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(2, 10);
+        assertEquals(0, set.add(new int[]{1, 0}));
+        assertEquals(1, set.add(new int[]{0, 1}));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void addingExistingMarkingReturnsEncodedId() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(2, 10);
+        set.add(new int[]{1, 0});
+        set.add(new int[]{0, 1});
+        assertEquals(-2, set.add(new int[]{0, 1}));
+        assertEquals(1, set.indexOf(new int[]{0, 1}));
+        assertEquals(-1, set.indexOf(new int[]{2, 2}));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void storesACopyOfTheMarking() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(3, 10);
+        int[] marking = {4, 5, 6};
+        int id = set.add(marking);
+        marking[0] = 0;
+        assertArrayEquals(new int[]{4, 5, 6}, set.get(id));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwsWhenFull() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(1, 2);
+        set.add(new int[]{0});
+        set.add(new int[]{1});
+        set.add(new int[]{2});
+    }
+
+    @Test
+    public void growsFromSmallTableUpToLargeCapacity() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(2, ConcurrentMarkingSet.MAX_CAPACITY);
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, set.add(new int[]{i, -i}));
+        }
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i, set.indexOf(new int[]{i, -i}));
+        }
+        assertEquals(50000, set.size());
+    }
+
+    @Test
+    public void concurrentAddsAddEachMarkingOnce() throws Exception {
+        final int markings = 20000;
+        final ConcurrentMarkingSet set = new ConcurrentMarkingSet(2, markings);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<Integer>>> results = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            results.add(executor.submit(new Callable<List<Integer>>() {
+                @Override
+                public List<Integer> call() {
+                    List<Integer> added = new ArrayList<>();
+                    for (int i = 0; i < markings; i++) {
+                        int id = set.add(new int[]{i, i % 7});
+                        if (id >= 0) {
+                            added.add(id);
+                        }
+                    }
+                    return added;
+                }
+            }));
+        }
+        Set<Integer> ids = new HashSet<>();
+        int addCount = 0;
+        for (Future<List<Integer>> result : results) {
+            List<Integer> added = result.get();
+            addCount += added.size();
+            ids.addAll(added);
+        }
+        executor.shutdown();
+
+        assertEquals(markings, addCount);
+        assertEquals(markings, ids.size());
+        assertEquals(markings, set.size());
+        for (int i = 0; i < markings; i++) {
+            int id = set.indexOf(new int[]{i, i % 7});
+            assertArrayEquals(new int[]{i, i % 7}, set.get(id));
+        }
+    }
+}
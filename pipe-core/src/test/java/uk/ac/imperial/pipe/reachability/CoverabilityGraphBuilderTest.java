@@ -0,0 +1,142 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.ATimedTransition;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnInhibitorArc;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+
+import java.awt.Color;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoverabilityGraphBuilderTest {
+
+    @Test
+    public void boundedNetHasItsReachabilityGraph() throws Exception {
+        PetriNet petriNet = cyclicNet(3);
+
+        CoverabilityGraph graph = builder(petriNet, 100).build(AnimationUtils.getState(petriNet));
+
+        assertTrue(graph.isBounded());
+        assertTrue(graph.isExact());
+        assertTrue(graph.isComplete());
+        assertEquals(4, graph.getNodeCount());
+        assertEquals(6, graph.getEdgeCount());
+        assertEquals(3, graph.getBound("P0", "Default"));
+        assertEquals(3, graph.getBound("P1", "Default"));
+    }
+
+    @Test
+    public void acceleratesGrowingPlacesToOmega() throws Exception {
+        PetriNet petriNet = producerNet();
+
+        CoverabilityGraph graph = builder(petriNet, 100).build(AnimationUtils.getState(petriNet));
+
+        assertFalse(graph.isBounded());
+        assertEquals(Collections.singleton("P1"), graph.getUnboundedPlaces());
+        assertEquals(2, graph.getNodeCount());
+        assertEquals(1, graph.getBound("P0", "Default"));
+        assertEquals(CoverabilityGraph.OMEGA, graph.getBound("P1", "Default"));
+        assertEquals(0, graph.getParent(1));
+        assertEquals(1, graph.getEdgeTarget(graph.getEdgeCount() - 1));
+    }
+
+    @Test
+    public void stopsAtFirstUnboundedPlace() throws Exception {
+        PetriNet petriNet = producerNet();
+
+        CoverabilityGraph graph = builder(petriNet, 100).buildUntilUnbounded(AnimationUtils.getState(petriNet));
+
+        assertFalse(graph.isComplete());
+        assertEquals(Collections.singleton("P1"), graph.getUnboundedPlaces());
+    }
+
+    @Test
+    public void inhibitorArcsMakeResultInexact() throws Exception {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(ATimedTransition.withId("T0")).and(
+                AnInhibitorArc.withSource("P2").andTarget("T0")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P0").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token());
+
+        CoverabilityGraph graph = builder(petriNet, 100).build(AnimationUtils.getState(petriNet));
+
+        assertFalse(graph.isExact());
+        assertEquals(Collections.singleton("P1"), graph.getUnboundedPlaces());
+    }
+
+    @Test(timeout = 10000)
+    public void buildsBoundedNetWithManyIncomparableMarkings() throws Exception {
+        PetriNet petriNet = cyclicNet(10000);
+        PetriNetAnimationLogic animationLogic = new PetriNetAnimationLogic(petriNet);
+
+        CoverabilityGraph graph = new CoverabilityGraphBuilder(petriNet, animationLogic, 20000).build(
+                AnimationUtils.getState(petriNet));
+
+        assertTrue(graph.isBounded());
+        assertEquals(10001, graph.getNodeCount());
+        assertEquals(20000, graph.getEdgeCount());
+        assertTrue(animationLogic.cachedEnabledTransitions.isEmpty());
+    }
+
+    @Test(expected = StateSpaceExplorationException.class)
+    public void stopsWhenInterrupted() throws Exception {
+        PetriNet petriNet = cyclicNet(3);
+        Thread.currentThread().interrupt();
+        try {
+            builder(petriNet, 100).build(AnimationUtils.getState(petriNet));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test(expected = StateSpaceExplorationException.class)
+    public void throwsIfThereAreMoreNodesThanTheMaximum() throws Exception {
+        PetriNet petriNet = cyclicNet(100);
+
+        builder(petriNet, 10).build(AnimationUtils.getState(petriNet));
+    }
+
+    private CoverabilityGraphBuilder builder(PetriNet petriNet, int maxNodes) {
+        return new CoverabilityGraphBuilder(petriNet, new PetriNetAnimationLogic(petriNet), maxNodes);
+    }
+
+    /**
+     * @return net where T0 keeps its token in P0 and adds one to P1 each time it fires
+     */
+    private PetriNet producerNet() throws PetriNetComponentException {
+        return APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                ATimedTransition.withId("T0")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P0").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token());
+    }
+
+    /**
+     * @param tokens number of tokens in the net
+     * @return net that moves tokens between P0 and P1 one at a time
+     */
+    private PetriNet cyclicNet(int tokens) throws PetriNetComponentException {
+        return APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(tokens, "Default").tokens()).and(APlace.withId("P1")).and(
+                ATimedTransition.withId("T0")).and(ATimedTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+    }
+}
@@ -0,0 +1,75 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMarkingStoreTest {
+
+    private OffHeapMarkingStore store;
+
+    @After
+    public void tearDown() throws IOException {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void addsAndFindsMarkings() throws IOException {
+        store = new OffHeapMarkingStore(3, 100, 10, Long.MAX_VALUE);
+        assertEquals(0, store.add(new int[]{1, 2, 3}));
+        assertEquals(1, store.add(new int[]{3, 2, 1}));
+        assertEquals(-1, store.add(new int[]{1, 2, 3}));
+        assertEquals(1, store.indexOf(new int[]{3, 2, 1}));
+        assertEquals(-1, store.indexOf(new int[]{0, 0, 0}));
+        assertArrayEquals(new int[]{3, 2, 1}, store.get(1));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void packsLargeCountsIntoWiderRecords() throws IOException {
+        store = new OffHeapMarkingStore(2, 10, 100000, Long.MAX_VALUE);
+        int id = store.add(new int[]{100000, 65536});
+        assertArrayEquals(new int[]{100000, 65536}, store.get(id));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwsIfCountIsLargerThanTheStoreCanHold() throws IOException {
+        store = new OffHeapMarkingStore(1, 10, 255, Long.MAX_VALUE);
+        store.add(new int[]{256});
+    }
+
+    @Test
+    public void holdsCountsUpToTheBoundsItWasCreatedFor() throws IOException {
+        store = OffHeapMarkingStore.forBounds(new int[]{300, 3}, 10, Long.MAX_VALUE);
+        int id = store.add(new int[]{300, 3});
+        assertArrayEquals(new int[]{300, 3}, store.get(id));
+    }
+
+    @Test
+    public void holdsAnyCountIfAPlaceIsUnbounded() throws IOException {
+        store = OffHeapMarkingStore.forBounds(new int[]{-1, 3}, 10, Long.MAX_VALUE);
+        int id = store.add(new int[]{Integer.MAX_VALUE, 3});
+        assertArrayEquals(new int[]{Integer.MAX_VALUE, 3}, store.get(id));
+    }
+
+    @Test
+    public void spillsToDiskOnceMemoryBudgetIsUsed() throws IOException {
+        store = new OffHeapMarkingStore(2, 5000, 5000, 0);
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, store.add(new int[]{i, 5000 - i}));
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i, store.indexOf(new int[]{i, 5000 - i}));
+            assertArrayEquals(new int[]{i, 5000 - i}, store.get(i));
+        }
+        assertEquals(0, store.getMemoryBytes());
+        assertTrue(store.getSpilledBytes() > 0);
+    }
+}
@@ -0,0 +1,252 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.structural.CompressedMarkingStore;
+import uk.ac.imperial.state.State;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReachabilityExplorerTest {
+
+    @Test
+    public void exploresEveryStateOfASimpleNet() throws Exception {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(2, "Default").tokens()).and(APlace.withId("P1")).and(
+                AnImmediateTransition.withId("T0")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token());
+
+        State initial = AnimationUtils.getState(petriNet);
+        ReachabilityExplorer explorer = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 10, 1);
+        StateGraph graph = explorer.explore(initial);
+
+        assertEquals(3, graph.getStateCount());
+        assertEquals(2, graph.getEdgeCount());
+        assertEquals(initial, graph.getState(0));
+        assertEquals(1, graph.getOutDegree(0));
+        assertEquals("T0", graph.getTransition(0, 0).getId());
+    }
+
+    @Test
+    public void exploresCyclicNetOnManyThreads() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+        StateGraph graph = explorer.explore(AnimationUtils.getState(petriNet));
+
+        assertEquals(201, graph.getStateCount());
+        assertEquals(400, graph.getEdgeCount());
+        assertEquals(201, graph.getStatistics().getStates());
+        int edges = 0;
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            edges += graph.getOutDegree(state);
+        }
+        assertEquals(400, edges);
+    }
+
+    @Test
+    public void exploresIntoAnOffHeapStore() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+        int width = new MarkingLayout(petriNet).getWidth();
+
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+        try (OffHeapMarkingStore store = new OffHeapMarkingStore(width, 1004, 200, 0)) {
+            StateGraph graph = explorer.explore(AnimationUtils.getState(petriNet), store);
+            assertEquals(201, graph.getStateCount());
+            assertEquals(400, graph.getEdgeCount());
+            assertEquals(AnimationUtils.getState(petriNet), graph.getState(0));
+        }
+    }
+
+    @Test
+    public void exploresIntoACompressedStore() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+        State initial = AnimationUtils.getState(petriNet);
+
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+        StateGraph graph = explorer.explore(initial,
+                CompressedMarkingStore.forPetriNet(petriNet, initial, explorer.getStoreCapacity()));
+
+        assertEquals(201, graph.getStateCount());
+        assertEquals(400, graph.getEdgeCount());
+        assertEquals(initial, graph.getState(0));
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            int[] marking = graph.getMarking(state);
+            assertEquals(200, marking[0] + marking[1]);
+        }
+    }
+
+    @Test(expected = StateSpaceExplorationException.class)
+    public void throwsIfThereAreMoreStatesThanTheMaximum() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+
+        ReachabilityExplorer explorer = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 50, 4);
+        explorer.explore(AnimationUtils.getState(petriNet));
+    }
+
+    @Test
+    public void stopsCleanlyWhenStateBudgetRunsOut() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+        ExplorationResult result =
+                explorer.explore(AnimationUtils.getState(petriNet), ExplorationBudget.unlimited().withMaxStates(50));
+
+        assertFalse(result.isComplete());
+        assertEquals(ExplorationBudget.Limit.STATES, result.getStopReason());
+        StateGraph graph = result.getGraph();
+        assertTrue(graph.getStateCount() >= 50);
+        assertTrue(graph.getStateCount() < 201);
+        boolean[] frontier = new boolean[graph.getStateCount()];
+        for (int state : result.getFrontier()) {
+            frontier[state] = true;
+            assertEquals(0, graph.getOutDegree(state));
+        }
+        assertTrue(result.getFrontierSize() > 0);
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            if (!frontier[state]) {
+                assertEquals(state == 0 ? 1 : 2, graph.getOutDegree(state));
+            }
+        }
+    }
+
+    @Test
+    public void doesNotKeepExploredStatesInAnimationLogicCache() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+        PetriNetAnimationLogic animationLogic = new PetriNetAnimationLogic(petriNet);
+
+        try (OffHeapMarkingStore store = new OffHeapMarkingStore(2, 1000, 200, Long.MAX_VALUE)) {
+            StateGraph graph = new ReachabilityExplorer(petriNet, animationLogic, 1000, 2).explore(
+                    AnimationUtils.getState(petriNet), store);
+            assertEquals(201, graph.getStateCount());
+        }
+
+        assertTrue(animationLogic.cachedEnabledTransitions.isEmpty());
+    }
+
+    @Test
+    public void stopsWhenTimeBudgetRunsOut() throws Exception {
+        PetriNet petriNet = cyclicNet(2000);
+
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 5000, 2);
+        ExplorationResult result = explorer.explore(AnimationUtils.getState(petriNet),
+                ExplorationBudget.unlimited().withTimeLimit(0, TimeUnit.MILLISECONDS));
+
+        assertEquals(ExplorationBudget.Limit.TIME, result.getStopReason());
+        assertTrue(result.getGraph().getStateCount() < 2001);
+    }
+
+    @Test
+    public void resumesFromCheckpoint() throws Exception {
+        PetriNet petriNet = cyclicNet(200);
+        ReachabilityExplorer explorer =
+                new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+        ExplorationResult partial =
+                explorer.explore(AnimationUtils.getState(petriNet), ExplorationBudget.unlimited().withMaxStates(50));
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        partial.writeCheckpoint(checkpoint);
+
+        ExplorationResult result = explorer.resume(new ByteArrayInputStream(checkpoint.toByteArray()),
+                ExplorationBudget.unlimited());
+
+        assertTrue(result.isComplete());
+        assertEquals(0, result.getFrontierSize());
+        assertEquals(201, result.getGraph().getStateCount());
+        assertEquals(400, result.getGraph().getEdgeCount());
+        assertEquals(201, result.getEstimatedStates());
+        assertEquals(AnimationUtils.getState(petriNet), result.getGraph().getState(0));
+    }
+
+    @Test
+    public void resumesFromCheckpointWithFrontierOfManyBatches() throws Exception {
+        PetriNet petriNet = independentNet(9);
+        State initial = AnimationUtils.getState(petriNet);
+        StateGraph complete = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4)
+                .explore(initial);
+        assertEquals(512, complete.getStateCount());
+        assertEquals(2304, complete.getEdgeCount());
+
+        for (int run = 0; run < 20; run++) {
+            ReachabilityExplorer explorer =
+                    new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 1000, 4);
+            ExplorationResult partial = explorer.explore(initial, ExplorationBudget.unlimited().withMaxStates(150));
+            assertTrue(partial.getFrontierSize() > 32);
+            ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+            partial.writeCheckpoint(checkpoint);
+
+            ExplorationResult result = explorer.resume(new ByteArrayInputStream(checkpoint.toByteArray()),
+                    ExplorationBudget.unlimited());
+
+            assertTrue(result.isComplete());
+            assertEquals(complete.getStateCount(), result.getGraph().getStateCount());
+            assertEquals(complete.getEdgeCount(), result.getGraph().getEdgeCount());
+        }
+    }
+
+    @Test(expected = StateSpaceExplorationException.class)
+    public void rejectsCheckpointOfAnotherPetriNet() throws Exception {
+        PetriNet petriNet = cyclicNet(20);
+        ReachabilityExplorer explorer = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 100, 1);
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        explorer.explore(AnimationUtils.getState(petriNet), ExplorationBudget.unlimited()).writeCheckpoint(checkpoint);
+
+        PetriNet other = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).andFinally(
+                APlace.withId("P0"));
+        new ReachabilityExplorer(other, new PetriNetAnimationLogic(other), 100, 1).resume(
+                new ByteArrayInputStream(checkpoint.toByteArray()), ExplorationBudget.unlimited());
+    }
+
+    /**
+     * @param places number of independent places
+     * @return net whose places each hold a token that one transition moves on, it has 2^places states
+     */
+    private PetriNet independentNet(int places) throws PetriNetComponentException {
+        APetriNet net = APetriNet.with(AToken.called("Default").withColor(Color.BLACK));
+        for (int i = 0; i < places; i++) {
+            net = net.and(APlace.withId("P" + i).and(1, "Default").token()).and(APlace.withId("Q" + i)).and(
+                    AnImmediateTransition.withId("T" + i)).and(
+                    ANormalArc.withSource("P" + i).andTarget("T" + i).with("1", "Default").token());
+            if (i < places - 1) {
+                net = net.and(ANormalArc.withSource("T" + i).andTarget("Q" + i).with("1", "Default").token());
+            }
+        }
+        int last = places - 1;
+        return net.andFinally(ANormalArc.withSource("T" + last).andTarget("Q" + last).with("1", "Default").token());
+    }
+
+    /**
+     * @param tokens number of tokens in the net
+     * @return net that moves tokens between P0 and P1 one at a time, it has tokens + 1 states
+     */
+    private PetriNet cyclicNet(int tokens) throws PetriNetComponentException {
+        return APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(tokens, "Default").tokens()).and(APlace.withId("P1")).and(
+                AnImmediateTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+    }
+}
@@ -0,0 +1,152 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.ATimedTransition;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnInhibitorArc;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.HashedStateBuilder;
+import uk.ac.imperial.state.State;
+
+import java.awt.Color;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StubbornSetExplorerTest {
+
+    @Test
+    public void findsDeadlockOfIndependentTransitionsInOneInterleaving() throws Exception {
+        PetriNet petriNet = independentNet(10);
+
+        ReachabilityQueryResult result = explorer(petriNet, 100).findDeadlock(AnimationUtils.getState(petriNet));
+
+        assertTrue(result.isFound());
+        assertEquals(10, result.getTrace().size());
+        assertEquals(11, result.getStatistics().getStates());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1, (int) result.getWitness().getTokens("Q" + i).get("Default"));
+        }
+    }
+
+    @Test
+    public void deadlockFreeNetHasNoWitness() throws Exception {
+        PetriNet petriNet = cyclicNet(8);
+
+        ReachabilityQueryResult result = explorer(petriNet, 100).findDeadlock(AnimationUtils.getState(petriNet));
+
+        assertFalse(result.isFound());
+        assertTrue(result.getTrace().isEmpty());
+        assertTrue(result.getStatistics().getStates() < 256);
+    }
+
+    @Test
+    public void findsReachableMarking() throws Exception {
+        PetriNet petriNet = independentNet(10);
+        HashedStateBuilder builder = new HashedStateBuilder();
+        builder.placeWithToken("Q3", "Default", 1);
+        builder.placeWithToken("P7", "Default", 0);
+
+        ReachabilityQueryResult result =
+                explorer(petriNet, 100).findMarking(AnimationUtils.getState(petriNet), builder.build());
+
+        assertTrue(result.isFound());
+        assertEquals(2, result.getTrace().size());
+        assertEquals(1, (int) result.getWitness().getTokens("Q3").get("Default"));
+        assertEquals(0, (int) result.getWitness().getTokens("P7").get("Default"));
+    }
+
+    @Test
+    public void unreachableMarkingIsNotFound() throws Exception {
+        PetriNet petriNet = independentNet(3);
+        HashedStateBuilder builder = new HashedStateBuilder();
+        builder.placeWithToken("Q0", "Default", 2);
+
+        ReachabilityQueryResult result =
+                explorer(petriNet, 100).findMarking(AnimationUtils.getState(petriNet), builder.build());
+
+        assertFalse(result.isFound());
+    }
+
+    @Test
+    public void inhibitorArcsKeepDeadlocksReachable() throws Exception {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2").and(1, "Default").token()).and(ATimedTransition.withId("T0")).and(
+                ATimedTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                AnInhibitorArc.withSource("P1").andTarget("T1")).and(
+                ANormalArc.withSource("P2").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token());
+
+        ReachabilityQueryResult result = explorer(petriNet, 100).findDeadlock(AnimationUtils.getState(petriNet));
+
+        assertTrue(result.isFound());
+        List<Transition> trace = result.getTrace();
+        assertEquals("T0", trace.get(trace.size() - 1).getId());
+    }
+
+    @Test
+    public void acceptsUnlimitedMaximumStates() throws Exception {
+        PetriNet petriNet = independentNet(10);
+
+        ReachabilityQueryResult result =
+                explorer(petriNet, Integer.MAX_VALUE).findDeadlock(AnimationUtils.getState(petriNet));
+
+        assertTrue(result.isFound());
+    }
+
+    @Test(expected = StateSpaceExplorationException.class)
+    public void throwsIfThereAreMoreStatesThanTheMaximum() throws Exception {
+        PetriNet petriNet = independentNet(10);
+
+        explorer(petriNet, 5).findDeadlock(AnimationUtils.getState(petriNet));
+    }
+
+    private StubbornSetExplorer explorer(PetriNet petriNet, int maxStates) {
+        return new StubbornSetExplorer(petriNet, new PetriNetAnimationLogic(petriNet), maxStates);
+    }
+
+    /**
+     * @param count number of transitions
+     * @return net where each transition Ti moves a token from Pi to Qi once
+     */
+    private PetriNet independentNet(int count) throws PetriNetComponentException {
+        APetriNet net = APetriNet.with(AToken.called("Default").withColor(Color.BLACK));
+        for (int i = 0; i < count; i++) {
+            net = net.and(APlace.withId("P" + i).and(1, "Default").token()).and(APlace.withId("Q" + i)).and(
+                    ATimedTransition.withId("T" + i)).and(
+                    ANormalArc.withSource("P" + i).andTarget("T" + i).with("1", "Default").token()).and(
+                    ANormalArc.withSource("T" + i).andTarget("Q" + i).with("1", "Default").token());
+        }
+        return net.andFinally(APlace.withId("Unused"));
+    }
+
+    /**
+     * @param count number of cycles
+     * @return net of independent cycles, each moving a token between Pi and Qi
+     */
+    private PetriNet cyclicNet(int count) throws PetriNetComponentException {
+        APetriNet net = APetriNet.with(AToken.called("Default").withColor(Color.BLACK));
+        for (int i = 0; i < count; i++) {
+            net = net.and(APlace.withId("P" + i).and(1, "Default").token()).and(APlace.withId("Q" + i)).and(
+                    ATimedTransition.withId("T" + i)).and(ATimedTransition.withId("U" + i)).and(
+                    ANormalArc.withSource("P" + i).andTarget("T" + i).with("1", "Default").token()).and(
+                    ANormalArc.withSource("T" + i).andTarget("Q" + i).with("1", "Default").token()).and(
+                    ANormalArc.withSource("Q" + i).andTarget("U" + i).with("1", "Default").token()).and(
+                    ANormalArc.withSource("U" + i).andTarget("P" + i).with("1", "Default").token());
+        }
+        return net.andFinally(APlace.withId("Unused"));
+    }
+}
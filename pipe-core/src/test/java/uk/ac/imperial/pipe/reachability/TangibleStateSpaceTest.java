@@ -0,0 +1,65 @@
+package uk.ac.imperial.pipe.reachability;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.ATimedTransition;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+
+import java.awt.Color;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TangibleStateSpaceTest {
+
+    @Test
+    public void passesRatesThroughVanishingStatesByWeight() throws Exception {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(APlace.withId("P3")).and(
+                ATimedTransition.withId("T0").andRate("2")).and(
+                AnImmediateTransition.withId("T1").andProbability("1")).and(
+                AnImmediateTransition.withId("T2").andProbability("3")).and(
+                ATimedTransition.withId("T3").andRate("5")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T2").with("1", "Default").token()).and(
+                ANormalArc.withSource("T2").andTarget("P3").with("1", "Default").token()).and(
+                ANormalArc.withSource("P3").andTarget("T3").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T3").andTarget("P0").with("1", "Default").token());
+        StateGraph graph = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 10, 1)
+                .explore(AnimationUtils.getState(petriNet));
+
+        TangibleStateSpace stateSpace = new TangibleStateSpace(petriNet, graph);
+
+        assertEquals(4, graph.getStateCount());
+        assertEquals(3, stateSpace.getStateCount());
+        assertEquals(3, stateSpace.getTransitionCount());
+        assertEquals(AnimationUtils.getState(petriNet), stateSpace.getState(0));
+        Map<Integer, Double> rates = stateSpace.getSuccessorRates(0);
+        assertEquals(2, rates.size());
+        int p2 = tangibleIdWithTokenIn(stateSpace, "P2");
+        int p3 = tangibleIdWithTokenIn(stateSpace, "P3");
+        assertEquals(0.5, rates.get(p2), 1e-9);
+        assertEquals(1.5, rates.get(p3), 1e-9);
+        assertEquals(5, stateSpace.getSuccessorRates(p3).get(0), 1e-9);
+        assertEquals(0, stateSpace.getSuccessorRates(p2).size());
+    }
+
+    private int tangibleIdWithTokenIn(TangibleStateSpace stateSpace, String place) {
+        for (int id = 0; id < stateSpace.getStateCount(); id++) {
+            if (stateSpace.getState(id).getTokens(place).get("Default") == 1) {
+                return id;
+            }
+        }
+        throw new AssertionError("No tangible state with a token in " + place);
+    }
+}
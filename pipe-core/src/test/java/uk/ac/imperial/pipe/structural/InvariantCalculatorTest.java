@@ -0,0 +1,128 @@
+package uk.ac.imperial.pipe.structural;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+
+import java.awt.Color;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InvariantCalculatorTest {
+
+    @Test
+    public void buildsIncidenceMatrix() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("1", 3);
+        IncidenceMatrix matrix = new IncidenceMatrix(petriNet, new MarkingLayout(petriNet));
+
+        assertEquals(2, matrix.getRowCount());
+        assertEquals(2, matrix.getColumnCount());
+        assertEquals("T0", matrix.getTransition(0).getId());
+        assertArrayEquals(new int[]{-1, 1}, matrix.getColumns().get(0).toArray(2));
+        assertArrayEquals(new int[]{1, -1}, matrix.getColumns().get(1).toArray(2));
+        assertArrayEquals(new int[]{-1, 1}, matrix.getRows().get(0).toArray(2));
+    }
+
+    @Test
+    public void findsPInvariantOfCyclicNet() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("1", 3);
+        MarkingLayout layout = new MarkingLayout(petriNet);
+
+        List<SparseIntVector> invariants = new InvariantCalculator(2).getPInvariants(new IncidenceMatrix(petriNet, layout));
+
+        assertEquals(1, invariants.size());
+        assertArrayEquals(new int[]{1, 1}, invariants.get(0).toArray(2));
+        int[] bounds = InvariantCalculator.getBounds(invariants, layout.encode(AnimationUtils.getState(petriNet)));
+        assertArrayEquals(new int[]{3, 3}, bounds);
+    }
+
+    @Test
+    public void boundsPlacesOfPetriNet() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("1", 300);
+
+        int[] bounds = InvariantCalculator.getBounds(petriNet, AnimationUtils.getState(petriNet));
+
+        assertArrayEquals(new int[]{300, 300}, bounds);
+    }
+
+    @Test
+    public void doesNotBoundPlacesWithoutPInvariant() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("2", 3);
+
+        int[] bounds = InvariantCalculator.getBounds(petriNet, AnimationUtils.getState(petriNet));
+
+        assertArrayEquals(new int[]{-1, -1}, bounds);
+    }
+
+    @Test
+    public void findsTInvariantOfCyclicNet() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("1", 3);
+
+        List<SparseIntVector> invariants =
+                new InvariantCalculator(2).getTInvariants(new IncidenceMatrix(petriNet, new MarkingLayout(petriNet)));
+
+        assertEquals(1, invariants.size());
+        assertArrayEquals(new int[]{1, 1}, invariants.get(0).toArray(2));
+    }
+
+    @Test
+    public void findsEveryMinimalInvariantOfLargerNet() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").tokens()).and(APlace.withId("P1")).and(
+                APlace.withId("P2").and(1, "Default").tokens()).and(APlace.withId("P3")).and(
+                AnImmediateTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("P2").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P3").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P3").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token());
+
+        List<SparseIntVector> invariants =
+                new InvariantCalculator(2).getPInvariants(new IncidenceMatrix(petriNet, new MarkingLayout(petriNet)));
+
+        assertEquals(4, invariants.size());
+        for (SparseIntVector invariant : invariants) {
+            assertEquals(2, invariant.size());
+            assertTrue(invariant.isNonNegative());
+        }
+    }
+
+    @Test
+    public void leavesOutFunctionalWeights() throws PetriNetComponentException {
+        PetriNet petriNet = cyclicNet("#(P1)", 3);
+        IncidenceMatrix matrix = new IncidenceMatrix(petriNet, new MarkingLayout(petriNet));
+
+        assertTrue(matrix.getUnsupportedRows().get(1));
+        assertTrue(matrix.getUnsupportedColumns().get(1));
+        assertTrue(new InvariantCalculator(1).getPInvariants(matrix).isEmpty());
+        assertTrue(new InvariantCalculator(1).getTInvariants(matrix).isEmpty());
+    }
+
+    /**
+     * @param returnWeight weight of the arc from P1 to T1
+     * @param tokens       number of tokens in P0
+     * @return net that moves tokens between P0 and P1
+     */
+    static PetriNet cyclicNet(String returnWeight, int tokens) throws PetriNetComponentException {
+        return APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(tokens, "Default").tokens()).and(APlace.withId("P1")).and(
+                AnImmediateTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with(returnWeight, "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token());
+    }
+}
@@ -0,0 +1,79 @@
+package uk.ac.imperial.pipe.structural;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.ConcurrentMarkingSet;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.pipe.reachability.ReachabilityExplorer;
+import uk.ac.imperial.pipe.reachability.StateGraph;
+import uk.ac.imperial.state.State;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MarkingCompressorTest {
+
+    @Test
+    public void dropsOnePlacePerIndependentInvariant() {
+        List<SparseIntVector> invariants = Arrays.asList(SparseIntVector.of(new int[]{1, 1, 0, 0}),
+                SparseIntVector.of(new int[]{0, 0, 1, 2}), SparseIntVector.of(new int[]{2, 2, 0, 0}));
+        MarkingCompressor compressor = new MarkingCompressor(invariants, new int[]{3, 0, 4, 1});
+
+        assertEquals(2, compressor.getCompressedWidth());
+        int[] marking = {1, 2, 0, 3};
+        assertArrayEquals(marking, compressor.decompress(compressor.compress(marking)));
+    }
+
+    @Test
+    public void restoresMarkingsWithOverlappingInvariants() {
+        List<SparseIntVector> invariants = Arrays.asList(SparseIntVector.of(new int[]{2, 1, 1}),
+                SparseIntVector.of(new int[]{0, 1, 1}));
+        MarkingCompressor compressor = new MarkingCompressor(invariants, new int[]{1, 2, 3});
+
+        assertEquals(1, compressor.getCompressedWidth());
+        int[] marking = {1, 4, 1};
+        assertArrayEquals(marking, compressor.decompress(compressor.compress(marking)));
+    }
+
+    @Test
+    public void exploresIntoCompressedStore() throws Exception {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(5, "Default").tokens()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(AnImmediateTransition.withId("T0")).and(
+                AnImmediateTransition.withId("T1")).and(AnImmediateTransition.withId("T2")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token()).and(
+                ANormalArc.withSource("P2").andTarget("T2").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T2").andTarget("P0").with("1", "Default").token());
+        MarkingLayout layout = new MarkingLayout(petriNet);
+        State initial = AnimationUtils.getState(petriNet);
+        List<SparseIntVector> invariants = new InvariantCalculator(2).getPInvariants(new IncidenceMatrix(petriNet, layout));
+        MarkingCompressor compressor = new MarkingCompressor(invariants, layout.encode(initial));
+        CompressedMarkingStore store =
+                new CompressedMarkingStore(compressor, new ConcurrentMarkingSet(compressor.getCompressedWidth(), 64));
+
+        StateGraph graph = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet), 50, 2).explore(
+                initial, store);
+
+        assertEquals(2, compressor.getCompressedWidth());
+        assertEquals(21, graph.getStateCount());
+        assertEquals(initial, graph.getState(0));
+        for (int state = 0; state < graph.getStateCount(); state++) {
+            int[] marking = graph.getMarking(state);
+            assertEquals(5, marking[0] + marking[1] + marking[2]);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package uk.ac.imperial.pipe.structural;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.ATimedTransition;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.OutboundArc;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.models.petrinet.name.NormalPetriNetName;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PetriNetReducerTest {
+
+    private final PetriNetReducer reducer = new PetriNetReducer();
+
+    @Test
+    public void fusesPlaceEmptiedByImmediateTransition() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(2, "Default").tokens()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(ATimedTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ATimedTransition.withId("T2")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token()).and(
+                ANormalArc.withSource("P2").andTarget("T2").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T2").andTarget("P0").with("1", "Default").token());
+
+        PetriNetReduction reduction = reducer.reduce(petriNet);
+        PetriNet reduced = reduction.getPetriNet();
+
+        assertEquals(2, reduced.getPlaces().size());
+        assertEquals(2, reduced.getTransitions().size());
+        assertFalse(reduced.containsComponent("P1"));
+        assertFalse(reduced.containsComponent("T1"));
+        assertTrue(reduced.containsComponent("T0 TO P2"));
+        assertNull(reduction.getMapping().getReducedPlace("P1"));
+        assertNull(reduction.getMapping().getReducedTransition("T1"));
+        assertEquals("P2", reduction.getMapping().getReducedPlace("P2"));
+        assertEquals(1, reduction.getMapping().getThroughputShare("T0"), 0.0001);
+    }
+
+    @Test
+    public void namesReducedNetAfterOriginal() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).andFinally(
+                APlace.withId("P0").and(1, "Default").token());
+        petriNet.setName(new NormalPetriNetName("Net"));
+
+        PetriNetReduction reduction = reducer.reduce(petriNet);
+
+        assertEquals("Net (reduced)", reduction.getPetriNet().getNameValue());
+        assertEquals("Net", petriNet.getNameValue());
+    }
+
+    @Test
+    public void fusesImmediateTransitionIntoItsProducer() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(APlace.withId("P3")).and(ATimedTransition.withId("T0")).and(
+                AnImmediateTransition.withId("T1")).and(ATimedTransition.withId("T2")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P3").with("2", "Default").token()).andFinally(
+                ANormalArc.withSource("P2").andTarget("T2").with("1", "Default").token());
+
+        PetriNet reduced = reducer.reduce(petriNet).getPetriNet();
+
+        assertFalse(reduced.containsComponent("P1"));
+        assertFalse(reduced.containsComponent("T1"));
+        Map<String, String> weights = new HashMap<>();
+        for (OutboundArc arc : reduced.outboundArcs(reduced.getComponent("T0", Transition.class))) {
+            weights.put(arc.getTarget().getId(), arc.getWeightForToken("Default"));
+        }
+        assertEquals("1", weights.get("P2"));
+        assertEquals("2", weights.get("P3"));
+    }
+
+    @Test
+    public void doesNotFuseTimedTransitionsInSeries() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(ATimedTransition.withId("T0")).and(ATimedTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token());
+
+        PetriNet reduced = reducer.reduce(petriNet).getPetriNet();
+
+        assertEquals(3, reduced.getPlaces().size());
+        assertEquals(2, reduced.getTransitions().size());
+    }
+
+    @Test
+    public void doesNotFuseIntoPlacesSeenByFunctionalExpressions() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                APlace.withId("P2")).and(ATimedTransition.withId("T0")).and(AnImmediateTransition.withId("T1")).and(
+                ATimedTransition.withId("T2").andRate("#(P1) + 1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P2").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("P2").andTarget("T2").with("1", "Default").token());
+
+        PetriNet reduced = reducer.reduce(petriNet).getPetriNet();
+
+        assertTrue(reduced.containsComponent("P1"));
+        assertTrue(reduced.containsComponent("T1"));
+    }
+
+    @Test
+    public void removesImplicitPlace() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(3, "Default").tokens()).and(APlace.withId("P1").and(1, "Default").token()).and(
+                APlace.withId("P2")).and(ATimedTransition.withId("T0")).and(ATimedTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P2").with("1", "Default").token()).and(
+                ANormalArc.withSource("P2").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P0").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P1").with("1", "Default").token());
+
+        PetriNetReduction reduction = reducer.reduce(petriNet);
+        ReductionMapping mapping = reduction.getMapping();
+
+        assertFalse(reduction.getPetriNet().containsComponent("P0"));
+        assertEquals("P1", mapping.getReducedPlace("P0"));
+        assertEquals(2, mapping.getTokenOffset("P0", "Default"));
+
+        Map<String, Map<String, Double>> averages = new HashMap<>();
+        averages.put("P1", singleton("Default", 0.25));
+        averages.put("P2", singleton("Default", 0.75));
+        Map<String, Map<String, Double>> original = mapping.mapAverageTokens(averages);
+        assertEquals(2.25, original.get("P0").get("Default"), 0.0001);
+        assertEquals(0.25, original.get("P1").get("Default"), 0.0001);
+    }
+
+    @Test
+    public void mergesParallelTransitions() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                ATimedTransition.withId("T0").andRate("2")).and(ATimedTransition.withId("T1").andRate("3")).and(
+                ATimedTransition.withId("T2")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P0").andTarget("T1").with("1", "Default").token()).and(
+                ANormalArc.withSource("T1").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P1").andTarget("T2").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T2").andTarget("P0").with("1", "Default").token());
+
+        PetriNetReduction reduction = reducer.reduce(petriNet);
+        PetriNet reduced = reduction.getPetriNet();
+        ReductionMapping mapping = reduction.getMapping();
+
+        assertFalse(reduced.containsComponent("T1"));
+        assertEquals(5, reduced.getComponent("T0", Transition.class).getActualRate(reduced, null), 0.0001);
+        assertEquals("T0", mapping.getReducedTransition("T1"));
+        Map<String, Double> throughputs = new HashMap<>();
+        throughputs.put("T0", 1.0);
+        throughputs.put("T2", 1.0);
+        Map<String, Double> original = mapping.mapThroughputs(throughputs);
+        assertEquals(0.4, original.get("T0"), 0.0001);
+        assertEquals(0.6, original.get("T1"), 0.0001);
+        assertEquals(1.0, original.get("T2"), 0.0001);
+    }
+
+    @Test
+    public void leavesOriginalNetUntouched() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").and(1, "Default").token()).and(APlace.withId("P1")).and(
+                ATimedTransition.withId("T0")).and(ATimedTransition.withId("T1")).and(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token()).and(
+                ANormalArc.withSource("T0").andTarget("P1").with("1", "Default").token()).and(
+                ANormalArc.withSource("P0").andTarget("T1").with("1", "Default").token()).andFinally(
+                ANormalArc.withSource("T1").andTarget("P1").with("1", "Default").token());
+
+        reducer.reduce(petriNet);
+
+        assertEquals(2, petriNet.getTransitions().size());
+        assertEquals(1, petriNet.getComponent("P0", Place.class).getTokenCount("Default"));
+    }
+
+    private static Map<String, Double> singleton(String token, double value) {
+        Map<String, Double> map = new HashMap<>();
+        map.put(token, value);
+        return map;
+    }
+}
@@ -0,0 +1,77 @@
+package uk.ac.imperial.pipe.trace;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.ac.imperial.pipe.animation.PetriNetAnimator;
+import uk.ac.imperial.pipe.dsl.ANormalArc;
+import uk.ac.imperial.pipe.dsl.APetriNet;
+import uk.ac.imperial.pipe.dsl.APlace;
+import uk.ac.imperial.pipe.dsl.AToken;
+import uk.ac.imperial.pipe.dsl.AnImmediateTransition;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Transition;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+public class TracerTest {
+
+    private List<String> recorded;
+
+    @Before
+    public void setUp() {
+        recorded = new ArrayList<>();
+        Tracer.setSink(new TraceSink() {
+            @Override
+            public TraceSpan begin(final Operation operation) {
+                return new TraceSpan() {
+                    @Override
+                    public boolean isRecording() {
+                        return true;
+                    }
+
+                    @Override
+                    public void end(String net, int places, int transitions, String subject) {
+                        recorded.add(operation + " " + places + " " + transitions + " " + subject);
+                    }
+                };
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        Tracer.setSink(null);
+    }
+
+    @Test
+    public void tracesTransitionFiringWithNetSize() throws PetriNetComponentException {
+        PetriNet petriNet = APetriNet.with(AToken.called("Default").withColor(Color.BLACK)).and(
+                APlace.withId("P0").containing(1, "Default").token()).and(
+                AnImmediateTransition.withId("T0")).andFinally(
+                ANormalArc.withSource("P0").andTarget("T0").with("1", "Default").token());
+        Transition transition = petriNet.getComponent("T0", Transition.class);
+
+        new PetriNetAnimator(petriNet).fireTransition(transition);
+
+        assertEquals("FIRE_TRANSITION 1 1 T0", recorded.get(recorded.size() - 1));
+        assertEquals("ENABLED_TRANSITIONS 1 1 1", recorded.get(0));
+    }
+
+    @Test
+    public void noSpanWhenDisabled() {
+        Tracer.setSink(null);
+
+        assertFalse(Tracer.isEnabled());
+        assertSame(TraceSpan.NONE, Tracer.begin(Operation.LAYOUT));
+        Tracer.end(TraceSpan.NONE, null, "ignored");
+        assertEquals(0, recorded.size());
+    }
+}
@@ -1,5 +1,6 @@
 import pipe.actions.gui.PipeApplicationModel;
 import pipe.controllers.application.PipeApplicationController;
+import pipe.gui.StartupTimer;
 import pipe.views.PerformApplicationBuilder;
 import pipe.views.PipeApplicationBuilder;
 import pipe.views.PipeApplicationView;
@@ -12,12 +13,21 @@ public final class Pipe {
     protected static PipeApplicationView applicationView;
 
     private Pipe(String version) {
+        final StartupTimer timer = new StartupTimer();
         PipeApplicationModel applicationModel = new PipeApplicationModel(version);
         PipeApplicationController applicationController = new PipeApplicationController(applicationModel);
+        timer.phaseFinished("application model");
         PipeApplicationBuilder builder = new PipeApplicationBuilder();
         applicationView = builder.build(applicationController, applicationModel);
+        timer.phaseFinished("application view");
         applicationController.createEmptyPetriNet();
-
+        timer.phaseFinished("empty Petri net");
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                timer.milestone("first paint");
+            }
+        });
     }
 
     public static void main(String[] args) {
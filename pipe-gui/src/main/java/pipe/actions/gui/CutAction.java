@@ -2,7 +2,6 @@ package pipe.actions.gui;
 
 import pipe.controllers.PetriNetController;
 import pipe.controllers.application.PipeApplicationController;
-import pipe.historyActions.MultipleEdit;
 import pipe.utilities.gui.GuiUtils;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 
@@ -41,7 +40,7 @@ public class CutAction extends GuiAction {
         if (!petriNetController.getSelectedComponents().isEmpty()) {
             petriNetController.copySelection();
             try {
-                registerUndoEvent(new MultipleEdit(petriNetController.deleteSelection()));
+                registerUndoEvent(petriNetController.deleteSelection());
             } catch (PetriNetComponentException e) {
                 GuiUtils.displayErrorMessage(null, e.getMessage());
             }
@@ -2,7 +2,6 @@ package pipe.actions.gui;
 
 import pipe.controllers.PetriNetController;
 import pipe.controllers.application.PipeApplicationController;
-import pipe.historyActions.MultipleEdit;
 import pipe.utilities.gui.GuiUtils;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 
@@ -22,7 +21,7 @@ public class DeleteAction extends GuiAction {
     public void actionPerformed(ActionEvent event) {
         PetriNetController petriNetController = pipeApplicationController.getActivePetriNetController();
         try {
-            registerUndoEvent(new MultipleEdit(petriNetController.deleteSelection()));
+            registerUndoEvent(petriNetController.deleteSelection());
         } catch (PetriNetComponentException e) {
             GuiUtils.displayErrorMessage(null, e.getMessage());
         }
@@ -6,12 +6,12 @@ package pipe.actions.gui;
 import java.net.URL;
 
 import javax.swing.AbstractAction;
-import javax.swing.ImageIcon;
 import javax.swing.KeyStroke;
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
 import javax.swing.undo.UndoableEdit;
 
+import pipe.gui.LazyIcon;
 import pipe.gui.PipeResourceLocator;
 
 
@@ -19,7 +19,8 @@ import pipe.gui.PipeResourceLocator;
  * Abstract action which all PIPE GUI actions should subclass. These
  * actions should be buttons on the PIPE tool bar
  *
- * This class is responsible for loading the images of the button
+ * This class is responsible for locating the images of the button, which are
+ * only loaded when the button is first shown
  */
 @SuppressWarnings("serial")
 public abstract class GuiAction extends AbstractAction {
@@ -56,7 +57,7 @@ public abstract class GuiAction extends AbstractAction {
 		PipeResourceLocator locator = new PipeResourceLocator(); 
 		try {
 			URL iconURL = locator.getImage(name);
-			putValue(SMALL_ICON, new ImageIcon(iconURL));
+			putValue(SMALL_ICON, new LazyIcon(iconURL));
 		} catch (RuntimeException e) {
 			// some actions don't have icons; ignore
 		}
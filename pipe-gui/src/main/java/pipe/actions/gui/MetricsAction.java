@@ -0,0 +1,45 @@
+package pipe.actions.gui;
+
+import pipe.gui.MetricsPanel;
+import pipe.gui.widgets.EscapableDialog;
+
+import javax.swing.*;
+import java.awt.Window;
+import java.awt.event.ActionEvent;
+
+/**
+ * Shows the live runtime metrics of PIPE in a window that can stay open alongside the editor
+ */
+@SuppressWarnings("serial")
+public class MetricsAction extends GuiAction {
+
+    /**
+     * Window the metrics window belongs to
+     */
+    private final Window owner;
+
+    /**
+     * Metrics window, created the first time it is shown
+     */
+    private JDialog dialog;
+
+    /**
+     * Constructor
+     * @param owner window the metrics window belongs to
+     */
+    public MetricsAction(Window owner) {
+        super("Runtime metrics", "Show counters and timings of animation, parsing, loading and analysis");
+        this.owner = owner;
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if (dialog == null) {
+            dialog = new EscapableDialog(owner, "Runtime metrics", false);
+            dialog.getContentPane().add(new MetricsPanel());
+            dialog.setSize(480, 360);
+            dialog.setLocationRelativeTo(owner);
+        }
+        dialog.setVisible(true);
+    }
+}
@@ -1,8 +1,6 @@
 package pipe.actions.gui;
 
 import pipe.controllers.application.PipeApplicationController;
-import pipe.utilities.gui.GuiUtils;
-import uk.ac.imperial.pipe.parsers.UnparsableException;
 
 import javax.swing.*;
 
@@ -41,7 +39,8 @@ public class OpenAction extends GuiAction {
     }
 
     /**
-     * When this action is performed it shows the file dialog and processes the file selected for loading
+     * When this action is performed it shows the file dialog and loads each selected file in the background.
+     * Any errors whilst loading are reported once the file has been read
      * @param e event 
      */
     @Override
@@ -49,11 +48,7 @@ public class OpenAction extends GuiAction {
         fileChooser.setVisible(true);
         for (File file : fileChooser.getFiles()) {
             if (file.exists() && file.isFile() && file.canRead()) {
-                try {
-                    applicationController.createNewTabFromFile(file);
-                } catch (UnparsableException e1) {
-                    GuiUtils.displayErrorMessage(null, e1.getMessage());
-                }
+                applicationController.createNewTabFromFileInBackground(file);
             } else {
                 String message = "File \"" + file.getName() + "\" does not exist.";
                 JOptionPane.showMessageDialog(null, message, "Warning", JOptionPane.WARNING_MESSAGE);
@@ -3,8 +3,7 @@ package pipe.controllers;
 import pipe.constants.GUIConstants;
 import pipe.controllers.application.PipeApplicationController;
 import pipe.gui.PetriNetTab;
-import pipe.historyActions.MultipleEdit;
-import pipe.historyActions.component.AddPetriNetObject;
+import pipe.historyActions.component.AddPetriNetObjects;
 import pipe.utilities.gui.GuiUtils;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.models.petrinet.*;
@@ -15,15 +14,18 @@ import uk.ac.imperial.pipe.visitor.component.PetriNetComponentVisitor;
 
 import javax.swing.event.UndoableEditEvent;
 import javax.swing.event.UndoableEditListener;
-import javax.swing.undo.UndoableEdit;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
+import java.awt.geom.GeneralPath;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
-import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -43,6 +45,11 @@ public class CopyPasteManager extends javax.swing.JComponent
      */
     private static final Color PASTE_COLOR_OUTLINE = new Color(155, 0, 0, 0);
 
+    /**
+     * Colour of the copied components outlines displayed when pasting
+     */
+    private static final Color PASTE_COMPONENT_COLOR = new Color(80, 80, 80, 200);
+
     /**
      * Rectangle displayed which marks the outline of the objects to paste
      */
@@ -85,6 +92,12 @@ public class CopyPasteManager extends javax.swing.JComponent
      */
     private Collection<PetriNetComponent> pasteComponents = new ArrayList<>();
 
+    /**
+     * Outline of the components to paste drawn relative to the top left of the paste rectangle.
+     * It is drawn once when a paste starts so that moving the paste rectangle only has to copy the image
+     */
+    private BufferedImage pasteOutline;
+
 
     /**
      * Constructor
@@ -127,6 +140,7 @@ public class CopyPasteManager extends javax.swing.JComponent
         pasteRectangle.setRect(location.left, location.top, location.right - location.left,
                 location.bottom - location.top);
         rectangleOrigin.setLocation(location.left, location.top);
+        pasteOutline = null;
     }
 
     /**
@@ -142,6 +156,9 @@ public class CopyPasteManager extends javax.swing.JComponent
             //            }
 
             petriNetTab.setLayer(this, GUIConstants.SELECTION_LAYER_OFFSET);
+            if (pasteOutline == null) {
+                pasteOutline = createPasteOutline();
+            }
             repaint();
             pasteInProgress = true;
             updateBounds();
@@ -176,6 +193,9 @@ public class CopyPasteManager extends javax.swing.JComponent
         Graphics2D g2d = (Graphics2D) g;
         g2d.setPaint(PASTE_COLOR);
         g2d.fill(pasteRectangle);
+        if (pasteOutline != null) {
+            g2d.drawImage(pasteOutline, pasteRectangle.x, pasteRectangle.y, null);
+        }
         g2d.setXORMode(PASTE_COLOR_OUTLINE);
         g2d.draw(pasteRectangle);
     }
@@ -199,11 +219,41 @@ public class CopyPasteManager extends javax.swing.JComponent
      * @param point new top left point for rectangle
      */
     private void updateRect(Point point) {
+        Rectangle dirty = new Rectangle(pasteRectangle);
         pasteRectangle.setLocation(point);
-        repaint();
+        dirty.add(pasteRectangle);
+        dirty.grow(1, 1);
+        repaint(dirty);
         updateBounds();
     }
 
+    /**
+     * Draws the outline of the places, transitions and arcs being pasted
+     *
+     * @return image the size of the paste rectangle, or null if there is nothing to draw
+     */
+    private BufferedImage createPasteOutline() {
+        if (pasteRectangle.width <= 0 || pasteRectangle.height <= 0) {
+            return null;
+        }
+        BufferedImage image =
+                new BufferedImage(pasteRectangle.width + 1, pasteRectangle.height + 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setColor(PASTE_COMPONENT_COLOR);
+        g2d.translate(-rectangleOrigin.x, -rectangleOrigin.y);
+        PetriNetComponentVisitor outlineVisitor = new OutlineVisitor(g2d);
+        for (PetriNetComponent component : pasteComponents) {
+            try {
+                component.accept(outlineVisitor);
+            } catch (PetriNetComponentException e) {
+                GuiUtils.displayErrorMessage(null, e.getMessage());
+            }
+        }
+        g2d.dispose();
+        return image;
+    }
+
     /**
      * Moving the mouse on the screen updates the location of the
      * paste rectangle
@@ -277,6 +327,7 @@ public class CopyPasteManager extends javax.swing.JComponent
      * <p>
      * It first pastes the connectables, and then other components. This ordering is important
      * and will ensure that arcs are created with the right components.
+     * All pasted components are added in a single bulk update of the Petri net.
      * </p>
      * @param petriNetTab petri net tab to paste items to
      */
@@ -294,6 +345,7 @@ public class CopyPasteManager extends javax.swing.JComponent
         MultipleNamer multipleNamer = new PetriNetComponentNamer(petriNet);
         PasteVisitor pasteVisitor = new PasteVisitor(petriNet, pasteComponents, multipleNamer, despX, despY);
 
+        petriNet.beginUpdate();
         try {
             for (Connectable component : getConnectablesToPaste()) {
                 component.accept(pasteVisitor);
@@ -304,6 +356,8 @@ public class CopyPasteManager extends javax.swing.JComponent
         } catch (PetriNetComponentException e) {
 
             GuiUtils.displayErrorMessage(null, e.getMessage());
+        } finally {
+            petriNet.commitUpdate();
         }
 
         createPasteHistoryItem(pasteVisitor.getCreatedComponents());
@@ -374,18 +428,12 @@ public class CopyPasteManager extends javax.swing.JComponent
     }
 
     /**
-     * Creates a history item for the new components added to the petrinet
+     * Creates a single history item for the new components added to the petrinet
      *
      * @param createdComponents new components that have been created
      */
-    private void createPasteHistoryItem(Iterable<PetriNetComponent> createdComponents) {
-        List<UndoableEdit> undoableEditList = new LinkedList<>();
-        for (PetriNetComponent component : createdComponents) {
-            AddPetriNetObject addAction = new AddPetriNetObject(component, petriNet);
-            undoableEditList.add(addAction);
-        }
-
-        listener.undoableEditHappened(new UndoableEditEvent(this, new MultipleEdit(undoableEditList)));
+    private void createPasteHistoryItem(Collection<PetriNetComponent> createdComponents) {
+        listener.undoableEditHappened(new UndoableEditEvent(this, new AddPetriNetObjects(createdComponents, petriNet)));
     }
 
     /**
@@ -483,6 +531,89 @@ public class CopyPasteManager extends javax.swing.JComponent
         private double left = Double.MAX_VALUE;
     }
 
+    /**
+     * Draws the outline of the components being pasted, arcs are only drawn
+     * if both their source and target are being pasted
+     */
+    private final class OutlineVisitor implements PlaceTransitionVisitor, ArcVisitor {
+        /**
+         * Graphics to draw the outlines on
+         */
+        private final Graphics2D g2d;
+
+        /**
+         * Components being pasted, held by identity for quick lookup of arc end points
+         */
+        private final Set<PetriNetComponent> pasted =
+                Collections.newSetFromMap(new IdentityHashMap<PetriNetComponent, Boolean>());
+
+        /**
+         * Constructor
+         * @param g2d graphics to draw the outlines on
+         */
+        private OutlineVisitor(Graphics2D g2d) {
+            this.g2d = g2d;
+            pasted.addAll(pasteComponents);
+        }
+
+        /**
+         * Draws the places outline
+         * @param place to draw
+         */
+        @Override
+        public void visit(Place place) {
+            g2d.drawOval(place.getX(), place.getY(), place.getWidth(), place.getHeight());
+        }
+
+        /**
+         * Draws the transitions outline
+         * @param transition to draw
+         */
+        @Override
+        public void visit(Transition transition) {
+            g2d.drawRect(transition.getX(), transition.getY(), transition.getWidth(), transition.getHeight());
+        }
+
+        /**
+         * Draws the arcs path
+         * @param inboundArc to draw
+         */
+        @Override
+        public void visit(InboundArc inboundArc) {
+            drawArc(inboundArc);
+        }
+
+        /**
+         * Draws the arcs path
+         * @param outboundArc to draw
+         */
+        @Override
+        public void visit(OutboundArc outboundArc) {
+            drawArc(outboundArc);
+        }
+
+        /**
+         * Draws straight lines between the arcs points
+         * @param arc to draw
+         */
+        private void drawArc(Arc<? extends Connectable, ? extends Connectable> arc) {
+            if (!pasted.contains(arc.getSource()) || !pasted.contains(arc.getTarget())) {
+                return;
+            }
+            GeneralPath path = new GeneralPath();
+            boolean first = true;
+            for (ArcPoint arcPoint : arc.getArcPoints()) {
+                if (first) {
+                    path.moveTo(arcPoint.getX(), arcPoint.getY());
+                    first = false;
+                } else {
+                    path.lineTo(arcPoint.getX(), arcPoint.getY());
+                }
+            }
+            g2d.draw(path);
+        }
+    }
+
     /**
      * Used to set the bounds of the rectagle displayed when copy pasting
      */
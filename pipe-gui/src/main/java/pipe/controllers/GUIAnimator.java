@@ -5,13 +5,19 @@ import pipe.controllers.application.PipeApplicationController;
 import pipe.historyActions.AnimationHistory;
 import pipe.utilities.gui.GuiUtils;
 import uk.ac.imperial.pipe.animation.Animator;
+import uk.ac.imperial.pipe.animation.FastForward;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 
 /**
@@ -20,11 +26,41 @@ import java.util.Set;
  */
 public class GUIAnimator {
 
+    /**
+     * Message fired with the progress text of a fast forward every frame
+     */
+    public static final String FAST_FORWARD_PROGRESS_MESSAGE = "fastForwardProgress";
+
+    /**
+     * Message fired with a summary text once a fast forward has finished
+     */
+    public static final String FAST_FORWARD_FINISHED_MESSAGE = "fastForwardFinished";
+
+    /**
+     * Rate at which the Petri net is redrawn during a fast forward
+     */
+    public static final int FRAMES_PER_SECOND = 30;
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(GUIAnimator.class.getName());
+
     /**
      * Timer used for spacing between random transition firings
      */
     private final Timer timer = new Timer(0, new TimedTransitionActionListener());
 
+    /**
+     * Timer redrawing the latest marking of a fast forward
+     */
+    private final Timer frameTimer = new Timer(1000 / FRAMES_PER_SECOND, new FrameActionListener());
+
+    /**
+     * Notifies listeners of fast forward progress
+     */
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+
     /**
      * Petri net animator
      */
@@ -46,6 +82,11 @@ public class GUIAnimator {
      */
     private int numberSequences = 0;
 
+    /**
+     * Fast forward running in the background, null if there is none
+     */
+    private FastForward fastForward;
+
     /**
      * Constructor
      * @param animator Petri net animator
@@ -64,11 +105,13 @@ public class GUIAnimator {
      * When exit animation mode we expect the petri net to return to
      * it's original state, hence this method must be called before animating.
      * <p>
-     * Also marks the enabled transitions in the petri net.
+     * Also marks the enabled transitions in the petri net and starts
+     * recording the animation history from the current marking.
      * </p>
      */
     public void startAnimation() {
         saveCurrentTokenState();
+        animationHistory.setInitialState(animator.getCurrentState());
         markEnabledTransitions(new HashSet<Transition>(), animator.getEnabledTransitions());
     }
 
@@ -94,7 +137,8 @@ public class GUIAnimator {
     }
 
     /**
-     * Starts a random firing sequence for the specified number of transitions
+     * Starts a random firing sequence for the specified number of transitions.
+     * A delay of zero fast forwards through them instead of firing one per timer tick.
      */
     public void startRandomFiring() {
         animationHistory.clearStepsForward();
@@ -104,10 +148,16 @@ public class GUIAnimator {
         } else {
             try {
                 String s = JOptionPane.showInputDialog("Enter number of firings to perform", "1");
-                this.numberSequences = Integer.parseInt(s);
-                s = JOptionPane.showInputDialog("Enter time delay between firing /ms", "50");
-                timer.setDelay(Integer.parseInt(s));
-                timer.start();
+                int firings = Integer.parseInt(s);
+                s = JOptionPane.showInputDialog("Enter time delay between firing /ms (0 to fast forward)", "50");
+                int delay = Integer.parseInt(s);
+                if (delay == 0) {
+                    startFastForward(firings);
+                } else {
+                    this.numberSequences = firings;
+                    timer.setDelay(delay);
+                    timer.start();
+                }
             } catch (NumberFormatException e) {
                 GuiUtils.displayErrorMessage(null, "Error in animator: " + e.getMessage());
             }
@@ -119,6 +169,9 @@ public class GUIAnimator {
      * @return the number of transitions in the sequence
      */
     public synchronized int getNumberSequences() {
+        if (fastForward != null) {
+            return fastForward.getFirings() - fastForward.getFired();
+        }
         return numberSequences;
     }
 
@@ -128,6 +181,82 @@ public class GUIAnimator {
      */
     public synchronized void setNumberSequences(int numberSequences) {
         this.numberSequences = numberSequences;
+        if (numberSequences == 0 && fastForward != null) {
+            fastForward.cancel();
+        }
+    }
+
+    /**
+     * Fires random transitions on a background thread against a private marking, redrawing the
+     * Petri net with the latest marking {@link #FRAMES_PER_SECOND} times a second. The firings are
+     * added to the animation history together when the fast forward finishes or is stopped.
+     *
+     * @param firings number of transitions to fire
+     */
+    public void startFastForward(int firings) {
+        PetriNetController controller = applicationController.getActivePetriNetController();
+        final FastForward run = new FastForward(controller.getPetriNet(), animator.getCurrentState(), firings);
+        synchronized (this) {
+            fastForward = run;
+        }
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                run.run();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    LOGGER.log(Level.SEVERE, "Fast forward failed: " + cause.getMessage());
+                }
+                finishFastForward(run);
+            }
+        }.execute();
+        frameTimer.start();
+    }
+
+    /**
+     * Shows the final marking of a fast forward and adds its firings to the history,
+     * unless the animation finished whilst it was running
+     *
+     * @param run finished fast forward
+     */
+    private void finishFastForward(FastForward run) {
+        synchronized (this) {
+            if (run != fastForward) {
+                return;
+            }
+            fastForward = null;
+        }
+        frameTimer.stop();
+        Set<Transition> previouslyEnabled = animator.getEnabledTransitions();
+        animationHistory.addHistoryItems(run.getHistory());
+        animator.setCurrentState(run.getState());
+        markEnabledTransitions(previouslyEnabled, animator.getEnabledTransitions());
+        String summary = String.format("Fast forwarded %d firings at %.0f firings per second%s", run.getFired(),
+                run.getFiringsPerSecond(), run.isDeadlocked() ? ", no transitions enabled" : "");
+        changeSupport.firePropertyChange(FAST_FORWARD_FINISHED_MESSAGE, null, summary);
+    }
+
+    /**
+     *
+     * @param listener to listen for fast forward progress
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(listener);
+    }
+
+    /**
+     *
+     * @param listener registered listener that no longer wishes to be notified of fast forward progress
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.removePropertyChangeListener(listener);
     }
 
     /**
@@ -148,8 +277,8 @@ public class GUIAnimator {
     public void fireTransition(Transition transition) {
         Set<Transition> previouslyEnabled = animator.getEnabledTransitions();
         animationHistory.clearStepsForward();
-        animationHistory.addHistoryItem(transition);
         animator.fireTransition(transition);
+        animationHistory.addHistoryItem(transition, animator.getCurrentState());
 
         Set<Transition> enabled = animator.getEnabledTransitions();
         markEnabledTransitions(previouslyEnabled, enabled);
@@ -157,14 +286,12 @@ public class GUIAnimator {
     }
 
     /**
-     * Steps back through previously fired transitions
+     * Steps back through previously fired transitions by restoring the
+     * marking recorded before the last one fired
      */
     public void stepBack() {
         if (animationHistory.isStepBackAllowed()) {
-            Transition transition = animationHistory.getCurrentTransition();
-            animationHistory.stepBackwards();
-            animator.fireTransitionBackwards(transition);
-
+            stepTo(animationHistory.getCurrentPosition() - 1);
         }
     }
 
@@ -173,13 +300,23 @@ public class GUIAnimator {
      */
     public void stepForward() {
         if (isStepForwardAllowed()) {
-            int nextPosition = animationHistory.getCurrentPosition() + 1;
-            Transition transition = animationHistory.getTransition(nextPosition);
-            animator.fireTransition(transition);
-            animationHistory.stepForward();
+            stepTo(animationHistory.getCurrentPosition() + 1);
         }
     }
 
+    /**
+     * Jumps to any position in the animation history, applying the marking
+     * recorded there rather than firing the transitions in between
+     *
+     * @param position position in the firing sequence, -1 for before the first firing
+     */
+    public void stepTo(int position) {
+        Set<Transition> previouslyEnabled = animator.getEnabledTransitions();
+        animator.setCurrentState(animationHistory.getState(position));
+        animationHistory.setCurrentPosition(position);
+        markEnabledTransitions(previouslyEnabled, animator.getEnabledTransitions());
+    }
+
     /**
      *
      * @return true if a step forward can happen in the animation history
@@ -201,10 +338,32 @@ public class GUIAnimator {
      * Resets the petri net state to before animation
      */
     public void finish() {
+        synchronized (this) {
+            if (fastForward != null) {
+                fastForward.cancel();
+                fastForward = null;
+            }
+        }
+        frameTimer.stop();
         restoreModel();
         animationHistory.clear();
     }
 
+    /**
+     * Stops any fast forward and the underlying animator listening to the Petri net, called
+     * when the Petri net is closed
+     */
+    public void dispose() {
+        synchronized (this) {
+            if (fastForward != null) {
+                fastForward.cancel();
+                fastForward = null;
+            }
+        }
+        frameTimer.stop();
+        animator.dispose();
+    }
+
     /**
      * Restores all places to their original token counts.
      * Disables all transitions
@@ -216,6 +375,33 @@ public class GUIAnimator {
         }
     }
 
+    /**
+     * Redraws the latest marking of the running fast forward on every tick of the frame timer
+     */
+    private class FrameActionListener implements ActionListener {
+        /**
+         * Applies the latest marking to the Petri net and reports the throughput so far
+         * @param actionEvent
+         */
+        @Override
+        public void actionPerformed(ActionEvent actionEvent) {
+            FastForward run;
+            synchronized (GUIAnimator.this) {
+                run = fastForward;
+            }
+            if (run == null) {
+                frameTimer.stop();
+                return;
+            }
+            Set<Transition> previouslyEnabled = animator.getEnabledTransitions();
+            animator.setCurrentState(run.getState());
+            markEnabledTransitions(previouslyEnabled, animator.getEnabledTransitions());
+            String progress = String.format("Fast forwarding: %d of %d firings, %.0f firings per second",
+                    run.getFired(), run.getFirings(), run.getFiringsPerSecond());
+            changeSupport.firePropertyChange(FAST_FORWARD_PROGRESS_MESSAGE, null, progress);
+        }
+    }
+
     /**
      * Listens for the timer to run down to 0 and then performs the action
      */
@@ -3,8 +3,10 @@ package pipe.controllers;
 import pipe.gui.PetriNetTab;
 import pipe.actions.gui.PipeApplicationModel;
 import pipe.views.*;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.models.petrinet.*;
 
+import javax.swing.SwingUtilities;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.lang.annotation.ElementType;
@@ -13,8 +15,16 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -45,11 +55,30 @@ public class PetriNetChangeListener implements PropertyChangeListener {
      */
     private final PetriNetController controller;
 
+    /**
+     * Number of views built in a single pass on the event dispatch thread when
+     * displaying the components of an existing Petri net
+     */
+    private static final int VIEW_BATCH_SIZE = 500;
+
     /**
      * Contains the property name and method it maps to
      */
     private Map<String, Method> eventMethods = new HashMap<>();
 
+    /**
+     * Components of an existing Petri net whose views are yet to be built, ordered
+     * so that those closest to the top left of the canvas are built first
+     */
+    private final Deque<PetriNetComponent> pendingComponents = new ArrayDeque<>();
+
+    /**
+     * Components in pendingComponents whose views should still be built. Deleting a component
+     * removes it from here in constant time and the queue skips it when its turn comes
+     */
+    private final Set<PetriNetComponent> stillPending =
+            Collections.newSetFromMap(new IdentityHashMap<PetriNetComponent, Boolean>());
+
     /**
      * Constructor
      * @param applicationModel main PIPE application model
@@ -96,6 +125,91 @@ public class PetriNetChangeListener implements PropertyChangeListener {
         }
     }
 
+    /**
+     * Builds the views for every component already contained in the Petri net.
+     * <p>
+     * The components nearest the top left of the canvas, i.e. those initially visible,
+     * are built and laid out immediately in a single pass. The remainder are built in
+     * further batches queued on the event dispatch thread so that the tab can be
+     * interacted with whilst they are created.
+     * </p>
+     * @param petriNet Petri net whose components should be displayed
+     */
+    public void initialiseViews(PetriNet petriNet) {
+        List<PendingView> pending = new ArrayList<>();
+        for (Place place : petriNet.getPlaces()) {
+            pending.add(new PendingView(place, distanceFromOrigin(place)));
+        }
+        for (Transition transition : petriNet.getTransitions()) {
+            pending.add(new PendingView(transition, distanceFromOrigin(transition)));
+        }
+        for (Annotation annotation : petriNet.getAnnotations()) {
+            pending.add(new PendingView(annotation, distanceFromOrigin(annotation)));
+        }
+        for (Arc<? extends Connectable, ? extends Connectable> arc : petriNet.getArcs()) {
+            int distance = Math.max(distanceFromOrigin(arc.getSource()), distanceFromOrigin(arc.getTarget()));
+            pending.add(new PendingView(arc, distance));
+        }
+        Collections.sort(pending);
+        for (PendingView view : pending) {
+            pendingComponents.add(view.component);
+            stillPending.add(view.component);
+        }
+        buildPendingViews();
+    }
+
+    /**
+     * Stops building the views of components that are still pending, for when the tab
+     * is closed before they have all been built
+     */
+    public void dispose() {
+        pendingComponents.clear();
+        stillPending.clear();
+    }
+
+    /**
+     * Builds the next batch of pending views adding them to the tab in one go.
+     * If components remain another batch is queued on the event dispatch thread
+     */
+    private void buildPendingViews() {
+        if (stillPending.isEmpty()) {
+            pendingComponents.clear();
+            return;
+        }
+        List<AbstractPetriNetViewComponent<?>> views = new ArrayList<>();
+        ViewCreator creator = new ViewCreator(views);
+        while (views.size() < VIEW_BATCH_SIZE && !pendingComponents.isEmpty()) {
+            PetriNetComponent component = pendingComponents.poll();
+            if (!stillPending.remove(component)) {
+                continue;
+            }
+            try {
+                component.accept(creator);
+            } catch (PetriNetComponentException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage());
+            }
+        }
+        petriNetTab.addNewPetriNetComponents(views);
+        if (!stillPending.isEmpty()) {
+            SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    buildPendingViews();
+                }
+            });
+        }
+    }
+
+    /**
+     *
+     * @param component placed component
+     * @return the distance of the component from the canvas origin, such that components
+     *         with a smaller distance are visible before those with a larger one
+     */
+    private static int distanceFromOrigin(PlaceablePetriNetComponent component) {
+        return Math.max(component.getX(), component.getY());
+    }
+
     /**
      *
      * When a new place is added to the Petri net it creates a new view and adds it to the
@@ -106,9 +220,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.NEW_PLACE_CHANGE_MESSAGE)
     private void newPlace(PropertyChangeEvent propertyChangeEvent) {
         Place place = (Place) propertyChangeEvent.getNewValue();
-        PlaceViewBuilder builder = new PlaceViewBuilder(place, controller);
-        PlaceView view = builder.build(petriNetTab, applicationModel);
-        petriNetTab.addNewPetriNetComponent(view);
+        petriNetTab.addNewPetriNetComponent(createView(place));
     }
 
     /**
@@ -119,11 +231,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.NEW_TRANSITION_CHANGE_MESSAGE)
     private void newTransition(PropertyChangeEvent propertyChangeEvent) {
         Transition transition = (Transition) propertyChangeEvent.getNewValue();
-        TransitionViewBuilder builder = new TransitionViewBuilder(transition, controller);
-        TransitionView view = builder.build(petriNetTab, applicationModel);
-
-        petriNetTab.addNewPetriNetComponent(view);
-
+        petriNetTab.addNewPetriNetComponent(createView(transition));
     }
 
     /**
@@ -135,18 +243,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     private void newArc(PropertyChangeEvent propertyChangeEvent) {
         Arc<? extends Connectable, ? extends Connectable> arc =
                 (Arc<? extends Connectable, ? extends Connectable>) propertyChangeEvent.getNewValue();
-
-        if (arc.getType().equals(ArcType.INHIBITOR)) {
-            Arc<Place, Transition> inhibitorArc = (Arc<Place, Transition>) arc;
-            InhibitorArcViewBuilder builder = new InhibitorArcViewBuilder(inhibitorArc, controller);
-            InhibitorArcView view = builder.build(petriNetTab, applicationModel);
-            petriNetTab.addNewPetriNetComponent(view);
-        } else {
-            NormalArcViewBuilder builder = new NormalArcViewBuilder(arc, controller);
-            ArcView<? extends Connectable, ? extends Connectable> view = builder.build(petriNetTab, applicationModel);
-            petriNetTab.addNewPetriNetComponent(view);
-        }
-
+        petriNetTab.addNewPetriNetComponent(createView(arc));
     }
     /**
      * When a new rate is added it does nothing
@@ -165,11 +262,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.NEW_ANNOTATION_CHANGE_MESSAGE)
     private void newAnnotation(PropertyChangeEvent propertyChangeEvent) {
         Annotation annotation = (Annotation) propertyChangeEvent.getNewValue();
-        AnnotationViewBuilder builder = new AnnotationViewBuilder(annotation, controller);
-
-        AnnotationView view = builder.build(petriNetTab, applicationModel);
-        petriNetTab.addNewPetriNetComponent(view);
-
+        petriNetTab.addNewPetriNetComponent(createView(annotation));
     }
 
     /**
@@ -179,6 +272,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.DELETE_PLACE_CHANGE_MESSAGE)
     private void deletePlace(PropertyChangeEvent propertyChangeEvent) {
         Place place = (Place) propertyChangeEvent.getOldValue();
+        stillPending.remove(place);
         petriNetTab.deletePetriNetComponent(place.getId());
 
     }
@@ -190,6 +284,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.DELETE_TRANSITION_CHANGE_MESSAGE)
     private void deleteTransition(PropertyChangeEvent propertyChangeEvent) {
         Transition transition = (Transition) propertyChangeEvent.getOldValue();
+        stillPending.remove(transition);
         petriNetTab.deletePetriNetComponent(transition.getId());
 
     }
@@ -202,6 +297,7 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     private void deleteArc(PropertyChangeEvent propertyChangeEvent) {
         Arc<? extends Connectable, ? extends Connectable> arc =
                 (Arc<? extends Connectable, ? extends Connectable>) propertyChangeEvent.getOldValue();
+        stillPending.remove(arc);
         petriNetTab.deletePetriNetComponent(arc.getId());
     }
 
@@ -222,10 +318,157 @@ public class PetriNetChangeListener implements PropertyChangeListener {
     @EventAction(PetriNet.DELETE_ANNOTATION_CHANGE_MESSAGE)
     private void deleteAnnotation(PropertyChangeEvent propertyChangeEvent) {
         Annotation annotation = (Annotation) propertyChangeEvent.getOldValue();
+        stillPending.remove(annotation);
         petriNetTab.deletePetriNetComponent(annotation.getId());
     }
 
 
+    /**
+     * When a bulk update of the Petri net is committed the views of all removed components
+     * are deleted and the views of all added components are created, each in a single pass
+     * over the tab
+     * @param propertyChangeEvent
+     */
+    @EventAction(PetriNet.BULK_CHANGE_MESSAGE)
+    private void bulkChange(PropertyChangeEvent propertyChangeEvent) {
+        PetriNetChange change = (PetriNetChange) propertyChangeEvent.getNewValue();
+        Collection<String> removedIds = new ArrayList<>();
+        for (PetriNetComponent component : change.getRemoved()) {
+            stillPending.remove(component);
+            removedIds.add(component.getId());
+        }
+        petriNetTab.deletePetriNetComponents(removedIds);
+
+        List<AbstractPetriNetViewComponent<?>> views = new ArrayList<>();
+        ViewCreator creator = new ViewCreator(views);
+        for (PetriNetComponent component : change.getAdded()) {
+            try {
+                component.accept(creator);
+            } catch (PetriNetComponentException e) {
+                LOGGER.log(Level.SEVERE, e.getMessage());
+            }
+        }
+        petriNetTab.addNewPetriNetComponents(views);
+    }
+
+    /**
+     * @param place model
+     * @return new view of the place
+     */
+    private PlaceView createView(Place place) {
+        PlaceViewBuilder builder = new PlaceViewBuilder(place, controller);
+        return builder.build(petriNetTab, applicationModel);
+    }
+
+    /**
+     * @param transition model
+     * @return new view of the transition
+     */
+    private TransitionView createView(Transition transition) {
+        TransitionViewBuilder builder = new TransitionViewBuilder(transition, controller);
+        return builder.build(petriNetTab, applicationModel);
+    }
+
+    /**
+     * @param arc model
+     * @return new inhibitor or normal view of the arc depending on its type
+     */
+    private ArcView<? extends Connectable, ? extends Connectable> createView(
+            Arc<? extends Connectable, ? extends Connectable> arc) {
+        if (arc.getType().equals(ArcType.INHIBITOR)) {
+            Arc<Place, Transition> inhibitorArc = (Arc<Place, Transition>) arc;
+            InhibitorArcViewBuilder builder = new InhibitorArcViewBuilder(inhibitorArc, controller);
+            return builder.build(petriNetTab, applicationModel);
+        }
+        NormalArcViewBuilder builder = new NormalArcViewBuilder(arc, controller);
+        return builder.build(petriNetTab, applicationModel);
+    }
+
+    /**
+     * @param annotation model
+     * @return new view of the annotation
+     */
+    private AnnotationView createView(Annotation annotation) {
+        AnnotationViewBuilder builder = new AnnotationViewBuilder(annotation, controller);
+        return builder.build(petriNetTab, applicationModel);
+    }
+
+    /**
+     * Visits Petri net components creating their views and storing them in the
+     * supplied collection
+     */
+    private class ViewCreator implements PlaceVisitor, TransitionVisitor, ArcVisitor, AnnotationVisitor {
+
+        /**
+         * Created views
+         */
+        private final Collection<AbstractPetriNetViewComponent<?>> views;
+
+        /**
+         * Constructor
+         * @param views collection to add created views to
+         */
+        private ViewCreator(Collection<AbstractPetriNetViewComponent<?>> views) {
+            this.views = views;
+        }
+
+        @Override
+        public void visit(Place place) {
+            views.add(createView(place));
+        }
+
+        @Override
+        public void visit(Transition transition) {
+            views.add(createView(transition));
+        }
+
+        @Override
+        public void visit(InboundArc inboundArc) {
+            views.add(createView(inboundArc));
+        }
+
+        @Override
+        public void visit(OutboundArc outboundArc) {
+            views.add(createView(outboundArc));
+        }
+
+        @Override
+        public void visit(Annotation annotation) {
+            views.add(createView(annotation));
+        }
+    }
+
+    /**
+     * A component waiting for its view to be built along with its distance from the
+     * canvas origin, so that nearby components can be built first
+     */
+    private static final class PendingView implements Comparable<PendingView> {
+        /**
+         * Component to build a view for
+         */
+        private final PetriNetComponent component;
+
+        /**
+         * Distance of the component from the canvas origin
+         */
+        private final int distance;
+
+        /**
+         * Constructor
+         * @param component component to build a view for
+         * @param distance distance of the component from the canvas origin
+         */
+        private PendingView(PetriNetComponent component, int distance) {
+            this.component = component;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(PendingView other) {
+            return distance < other.distance ? -1 : (distance == other.distance ? 0 : 1);
+        }
+    }
+
     /**
      * This interface is for annotating methods with their change event
      */
@@ -2,6 +2,7 @@ package pipe.controllers;
 
 import pipe.gui.PetriNetTab;
 import pipe.historyActions.component.DeletePetriNetObject;
+import pipe.historyActions.component.DeletePetriNetObjects;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentNotFoundException;
 import uk.ac.imperial.pipe.models.petrinet.*;
@@ -183,17 +184,36 @@ public class PetriNetController implements Serializable {
     }
 
     /**
-     * Translates any components that are selected using a TranslationVisitor
+     * Translates any components that are selected using a TranslationVisitor.
+     * The canvas is resized and repainted once all the components have moved
      *
      * @param translation translation distance
      * @throws PetriNetComponentException if component is not found 
      */
     public void translateSelected(Point translation) throws PetriNetComponentException {
-        PetriNetComponentVisitor translationVisitor = new TranslationVisitor(translation, selectedComponents);
-        for (PetriNetComponent component : selectedComponents) {
-            if (component.isDraggable()) {
-                component.accept(translationVisitor);
+        translate(selectedComponents, translation);
+    }
+
+    /**
+     * Translates the components using a TranslationVisitor, resizing and repainting the
+     * canvas once all of them have moved. Undoing and redoing a drag goes through here too
+     *
+     * @param components components to translate, arcs only move if their source and target are included
+     * @param translation translation distance
+     * @throws PetriNetComponentException if component is not found 
+     */
+    public void translate(Collection<PetriNetComponent> components, Point translation)
+            throws PetriNetComponentException {
+        PetriNetComponentVisitor translationVisitor = new TranslationVisitor(translation, components);
+        petriNetTab.beginBulkUpdate();
+        try {
+            for (PetriNetComponent component : components) {
+                if (component.isDraggable()) {
+                    component.accept(translationVisitor);
+                }
             }
+        } finally {
+            petriNetTab.endBulkUpdate();
         }
     }
 
@@ -285,17 +305,15 @@ public class PetriNetController implements Serializable {
     }
 
     /**
-     * Deletes selection and adds to history manager
-     * @return list of edits performed 
+     * Deletes the selection from the Petri net in a single bulk update
+     * @return single edit that undoes/redoes the whole deletion
      * @throws PetriNetComponentException if component not found 
      */
-    public List<UndoableEdit> deleteSelection() throws PetriNetComponentException {
-        List<UndoableEdit> edits = new LinkedList<>();
-        for (PetriNetComponent component : selectedComponents) {
-            edits.add(deleteComponent(component));
-        }
+    public UndoableEdit deleteSelection() throws PetriNetComponentException {
+        List<PetriNetComponent> components = new ArrayList<>(selectedComponents);
+        petriNet.removeAll(components);
         selectedComponents.clear();
-        return edits;
+        return new DeletePetriNetObjects(components, petriNet);
     }
 
     /**
@@ -10,17 +10,21 @@ import uk.ac.imperial.pipe.models.manager.PetriNetManagerImpl;
 import uk.ac.imperial.pipe.models.petrinet.*;
 import uk.ac.imperial.pipe.parsers.UnparsableException;
 
+import javax.swing.SwingWorker;
 import javax.swing.event.UndoableEditListener;
 import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
-import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Pipes main application controller.
@@ -28,11 +32,44 @@ import java.util.*;
  */
 public class PipeApplicationController {
 
+    /**
+     * Message fired when a Petri net starts loading in the background,
+     * the new value is the file being loaded
+     */
+    public static final String LOAD_STARTED_MESSAGE = "loadStarted";
+
+    /**
+     * Message fired once a Petri net has been loaded in the background and its tab created,
+     * the new value is the file that was loaded
+     */
+    public static final String LOAD_FINISHED_MESSAGE = "loadFinished";
+
+    /**
+     * Message fired if a Petri net could not be loaded in the background,
+     * the old value is the file and the new value a description of the error
+     */
+    public static final String LOAD_FAILED_MESSAGE = "loadFailed";
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(PipeApplicationController.class.getName());
+
+    /**
+     * Fires loading events
+     */
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+
     /**
      * Controllers for each tab
      */
     private final Map<PetriNetTab, PetriNetController> netControllers = new HashMap<>();
 
+    /**
+     * Listeners creating the views of each tab, removed from their Petri net when the tab closes
+     */
+    private final Map<PetriNetTab, PetriNetChangeListener> changeListeners = new HashMap<>();
+
     /**
      * Main PIPE application model
      */
@@ -83,7 +120,7 @@ public class PipeApplicationController {
     //TODO: THIS IS RATHER UGLY, too many params but better than what was here before
     public void registerTab(PetriNet net, PetriNetTab tab, Observer historyObserver, UndoableEditListener undoListener,
                             PropertyChangeListener zoomListener) {
-        AnimationHistoryImpl animationHistory = new AnimationHistoryImpl();
+        AnimationHistoryImpl animationHistory = new AnimationHistoryImpl(net);
         animationHistory.addObserver(historyObserver);
         GUIAnimator animator = new GUIAnimator(new PetriNetAnimator(net), animationHistory, this);
 
@@ -96,12 +133,13 @@ public class PipeApplicationController {
         netControllers.put(tab, petriNetController);
         tab.updatePreferredSize();
 
-        PropertyChangeListener changeListener =
+        PetriNetChangeListener changeListener =
                 new PetriNetChangeListener(applicationModel, tab, petriNetController);
         net.addPropertyChangeListener(changeListener);
+        changeListeners.put(tab, changeListener);
 
         setActiveTab(tab);
-        initialiseNet(net, changeListener);
+        changeListener.initialiseViews(net);
     }
 
     /**
@@ -112,52 +150,6 @@ public class PipeApplicationController {
         this.activeTab = tab;
     }
 
-    /**
-     * This is a little hacky, I'm not sure how to make this better when it's so late
-     * If a better implementation is clear please re-write
-     * <p/>
-     * This method invokes the change listener which will create the view objects on the
-     * petri net tab
-     *
-     * @param propertyChangeListener
-     */
-    private void initialiseNet(PetriNet net, PropertyChangeListener propertyChangeListener) {
-        for (Token token : net.getTokens()) {
-            PropertyChangeEvent changeEvent =
-                    new PropertyChangeEvent(net, PetriNet.NEW_TOKEN_CHANGE_MESSAGE, null, token);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-
-        for (Place place : net.getPlaces()) {
-            PropertyChangeEvent changeEvent =
-                    new PropertyChangeEvent(net, PetriNet.NEW_PLACE_CHANGE_MESSAGE, null, place);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-
-        for (Transition transition : net.getTransitions()) {
-            PropertyChangeEvent changeEvent =
-                    new PropertyChangeEvent(net, PetriNet.NEW_TRANSITION_CHANGE_MESSAGE, null, transition);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-
-        for (Arc<? extends Connectable, ? extends Connectable> arc : net.getArcs()) {
-            PropertyChangeEvent changeEvent = new PropertyChangeEvent(net, PetriNet.NEW_ARC_CHANGE_MESSAGE, null, arc);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-
-        for (Annotation annotation : net.getAnnotations()) {
-            PropertyChangeEvent changeEvent =
-                    new PropertyChangeEvent(net, PetriNet.NEW_ANNOTATION_CHANGE_MESSAGE, null, annotation);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-
-        for (RateParameter rateParameter : net.getRateParameters()) {
-            PropertyChangeEvent changeEvent =
-                    new PropertyChangeEvent(net, PetriNet.NEW_RATE_PARAMETER_CHANGE_MESSAGE, null, rateParameter);
-            propertyChangeListener.propertyChange(changeEvent);
-        }
-    }
-
     /**
      * Loads and creates a Petri net located at the given file
      * @param file location of the XML file which contains a PNML representation of a Petri net
@@ -171,6 +163,59 @@ public class PipeApplicationController {
         }
     }
 
+    /**
+     * Loads the Petri net located at the given file on a background thread so that the
+     * interface remains responsive whilst large files are parsed. Once parsed the Petri net
+     * is added to the manager on the event dispatch thread, creating its tab.
+     * <p>
+     * Listeners registered via {@link #addPropertyChangeListener(PropertyChangeListener)} are
+     * notified with {@link #LOAD_STARTED_MESSAGE} and then either {@link #LOAD_FINISHED_MESSAGE}
+     * or {@link #LOAD_FAILED_MESSAGE}
+     * </p>
+     * @param file location of the XML file which contains a PNML representation of a Petri net
+     * @return worker performing the load
+     */
+    public SwingWorker<PetriNet, Void> createNewTabFromFileInBackground(final File file) {
+        changeSupport.firePropertyChange(LOAD_STARTED_MESSAGE, null, file);
+        SwingWorker<PetriNet, Void> worker = new SwingWorker<PetriNet, Void>() {
+            @Override
+            protected PetriNet doInBackground() throws JAXBException, UnparsableException, FileNotFoundException {
+                return manager.readFromFile(file);
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    manager.addPetriNetFromFile(get(), file);
+                    changeSupport.firePropertyChange(LOAD_FINISHED_MESSAGE, null, file);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    LOGGER.log(Level.SEVERE, "Could not load " + file.getName() + ": " + cause.getMessage());
+                    changeSupport.firePropertyChange(LOAD_FAILED_MESSAGE, file,
+                            "Could not load Petri net \"" + file.getName() + "\": " + cause.getMessage());
+                }
+            }
+        };
+        worker.execute();
+        return worker;
+    }
+
+    /**
+     *
+     * @param listener to listen for Petri net loading events
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(listener);
+    }
+
+    /**
+     *
+     * @param listener registered listener that no longer wishes to be notified of loading events
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.removePropertyChangeListener(listener);
+    }
+
     /**
      * Save the currently displayed petri net to the specified file
      * @param outFile location to save the Petri net
@@ -238,6 +283,12 @@ public class PipeApplicationController {
             PetriNetController controller = netControllers.get(activeTab);
             netControllers.remove(activeTab);
             PetriNet petriNet = controller.getPetriNet();
+            controller.getAnimator().dispose();
+            PetriNetChangeListener changeListener = changeListeners.remove(activeTab);
+            if (changeListener != null) {
+                changeListener.dispose();
+                petriNet.removePropertyChangeListener(changeListener);
+            }
             manager.remove(petriNet);
         }
     }
@@ -0,0 +1,80 @@
+package pipe.gui;
+
+import pipe.controllers.PetriNetController;
+import pipe.controllers.application.PipeApplicationController;
+import pipe.historyActions.AnimationHistory;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.util.Observable;
+import java.util.Observer;
+
+
+/**
+ * Timeline of the animation history that jumps the animation to whichever step
+ * the slider is dragged to
+ */
+@SuppressWarnings("serial")
+public final class AnimationScrubber extends JSlider implements Observer {
+
+    /**
+     * Main PIPE application controller
+     */
+    private final PipeApplicationController applicationController;
+
+    /**
+     * True whilst the slider is being moved to match the history, so that
+     * the move is not treated as the user jumping
+     */
+    private boolean updating = false;
+
+    /**
+     * Constructor
+     * @param applicationController Pipe main application controller
+     */
+    public AnimationScrubber(PipeApplicationController applicationController) {
+        super(-1, -1, -1);
+        this.applicationController = applicationController;
+        setToolTipText("Drag to jump to any step of the animation");
+        addChangeListener(new ChangeListener() {
+            @Override
+            public void stateChanged(ChangeEvent e) {
+                if (!updating) {
+                    jumpTo(getValue());
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the animation of the active Petri net to the position
+     * @param position position in the firing sequence, -1 for before the first firing
+     */
+    private void jumpTo(int position) {
+        PetriNetController controller = applicationController.getActivePetriNetController();
+        if (controller != null && controller.isInAnimationMode()) {
+            controller.getAnimator().stepTo(position);
+        }
+    }
+
+    /**
+     * Listen for animation actions and update the timeline to the length of
+     * the history and the current position in it
+     * @param observable component
+     * @param o associated object
+     */
+    @Override
+    public void update(Observable observable, Object o) {
+        if (observable instanceof AnimationHistory) {
+            AnimationHistory history = (AnimationHistory) observable;
+            updating = true;
+            try {
+                setMaximum(history.getFiringSequence().size() - 1);
+                setValue(history.getCurrentPosition());
+            } finally {
+                updating = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package pipe.gui;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.net.URL;
+
+/**
+ * Icon whose image is only read and decoded the first time it is painted or measured,
+ * so that creating actions and menus does not load every image up front.
+ * <p>
+ * It is an {@link ImageIcon} so that look and feels can still derive disabled icons from it.
+ * </p>
+ */
+@SuppressWarnings("serial")
+public final class LazyIcon extends ImageIcon {
+
+    /**
+     * Location of the image
+     */
+    private final URL location;
+
+    /**
+     * Loaded image, null until first needed
+     */
+    private ImageIcon icon;
+
+    /**
+     * Constructor
+     * @param location location of the image
+     */
+    public LazyIcon(URL location) {
+        this.location = location;
+    }
+
+    /**
+     * @return true if the image has been loaded
+     */
+    public synchronized boolean isLoaded() {
+        return icon != null;
+    }
+
+    /**
+     * @return the loaded image
+     */
+    private synchronized ImageIcon getIcon() {
+        if (icon == null) {
+            icon = new ImageIcon(location);
+        }
+        return icon;
+    }
+
+    @Override
+    public Image getImage() {
+        return getIcon().getImage();
+    }
+
+    @Override
+    public int getImageLoadStatus() {
+        return getIcon().getImageLoadStatus();
+    }
+
+    @Override
+    public void paintIcon(Component c, Graphics g, int x, int y) {
+        getIcon().paintIcon(c, g, x, y);
+    }
+
+    @Override
+    public int getIconWidth() {
+        return getIcon().getIconWidth();
+    }
+
+    @Override
+    public int getIconHeight() {
+        return getIcon().getIconHeight();
+    }
+
+    @Override
+    public String toString() {
+        return location.toString();
+    }
+}
@@ -0,0 +1,212 @@
+package pipe.gui;
+
+import uk.ac.imperial.pipe.metrics.Metrics;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.FileDialog;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Panel showing the live values of the runtime metrics of PIPE, refreshed every second whilst it is
+ * displayed. Recording can be switched on and off from it and a snapshot saved as JSON.
+ */
+@SuppressWarnings("serial")
+public class MetricsPanel extends JPanel {
+
+    /**
+     * Milliseconds between refreshes of the values
+     */
+    private static final int REFRESH_INTERVAL = 1000;
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(MetricsPanel.class.getName());
+
+    /**
+     * Names and values of the metrics displayed
+     */
+    private final MetricsTableModel tableModel = new MetricsTableModel();
+
+    /**
+     * Refreshes the values whilst the panel is displayed
+     */
+    private final Timer refreshTimer = new Timer(REFRESH_INTERVAL, new ActionListener() {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            refresh();
+        }
+    });
+
+    /**
+     * Sets up the table of metrics and the controls below it
+     */
+    public MetricsPanel() {
+        super(new BorderLayout());
+        JTable table = new JTable(tableModel);
+        table.setFillsViewportHeight(true);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        final JCheckBox record = new JCheckBox("Record metrics", Metrics.isEnabled());
+        record.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (record.isSelected()) {
+                    Metrics.registerMBeans();
+                }
+                Metrics.setEnabled(record.isSelected());
+            }
+        });
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                Metrics.reset();
+                refresh();
+            }
+        });
+        JButton save = new JButton("Save JSON...");
+        save.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                saveJson();
+            }
+        });
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEADING));
+        controls.add(record);
+        controls.add(reset);
+        controls.add(save);
+        add(controls, BorderLayout.PAGE_END);
+        refresh();
+    }
+
+    /**
+     * Starts refreshing the values when the panel is displayed
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    /**
+     * Stops refreshing the values when the panel is no longer displayed
+     */
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Reads the current value of every metric into the table
+     */
+    public final void refresh() {
+        tableModel.update(Metrics.snapshot());
+    }
+
+    /**
+     * @return number of metrics displayed
+     */
+    public int getMetricCount() {
+        return tableModel.getRowCount();
+    }
+
+    /**
+     * Asks for a file and writes a JSON snapshot of the metrics to it
+     */
+    private void saveJson() {
+        FileDialog dialog = new FileDialog((Frame) SwingUtilities.getAncestorOfClass(Frame.class, this),
+                "Save metrics", FileDialog.SAVE);
+        dialog.setFile("pipe-metrics.json");
+        dialog.setVisible(true);
+        if (dialog.getFile() == null) {
+            return;
+        }
+        File file = new File(dialog.getDirectory(), dialog.getFile());
+        try (Writer writer = new FileWriter(file)) {
+            Metrics.writeJson(writer);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not save metrics to " + file + ": " + e.getMessage());
+            JOptionPane.showMessageDialog(this, "Could not save metrics: " + e.getMessage(), "Error",
+                    JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Two column table of metric names and values
+     */
+    private static final class MetricsTableModel extends AbstractTableModel {
+
+        /**
+         * Metric names in order
+         */
+        private final List<String> names = new ArrayList<>();
+
+        /**
+         * Metric values in the order of the names
+         */
+        private final List<Number> values = new ArrayList<>();
+
+        /**
+         * Replaces the displayed values, only notifying a structure change if the metrics changed
+         * @param snapshot current value of every metric by name
+         */
+        private void update(Map<String, Number> snapshot) {
+            boolean sameMetrics = names.equals(new ArrayList<>(snapshot.keySet()));
+            names.clear();
+            values.clear();
+            for (Map.Entry<String, Number> entry : snapshot.entrySet()) {
+                names.add(entry.getKey());
+                values.add(entry.getValue());
+            }
+            if (sameMetrics) {
+                fireTableRowsUpdated(0, names.size() - 1);
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        @Override
+        public int getRowCount() {
+            return names.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return column == 0 ? "Metric" : "Value";
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            if (column == 0) {
+                return names.get(row);
+            }
+            Number value = values.get(row);
+            if (value instanceof Double) {
+                return String.format("%.1f", value.doubleValue());
+            }
+            return value;
+        }
+    }
+}
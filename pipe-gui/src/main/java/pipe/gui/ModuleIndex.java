@@ -0,0 +1,75 @@
+package pipe.gui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads the modules available to the module tree from index files on the class path, so that the
+ * tree can be built from their names alone without loading any module class.
+ * <p>
+ * Each index is a properties file at {@link #MODULE_INDEX} mapping the fully qualified class name of a
+ * {@link pipe.gui.plugin.GuiModule} to the name displayed for it. Every index on the class path is read,
+ * so a jar can contribute modules by shipping its own.
+ * </p>
+ */
+public final class ModuleIndex {
+
+    /**
+     * Location of the module index files
+     */
+    public static final String MODULE_INDEX = "META-INF/pipe/modules.properties";
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(ModuleIndex.class.getName());
+
+    /**
+     * Private constructor for the static class
+     */
+    private ModuleIndex() {
+    }
+
+    /**
+     * @param classLoader class loader whose class path is searched
+     * @return display name of every indexed module keyed by class name
+     */
+    public static Map<String, String> read(ClassLoader classLoader) {
+        return read(classLoader, MODULE_INDEX);
+    }
+
+    /**
+     * @param classLoader class loader whose class path is searched
+     * @param location    location of the index files
+     * @return display name of every indexed module keyed by class name, in order of class name
+     */
+    static Map<String, String> read(ClassLoader classLoader, String location) {
+        Map<String, String> modules = new TreeMap<>();
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(location);
+            while (indexes.hasMoreElements()) {
+                URL index = indexes.nextElement();
+                Properties properties = new Properties();
+                try (InputStream stream = index.openStream()) {
+                    properties.load(stream);
+                } catch (IOException e) {
+                    LOGGER.log(Level.SEVERE, "Could not read module index " + index + ": " + e.getMessage());
+                    continue;
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    modules.put(className.trim(), properties.getProperty(className).trim());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
+        }
+        return modules;
+    }
+}
@@ -1,10 +1,7 @@
 package pipe.gui;
 
-import com.google.common.collect.ImmutableSet;
-import com.google.common.reflect.ClassPath;
 import pipe.constants.GUIConstants;
 import pipe.controllers.application.PipeApplicationController;
-import pipe.gui.plugin.GuiModule;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
 import javax.swing.*;
@@ -14,11 +11,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.io.File;
-import java.io.IOException;
-import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -28,6 +22,10 @@ import java.util.logging.Logger;
  * The ModuleManager class contains methods to create swing components to allow
  * the user to load modules and execute methods within them. To use, instantiate
  * a ModuleManager object and use the methods to return the required components.
+ * <p>
+ * Modules are listed in {@link ModuleIndex} files rather than found by scanning the
+ * class path, and their classes are only loaded when they are run.
+ * </p>
  *
  * @author Camilla Clifford
  * @author David Patterson -- minor changes 24 Nov 2006
@@ -53,14 +51,9 @@ public class ModuleManager {
     private static final Logger LOGGER = Logger.getLogger(ModuleManager.class.getName());
 
     /**
-     * PIPE Gui concrete models package
+     * Class names of all modules in the module tree
      */
-    public static final String PIPE_GUI_PLUGIN_CONCRETE_PACKAGE = "pipe.gui.plugin.concrete";
-
-    /**
-     * All modules that have been found in the PIPE_GUI_PLUGIN_CONCRETE_PACKAGE
-     */
-    private final Set<Class<?>> installedModules;
+    private final Set<String> installedModules;
 
     /**
      * Main PIPE application controller
@@ -100,14 +93,11 @@ public class ModuleManager {
         installedModules = new HashSet<>();
     }
 
+    /**
+     * Builds the module tree from the module index, without loading any module class
+     * @return module tree
+     */
     public JTree getModuleTree() {
-
-        Collection<Class<? extends GuiModule>> classes = new ArrayList<>();
-
-        // get the names of all the classes that are confirmed to be modules
-        Collection<Class<? extends GuiModule>> names = getModuleClasses();
-        classes.addAll(names);
-
         // create the root node
         DefaultMutableTreeNode root = new DefaultMutableTreeNode("Analysis Module Manager");
 
@@ -116,11 +106,9 @@ public class ModuleManager {
 
         MutableTreeNode add_modules = new DefaultMutableTreeNode(LOAD_NODE_STRING);
 
-        // iterate over the class names and create a node for each
-        for (Class<? extends GuiModule> clazz : classes) {
-            // create each ModuleClass node using an instantiation of the
-            // ModuleClass
-            addClassToTree(clazz);
+        ClassLoader classLoader = getClass().getClassLoader();
+        for (Map.Entry<String, String> module : ModuleIndex.read(classLoader).entrySet()) {
+            addModuleToTree(new ModuleMethod(module.getKey(), module.getValue(), classLoader));
         }
 
         root.add(loadModules);
@@ -141,64 +129,13 @@ public class ModuleManager {
     }
 
     /**
-     * Finds all the fully qualified (ie: full package names) module classnames
-     * by recursively searching the rootDirectories
-     *
-     * @return
-     */
-    //only load attempt to add .class files
-    private Collection<Class<? extends GuiModule>> getModuleClasses() {
-        Collection<Class<? extends GuiModule>> results = new ArrayList<>();
-        try {
-            ClassPath classPath = ClassPath.from(this.getClass().getClassLoader());
-            ImmutableSet<ClassPath.ClassInfo> set = classPath.getTopLevelClasses(PIPE_GUI_PLUGIN_CONCRETE_PACKAGE);
-            for (ClassPath.ClassInfo classInfo : set) {
-                Class<?> clazz = classInfo.load();
-                if (GuiModule.class.isAssignableFrom(clazz)) {
-                    results.add((Class<? extends GuiModule>) clazz);
-                }
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, e.getMessage());
-        }
-        return results;
-    }
-
-    /**
-     * Method creates and returns a IModule management tree.
-     * This consists of two nodes, one resposible for listing all the available
-     * modules from the module directory, and another for admin options such as
-     * list refreshing.
-     * Each node of the tree has it's own user object, for class nodes this will
-     * be ModuleClass, for method nodes ModuleMethod, and another one yet to be
-     * implemented for other options.
-     * When the user clicks on a method node the method is invoked.
-     * <p/>
-     * Matthew - modified to reduce unnecessary reflection, now only loading
-     * the run method of each module class into the tree
+     * Adds a node to run the module to the list of available modules
      *
-     * @param moduleClass
+     * @param module module to add
      */
-    private void addClassToTree(Class<? extends GuiModule> moduleClass) {
-        if (installedModules.add(moduleClass)) {
-            DefaultMutableTreeNode modNode = new DefaultMutableTreeNode(new ModuleClassContainer(moduleClass));
-
-            try {
-                Method tempMethod = moduleClass.getMethod("start", PetriNet.class);
-                ModuleMethod m = new ModuleMethod(moduleClass, tempMethod);
-                m.setName(modNode.getUserObject().toString());
-                modNode.add(new DefaultMutableTreeNode(m));
-            } catch (SecurityException | NoSuchMethodException e) {
-                LOGGER.log(Level.SEVERE, e.getMessage());
-            }
-
-            if (modNode.getChildCount() == 1) {
-                Object m = ((DefaultMutableTreeNode) modNode.getFirstChild()).
-                        getUserObject();
-                loadModules.add(new DefaultMutableTreeNode(m));
-            } else {
-                loadModules.add(modNode);
-            }
+    private void addModuleToTree(ModuleMethod module) {
+        if (installedModules.add(module.getModClassName())) {
+            loadModules.add(new DefaultMutableTreeNode(module));
         }
     }
 
@@ -228,9 +165,7 @@ public class ModuleManager {
             Object o = removeNode.getUserObject();
 
             if (o instanceof ModuleMethod) {
-                installedModules.remove(((ModuleMethod) o).getModClass());
-            } else if (o instanceof ModuleClassContainer) {
-                installedModules.remove(((ModuleClassContainer) o).returnClass());
+                installedModules.remove(((ModuleMethod) o).getModClassName());
             } else {
                 LOGGER.log(Level.INFO, "Don't know how to delete class for " + o.getClass());
             }
@@ -320,7 +255,7 @@ public class ModuleManager {
                 DefaultMutableTreeNode node = (DefaultMutableTreeNode) selPath.getLastPathComponent();
                 Object nodeObj = node.getUserObject();
 
-                if ((nodeObj instanceof ModuleClassContainer) || (nodeObj instanceof ModuleMethod)) {
+                if (nodeObj instanceof ModuleMethod) {
                     JPopupMenu popup = new JPopupMenu();
                     TreePath removePath = moduleTree.getPathForLocation(e.getX(), e.getY());
                     JMenuItem menuItem = new JMenuItem(new RemoveModuleAction(removePath));
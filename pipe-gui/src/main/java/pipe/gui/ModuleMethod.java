@@ -3,16 +3,17 @@ package pipe.gui;
 import pipe.gui.plugin.GuiModule;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
 /**
  * This class represents a module dynamically loaded at run-time
- * and is repsonsible for executing the module
+ * and is repsonsible for executing the module.
+ * <p>
+ * The module class, and so everything it depends on, is only loaded
+ * the first time the module is executed.
+ * </p>
  */
 public class ModuleMethod
 {
@@ -22,20 +23,23 @@ public class ModuleMethod
      */
     private static final Logger LOGGER = Logger.getLogger(ModuleMethod.class.getName());
 
-    private final Method modMeth;
-    private final Class<? extends GuiModule> clazz;
+    private final String className;
+    private final ClassLoader classLoader;
+    private Class<? extends GuiModule> clazz;
     private String name;
 
 
-    /* Sets up the Class and Method that this class encapsulates
-    * @param cl The Class that the Method belongs to
-    * @param m The Method that this class represents
-    */
-    public ModuleMethod(Class<? extends GuiModule> clazz, Method m)
+    /**
+     * Sets up the module this class represents without loading it
+     * @param className fully qualified name of the module class
+     * @param name name displayed for the module
+     * @param classLoader class loader to load the module class with
+     */
+    public ModuleMethod(String className, String name, ClassLoader classLoader)
     {
-        this.clazz = clazz;
-        modMeth = m;
-        name = m.getName();
+        this.className = className;
+        this.name = name;
+        this.classLoader = classLoader;
     }
 
 
@@ -58,35 +62,40 @@ public class ModuleMethod
     }
 
     /**
-     * Executes the module.
+     * Executes the module, loading its class if this is the first time.
      * @param petriNet the current Petri net to pass into the {@link pipe.gui.plugin.GuiModule}
      */
     public void execute(PetriNet petriNet)
     {
         try
         {
-            Constructor<? extends GuiModule> ctr = clazz.getDeclaredConstructor(new Class[0]);
-            Object moduleObj = ctr.newInstance();
-
-            // handy debug to see what's being passed to the module
-            //System.out.println("models obj being passed to module: ");
-            //args[0].print();
-
-            // invoke the name method for display
-            modMeth.invoke(moduleObj, petriNet);
-
-        } catch (IllegalAccessException | NoSuchMethodException | SecurityException | InvocationTargetException | InstantiationException | IllegalArgumentException e) {
+            GuiModule module = loadModuleClass().getDeclaredConstructor().newInstance();
+            module.start(petriNet);
+        } catch (ReflectiveOperationException | ClassCastException | SecurityException e) {
             LOGGER.log(Level.SEVERE, "Error in module method invocation: " + e.getMessage());
         }
     }
 
-
     /**
-     * @return Returns the modClass.
+     * @return the module class
+     * @throws ClassNotFoundException if the class is not on the class path
      */
-    public Class<?> getModClass()
+    private Class<? extends GuiModule> loadModuleClass() throws ClassNotFoundException
     {
+        if (clazz == null)
+        {
+            clazz = Class.forName(className, true, classLoader).asSubclass(GuiModule.class);
+        }
         return clazz;
     }
 
+
+    /**
+     * @return Returns the fully qualified name of the modClass.
+     */
+    public String getModClassName()
+    {
+        return className;
+    }
+
 }
@@ -18,6 +18,7 @@ import java.awt.print.PrinterException;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Observable;
@@ -46,6 +47,16 @@ public class PetriNetTab extends JLayeredPane implements Observer, Printable {
      */
     private final Grid grid = new Grid();
 
+    /**
+     * Number of {@link #beginBulkUpdate()} calls that have not yet been ended
+     */
+    private int bulkUpdateDepth = 0;
+
+    /**
+     * Set if a component moved out of the canvas bounds during a bulk update
+     */
+    private boolean resizePending = false;
+
     /**
      * Legacy file for the saving of the underlying Petri net
      */
@@ -105,18 +116,77 @@ public class PetriNetTab extends JLayeredPane implements Observer, Printable {
             component.addToContainer(this);
     }
 
+    /**
+     * Adds all the Petri net components to this canvas, performing a single
+     * resize and layout pass once they have all been added rather than one per component
+     * @param components to add to petri net view
+     */
+    public void addNewPetriNetComponents(Collection<? extends AbstractPetriNetViewComponent<?>> components) {
+        if (components.isEmpty()) {
+            return;
+        }
+        for (AbstractPetriNetViewComponent<?> component : components) {
+            addWithoutResizing(component);
+            component.addToContainer(this);
+        }
+        updatePreferredSize();
+        repaint();
+    }
+
     /**
      * Add the Petri net component to this canvas
      * @param component to add
      */
     public void add(AbstractPetriNetViewComponent<?> component) {
+        addWithoutResizing(component);
+        updatePreferredSize();
+        //        repaint();
+    }
+
+    /**
+     * Adds the component to the canvas without recalculating its preferred size
+     * @param component to add
+     */
+    private void addWithoutResizing(AbstractPetriNetViewComponent<?> component) {
         registerLocationChangeListener(component.getModel());
 
         setLayer(component, DEFAULT_LAYER);
         super.add(component);
         petriNetComponents.put(component.getId(), component);
-        updatePreferredSize();
-        //        repaint();
+    }
+
+    /**
+     * Starts a bulk update of the components on the canvas. Until the matching
+     * {@link #endBulkUpdate()} the canvas is not resized as components move
+     */
+    public void beginBulkUpdate() {
+        bulkUpdateDepth++;
+    }
+
+    /**
+     * Finishes a bulk update started with {@link #beginBulkUpdate()}, resizing the
+     * canvas if needed and repainting it once
+     */
+    public void endBulkUpdate() {
+        bulkUpdateDepth--;
+        if (bulkUpdateDepth == 0) {
+            if (resizePending) {
+                resizePending = false;
+                updatePreferredSize();
+            }
+            repaint();
+        }
+    }
+
+    /**
+     * Resizes the canvas now, or at the end of the bulk update in progress
+     */
+    private void resizeToFit() {
+        if (bulkUpdateDepth > 0) {
+            resizePending = true;
+        } else {
+            updatePreferredSize();
+        }
     }
 
     /**
@@ -250,13 +320,37 @@ public class PetriNetTab extends JLayeredPane implements Observer, Printable {
      * @param id to remove 
      */
     public void deletePetriNetComponent(String id) {
-        PetriNetViewComponent component = petriNetComponents.get(id);
+        removePetriNetComponent(id);
+        validate();
+        repaint();
+    }
+
+    /**
+     * Remove the components with these ids from the canvas, validating
+     * and repainting once they have all been removed
+     * @param ids to remove
+     */
+    public void deletePetriNetComponents(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (String id : ids) {
+            removePetriNetComponent(id);
+        }
+        validate();
+        repaint();
+    }
+
+    /**
+     * Removes the component with this id from the canvas without laying it out again
+     * @param id to remove
+     */
+    private void removePetriNetComponent(String id) {
+        PetriNetViewComponent component = petriNetComponents.remove(id);
         if (component != null) {
             component.delete();
             remove((Component) component);
         }
-        validate();
-        repaint();
     }
 
     /**
@@ -292,14 +386,14 @@ public class PetriNetTab extends JLayeredPane implements Observer, Printable {
                 if (name.equals(Connectable.X_CHANGE_MESSAGE)) {
                     int x = (int) evt.getNewValue();
                     if (x > getWidth()) {
-                        updatePreferredSize();
+                        resizeToFit();
                     }
 
                 }
                 if (name.equals(Connectable.Y_CHANGE_MESSAGE)) {
                     int y = (int) evt.getNewValue();
                     if (y > getHeight()) {
-                        updatePreferredSize();
+                        resizeToFit();
                     }
 
                 }
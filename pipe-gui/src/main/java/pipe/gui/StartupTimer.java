@@ -0,0 +1,46 @@
+package pipe.gui;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs the milliseconds spent in each phase of starting PIPE, and the total since the
+ * virtual machine started, so that regressions in time to first paint show up in the log.
+ */
+public final class StartupTimer {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(StartupTimer.class.getName());
+
+    /**
+     * Time the current phase started, in nanoseconds
+     */
+    private long phaseStart = System.nanoTime();
+
+    /**
+     * Logs the time since the previous phase ended and starts the next one
+     * @param phase name of the phase that has just finished
+     * @return milliseconds spent in the phase
+     */
+    public long phaseFinished(String phase) {
+        long now = System.nanoTime();
+        long elapsed = (now - phaseStart) / 1000000;
+        phaseStart = now;
+        LOGGER.log(Level.INFO, "Startup: {0} took {1} ms", new Object[]{phase, elapsed});
+        return elapsed;
+    }
+
+    /**
+     * Logs the time since the virtual machine started
+     * @param milestone what has been reached
+     * @return milliseconds since the virtual machine started
+     */
+    public long milestone(String milestone) {
+        long sinceStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        LOGGER.log(Level.INFO, "Startup: {0} after {1} ms", new Object[]{milestone, sinceStart});
+        return sinceStart;
+    }
+}
@@ -29,6 +29,21 @@ public class StatusBar extends JPanel {
      */
     private final JLabel label;
 
+    /**
+     * Indeterminate progress bar shown whilst long running tasks, such as
+     * loading a Petri net, are taking place in the background
+     */
+    private final JProgressBar progressBar = new JProgressBar();
+
+    /**
+     * Number of background tasks currently displaying progress
+     */
+    private int tasksInProgress = 0;
+
+    /**
+     * Text displayed before the first background task started
+     */
+    private String textBeforeProgress;
 
     /**
      * Default constructor, performs the set up
@@ -38,6 +53,9 @@ public class StatusBar extends JPanel {
         label = new JLabel(TEXT_FOR_DRAWING);
         this.setLayout(new BorderLayout(0, 0));
         this.add(label);
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        this.add(progressBar, BorderLayout.LINE_END);
     }
 
     /**
@@ -130,4 +148,33 @@ public class StatusBar extends JPanel {
         label.setText(newText);
     }
 
+    /**
+     * Displays the progress bar along with text describing the background task.
+     * Calls must be paired with {@link #stopProgress()}
+     * @param text describing the task in progress
+     */
+    public void startProgress(String text) {
+        if (tasksInProgress == 0) {
+            textBeforeProgress = label.getText();
+            progressBar.setVisible(true);
+        }
+        tasksInProgress++;
+        label.setText(text);
+    }
+
+    /**
+     * Marks a background task as finished, hiding the progress bar and restoring
+     * the previous text once no tasks remain
+     */
+    public void stopProgress() {
+        if (tasksInProgress == 0) {
+            return;
+        }
+        tasksInProgress--;
+        if (tasksInProgress == 0) {
+            progressBar.setVisible(false);
+            label.setText(textBeforeProgress);
+        }
+    }
+
 }
\ No newline at end of file
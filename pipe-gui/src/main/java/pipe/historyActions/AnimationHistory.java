@@ -1,6 +1,8 @@
 package pipe.historyActions;
 
+import uk.ac.imperial.pipe.animation.MarkingHistory;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
 
 import java.util.List;
 
@@ -47,12 +49,38 @@ public interface AnimationHistory {
      */
     int getCurrentPosition();
 
+    /**
+     * Starts a new history from the marking animation begins in, discarding any previous one
+     * @param state marking before any transition is fired
+     */
+    void setInitialState(State state);
+
     /**
      *
      * Register that this transition has been fired and create a history item for it
      * @param transition that was added 
+     * @param state marking after the transition fired
+     */
+    void addHistoryItem(Transition transition, State state);
+
+    /**
+     * Registers many firings at once, removing any steps past the current one and moving to the last of them
+     * @param firings transitions fired from the current marking and the marking after each of them
+     */
+    void addHistoryItems(MarkingHistory firings);
+
+    /**
+     *
+     * @param position position in the firing sequence, -1 for before the first firing
+     * @return marking after the transition at the position fired
+     */
+    State getState(int position);
+
+    /**
+     * Moves to any position without removing the steps after it
+     * @param position position in the firing sequence, -1 for before the first firing
      */
-    void addHistoryItem(Transition transition);
+    void setCurrentPosition(int position);
 
     /**
      *
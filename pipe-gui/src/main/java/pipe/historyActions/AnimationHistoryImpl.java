@@ -1,9 +1,13 @@
 package pipe.historyActions;
 
 
+import uk.ac.imperial.pipe.animation.MarkingHistory;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.pipe.reachability.MarkingLayout;
+import uk.ac.imperial.state.State;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Observable;
 
@@ -12,17 +16,23 @@ import java.util.Observable;
  */
 public final class AnimationHistoryImpl extends Observable implements AnimationHistory {
     /**
-     * List to hold transitions fired in their order
-     * Used for going back/forward in time
+     * Petri net being animated
      */
-    private List<Transition> firingSequence = new ArrayList<>();
+    private final PetriNet petriNet;
 
     /**
-     * Current index of the firingSequence;
-     * Initialised to -1 so when the first item is added it points to zero
+     * Transitions fired in their order and the marking each of them led to.
+     * Used for going back/forward in time, null until the initial state is set
      */
-    private int currentPosition = -1;
+    private MarkingHistory markingHistory;
 
+    /**
+     * Constructor
+     * @param petriNet Petri net being animated
+     */
+    public AnimationHistoryImpl(PetriNet petriNet) {
+        this.petriNet = petriNet;
+    }
 
     /**
      * Cannot step forward if head of the list
@@ -31,7 +41,7 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public boolean isStepForwardAllowed() {
-        return currentPosition < firingSequence.size() - 1;
+        return markingHistory != null && markingHistory.getCurrentStep() < markingHistory.size();
     }
 
 
@@ -42,7 +52,7 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public boolean isStepBackAllowed() {
-        return currentPosition >= 0;
+        return markingHistory != null && markingHistory.getCurrentStep() > 0;
     }
 
     /**
@@ -51,8 +61,7 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
     @Override
     public void stepForward() {
         if (isStepForwardAllowed()) {
-            currentPosition++;
-            flagChanged();
+            setCurrentPosition(getCurrentPosition() + 1);
         }
     }
 
@@ -63,8 +72,7 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
     @Override
     public void stepBackwards() {
         if (isStepBackAllowed()) {
-            currentPosition--;
-            flagChanged();
+            setCurrentPosition(getCurrentPosition() - 1);
         }
     }
 
@@ -73,10 +81,8 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public void clearStepsForward() {
-        if (currentPosition >= -1 && currentPosition + 1 < firingSequence.size()) {
-            while (firingSequence.size() > currentPosition + 1) {
-                firingSequence.remove(firingSequence.size() - 1);
-            }
+        if (markingHistory != null) {
+            markingHistory.truncate(markingHistory.getCurrentStep());
         }
     }
 
@@ -86,7 +92,10 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public List<Transition> getFiringSequence() {
-        return firingSequence;
+        if (markingHistory == null) {
+            return Collections.emptyList();
+        }
+        return markingHistory.getTransitions();
     }
 
     /**
@@ -95,41 +104,93 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public int getCurrentPosition() {
-        return currentPosition;
+        return markingHistory == null ? -1 : markingHistory.getCurrentStep() - 1;
+    }
+
+    /**
+     * Starts recording markings from the state, the layout is taken from the Petri net
+     * here since its places and tokens cannot change during animation
+     * @param state marking before any transition is fired
+     */
+    @Override
+    public void setInitialState(State state) {
+        markingHistory = new MarkingHistory(new MarkingLayout(petriNet), state);
+        flagChanged();
     }
 
     /**
      * Add a transition to the head of the firing sequence
-     * @param transition to be added 
+     * @param transition to be added
+     * @param state marking after the transition fired
+     */
+    @Override
+    public void addHistoryItem(Transition transition, State state) {
+        if (markingHistory == null) {
+            throw new IllegalStateException("Initial state of the animation has not been set");
+        }
+        markingHistory.record(transition, state);
+        flagChanged();
+    }
+
+    /**
+     * Appends the firings and notifies observers once, rather than once per firing
+     * @param firings transitions fired from the current marking and the marking after each of them
      */
     @Override
-    public void addHistoryItem(Transition transition) {
-        firingSequence.add(transition);
-        currentPosition++;
+    public void addHistoryItems(MarkingHistory firings) {
+        if (markingHistory == null) {
+            throw new IllegalStateException("Initial state of the animation has not been set");
+        }
+        markingHistory.recordAll(firings);
         flagChanged();
     }
 
+    /**
+     *
+     * @param position position in the firing sequence, -1 for before the first firing
+     * @return marking after the transition at the position fired
+     */
+    @Override
+    public State getState(int position) {
+        if (markingHistory == null) {
+            throw new IllegalStateException("Initial state of the animation has not been set");
+        }
+        return markingHistory.getState(position + 1);
+    }
+
+    /**
+     * Moves to the position, rebuilding the marking takes the same time wherever it is
+     * @param position position in the firing sequence, -1 for before the first firing
+     */
+    @Override
+    public void setCurrentPosition(int position) {
+        if (markingHistory != null && position != getCurrentPosition()) {
+            markingHistory.moveTo(position + 1);
+            flagChanged();
+        }
+    }
+
     /**
      *
      * @return transition at current position in the firing sequence
      */
     @Override
     public Transition getCurrentTransition() {
-        if (currentPosition >= 0) {
-            return firingSequence.get(currentPosition);
+        if (getCurrentPosition() >= 0) {
+            return markingHistory.getTransition(getCurrentPosition());
         }
         throw new RuntimeException("No transitions in history");
     }
 
     /**
      *
-     * @param index of the transition 
+     * @param index of the transition
      * @return transition at the given index in the firing sequence
      */
     @Override
     public Transition getTransition(int index) {
-        if (index <= firingSequence.size()) {
-            return firingSequence.get(index);
+        if (index < getFiringSequence().size()) {
+            return markingHistory.getTransition(index);
         }
         throw new RuntimeException("Index is greater than number of transitions stored");
     }
@@ -139,8 +200,7 @@ public final class AnimationHistoryImpl extends Observable implements AnimationH
      */
     @Override
     public void clear() {
-        currentPosition = -1;
-        firingSequence.clear();
+        markingHistory = null;
         flagChanged();
     }
 
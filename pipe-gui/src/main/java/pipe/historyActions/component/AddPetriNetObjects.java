@@ -0,0 +1,102 @@
+package pipe.historyActions.component;
+
+
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
+
+import javax.swing.undo.AbstractUndoableEdit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Adds many Petri net components to the Petri net in one bulk update,
+ * so that the addition is a single entry in the undo history
+ */
+public class AddPetriNetObjects extends AbstractUndoableEdit {
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(AddPetriNetObjects.class.getName());
+
+    /**
+     * New petri net components
+     */
+    private final List<PetriNetComponent> components;
+
+    /**
+     * Petri net that houses the components
+     */
+    private final PetriNet petriNet;
+
+
+    /**
+     * Constructor
+     *
+     * @param components new Petri net components
+     * @param petriNet petri net that houses the components
+     */
+    public AddPetriNetObjects(Collection<? extends PetriNetComponent> components, PetriNet petriNet) {
+        this.components = new ArrayList<>(components);
+        this.petriNet = petriNet;
+    }
+
+
+    /**
+     * Removes the components from the Petri net
+     */
+    @Override
+    public final void undo() {
+        super.undo();
+        try {
+            petriNet.removeAll(components);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.toString());
+        }
+    }
+
+    /**
+     * Adds the components back to the Petri net
+     */
+    @Override
+    public final void redo() {
+        super.redo();
+        try {
+            petriNet.addAll(components);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.toString());
+        }
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        AddPetriNetObjects that = (AddPetriNetObjects) o;
+
+        if (!components.equals(that.components)) {
+            return false;
+        }
+        if (!petriNet.equals(that.petriNet)) {
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = components.hashCode();
+        result = 31 * result + petriNet.hashCode();
+        return result;
+    }
+}
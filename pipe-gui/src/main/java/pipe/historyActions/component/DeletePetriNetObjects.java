@@ -0,0 +1,103 @@
+package pipe.historyActions.component;
+
+
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
+
+import javax.swing.undo.AbstractUndoableEdit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Deletes many Petri net components from a net in one bulk update,
+ * so that the deletion is a single entry in the undo history
+ */
+public class DeletePetriNetObjects extends AbstractUndoableEdit {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(DeletePetriNetObjects.class.getName());
+
+    /**
+     * Petri net to delete components from
+     */
+    private final PetriNet petriNet;
+
+    /**
+     * Components that have been deleted from the Petri net
+     */
+    private final List<PetriNetComponent> components;
+
+
+    /**
+     *
+     * Constructor
+     *
+     * @param components Petri net components that have been deleted from the Petri net
+     * @param petriNet Petri net remove/add the components to for undo/redo features
+     */
+    public DeletePetriNetObjects(Collection<? extends PetriNetComponent> components, PetriNet petriNet) {
+        this.components = new ArrayList<>(components);
+        this.petriNet = petriNet;
+    }
+
+    /**
+     * Adds the components back to the Petri net
+     */
+    @Override
+    public void undo() {
+        super.undo();
+        try {
+            petriNet.addAll(components);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the components from the Petri net
+     */
+    @Override
+    public void redo() {
+        super.redo();
+        try {
+            petriNet.removeAll(components);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = components.hashCode();
+        result = 31 * result + petriNet.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        DeletePetriNetObjects that = (DeletePetriNetObjects) o;
+
+        if (!components.equals(that.components)) {
+            return false;
+        }
+        if (!petriNet.equals(that.petriNet)) {
+            return false;
+        }
+
+        return true;
+    }
+}
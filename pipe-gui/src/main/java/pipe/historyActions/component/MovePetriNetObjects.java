@@ -0,0 +1,119 @@
+package pipe.historyActions.component;
+
+import pipe.controllers.PetriNetController;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetComponent;
+
+import javax.swing.undo.AbstractUndoableEdit;
+import java.awt.Point;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * Undo action for moving many petri net objects on the canvas by the same amount.
+ * <p>
+ * Rather than remembering the start and end location of every component it stores the
+ * components once along with the single translation they were all moved by. The components
+ * themselves are kept rather than their ids since arc points have no id to find them by.
+ * Undoing and redoing moves them through the controller so that the canvas is resized and
+ * repainted once rather than per component.
+ * </p>
+ */
+public class MovePetriNetObjects extends AbstractUndoableEdit {
+
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(MovePetriNetObjects.class.getName());
+
+    /**
+     * Controller of the Petri net the components belong to
+     */
+    private final PetriNetController controller;
+
+    /**
+     * Components that were moved
+     */
+    private final Set<PetriNetComponent> components;
+
+    /**
+     * Translation the components were moved by
+     */
+    private final Point translation;
+
+    /**
+     * Constructor
+     * @param controller controller of the Petri net the components belong to
+     * @param components moved components, these should be the selection they were moved as
+     *                   since arcs are only moved when both their source and target are
+     * @param translation amount the components were moved by
+     */
+    public MovePetriNetObjects(PetriNetController controller, Collection<? extends PetriNetComponent> components,
+                               Point translation) {
+        this.controller = controller;
+        this.components = new HashSet<>(components);
+        this.translation = new Point(translation);
+    }
+
+    /**
+     * Moves the components back by the translation
+     */
+    @Override
+    public void undo() {
+        super.undo();
+        translate(new Point(-translation.x, -translation.y));
+    }
+
+    /**
+     * Moves the components by the translation again
+     */
+    @Override
+    public void redo() {
+        super.redo();
+        translate(translation);
+    }
+
+    /**
+     * Translates every draggable component
+     * @param amount to move the components by
+     */
+    private void translate(Point amount) {
+        try {
+            controller.translate(components, amount);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage());
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = components.hashCode();
+        result = 31 * result + translation.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        MovePetriNetObjects that = (MovePetriNetObjects) o;
+
+        if (!components.equals(that.components)) {
+            return false;
+        }
+        if (!translation.equals(that.translation)) {
+            return false;
+        }
+
+        return true;
+    }
+}
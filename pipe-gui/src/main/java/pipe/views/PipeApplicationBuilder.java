@@ -19,7 +19,6 @@ import java.util.zip.ZipInputStream;
 
 import javax.swing.Action;
 import javax.swing.DefaultComboBoxModel;
-import javax.swing.ImageIcon;
 import javax.swing.InputMap;
 import javax.swing.JComboBox;
 import javax.swing.JComponent;
@@ -30,24 +29,19 @@ import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 
 import pipe.actions.ZoomAction;
-import pipe.actions.gui.ChooseTokenClassAction;
 import pipe.actions.gui.ExampleFileAction;
 import pipe.actions.gui.ExitAction;
 import pipe.actions.gui.ExportPNGAction;
-import pipe.actions.gui.ExportPSAction;
-import pipe.actions.gui.ExportTNAction;
 import pipe.actions.gui.GridAction;
 import pipe.actions.gui.GuiAction;
-import pipe.actions.gui.ImportAction;
+import pipe.actions.gui.MetricsAction;
 import pipe.actions.gui.PipeApplicationModel;
 import pipe.actions.gui.PrintAction;
 import pipe.actions.gui.SelectAction;
-import pipe.actions.gui.SetZoomAction;
-import pipe.actions.gui.UnfoldAction;
-import pipe.actions.gui.ZoomInAction;
-import pipe.actions.gui.ZoomOutAction;
 import pipe.actions.gui.ZoomUI;
 import pipe.actions.manager.AnimateActionManager;
 import pipe.actions.manager.ComponentCreatorManager;
@@ -59,7 +53,9 @@ import pipe.controllers.PetriNetController;
 import pipe.controllers.SelectionManager;
 import pipe.controllers.application.PipeApplicationController;
 import pipe.gui.LayoutAction;
+import pipe.gui.LazyIcon;
 import pipe.gui.PetriNetTab;
+import pipe.gui.StartupTimer;
 import pipe.gui.ToggleButton;
 import pipe.gui.PipeResourceLocator;
 
@@ -84,14 +80,19 @@ public final class PipeApplicationBuilder {
      * @return created PipeApplicationView
      */
     public PipeApplicationView build(PipeApplicationController controller, PipeApplicationModel model) {
+        StartupTimer timer = new StartupTimer();
         ZoomUI zoomUI = new ZoomUI(1, 0.1, 3, 0.4, controller);
         PipeApplicationView view = new PipeApplicationView(zoomUI, controller, model);
+        timer.phaseFinished("main window");
 
-        final PIPEComponents pipeComponents = buildComponents(view, model, controller, zoomUI);
+        final PIPEComponents pipeComponents = buildComponents(view, model, controller);
+        timer.phaseFinished("actions");
         JToolBar drawingToolBar = getDrawingToolBar(pipeComponents, view);
         JToolBar animationToolBar = getAnimationToolBar(pipeComponents);
         JToolBar jToolBar = getToolBar(view, pipeComponents, model.getZoomExamples(), drawingToolBar, animationToolBar);
+        timer.phaseFinished("tool bars");
         JMenuBar menuBar = buildMenu(pipeComponents, view, controller, model.getZoomExamples());
+        timer.phaseFinished("menus");
         view.setUndoListener(pipeComponents.undoListener);
         view.setMenu(menuBar);
         view.setToolBar(jToolBar);
@@ -104,6 +105,7 @@ public final class PipeApplicationBuilder {
         pipeComponents.layoutAction.addUndoableEditListener(pipeComponents.undoListener);
         setTabChangeListener(view, controller, pipeComponents, drawingToolBar, animationToolBar);
         listenForAnimationMode(pipeComponents, model, controller, drawingToolBar, animationToolBar);
+        timer.phaseFinished("listeners");
         return view;
     }
 
@@ -114,11 +116,10 @@ public final class PipeApplicationBuilder {
      * @param view application view
      * @param model application model
      * @param controller application controller 
-     * @param zoomUI zoomUI
      * @return pipe components 
      */
     private PIPEComponents buildComponents(PipeApplicationView view, PipeApplicationModel model,
-                                           PipeApplicationController controller, ZoomUI zoomUI) {
+                                           PipeApplicationController controller) {
         ComponentEditorManager componentEditorManager = new ComponentEditorManager(controller);
         SimpleUndoListener undoListener =
                 new SimpleUndoListener(componentEditorManager.redoAction, componentEditorManager.undoAction,
@@ -130,23 +131,15 @@ public final class PipeApplicationBuilder {
 
         PrintAction printAction = new PrintAction();
 
-        ExportPNGAction exportPNGAction = new ExportPNGAction();
-        ExportTNAction exportTNAction = new ExportTNAction();
-        ExportPSAction exportPSAction = new ExportPSAction();
-        ImportAction importAction = new ImportAction();
+        // Import, the PostScript and TimeNet exports, zoom, unfold and the token class chooser are not
+        // shown in any menu or tool bar, create them where they are added back. The Export menu creates
+        // its actions when it is first opened, see buildMenu.
         GridAction toggleGrid = new GridAction(controller);
-        ZoomOutAction zoomOutAction = new ZoomOutAction(zoomUI);
-        ZoomInAction zoomInAction = new ZoomInAction(zoomUI);
-        SetZoomAction zoomAction = new SetZoomAction("Zoom", "Select zoom percentage ", "", controller, view);
-        UnfoldAction unfoldAction = new UnfoldAction(controller);
         SelectAction selectAction = new SelectAction(model, view, controller);
         ExitAction exitAction = new ExitAction(view, controller);
         LayoutAction layoutAction = new LayoutAction(controller, view);
-        ChooseTokenClassAction chooseTokenClassAction = new ChooseTokenClassAction(view, controller);
-        return new PIPEComponents(chooseTokenClassAction, componentEditorManager, undoListener, componentCreatorManager,
-                animateActionManager, editorManager, tokenActionManager, printAction, exportPNGAction, selectAction,
-                exitAction, zoomAction, unfoldAction, zoomOutAction, zoomInAction, toggleGrid, importAction,
-                exportPSAction, exportTNAction, layoutAction);
+        return new PIPEComponents(componentEditorManager, undoListener, componentCreatorManager, animateActionManager,
+                editorManager, tokenActionManager, printAction, selectAction, exitAction, toggleGrid, layoutAction);
     }
 
     /**
@@ -311,11 +304,16 @@ public final class PipeApplicationBuilder {
         // Export menu
 
 
-        JMenu exportMenu = new JMenu("Export");
-        exportMenu.setIcon(new ImageIcon(getImageURL("Export")));
-        addMenuItem(exportMenu, pipeComponents.exportPNGAction);
-        //addMenuItem(exportMenu, pipeComponents.exportPSAction);
-        //addMenuItem(exportMenu, pipeComponents.exportTNAction);
+        final JMenu exportMenu = new JMenu("Export");
+        exportMenu.setIcon(new LazyIcon(getImageURL("Export")));
+        populateWhenFirstShown(exportMenu, new Runnable() {
+            @Override
+            public void run() {
+                addMenuItem(exportMenu, new ExportPNGAction());
+                //addMenuItem(exportMenu, new ExportPSAction());
+                //addMenuItem(exportMenu, new ExportTNAction());
+            }
+        });
         fileMenu.add(exportMenu);
         fileMenu.addSeparator();
         addMenuItem(fileMenu, pipeComponents.printAction);
@@ -372,6 +370,8 @@ public final class PipeApplicationBuilder {
         viewMenu.addSeparator();
 */
         addMenuItem(viewMenu, pipeComponents.toggleGrid);
+        viewMenu.addSeparator();
+        addMenuItem(viewMenu, new MetricsAction(view));
 
         JMenu animateMenu = new JMenu("Animate");
         animateMenu.setMnemonic('A');
@@ -527,6 +527,33 @@ public final class PipeApplicationBuilder {
         }
     }
 
+    /**
+     * Fills the menu the first time it is shown, so that actions only reached through it are not
+     * created whilst PIPE starts up. Their key strokes only work once the menu has been shown.
+     *
+     * @param menu     menu to fill
+     * @param contents adds the items of the menu
+     */
+    private void populateWhenFirstShown(final JMenu menu, final Runnable contents) {
+        menu.addMenuListener(new MenuListener() {
+            @Override
+            public void menuSelected(MenuEvent e) {
+                menu.removeMenuListener(this);
+                contents.run();
+            }
+
+            @Override
+            public void menuDeselected(MenuEvent e) {
+                // Nothing to do
+            }
+
+            @Override
+            public void menuCanceled(MenuEvent e) {
+                // Nothing to do
+            }
+        });
+    }
+
     /**
      * @param name file name of image
      * @return path of image as URL
@@ -664,11 +691,6 @@ public final class PipeApplicationBuilder {
      * Components needed to build pipe tool bars and menus
      */
     private static final class PIPEComponents {
-        /**
-         * Drop down token chooser
-         */
-        public final ChooseTokenClassAction chooseTokenClassAction;
-
         /**
          * Holds all actions for editing the Petri net
          */
@@ -704,11 +726,6 @@ public final class PipeApplicationBuilder {
          */
         public final PrintAction printAction;
 
-        /**
-         * The export to PNG action
-         */
-        public final ExportPNGAction exportPNGAction;
-
         /**
          * Select action for selecting items on the currently displayed canvas
          */
@@ -719,51 +736,15 @@ public final class PipeApplicationBuilder {
          */
         public final ExitAction exitAction;
 
-        /**
-         * Zoom action for specifing the zoom in the drop down
-         */
-        public final SetZoomAction zoomAction;
-
-        /**
-         * Unfold action, for turning a colored Petri net into a single token Petri net
-         */
-        public final UnfoldAction unfoldAction;
-
         public final LayoutAction layoutAction;
 
-        /**
-         * Zoom out action
-         */
-        public final ZoomOutAction zoomOutAction;
-
-        /**
-         * Zoom in action
-         */
-        public final ZoomInAction zoomInAction;
-
         /**
          * Toggle the grid width and height
          */
         public final GridAction toggleGrid;
 
-        /**
-         * Import a module action
-         */
-        public final ImportAction importAction;
-
-        /**
-         * Export the Petri net to a postscript
-         */
-        public final ExportPSAction exportPSAction;
-
-        /**
-         * Export the Petri net to a TN
-         */
-        public final ExportTNAction exportTNAction;
-
         /**
          * Constructor
-         * @param chooseTokenClassAction token action
          * @param componentEditorManager component editor manager 
          * @param undoListener undo listener 
          * @param componentCreatorManager creator manager 
@@ -771,28 +752,17 @@ public final class PipeApplicationBuilder {
          * @param editorManager editor manager
          * @param tokenActionManager token action manager
          * @param printAction print action
-         * @param exportPNGAction export PNG action
          * @param selectAction select action
          * @param exitAction exit action 
-         * @param zoomAction zoom action 
-         * @param unfoldAction unfold action
-         * @param zoomOutAction zoom out action
-         * @param zoomInAction zoom in action 
          * @param toggleGrid toggle grid
-         * @param importAction import action 
-         * @param exportPSAction export PSA action 
-         * @param exportTNAction export TN action
+         * @param layoutAction layout action
          */
-        private PIPEComponents(ChooseTokenClassAction chooseTokenClassAction,
-                               ComponentEditorManager componentEditorManager, SimpleUndoListener undoListener,
+        private PIPEComponents(ComponentEditorManager componentEditorManager, SimpleUndoListener undoListener,
                                ComponentCreatorManager componentCreatorManager,
                                AnimateActionManager animateActionManager, PetriNetEditorManager editorManager,
                                TokenActionManager tokenActionManager, PrintAction printAction,
-                               ExportPNGAction exportPNGAction, SelectAction selectAction, ExitAction exitAction,
-                               SetZoomAction zoomAction, UnfoldAction unfoldAction, ZoomOutAction zoomOutAction,
-                               ZoomInAction zoomInAction, GridAction toggleGrid, ImportAction importAction,
-                               ExportPSAction exportPSAction, ExportTNAction exportTNAction, LayoutAction layoutAction) {
-            this.chooseTokenClassAction = chooseTokenClassAction;
+                               SelectAction selectAction, ExitAction exitAction, GridAction toggleGrid,
+                               LayoutAction layoutAction) {
             this.componentEditorManager = componentEditorManager;
             this.undoListener = undoListener;
             this.componentCreatorManager = componentCreatorManager;
@@ -800,17 +770,9 @@ public final class PipeApplicationBuilder {
             this.editorManager = editorManager;
             this.tokenActionManager = tokenActionManager;
             this.printAction = printAction;
-            this.exportPNGAction = exportPNGAction;
             this.selectAction = selectAction;
             this.exitAction = exitAction;
-            this.zoomAction = zoomAction;
-            this.unfoldAction = unfoldAction;
-            this.zoomOutAction = zoomOutAction;
-            this.zoomInAction = zoomInAction;
             this.toggleGrid = toggleGrid;
-            this.importAction = importAction;
-            this.exportPSAction = exportPSAction;
-            this.exportTNAction = exportTNAction;
             this.layoutAction = layoutAction;
         }
     }
@@ -3,6 +3,7 @@ package pipe.views;
 import pipe.actions.gui.PipeApplicationModel;
 import pipe.actions.gui.ZoomManager;
 import pipe.constants.GUIConstants;
+import pipe.controllers.GUIAnimator;
 import pipe.controllers.PetriNetController;
 import pipe.controllers.SelectionManager;
 import pipe.controllers.application.PipeApplicationController;
@@ -12,6 +13,7 @@ import pipe.utilities.gui.GuiUtils;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentNotFoundException;
 import uk.ac.imperial.pipe.models.manager.PetriNetManagerImpl;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.PetriNetChange;
 import uk.ac.imperial.pipe.models.petrinet.Token;
 import uk.ac.imperial.pipe.models.petrinet.name.PetriNetName;
 
@@ -74,12 +76,14 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 
 	private UndoableEditListener undoListener;
 
-	private JScrollPane scroller;
+	private JPanel animationPane;
 
 	private List<JLayer<JComponent>> wrappedPetrinetTabs = new ArrayList<>();
 
 	private Map<PetriNetTab, AnimationHistoryView> histories = new HashMap<>();
 
+	private Map<PetriNetTab, AnimationScrubber> scrubbers = new HashMap<>();
+
 	public PipeApplicationView(ZoomManager zoomManager, final PipeApplicationController applicationController,
 			PipeApplicationModel applicationModel) {
 		this.zoomManager = zoomManager;
@@ -99,6 +103,22 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 			}
 		});
 		
+		applicationController.addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				String name = evt.getPropertyName();
+				if (name.equals(PipeApplicationController.LOAD_STARTED_MESSAGE)) {
+					File file = (File) evt.getNewValue();
+					statusBar.startProgress("Loading " + file.getName() + "...");
+				} else if (name.equals(PipeApplicationController.LOAD_FINISHED_MESSAGE)) {
+					statusBar.stopProgress();
+				} else if (name.equals(PipeApplicationController.LOAD_FAILED_MESSAGE)) {
+					statusBar.stopProgress();
+					GuiUtils.displayErrorMessage(PipeApplicationView.this, (String) evt.getNewValue());
+				}
+			}
+		});
+
 		applicationModel.addPropertyChangeListener(new PropertyChangeListener() {
 			@Override
 			public void propertyChange(PropertyChangeEvent evt) {
@@ -312,8 +332,8 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 	
 
 	void removeAnimationViewPlane() {
-		if (scroller != null) {
-			moduleAndAnimationHistoryFrame.remove(scroller);
+		if (animationPane != null) {
+			moduleAndAnimationHistoryFrame.remove(animationPane);
 			moduleAndAnimationHistoryFrame.setDividerLocation(0);
 			moduleAndAnimationHistoryFrame.setDividerSize(0);
 		}
@@ -324,10 +344,14 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 	 */
 	private void createAnimationViewPane() {
 		AnimationHistoryView animationHistoryView = histories.get(getCurrentTab());
-		scroller = new JScrollPane(animationHistoryView);
+		JScrollPane scroller = new JScrollPane(animationHistoryView);
 		scroller.setBorder(new EmptyBorder(0, 0, 0, 0));
 
-		moduleAndAnimationHistoryFrame.setTopComponent(scroller);
+		animationPane = new JPanel(new BorderLayout());
+		animationPane.add(scroller, BorderLayout.CENTER);
+		animationPane.add(scrubbers.get(getCurrentTab()), BorderLayout.PAGE_END);
+
+		moduleAndAnimationHistoryFrame.setTopComponent(animationPane);
 		moduleAndAnimationHistoryFrame.setDividerLocation(110);
 		moduleAndAnimationHistoryFrame.setDividerSize(0);
 	}
@@ -469,18 +493,33 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 				} else if (msg.equals(PetriNet.NEW_TOKEN_CHANGE_MESSAGE)
 						|| msg.equals(PetriNet.DELETE_TOKEN_CHANGE_MESSAGE)) {
 					refreshTokenClassChoices();
+				} else if (msg.equals(PetriNet.BULK_CHANGE_MESSAGE)) {
+					PetriNetChange change = (PetriNetChange) evt.getNewValue();
+					if (!change.getAdded(PetriNet.NEW_TOKEN_CHANGE_MESSAGE).isEmpty()
+							|| !change.getRemoved(PetriNet.DELETE_TOKEN_CHANGE_MESSAGE).isEmpty()) {
+						refreshTokenClassChoices();
+					}
 				}
 			}
 		});
 
-		AnimationHistoryView animationHistoryView;
+		final AnimationHistoryView animationHistoryView;
 		try {
 			animationHistoryView = new AnimationHistoryView("Animation History");
 		} catch (BadLocationException e) {
 			throw new RuntimeException(e);
 		}
+		final AnimationScrubber scrubber = new AnimationScrubber(applicationController);
 		PetriNetTab petriNetTab = new PetriNetTab();
 		histories.put(petriNetTab, animationHistoryView);
+		scrubbers.put(petriNetTab, scrubber);
+		Observer historyObserver = new Observer() {
+			@Override
+			public void update(Observable observable, Object o) {
+				animationHistoryView.update(observable, o);
+				scrubber.update(observable, o);
+			}
+		};
 
 		PropertyChangeListener zoomListener = new PropertyChangeListener() {
 			@Override
@@ -488,8 +527,18 @@ public class PipeApplicationView extends JFrame implements ActionListener, Obser
 				updateZoomCombo();
 			}
 		};
-		applicationController.registerTab(petriNet, petriNetTab, animationHistoryView, undoListener, zoomListener);
+		applicationController.registerTab(petriNet, petriNetTab, historyObserver, undoListener, zoomListener);
 		PetriNetController petriNetController = applicationController.getActivePetriNetController();
+		petriNetController.getAnimator().addPropertyChangeListener(new PropertyChangeListener() {
+			@Override
+			public void propertyChange(PropertyChangeEvent evt) {
+				String name = evt.getPropertyName();
+				if (name.equals(GUIAnimator.FAST_FORWARD_PROGRESS_MESSAGE)
+						|| name.equals(GUIAnimator.FAST_FORWARD_FINISHED_MESSAGE)) {
+					statusBar.changeText((String) evt.getNewValue());
+				}
+			}
+		});
 		petriNetTab.setMouseHandler(new PetriNetMouseHandler(applicationModel, petriNetController, petriNetTab));
 		petriNetTab.updatePreferredSize();
 
@@ -8,7 +8,6 @@ import org.mockito.runners.MockitoJUnitRunner;
 import pipe.actions.gui.OpenAction;
 import pipe.controllers.application.PipeApplicationController;
 import pipe.views.PipeApplicationView;
-import uk.ac.imperial.pipe.parsers.UnparsableException;
 
 import javax.swing.*;
 import java.awt.FileDialog;
@@ -38,7 +37,7 @@ public class OpenActionTest {
     }
 
     @Test
-    public void actionPerformed() throws UnparsableException {
+    public void actionPerformed() {
         File file = mock(File.class);
         when(file.exists()).thenReturn(true);
         when(file.isFile()).thenReturn(true);
@@ -46,7 +45,7 @@ public class OpenActionTest {
         when(mockFileChooser.getFiles()).thenReturn(new File[] {file});
 
         openAction.actionPerformed(null);
-        verify(mockController).createNewTabFromFile(file);
+        verify(mockController).createNewTabFromFileInBackground(file);
     }
 
     //TODO: Need to test dialog box error
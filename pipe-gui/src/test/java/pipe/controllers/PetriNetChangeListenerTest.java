@@ -0,0 +1,145 @@
+package pipe.controllers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pipe.actions.gui.PipeApplicationModel;
+import pipe.gui.PetriNetTab;
+import pipe.views.AbstractPetriNetViewComponent;
+import uk.ac.imperial.pipe.models.petrinet.DiscretePlace;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+
+import javax.swing.SwingUtilities;
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PetriNetChangeListenerTest {
+
+    @Mock
+    private PetriNetTab tab;
+
+    @Mock
+    private PetriNetController controller;
+
+    @Mock
+    private PipeApplicationModel model;
+
+    private PetriNet petriNet;
+
+    private PetriNetChangeListener listener;
+
+    @Before
+    public void setUp() {
+        petriNet = new PetriNet();
+        for (int i = 0; i < 600; i++) {
+            Place place = new DiscretePlace("P" + i, "P" + i);
+            place.setX(i);
+            place.setY(0);
+            petriNet.addPlace(place);
+        }
+        listener = new PetriNetChangeListener(model, tab, controller);
+    }
+
+    @Test
+    public void buildsViewsNearestTheOriginInFirstBatch() throws Exception {
+        initialiseViews();
+
+        List<Collection<AbstractPetriNetViewComponent<?>>> batches = batches(1);
+        List<String> ids = ids(batches.get(0));
+        assertEquals(500, ids.size());
+        assertTrue(ids.contains("P0"));
+        assertTrue(ids.contains("P499"));
+        assertFalse(ids.contains("P500"));
+    }
+
+    @Test
+    public void buildsRemainingViewsInLaterBatch() throws Exception {
+        initialiseViews();
+        flushEventQueue();
+
+        List<Collection<AbstractPetriNetViewComponent<?>>> batches = batches(2);
+        assertEquals(100, batches.get(1).size());
+    }
+
+    @Test
+    public void doesNotBuildViewsOfComponentsDeletedWhilstPending() throws Exception {
+        final Place place = petriNet.getComponent("P550", Place.class);
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                listener.initialiseViews(petriNet);
+                listener.propertyChange(
+                        new PropertyChangeEvent(petriNet, PetriNet.DELETE_PLACE_CHANGE_MESSAGE, place, null));
+            }
+        });
+        flushEventQueue();
+
+        List<String> ids = ids(batches(2).get(1));
+        assertEquals(99, ids.size());
+        assertFalse(ids.contains("P550"));
+    }
+
+    @Test
+    public void stopsBuildingViewsOnceDisposed() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                listener.initialiseViews(petriNet);
+                listener.dispose();
+            }
+        });
+        flushEventQueue();
+
+        batches(1);
+    }
+
+    private void initialiseViews() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                listener.initialiseViews(petriNet);
+            }
+        });
+    }
+
+    private void flushEventQueue() throws Exception {
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                // Runs after any batch already queued
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Collection<AbstractPetriNetViewComponent<?>>> batches(int expected) {
+        ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(tab, times(expected)).addNewPetriNetComponents(captor.capture());
+        List<Collection<AbstractPetriNetViewComponent<?>>> batches = new ArrayList<>();
+        for (Collection batch : captor.getAllValues()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private List<String> ids(Collection<AbstractPetriNetViewComponent<?>> views) {
+        List<String> ids = new ArrayList<>();
+        for (AbstractPetriNetViewComponent<?> view : views) {
+            ids.add(view.getModel().getId());
+        }
+        return ids;
+    }
+}
@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import pipe.gui.*;
 import pipe.historyActions.component.DeletePetriNetObject;
+import pipe.historyActions.component.DeletePetriNetObjects;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
 import uk.ac.imperial.pipe.exceptions.PetriNetComponentNotFoundException;
 import uk.ac.imperial.pipe.models.petrinet.*;
@@ -25,7 +26,6 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -91,15 +91,45 @@ public class PetriNetControllerTest {
     }
 
     @Test
-    public void deletingSelectionReturnsListOfAbstractUndoEdits() throws PetriNetComponentException {
+    public void deletingSelectionReturnsSingleUndoEdit() throws PetriNetComponentException {
         Place place = new DiscretePlace("", "");
         net.addPlace(place);
 
         controller.select(place);
-        List<UndoableEdit> edits = controller.deleteSelection();
-        DeletePetriNetObject deleteAction = new DeletePetriNetObject(place, net);
-        assertEquals(1, edits.size());
-        assertTrue(edits.contains(deleteAction));
+        UndoableEdit edit = controller.deleteSelection();
+        DeletePetriNetObjects deleteAction = new DeletePetriNetObjects(Arrays.asList(place), net);
+        assertEquals(deleteAction, edit);
+    }
+
+    @Test
+    public void deletingSelectionNotifiesObserverOnce() throws PetriNetComponentException {
+        Place place = new DiscretePlace("P0", "P0");
+        Transition transition = new DiscreteTransition("T0", "T0");
+        net.addPlace(place);
+        net.addTransition(transition);
+
+        PropertyChangeListener mockListener = mock(PropertyChangeListener.class);
+        net.addPropertyChangeListener(mockListener);
+
+        controller.select(place);
+        controller.select(transition);
+        controller.deleteSelection();
+        verify(mockListener, times(1)).propertyChange(any(PropertyChangeEvent.class));
+    }
+
+    @Test
+    public void undoingSelectionDeletionRestoresAllComponents() throws PetriNetComponentException {
+        Place place = new DiscretePlace("P0", "P0");
+        Transition transition = new DiscreteTransition("T0", "T0");
+        net.addPlace(place);
+        net.addTransition(transition);
+
+        controller.select(place);
+        controller.select(transition);
+        UndoableEdit edit = controller.deleteSelection();
+        edit.undo();
+        assertTrue(net.getPlaces().contains(place));
+        assertTrue(net.getTransitions().contains(transition));
     }
 
     @Test
@@ -229,6 +259,17 @@ public class PetriNetControllerTest {
         verify(transition).accept(any(TranslationVisitor.class));
     }
 
+    @Test
+    public void translatingSelectedResizesCanvasOnce() throws PetriNetComponentException {
+        Place place = new DiscretePlace("P0", "P0");
+        net.addPlace(place);
+        controller.select(place);
+
+        controller.translateSelected(new Point(10, 10));
+        verify(mocKTab).beginBulkUpdate();
+        verify(mocKTab).endBulkUpdate();
+    }
+
     @Test
     public void doesNotTranslateNonDraggableItems() throws PetriNetComponentException {
         PetriNetComponent petriNetComponent = mock(PetriNetComponent.class);
@@ -1,9 +1,22 @@
 package pipe.controllers;
 
 import org.junit.Before;
+import org.junit.Test;
 import pipe.controllers.application.PipeApplicationController;
 import pipe.actions.gui.PipeApplicationModel;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class PipeApplicationControllerTest {
@@ -16,4 +29,24 @@ public class PipeApplicationControllerTest {
         applicationController = new PipeApplicationController(mockModel);
    }
 
+    @Test
+    public void reportsFailureToLoadMissingFileInBackground() throws InterruptedException {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch finished = new CountDownLatch(1);
+        applicationController.addPropertyChangeListener(new PropertyChangeListener() {
+            @Override
+            public void propertyChange(PropertyChangeEvent evt) {
+                messages.add(evt.getPropertyName());
+                if (!evt.getPropertyName().equals(PipeApplicationController.LOAD_STARTED_MESSAGE)) {
+                    finished.countDown();
+                }
+            }
+        });
+
+        applicationController.createNewTabFromFileInBackground(new File("missing.xml"));
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(PipeApplicationController.LOAD_STARTED_MESSAGE,
+                PipeApplicationController.LOAD_FAILED_MESSAGE), messages);
+    }
 }
@@ -11,6 +11,7 @@ import pipe.controllers.application.PipeApplicationController;
 import pipe.historyActions.AnimationHistory;
 import uk.ac.imperial.pipe.animation.Animator;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.State;
 
 import static org.mockito.Mockito.*;
 
@@ -36,24 +37,26 @@ public class GUIAnimatorTest {
     @Test
     public void firingAddsToHistoryAndFires() {
         Transition transition = mock(Transition.class);
+        State state = mock(State.class);
+        when(mockAnimator.getCurrentState()).thenReturn(state);
         animator.fireTransition(transition);
 
-        InOrder inOrder = inOrder(mockHistory);
+        InOrder inOrder = inOrder(mockHistory, mockAnimator);
         inOrder.verify(mockHistory, times(1)).clearStepsForward();
-        inOrder.verify(mockHistory, times(1)).addHistoryItem(transition);
-        verify(mockAnimator).fireTransition(transition);
+        inOrder.verify(mockAnimator).fireTransition(transition);
+        inOrder.verify(mockHistory, times(1)).addHistoryItem(transition, state);
     }
 
     @Test
-    public void ifStepForwardAnimatesTransition() {
+    public void ifStepForwardAppliesRecordedState() {
         when(mockHistory.isStepForwardAllowed()).thenReturn(true);
         when(mockHistory.getCurrentPosition()).thenReturn(1);
-        Transition transition = mock(Transition.class);
-        when(mockHistory.getTransition(2)).thenReturn(transition);
+        State state = mock(State.class);
+        when(mockHistory.getState(2)).thenReturn(state);
 
         animator.stepForward();
-        verify(mockAnimator).fireTransition(transition);
-        verify(mockHistory).stepForward();
+        verify(mockAnimator).setCurrentState(state);
+        verify(mockHistory).setCurrentPosition(2);
     }
 
     @Test
@@ -65,18 +68,32 @@ public class GUIAnimatorTest {
 
         animator.stepForward();
         verify(mockAnimator, never()).fireTransition(transition);
-        verify(mockHistory, never()).stepForward();
+        verify(mockAnimator, never()).setCurrentState(any(State.class));
+        verify(mockHistory, never()).setCurrentPosition(anyInt());
     }
 
     @Test
-    public void ifStepBackwardAnimatesTransition() {
+    public void ifStepBackwardAppliesRecordedState() {
         when(mockHistory.isStepBackAllowed()).thenReturn(true);
-        Transition transition = mock(Transition.class);
-        when(mockHistory.getCurrentTransition()).thenReturn(transition);
+        when(mockHistory.getCurrentPosition()).thenReturn(1);
+        State state = mock(State.class);
+        when(mockHistory.getState(0)).thenReturn(state);
 
         animator.stepBack();
-        verify(mockAnimator).fireTransitionBackwards(transition);
-        verify(mockHistory).stepBackwards();
+        verify(mockAnimator).setCurrentState(state);
+        verify(mockAnimator, never()).fireTransitionBackwards(any(Transition.class));
+        verify(mockHistory).setCurrentPosition(0);
+    }
+
+    @Test
+    public void steppingToPositionAppliesRecordedStateWithoutFiring() {
+        State state = mock(State.class);
+        when(mockHistory.getState(40)).thenReturn(state);
+
+        animator.stepTo(40);
+        verify(mockAnimator).setCurrentState(state);
+        verify(mockAnimator, never()).fireTransition(any(Transition.class));
+        verify(mockHistory).setCurrentPosition(40);
     }
 
     @Test
@@ -87,17 +104,20 @@ public class GUIAnimatorTest {
 
         animator.stepForward();
         verify(mockAnimator, never()).fireTransitionBackwards(transition);
-        verify(mockHistory, never()).stepBackwards();
+        verify(mockAnimator, never()).setCurrentState(any(State.class));
+        verify(mockHistory, never()).setCurrentPosition(anyInt());
     }
 
     @Test
     public void doRandomFiringClearsForwardsThenAddsToHistory() {
         Transition transition = mock(Transition.class);
+        State state = mock(State.class);
         when(mockAnimator.getRandomEnabledTransition()).thenReturn(transition);
+        when(mockAnimator.getCurrentState()).thenReturn(state);
         animator.doRandomFiring();
         InOrder inOrder = inOrder(mockHistory);
         inOrder.verify(mockHistory, times(1)).clearStepsForward();
-        inOrder.verify(mockHistory, times(1)).addHistoryItem(transition);
+        inOrder.verify(mockHistory, times(1)).addHistoryItem(transition, state);
     }
 
     @Test
@@ -115,4 +135,13 @@ public class GUIAnimatorTest {
 
         verify(mockAnimator).reset();
     }
+
+    @Test
+    public void startingAnimationStartsHistoryFromCurrentState() {
+        State state = mock(State.class);
+        when(mockAnimator.getCurrentState()).thenReturn(state);
+        animator.startAnimation();
+
+        verify(mockHistory).setInitialState(state);
+    }
 }
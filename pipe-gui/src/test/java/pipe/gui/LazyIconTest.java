@@ -0,0 +1,35 @@
+package pipe.gui;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class LazyIconTest {
+
+    private final PipeResourceLocator locator = new PipeResourceLocator();
+
+    @Test
+    public void doesNotLoadImageWhenCreated() {
+        LazyIcon icon = new LazyIcon(locator.getImage("About"));
+        assertFalse(icon.isLoaded());
+    }
+
+    @Test
+    public void loadsImageWhenMeasured() {
+        LazyIcon icon = new LazyIcon(locator.getImage("About"));
+        int width = icon.getIconWidth();
+
+        assertTrue(icon.isLoaded());
+        assertTrue(width > 0);
+        assertEquals(width, icon.getImage().getWidth(null));
+    }
+
+    @Test
+    public void suppliesImageForDisabledIcons() {
+        LazyIcon icon = new LazyIcon(locator.getImage("About"));
+        assertNotNull(icon.getImage());
+    }
+}
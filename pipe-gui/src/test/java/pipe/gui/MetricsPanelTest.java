@@ -0,0 +1,19 @@
+package pipe.gui;
+
+import org.junit.Test;
+import uk.ac.imperial.pipe.metrics.Metrics;
+
+import static org.junit.Assert.assertEquals;
+
+public class MetricsPanelTest {
+
+    @Test
+    public void showsNewMetricsOnRefresh() {
+        MetricsPanel panel = new MetricsPanel();
+        int before = panel.getMetricCount();
+        Metrics.counter("gui.test.counter");
+        panel.refresh();
+
+        assertEquals(before + 1, panel.getMetricCount());
+    }
+}
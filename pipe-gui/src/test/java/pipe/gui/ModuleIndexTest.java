@@ -0,0 +1,24 @@
+package pipe.gui;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleIndexTest {
+
+    @Test
+    public void readsDisplayNamesOfIndexedModules() {
+        Map<String, String> modules = ModuleIndex.read(getClass().getClassLoader());
+
+        assertEquals("GSPN Analysis", modules.get("pipe.gui.plugin.concrete.GSPNAnalysisModule"));
+        assertEquals("State space exploration", modules.get("pipe.gui.plugin.concrete.StateSpaceModule"));
+    }
+
+    @Test
+    public void noIndexMeansNoModules() {
+        assertTrue(ModuleIndex.read(getClass().getClassLoader(), "META-INF/pipe/missing.properties").isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package pipe.gui;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.JLabel;
+import javax.swing.JProgressBar;
+import java.awt.Component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StatusBarTest {
+
+    private StatusBar statusBar;
+
+    private JLabel label;
+
+    private JProgressBar progressBar;
+
+    @Before
+    public void setUp() {
+        statusBar = new StatusBar();
+        for (Component component : statusBar.getComponents()) {
+            if (component instanceof JLabel) {
+                label = (JLabel) component;
+            } else if (component instanceof JProgressBar) {
+                progressBar = (JProgressBar) component;
+            }
+        }
+    }
+
+    @Test
+    public void showsProgressWhilstTaskRuns() {
+        statusBar.startProgress("Loading net.xml...");
+
+        assertTrue(progressBar.isVisible());
+        assertEquals("Loading net.xml...", label.getText());
+    }
+
+    @Test
+    public void restoresTextWhenTaskStops() {
+        statusBar.changeText("Drawing");
+        statusBar.startProgress("Loading net.xml...");
+        statusBar.stopProgress();
+
+        assertFalse(progressBar.isVisible());
+        assertEquals("Drawing", label.getText());
+    }
+
+    @Test
+    public void keepsProgressUntilEveryTaskStops() {
+        statusBar.changeText("Drawing");
+        statusBar.startProgress("Loading a.xml...");
+        statusBar.startProgress("Loading b.xml...");
+        statusBar.stopProgress();
+
+        assertTrue(progressBar.isVisible());
+        statusBar.stopProgress();
+        assertFalse(progressBar.isVisible());
+        assertEquals("Drawing", label.getText());
+    }
+
+    @Test
+    public void ignoresStopWithoutStart() {
+        statusBar.changeText("Drawing");
+        statusBar.stopProgress();
+
+        assertFalse(progressBar.isVisible());
+        assertEquals("Drawing", label.getText());
+    }
+}
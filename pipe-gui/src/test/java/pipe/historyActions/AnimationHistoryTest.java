@@ -4,7 +4,10 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
 import uk.ac.imperial.pipe.models.petrinet.Transition;
+import uk.ac.imperial.state.HashedStateBuilder;
+import uk.ac.imperial.state.State;
 
 import java.util.Observable;
 import java.util.Observer;
@@ -21,9 +24,13 @@ public class AnimationHistoryTest {
     private AnimationHistoryImpl history;
     private Observer observer;
 
+    private State state;
+
     @Before
     public void setUp() {
-        history = new AnimationHistoryImpl();
+        history = new AnimationHistoryImpl(new PetriNet());
+        state = new HashedStateBuilder().build();
+        history.setInitialState(state);
         observer = mock(Observer.class);
     }
 
@@ -31,7 +38,7 @@ public class AnimationHistoryTest {
     public void addingTransitionNotifiesObserver() {
         Transition transition = mock(Transition.class);
         history.addObserver(observer);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         verify(observer).update(any(Observable.class), any(Object.class));
     }
 
@@ -45,7 +52,7 @@ public class AnimationHistoryTest {
     @Test
     public void steppingForwardNotifiesObserver() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         history.stepBackwards();
         history.addObserver(observer);
         history.stepForward();
@@ -55,7 +62,7 @@ public class AnimationHistoryTest {
     @Test
     public void steppingBackwardNotifiesObserver() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         history.addObserver(observer);
         history.stepBackwards();
         verify(observer).update(any(Observable.class), any(Object.class));
@@ -64,17 +71,17 @@ public class AnimationHistoryTest {
     @Test
     public void returnsLatestTransitionAdded() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         assertEquals(transition, history.getCurrentTransition());
     }
 
     @Test
     public void incrementsCurrentPositionOnAdd() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         assertEquals(0, history.getCurrentPosition());
 
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         assertEquals(1, history.getCurrentPosition());
     }
 
@@ -91,14 +98,14 @@ public class AnimationHistoryTest {
     @Test
     public void whenContainsOneItemCanStepBack() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         assertTrue(history.isStepBackAllowed());
     }
 
     @Test
     public void whenAtTailCannotStepBackward() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         history.stepBackwards();
         assertFalse(history.isStepBackAllowed());
     }
@@ -106,14 +113,14 @@ public class AnimationHistoryTest {
     @Test
     public void whenAtHeadCannotStepForward() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         assertFalse(history.isStepForwardAllowed());
     }
 
     @Test
     public void whenNotAtHeadCanStepForward() {
         Transition transition = mock(Transition.class);
-        history.addHistoryItem(transition);
+        history.addHistoryItem(transition, state);
         history.stepBackwards();
         assertTrue(history.isStepForwardAllowed());
     }
@@ -129,9 +136,9 @@ public class AnimationHistoryTest {
         Transition transition2 = mock(Transition.class);
         Transition transition3 = mock(Transition.class);
 
-        history.addHistoryItem(transition1);
-        history.addHistoryItem(transition2);
-        history.addHistoryItem(transition3);
+        history.addHistoryItem(transition1, state);
+        history.addHistoryItem(transition2, state);
+        history.addHistoryItem(transition3, state);
 
         history.stepBackwards();
         history.clearStepsForward();
@@ -145,13 +152,38 @@ public class AnimationHistoryTest {
         Transition transition1 = mock(Transition.class);
         Transition transition2 = mock(Transition.class);
 
-        history.addHistoryItem(transition1);
-        history.addHistoryItem(transition2);
+        history.addHistoryItem(transition1, state);
+        history.addHistoryItem(transition2, state);
 
         assertEquals(transition1, history.getTransition(0));
         assertEquals(transition2, history.getTransition(1));
     }
 
+    @Test
+    public void settingPositionJumpsWithoutRemovingLaterSteps() {
+        Transition transition = mock(Transition.class);
+        for (int i = 0; i < 200; i++) {
+            history.addHistoryItem(transition, state);
+        }
+
+        history.setCurrentPosition(3);
+
+        assertEquals(3, history.getCurrentPosition());
+        assertEquals(200, history.getFiringSequence().size());
+        assertTrue(history.isStepForwardAllowed());
+    }
+
+    @Test
+    public void clearingRemovesHistoryUntilRestarted() {
+        Transition transition = mock(Transition.class);
+        history.addHistoryItem(transition, state);
+        history.clear();
+
+        assertEquals(-1, history.getCurrentPosition());
+        assertFalse(history.isStepBackAllowed());
+        assertTrue(history.getFiringSequence().isEmpty());
+    }
+
     @Test
     public void throwsErrorIfNoTransitionsToGet() {
         expectedException.expect(RuntimeException.class);
@@ -0,0 +1,89 @@
+package pipe.historyActions;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import pipe.controllers.CopyPasteManager;
+import pipe.controllers.GUIAnimator;
+import pipe.controllers.PetriNetController;
+import pipe.controllers.ZoomController;
+import pipe.gui.PetriNetTab;
+import pipe.historyActions.component.MovePetriNetObjects;
+import uk.ac.imperial.pipe.models.petrinet.DiscretePlace;
+import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.models.petrinet.Place;
+
+import javax.swing.event.UndoableEditListener;
+import java.awt.Point;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MovePetriNetObjectsTest {
+
+    @Mock
+    private PetriNetTab tab;
+
+    @Mock
+    private GUIAnimator animator;
+
+    @Mock
+    private CopyPasteManager copyPasteManager;
+
+    @Mock
+    private ZoomController zoomController;
+
+    @Mock
+    private UndoableEditListener undoListener;
+
+    private Place place1;
+
+    private Place place2;
+
+    private MovePetriNetObjects edit;
+
+    @Before
+    public void setUp() {
+        PetriNet petriNet = new PetriNet();
+        place1 = new DiscretePlace("P0", "P0");
+        place2 = new DiscretePlace("P1", "P1");
+        place2.setX(100);
+        petriNet.addPlace(place1);
+        petriNet.addPlace(place2);
+        PetriNetController controller =
+                new PetriNetController(petriNet, undoListener, animator, copyPasteManager, zoomController, tab);
+        edit = new MovePetriNetObjects(controller, Arrays.asList(place1, place2), new Point(10, 20));
+    }
+
+    @Test
+    public void undoMovesComponentsBack() {
+        edit.undo();
+
+        assertEquals(-10, place1.getX());
+        assertEquals(-20, place1.getY());
+        assertEquals(90, place2.getX());
+    }
+
+    @Test
+    public void redoMovesComponentsAgain() {
+        edit.undo();
+        edit.redo();
+
+        assertEquals(0, place1.getX());
+        assertEquals(100, place2.getX());
+    }
+
+    @Test
+    public void undoAndRedoEachResizeCanvasOnce() {
+        edit.undo();
+        edit.redo();
+
+        verify(tab, times(2)).beginBulkUpdate();
+        verify(tab, times(2)).endBulkUpdate();
+    }
+}
@@ -10,18 +10,39 @@ import pipe.steadystate.algorithm.ParallelGaussSeidel;
 import pipe.steadystate.algorithm.SteadyStateSolver;
 import pipe.steadystate.metrics.TokenMetrics;
 import pipe.steadystate.metrics.TransitionMetrics;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
 import uk.ac.imperial.pipe.exceptions.InvalidRateException;
+import uk.ac.imperial.pipe.exceptions.PetriNetComponentException;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
+import uk.ac.imperial.pipe.markov.RateMatrix;
+import uk.ac.imperial.pipe.markov.TransientSolution;
+import uk.ac.imperial.pipe.markov.TransientSolver;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.CoverabilityGraph;
+import uk.ac.imperial.pipe.reachability.ConcurrentMarkingSet;
+import uk.ac.imperial.pipe.reachability.CoverabilityGraphBuilder;
+import uk.ac.imperial.pipe.reachability.ExplorationBudget;
+import uk.ac.imperial.pipe.reachability.ExplorationResult;
+import uk.ac.imperial.pipe.structural.PetriNetReducer;
+import uk.ac.imperial.pipe.structural.PetriNetReduction;
 import uk.ac.imperial.state.ClassifiedState;
 import uk.ac.imperial.state.Record;
+import uk.ac.imperial.state.State;
 
 import javax.swing.*;
+import java.awt.BorderLayout;
 import java.awt.FileDialog;
+import java.awt.FlowLayout;
+import java.awt.GridLayout;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static org.rendersnake.HtmlAttributesFactory.class_;
 import static org.rendersnake.HtmlAttributesFactory.type;
@@ -32,6 +53,11 @@ import static org.rendersnake.HtmlAttributesFactory.type;
  */
 public class GSPNAnalysis {
 
+    /**
+     * Class logger
+     */
+    private static final Logger LOGGER = Logger.getLogger(GSPNAnalysis.class.getName());
+
     public static final String HTML_STYLE = "body{font-family:Arial,Helvetica,sans-serif;text-align:center;" +
             "background:#ffffff}" +
             "td.colhead{font-weight:bold;text-align:center;" +
@@ -47,6 +73,17 @@ public class GSPNAnalysis {
      */
     private static final int MAX_DISPLAY_STATES = 200;
 
+    /**
+     * Largest coverability graph built to check the Petri net is bounded before exploring it, nets
+     * with more markings than this are explored without the check
+     */
+    private static final int MAX_COVERABILITY_NODES = 5000;
+
+    /**
+     * Largest error of the transient probabilities
+     */
+    private static final double TRANSIENT_EPSILON = 1e-9;
+
     /**
      * Results HTML pane for displaying info
      */
@@ -69,6 +106,46 @@ public class GSPNAnalysis {
 
     private StateSpaceLoader stateSpaceLoader;
 
+    /**
+     * Whether the Petri net is structurally reduced before its state space is explored, off by
+     * default since the state tables then show the places of the reduced net
+     */
+    private final JCheckBox reduceCheckBox =
+            new JCheckBox("Reduce the Petri net before exploring (state tables show the reduced net)");
+
+    /**
+     * Whether the exploration of a Petri net stops once it has found the maximum number of states or
+     * run for the time limit, rather than failing once it reaches a million states. Such explorations
+     * keep their markings off heap
+     */
+    private final JCheckBox budgetCheckBox = new JCheckBox("Stop exploring after");
+
+    /**
+     * Maximum number of states explored within a budget
+     */
+    private final JSpinner maxStatesSpinner =
+            new JSpinner(new SpinnerNumberModel(1000000, 1, ConcurrentMarkingSet.MAX_CAPACITY, 100000));
+
+    /**
+     * Time limit in seconds of an exploration within a budget
+     */
+    private final JSpinner timeLimitSpinner = new JSpinner(new SpinnerNumberModel(60, 1, Integer.MAX_VALUE, 10));
+
+    /**
+     * Comma separated times to show the average token counts and throughputs at, none if empty
+     */
+    private final JTextField transientTimesField = new JTextField(20);
+
+    /**
+     * Reduction of the Petri net whose state space was last explored, null if it was not reduced
+     */
+    private PetriNetReduction reduction;
+
+    /**
+     * Background check that the Petri net is bounded, null if none is running
+     */
+    private SwingWorker<CoverabilityGraph, Void> boundednessCheck;
+
     public GSPNAnalysis(FileDialog fileDialog) {
         stateSpaceLoader = new StateSpaceLoader(fileDialog);
         setUp();
@@ -87,27 +164,114 @@ public class GSPNAnalysis {
                 showSteadyState(threads);
             }
         });
-        generatePanel.add(generateResultsForm.getPanel());
+        generatePanel.add(generateResultsForm.getPanel(), BorderLayout.CENTER);
+        JPanel budgetPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        budgetPanel.add(budgetCheckBox);
+        budgetPanel.add(maxStatesSpinner);
+        budgetPanel.add(new JLabel("states or"));
+        budgetPanel.add(timeLimitSpinner);
+        budgetPanel.add(new JLabel("seconds (unexplored states become absorbing)"));
+        JPanel optionsPanel = new JPanel(new GridLayout(0, 1));
+        optionsPanel.add(reduceCheckBox);
+        optionsPanel.add(budgetPanel);
+        JPanel transientPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        transientPanel.add(new JLabel("Transient metrics at times (comma separated)"));
+        transientPanel.add(transientTimesField);
+        optionsPanel.add(transientPanel);
+        generatePanel.add(optionsPanel, BorderLayout.SOUTH);
     }
 
     /**
      * Loads the steady state and if the number of states is < MAX_DISPLAY_STATES we display steady state information
+     * <p>
+     * A Petri net is first checked to be bounded in the background, pressing go again cancels the check
+     * and starts over
+     * </p>
      */
-    private void showSteadyState(int threads) {
+    private void showSteadyState(final int threads) {
+        if (boundednessCheck != null) {
+            boundednessCheck.cancel(true);
+            boundednessCheck = null;
+        }
+        reduction = null;
+        PetriNet petriNet = stateSpaceLoader.getPetriNet();
+        if (stateSpaceLoader.isBinaryLoadChecked() || petriNet == null) {
+            explore(null, threads);
+            return;
+        }
+        final PetriNet selected = petriNet;
+        final boolean reduce = reduceCheckBox.isSelected();
+        resultsPane.setText(reduce ? "Reducing the Petri net and checking it is bounded..." :
+                "Checking the Petri net is bounded...");
+        boundednessCheck = new SwingWorker<CoverabilityGraph, Void>() {
+            /**
+             * Reduction of the selected Petri net, null if it was not reduced
+             */
+            private PetriNetReduction netReduction;
+
+            /**
+             * Petri net whose state space will be explored, null until it is known
+             */
+            private PetriNet explored;
+
+            @Override
+            protected CoverabilityGraph doInBackground() throws StateSpaceExplorationException {
+                netReduction = reduce ? reduce(selected) : null;
+                explored = netReduction == null ? selected : netReduction.getPetriNet();
+                return new CoverabilityGraphBuilder(explored, new PetriNetAnimationLogic(explored),
+                        MAX_COVERABILITY_NODES).buildUntilUnbounded(AnimationUtils.getState(explored));
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                boundednessCheck = null;
+                resultsPane.setText("");
+                CoverabilityGraph graph = null;
+                try {
+                    graph = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    LOGGER.log(Level.INFO, "Could not check the Petri net is bounded before exploring it", e);
+                }
+                reduction = netReduction;
+                if (!rejectUnbounded(graph)) {
+                    explore(explored == null ? selected : explored, threads);
+                }
+            }
+        };
+        boundednessCheck.execute();
+    }
+
+    /**
+     * Explores the state space and displays its results
+     *
+     * @param explored Petri net to explore, null to explore the one selected in the loader or to
+     *                 load the state space from binaries
+     * @param threads  number of threads to explore with
+     */
+    private void explore(PetriNet explored, int threads) {
+        if (explored != null && budgetCheckBox.isSelected()) {
+            exploreWithinBudget(explored, threads);
+            return;
+        }
+        StateSpaceLoader.ExplorerCreator creator = new StateSpaceLoader.ExplorerCreator() {
+            @Override
+            public ExplorerUtilities create(PetriNet petriNet) {
+                return new BoundedExplorerUtilities(petriNet, 1000000);
+            }
+        };
+        StateSpaceLoader.VanishingExplorerCreator vanishingCreator = new StateSpaceLoader.VanishingExplorerCreator() {
+            @Override
+            public VanishingExplorer create(ExplorerUtilities utils) {
+                return new OnTheFlyVanishingExplorer(utils);
+            }
+        };
         try {
-            StateSpaceExplorer.StateSpaceExplorerResults results =
-                    stateSpaceLoader.calculateResults(new StateSpaceLoader.ExplorerCreator() {
-                                                          @Override
-                                                          public ExplorerUtilities create(PetriNet petriNet) {
-                                                              return new BoundedExplorerUtilities(petriNet, 1000000);
-                                                          }
-                                                      }, new StateSpaceLoader.VanishingExplorerCreator() {
-                                                          @Override
-                                                          public VanishingExplorer create(ExplorerUtilities utils) {
-                                                              return new OnTheFlyVanishingExplorer(utils);
-                                                          }
-                                                      }, threads
-                    );
+            StateSpaceExplorer.StateSpaceExplorerResults results = explored == null ?
+                    stateSpaceLoader.calculateResults(creator, vanishingCreator, threads) :
+                    stateSpaceLoader.calculateResults(explored, creator, vanishingCreator, threads);
             displayResultsOnCanvas(results);
         } catch (IOException | InterruptedException | ExecutionException | InvalidRateException | TimelessTrapException e) {
             e.printStackTrace();
@@ -116,6 +280,64 @@ public class GSPNAnalysis {
         }
     }
 
+    /**
+     * Explores the state space until it has been explored or the budget set in the UI runs out and
+     * displays its results
+     *
+     * @param explored Petri net to explore
+     * @param threads  number of threads to explore with
+     */
+    private void exploreWithinBudget(PetriNet explored, int threads) {
+        ExplorationBudget budget = ExplorationBudget.unlimited()
+                .withMaxStates(((Number) maxStatesSpinner.getValue()).intValue())
+                .withTimeLimit(((Number) timeLimitSpinner.getValue()).longValue(), TimeUnit.SECONDS);
+        try {
+            displayResultsOnCanvas(stateSpaceLoader.calculateResults(explored, budget, threads));
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (StateSpaceExplorationException | StateSpaceLoaderException e) {
+            JOptionPane.showMessageDialog(mainPanel, e.getMessage(), "GSPN Analysis Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Asks the user whether to explore a Petri net the coverability graph found may be unbounded,
+     * rather than exploring until the state limit is reached
+     *
+     * @param graph coverability graph of the Petri net to explore, null if it could not be built
+     * @return true if the Petri net is unbounded and should not be explored
+     */
+    private boolean rejectUnbounded(CoverabilityGraph graph) {
+        if (graph == null || graph.isBounded()) {
+            return false;
+        }
+        if (graph.isExact()) {
+            JOptionPane.showMessageDialog(mainPanel, "The state space is infinite, places " +
+                    graph.getUnboundedPlaces() + " are unbounded.", "GSPN Analysis Error", JOptionPane.ERROR_MESSAGE);
+            return true;
+        }
+        return JOptionPane.showConfirmDialog(mainPanel, "Places " + graph.getUnboundedPlaces() +
+                " may be unbounded. Explore the state space anyway?", "GSPN Analysis",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION;
+    }
+
+    /**
+     * Reduces the Petri net before its state space is explored, called off the event dispatch
+     * thread since cloning and reducing a large Petri net takes a while
+     *
+     * @param petriNet Petri net to analyse
+     * @return its reduction, or null if it cannot be reduced and should be explored as drawn
+     */
+    private static PetriNetReduction reduce(PetriNet petriNet) {
+        try {
+            return new PetriNetReducer().reduce(petriNet);
+        } catch (PetriNetComponentException e) {
+            LOGGER.log(Level.WARNING, "Could not reduce Petri net, exploring it as drawn", e);
+            return null;
+        }
+    }
 
     private void displayResultsOnCanvas(StateSpaceExplorer.StateSpaceExplorerResults results)
             throws IOException, StateSpaceLoaderException {
@@ -124,6 +346,13 @@ public class GSPNAnalysis {
         html.style(type("text/css").media("screen")).content(HTML_STYLE);
         html._head();
         html.body();
+        ExplorationResult exploration = stateSpaceLoader.getLastExploration();
+        if (exploration != null && !exploration.isComplete()) {
+            html.write("Exploration stopped by its " + exploration.getStopReason().name().toLowerCase() +
+                    " limit with " + exploration.getFrontierSize() + " states left to explore, which are " +
+                    "treated as absorbing. Estimated number of states: " + exploration.getEstimatedStates());
+            html.br();
+        }
         if (results.numberOfStates < MAX_DISPLAY_STATES) {
             StateSpaceLoader.Results stateSpace = stateSpaceLoader.loadStateSpace();
             solveSteadyState(stateSpace.records, stateSpace.stateMappings, html);
@@ -157,6 +386,7 @@ public class GSPNAnalysis {
 
             displaySteadyState(html, steadyState);
             displayMetrics(html, steadyState, stateMappings);
+            displayTransientMetrics(html, records, stateMappings);
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
@@ -199,6 +429,8 @@ public class GSPNAnalysis {
      * Displays:
      * - the average number of tokens on each place
      * - the average transition  throughput if loaded from a Petri net
+     * <p/>
+     * Metrics of a reduced Petri net are reported against the components of the original net
      *
      * @param html
      * @param steadyState
@@ -208,17 +440,113 @@ public class GSPNAnalysis {
     private void displayMetrics(HtmlCanvas html, Map<Integer, Double> steadyState,
                                 Map<Integer, ClassifiedState> stateMappings) throws IOException {
         Map<String, Map<String, Double>> averageTokens = TokenMetrics.averageTokensOnPlace(stateMappings, steadyState);
-        buildAverageMetrics(averageTokens, html);
+        boolean reduced = reduction != null;
+        buildAverageMetrics(reduced ? reduction.getMapping().mapAverageTokens(averageTokens) : averageTokens, html,
+                "Average token counts");
         if (!stateSpaceLoader.isBinaryLoadChecked()) {
-            PetriNet petriNet = stateSpaceLoader.getPetriNet();
+            PetriNet petriNet = reduced ? reduction.getPetriNet() : stateSpaceLoader.getPetriNet();
             Map<String, Double> throughputs =
                     TransitionMetrics.getTransitionThroughput(stateMappings, steadyState, petriNet);
-            displayThroughputs(throughputs, html);
+            displayThroughputs(reduced ? reduction.getMapping().mapThroughputs(throughputs) : throughputs, html,
+                    "Average timed transition throughputs");
         }
 
 
     }
 
+    /**
+     * Displays the average token counts and throughputs at each of the times entered, starting from
+     * the initial marking of the Petri net
+     *
+     * @param html
+     * @param records
+     * @param stateMappings
+     * @throws IOException
+     */
+    private void displayTransientMetrics(HtmlCanvas html, Collection<Record> records,
+                                         Map<Integer, ClassifiedState> stateMappings) throws IOException {
+        double[] times;
+        try {
+            times = parseTimes(transientTimesField.getText());
+        } catch (NumberFormatException e) {
+            html.h2().content("Could not read the transient times: " + e.getMessage());
+            return;
+        }
+        if (times.length == 0) {
+            return;
+        }
+        TransientSolution solution = new TransientSolver(TRANSIENT_EPSILON).solve(
+                RateMatrix.fromRecords(records, stateMappings), getInitialState(stateMappings), times);
+        boolean reduced = reduction != null;
+        for (int index = 0; index < solution.getTimeCount(); index++) {
+            String time = " at time " + doubleToString(solution.getTime(index));
+            Map<String, Map<String, Double>> averageTokens = solution.getAverageTokens(index, stateMappings);
+            buildAverageMetrics(reduced ? reduction.getMapping().mapAverageTokens(averageTokens) : averageTokens,
+                    html, "Average token counts" + time);
+            if (!stateSpaceLoader.isBinaryLoadChecked()) {
+                PetriNet petriNet = reduced ? reduction.getPetriNet() : stateSpaceLoader.getPetriNet();
+                Map<String, Double> throughputs = solution.getThroughputs(index, stateMappings, petriNet);
+                displayThroughputs(reduced ? reduction.getMapping().mapThroughputs(throughputs) : throughputs, html,
+                        "Timed transition throughputs" + time);
+            }
+        }
+    }
+
+    /**
+     * @param text comma separated times
+     * @return the times, empty if there are none
+     * @throws NumberFormatException if a time is not a non negative number
+     */
+    private static double[] parseTimes(String text) {
+        if (text.trim().isEmpty()) {
+            return new double[0];
+        }
+        String[] values = text.split(",");
+        double[] times = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            times[i] = Double.parseDouble(values[i].trim());
+            if (times[i] < 0 || Double.isNaN(times[i])) {
+                throw new NumberFormatException(values[i].trim() + " is not a non negative number");
+            }
+        }
+        return times;
+    }
+
+    /**
+     * The state space only holds tangible states, so if the initial marking is vanishing the chain
+     * starts from the first state explored instead
+     *
+     * @param stateMappings
+     * @return id of the state with the initial marking of the explored Petri net, or 0 if it is not known
+     */
+    private int getInitialState(Map<Integer, ClassifiedState> stateMappings) {
+        if (stateSpaceLoader.isBinaryLoadChecked()) {
+            return 0;
+        }
+        PetriNet petriNet = reduction != null ? reduction.getPetriNet() : stateSpaceLoader.getPetriNet();
+        State initial = AnimationUtils.getState(petriNet);
+        for (Map.Entry<Integer, ClassifiedState> entry : stateMappings.entrySet()) {
+            if (hasSameTokens(initial, entry.getValue())) {
+                return entry.getKey();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param state
+     * @param other
+     * @return true if every place of the state holds the same tokens in the other
+     */
+    private static boolean hasSameTokens(State state, State other) {
+        for (String place : state.getPlaces()) {
+            if (!state.getTokens(place).equals(other.getTokens(place))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @param states
      * @return a sorted list of tokens contained within the states
@@ -259,7 +587,8 @@ public class GSPNAnalysis {
             rows.add(row);
         }
         places.add(0, "State");
-        addTable(html, rows, places, "State markings for " + token + " token");
+        String title = "State markings for " + token + " token";
+        addTable(html, rows, places, reduction == null ? title : title + " on the places of the reduced Petri net");
     }
 
     /**
@@ -309,9 +638,10 @@ public class GSPNAnalysis {
      *
      * @param averageTokens
      * @param html
+     * @param title
      * @throws IOException
      */
-    private void buildAverageMetrics(Map<String, Map<String, Double>> averageTokens, HtmlCanvas html)
+    private void buildAverageMetrics(Map<String, Map<String, Double>> averageTokens, HtmlCanvas html, String title)
             throws IOException {
         List<String> places = new ArrayList<>(averageTokens.keySet());
         Collections.sort(places);
@@ -329,7 +659,7 @@ public class GSPNAnalysis {
             rows.add(row);
         }
         tokens.add(0, "Place");
-        addTable(html, rows, tokens, "Average token counts");
+        addTable(html, rows, tokens, title);
     }
 
     /**
@@ -337,9 +667,11 @@ public class GSPNAnalysis {
      *
      * @param throughputs
      * @param html
+     * @param title
      * @throws IOException
      */
-    private void displayThroughputs(Map<String, Double> throughputs, HtmlCanvas html) throws IOException {
+    private void displayThroughputs(Map<String, Double> throughputs, HtmlCanvas html, String title)
+            throws IOException {
         List<String> transitions = new ArrayList<>(throughputs.keySet());
         Collections.sort(transitions);
 
@@ -348,7 +680,7 @@ public class GSPNAnalysis {
             Double average = throughputs.get(transition);
             rows.add(new TableRow(transition, doubleToString(average)));
         }
-        addTable(html, rows, Arrays.asList("Transition", "Throughput"), "Average timed transition throughputs");
+        addTable(html, rows, Arrays.asList("Transition", "Throughput"), title);
     }
 
     /**
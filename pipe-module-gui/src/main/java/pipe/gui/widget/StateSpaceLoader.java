@@ -10,12 +10,27 @@ import pipe.reachability.algorithm.VanishingExplorer;
 import pipe.reachability.algorithm.parallel.MassiveParallelStateSpaceExplorer;
 import pipe.reachability.algorithm.sequential.SequentialStateSpaceExplorer;
 import uk.ac.imperial.io.*;
+import uk.ac.imperial.pipe.animation.AnimationUtils;
+import uk.ac.imperial.pipe.animation.PetriNetAnimationLogic;
 import uk.ac.imperial.pipe.exceptions.InvalidRateException;
+import uk.ac.imperial.pipe.exceptions.StateSpaceExplorationException;
 import uk.ac.imperial.pipe.io.PetriNetIOImpl;
 import uk.ac.imperial.pipe.io.PetriNetReader;
 import uk.ac.imperial.pipe.models.petrinet.PetriNet;
+import uk.ac.imperial.pipe.reachability.ConcurrentMarkingSet;
+import uk.ac.imperial.pipe.reachability.ExplorationBudget;
+import uk.ac.imperial.pipe.reachability.ExplorationResult;
+import uk.ac.imperial.pipe.reachability.OffHeapMarkingStore;
+import uk.ac.imperial.pipe.reachability.ReachabilityExplorer;
+import uk.ac.imperial.pipe.reachability.TangibleStateSpace;
+import uk.ac.imperial.pipe.structural.InvariantCalculator;
+import uk.ac.imperial.pipe.trace.Operation;
+import uk.ac.imperial.pipe.trace.TraceSpan;
+import uk.ac.imperial.pipe.trace.Tracer;
 import uk.ac.imperial.state.ClassifiedState;
+import uk.ac.imperial.state.HashedClassifiedState;
 import uk.ac.imperial.state.Record;
+import uk.ac.imperial.state.State;
 
 import javax.swing.*;
 import javax.xml.bind.JAXBException;
@@ -29,6 +44,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
@@ -121,6 +137,11 @@ public class StateSpaceLoader {
      */
     private Path binaryStates;
 
+    /**
+     * Exploration that generated the current results if it ran within a budget, null otherwise
+     */
+    private ExplorationResult lastExploration;
+
     /**
      * Sets up the load Petri net options with the "use current Petri net" disabled
      *
@@ -251,27 +272,155 @@ public class StateSpaceLoader {
                                                                          VanishingExplorerCreator vanishingCreator, int threads)
             throws IOException, InterruptedException, ExecutionException, InvalidRateException, TimelessTrapException,
             StateSpaceLoaderException {
+        PetriNet petriNet = useExistingPetriNetRadioButton.isSelected() ? defaultPetriNet : lastLoadedPetriNet;
+        if (petriNet == null && !loadFromBinariesRadio.isSelected()) {
+            String message;
+            if (useExistingPetriNetRadioButton.isSelected()) {
+                message = "Error cannot calculate analysis metrics. Please load a Petri net/binaries.";
+            } else {
+                message = "Error in loaded Petri net, could not read PNML file.";
+            }
+            throw new StateSpaceLoaderException(message);
+        }
+        return calculateResults(petriNet, creator, vanishingCreator, threads);
+    }
+
+    /**
+     * Calculates the steady state exploration of a Petri net derived from the selected one, such as
+     * its structural reduction, and stores its results in a temporary file.
+     * <p>
+     * The results are loaded from binaries instead if that option is selected
+     * </p>
+     * @param petriNet Petri net to explore, it names the exploration in traces
+     * @param creator  explorer creator
+     * @param vanishingCreator vanishing creator
+     * @param threads across which to spread work
+     * @return state space explorer results 
+     * @throws TimelessTrapException unable to exit cyclic vanishing state
+     * @throws InterruptedException  thread interrupted
+     * @throws ExecutionException task aborted due to exception
+     * @throws IOException error doing IO
+     * @throws InvalidRateException functional rate expression invalid
+     * @throws StateSpaceLoaderException if error during loading from binaries 
+     */
+    public StateSpaceExplorer.StateSpaceExplorerResults calculateResults(PetriNet petriNet, ExplorerCreator creator,
+                                                                         VanishingExplorerCreator vanishingCreator, int threads)
+            throws IOException, InterruptedException, ExecutionException, InvalidRateException, TimelessTrapException,
+            StateSpaceLoaderException {
+        lastExploration = null;
         if (loadFromBinariesRadio.isSelected()) {
-            return loadFromBinaries();
+            TraceSpan span = Tracer.begin(Operation.STATE_SPACE);
+            try {
+                return loadFromBinaries();
+            } finally {
+                Tracer.end(span, null, "load binaries");
+            }
         } else {
             KryoStateIO stateWriter = new KryoStateIO();
             temporaryTransitions = getTransitionsPath();
             temporaryStates = getStatesPath();
 
-            PetriNet petriNet = useExistingPetriNetRadioButton.isSelected() ? defaultPetriNet : lastLoadedPetriNet;
-            if (petriNet == null) {
-                String message;
-                if (useExistingPetriNetRadioButton.isSelected()) {
-                    message = "Error cannot calculate analysis metrics. Please load a Petri net/binaries.";
-                } else {
-                    message = "Error in loaded Petri net, could not read PNML file.";
-                }
-                throw new StateSpaceLoaderException(message);
-            }
             ExplorerUtilities explorerUtils = creator.create(petriNet);
             VanishingExplorer vanishingExplorer = vanishingCreator.create(explorerUtils);
-            return generateStateSpace(stateWriter, temporaryTransitions, temporaryStates, petriNet, explorerUtils,
-                    vanishingExplorer, threads);
+            TraceSpan span = Tracer.begin(Operation.STATE_SPACE);
+            try {
+                return generateStateSpace(stateWriter, temporaryTransitions, temporaryStates, petriNet, explorerUtils,
+                        vanishingExplorer, threads);
+            } finally {
+                Tracer.end(span, petriNet, "generate with " + threads + " threads");
+            }
+        }
+    }
+
+    /**
+     * Explores the state space of a Petri net until it has been explored or the budget runs out, keeping the
+     * visited markings off heap in records sized by the P-invariant bounds of its places. Its tangible states
+     * and transitions are stored in temporary files in the same format as a full exploration so they are
+     * loaded by {@link #loadStateSpace()} and can be saved as binaries.
+     * <p>
+     * States left on the frontier when the budget runs out have no outgoing transitions, see
+     * {@link #getLastExploration()} for why and where the exploration stopped
+     * </p>
+     * @param petriNet Petri net to explore
+     * @param budget   limits on the exploration
+     * @param threads  across which to spread work
+     * @return state space explorer results
+     * @throws IOException error doing IO
+     * @throws InterruptedException thread interrupted
+     * @throws StateSpaceExplorationException if the state space could not be explored or its rates evaluated
+     */
+    public StateSpaceExplorer.StateSpaceExplorerResults calculateResults(PetriNet petriNet, ExplorationBudget budget,
+                                                                         int threads)
+            throws IOException, InterruptedException, StateSpaceExplorationException {
+        KryoStateIO stateWriter = new KryoStateIO();
+        temporaryTransitions = Files.createTempFile("transitions", ".tmp");
+        temporaryStates = Files.createTempFile("states", ".tmp");
+        TraceSpan span = Tracer.begin(Operation.STATE_SPACE);
+        State initialState = AnimationUtils.getState(petriNet);
+        ReachabilityExplorer explorer = new ReachabilityExplorer(petriNet, new PetriNetAnimationLogic(petriNet),
+                getMaxStates(petriNet, budget, threads), threads);
+        try (OffHeapMarkingStore visited = OffHeapMarkingStore.forBounds(
+                InvariantCalculator.getBounds(petriNet, initialState), explorer.getStoreCapacity(),
+                Runtime.getRuntime().maxMemory() / 2)) {
+            lastExploration = explorer.explore(initialState, visited, budget);
+            LOGGER.log(Level.INFO, "Explored {0}", lastExploration);
+            TangibleStateSpace stateSpace = new TangibleStateSpace(petriNet, lastExploration.getGraph());
+            writeTangibleStateSpace(stateWriter, temporaryTransitions, temporaryStates, stateSpace);
+            return new StateSpaceExplorer.StateSpaceExplorerResults(stateSpace.getTransitionCount(),
+                    stateSpace.getStateCount());
+        } finally {
+            Tracer.end(span, petriNet, "explore within budget with " + threads + " threads");
+        }
+    }
+
+    /**
+     * Threads notice the state budget has run out between states, so each may still add every successor
+     * of the state it is expanding
+     *
+     * @param petriNet Petri net to explore
+     * @param budget   limits on the exploration
+     * @param threads  across which work is spread
+     * @return number of states the explorer must have room for to stop within the budget
+     */
+    private static int getMaxStates(PetriNet petriNet, ExplorationBudget budget, int threads) {
+        long overshoot = (long) threads * Math.max(1, petriNet.getTransitions().size());
+        return (int) Math.min((long) budget.getMaxStates() + overshoot, ConcurrentMarkingSet.MAX_CAPACITY - threads);
+    }
+
+    /**
+     * The markings of its graph were held in a store that has since been closed, so only its summary
+     * should be read
+     *
+     * @return exploration that generated the current results if it ran within a budget, otherwise null
+     */
+    public ExplorationResult getLastExploration() {
+        return lastExploration;
+    }
+
+    /**
+     * Writes the tangible states and their transitions through a {@link StateIOProcessor}
+     *
+     * @param stateWriter writer
+     * @param transitions to write
+     * @param states      to write
+     * @param stateSpace  tangible states of the explored state space
+     * @throws IOException error doing IO
+     */
+    private void writeTangibleStateSpace(StateWriter stateWriter, Path transitions, Path states,
+                                        TangibleStateSpace stateSpace)
+            throws IOException {
+        try (OutputStream transitionStream = Files.newOutputStream(transitions);
+             OutputStream stateStream = Files.newOutputStream(states)) {
+            try (Output transitionOutput = new Output(transitionStream);
+                 Output stateOutput = new Output(stateStream)) {
+                StateProcessor processor = new StateIOProcessor(stateWriter, transitionOutput, stateOutput);
+                Map<Integer, ClassifiedState> mappings = new HashMap<>();
+                for (int id = 0; id < stateSpace.getStateCount(); id++) {
+                    processor.processTransitions(id, stateSpace.getSuccessorRates(id));
+                    mappings.put(id, HashedClassifiedState.tangibleState(stateSpace.getState(id)));
+                }
+                processor.processStates(mappings);
+            }
         }
     }
 
@@ -431,6 +580,7 @@ public class StateSpaceLoader {
      */
     public Results loadStateSpace() throws StateSpaceLoaderException, IOException {
         KryoStateIO stateReader = new KryoStateIO();
+        TraceSpan span = Tracer.begin(Operation.STATE_SPACE);
         try (InputStream inputStream = Files.newInputStream(temporaryTransitions);
              InputStream stateInputStream = Files.newInputStream(temporaryStates);
              Input transitionInput = new Input(inputStream);
@@ -438,6 +588,8 @@ public class StateSpaceLoader {
             Collection<Record> records = readResults(stateReader, transitionInput);
             Map<Integer, ClassifiedState> stateMap = readMappings(stateReader, stateInput);
             return new Results(records, stateMap);
+        } finally {
+            Tracer.end(span, null, "read results");
         }
     }
 